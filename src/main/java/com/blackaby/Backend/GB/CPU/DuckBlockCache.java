@@ -0,0 +1,146 @@
+package com.blackaby.Backend.GB.CPU;
+
+import com.blackaby.Backend.GB.Memory.DuckMemory;
+
+/**
+ * Caches decoded instructions for code that runs from cartridge ROM.
+ * <p>
+ * The first time the CPU reaches a ROM address, the straight-line run of code
+ * starting there is decoded in one pass, up to the next control-flow
+ * instruction or the end of the 256-byte page. Each instruction is stored with
+ * its length and its immediate operand already read, keyed by its offset in
+ * the ROM image. The offset already folds in the selected
+ * bank, so bank switches need no invalidation.
+ * <p>
+ * Code that runs from WRAM, HRAM, VRAM, cartridge RAM, or the boot ROM is never
+ * cached. Those regions can change under the CPU, so they always go through
+ * the normal fetch and decode path.
+ */
+public class DuckBlockCache {
+
+    /**
+     * One decoded instruction.
+     *
+     * @param opcode primary opcode byte
+     * @param length encoded length in bytes
+     * @param operand immediate byte or little-endian word, or the CB-prefixed
+     * opcode after {@code 0xCB}
+     */
+    public record CachedInstruction(int opcode, int length, int operand) {
+    }
+
+    private static final int pageSize = 0x100;
+
+    private final DuckMemory memory;
+    private final DuckDecoder decoder;
+    private byte[] romImage;
+    private CachedInstruction[][] pages = new CachedInstruction[0][];
+
+    /**
+     * Creates a block cache for one CPU.
+     *
+     * @param memory memory bus the CPU fetches from
+     * @param decoder decoder that knows each instruction's length
+     */
+    public DuckBlockCache(DuckMemory memory, DuckDecoder decoder) {
+        this.memory = memory;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Returns the decoded instruction at a CPU address, decoding its block on
+     * first use.
+     *
+     * @param address CPU address of the opcode
+     * @return cached instruction, or {@code null} when the address must be
+     * fetched through the bus
+     */
+    public CachedInstruction Lookup(int address) {
+        int romOffset = memory.ResolveRomOffset(address);
+        if (romOffset < 0) {
+            return null;
+        }
+
+        byte[] currentRom = memory.GetRomImage();
+        if (currentRom != romImage) {
+            Reset(currentRom);
+        }
+
+        CachedInstruction[] page = pages[romOffset >>> 8];
+        if (page != null) {
+            CachedInstruction instruction = page[romOffset & 0xFF];
+            if (instruction != null) {
+                return instruction;
+            }
+        }
+        return DecodeBlock(romOffset);
+    }
+
+    /**
+     * Drops every cached instruction.
+     */
+    public void Clear() {
+        romImage = null;
+        pages = new CachedInstruction[0][];
+    }
+
+    private void Reset(byte[] currentRom) {
+        romImage = currentRom;
+        pages = new CachedInstruction[(currentRom.length + pageSize - 1) / pageSize][];
+    }
+
+    private CachedInstruction DecodeBlock(int startOffset) {
+        CachedInstruction[] page = pages[startOffset >>> 8];
+        if (page == null) {
+            page = new CachedInstruction[pageSize];
+            pages[startOffset >>> 8] = page;
+        }
+
+        CachedInstruction first = null;
+        int pageEnd = Math.min((startOffset & ~0xFF) + pageSize, romImage.length);
+        int offset = startOffset;
+        while (offset < pageEnd) {
+            CachedInstruction instruction = page[offset & 0xFF];
+            if (instruction == null) {
+                int opcode = romImage[offset] & 0xFF;
+                int length = decoder.InstructionLength(opcode);
+                if (offset + length > pageEnd) {
+                    // The operand sits on the next page, which may map to another bank.
+                    break;
+                }
+
+                int operand = 0;
+                if (length == 2) {
+                    operand = romImage[offset + 1] & 0xFF;
+                } else if (length == 3) {
+                    operand = (romImage[offset + 1] & 0xFF) | ((romImage[offset + 2] & 0xFF) << 8);
+                }
+                instruction = new CachedInstruction(opcode, length, operand);
+                page[offset & 0xFF] = instruction;
+            } else if (first != null) {
+                // Joined a block that was decoded earlier.
+                break;
+            }
+
+            if (first == null) {
+                first = instruction;
+            }
+            if (EndsBlock(instruction.opcode())) {
+                break;
+            }
+            offset += instruction.length();
+        }
+        return first;
+    }
+
+    private static boolean EndsBlock(int opcode) {
+        return switch (opcode) {
+            case 0x10, 0x18, 0x20, 0x28, 0x30, 0x38, 0x76,
+                    0xC0, 0xC2, 0xC3, 0xC4, 0xC7, 0xC8, 0xC9, 0xCA, 0xCC, 0xCD, 0xCF,
+                    0xD0, 0xD2, 0xD4, 0xD7, 0xD8, 0xD9, 0xDA, 0xDC, 0xDF,
+                    0xE7, 0xE9, 0xEF, 0xF7, 0xFF,
+                    0xD3, 0xDB, 0xDD, 0xE3, 0xE4, 0xEB, 0xEC, 0xED, 0xF4, 0xFC, 0xFD -> true;
+            default -> false;
+        };
+    }
+}
@@ -1,6 +1,5 @@
 package com.blackaby.Backend.GB.CPU;
 
-import com.blackaby.Backend.GB.DuckEmulation;
 import com.blackaby.Backend.GB.Memory.DuckAddresses;
 import com.blackaby.Backend.GB.Memory.DuckMemory;
 import com.blackaby.Backend.GB.Misc.ROM;
@@ -158,20 +157,24 @@ public class DuckCPU {
         }
     }
 
-    private int pc;
-    private int sp;
+    // The register file is package-private so InstructionLogic can work on
+    // the fields directly. Everything outside the CPU package goes through
+    // the accessors below.
+    int pc;
+    int sp;
 
-    private int a;
-    private int f;
-    private int b;
-    private int c;
-    private int d;
-    private int e;
-    private int h;
-    private int l;
+    int a;
+    int f;
+    int b;
+    int c;
+    int d;
+    int e;
+    int h;
+    int l;
 
     private int instructionRegister;
-    private OpcodeHandler currentInstruction;
+    private int instructionOperand;
+    private boolean operandLoaded;
     private boolean interruptMasterEnable;
     private int imeDelayCounter;
     private boolean halted;
@@ -179,30 +182,46 @@ public class DuckCPU {
     private boolean haltBug;
 
     public final DuckMemory memory;
-    public final DuckEmulation emulation;
     public final ROM rom;
 
     private final DuckDecoder decoder;
+    private final InstructionLogic logic;
+    private final DuckBlockCache blockCache;
 
     /**
-     * Creates a CPU bound to the active memory bus, emulator controller, and
-     * cartridge metadata.
+     * Creates a CPU bound to the active memory bus and cartridge metadata.
      *
      * @param memory memory bus
-     * @param emulation owning emulator controller
      * @param rom loaded cartridge
      */
-    public DuckCPU(DuckMemory memory, DuckEmulation emulation, ROM rom) {
+    public DuckCPU(DuckMemory memory, ROM rom) {
         this.memory = memory;
-        this.emulation = emulation;
         this.rom = rom;
         decoder = new DuckDecoder(this, memory);
+        logic = new InstructionLogic(this, memory);
+        blockCache = new DuckBlockCache(memory, decoder);
     }
 
     /**
      * Fetches the next opcode byte from memory.
+     * <p>
+     * Code running from cartridge ROM is served from the block cache, which
+     * hands back the opcode with its operand already read and moves PC past the
+     * whole instruction in one step.
      */
     public void Fetch() {
+        if (!haltBug) {
+            DuckBlockCache.CachedInstruction cached = blockCache.Lookup(pc);
+            if (cached != null) {
+                instructionRegister = cached.opcode();
+                instructionOperand = cached.operand();
+                operandLoaded = true;
+                pc = (pc + cached.length()) & 0xFFFF;
+                return;
+            }
+        }
+
+        operandLoaded = false;
         instructionRegister = memory.Read(pc);
         if (haltBug) {
             haltBug = false;
@@ -213,10 +232,14 @@ public class DuckCPU {
     }
 
     /**
-     * Decodes the currently fetched opcode into an executable handler.
+     * Reads the immediate operand of the currently fetched opcode, unless the
+     * fetch was already served from the block cache.
      */
     public void Decode() {
-        currentInstruction = decoder.DecodeInstruction(instructionRegister, false);
+        if (!operandLoaded) {
+            instructionOperand = decoder.FetchOperand(instructionRegister);
+            operandLoaded = true;
+        }
     }
 
     /**
@@ -622,6 +645,27 @@ public class DuckCPU {
         return interruptMasterEnable;
     }
 
+    /**
+     * Returns whether an enabled interrupt is requested, which is what wakes
+     * the CPU from HALT.
+     *
+     * @return `true` if `IE & IF` has any interrupt bit set
+     */
+    public boolean IsInterruptPending() {
+        int ieRegister = memory.Read(DuckAddresses.IE);
+        int ifRegister = memory.Read(DuckAddresses.INTERRUPT_FLAG);
+        return (ieRegister & ifRegister & 0x1F) != 0;
+    }
+
+    /**
+     * Returns whether an `EI` is still waiting to take effect.
+     *
+     * @return `true` if IME will be enabled after a later instruction
+     */
+    public boolean IsImeChangePending() {
+        return imeDelayCounter > 0;
+    }
+
     /**
      * Captures the live CPU register and interrupt state.
      *
@@ -673,11 +717,11 @@ public class DuckCPU {
         halted = state.halted();
         stopped = state.stopped();
         haltBug = state.haltBug();
-        currentInstruction = null;
+        operandLoaded = false;
     }
 
     private int ExecuteLoadedInstruction() {
-        return currentInstruction.Execute();
+        return logic.Execute(instructionRegister, instructionOperand);
     }
 
     private boolean HandleInterrupts() {
@@ -1,1025 +1,2271 @@
 package com.blackaby.Backend.GB.CPU;
 
-import com.blackaby.Backend.GB.CPU.DuckCPU.Flag;
-import com.blackaby.Backend.GB.CPU.DuckCPU.Register;
 import com.blackaby.Backend.GB.Memory.DuckAddresses;
 import com.blackaby.Backend.GB.Memory.DuckMemory;
 
 /**
- * Holds the shared implementation for decoded CPU instructions.
+ * Executes LR35902 instructions against one CPU's register file.
  * <p>
- * Each helper mutates the active CPU and memory state for one LR35902
- * instruction and returns the number of T-cycles consumed by that operation.
+ * {@link #Execute(int, int)} switches on the opcode byte, and every case has
+ * its operation and registers fixed in the source, so an instruction runs
+ * without handler tables, enum dispatch, or register-field switches. Cases
+ * read and write the CPU's register fields directly and share only small
+ * arithmetic helpers. Each case returns the number of T-cycles it consumed.
+ * Every CPU owns its own instance, so independent cores can run side by side
+ * in one process.
  */
 public class InstructionLogic {
-    private static DuckCPU cpu;
-    private static DuckMemory memory;
+    private static final int flagZ = 0x80;
+    private static final int flagN = 0x40;
+    private static final int flagH = 0x20;
+    private static final int flagC = 0x10;
 
-    /**
-     * Binds the instruction helpers to the active CPU and memory instances.
-     *
-     * @param cpuInstance active CPU
-     * @param memoryInstance active memory bus
-     */
-    public static void Initialise(DuckCPU cpuInstance, DuckMemory memoryInstance) {
-        cpu = cpuInstance;
-        memory = memoryInstance;
-    }
-
-    /**
-     * Bitwise logic operations that target the accumulator.
-     */
-    public enum BitwiseType {
-        AND, OR, XOR
-    }
-
-    /**
-     * Operand locations used by the decoder.
-     */
-    public enum OpLocation {
-        REGISTER, HL_MEMORY, IMMEDIATE
-    }
-
-    /**
-     * Arithmetic operations handled by the shared arithmetic helpers.
-     */
-    public enum ArithmeticType {
-        ADD, SUB, CP
-    }
+    private final DuckCPU cpu;
+    private final DuckMemory memory;
 
     /**
-     * CB-prefixed bit operations.
-     */
-    public enum BitOpType {
-        BIT, RES, SET
-    }
-
-    /**
-     * Rotate operations in both normal and CB-prefixed forms.
-     */
-    public enum RotateType {
-        RL, RLA, RLC, RLCA, RR, RRA, RRC, RRCA
-    }
-
-    /**
-     * Shift operations in CB-prefixed space.
-     */
-    public enum ShiftType {
-        SLA, SRA, SRL
-    }
-
-    /**
-     * Executes `STOP`.
+     * Binds the instruction core to one CPU and memory bus.
      *
-     * @return 4 T-cycles
+     * @param cpu CPU whose registers the instructions update
+     * @param memory memory bus used by the instructions
      */
-    public static int Stop() {
-        memory.HandleStopInstruction();
-        return 4;
+    public InstructionLogic(DuckCPU cpu, DuckMemory memory) {
+        this.cpu = cpu;
+        this.memory = memory;
     }
 
     /**
-     * Executes `RST`.
+     * Executes one primary opcode whose immediate operand has already been
+     * read, with PC already past the whole instruction.
      *
-     * @param address restart vector
-     * @return 16 T-cycles
+     * @param opcode primary opcode byte
+     * @param operand immediate byte or little-endian word, ignored by
+     * one-byte instructions; for {@code 0xCB} the CB-prefixed opcode
+     * @return T-cycles consumed
      */
-    public static int Restart(int address) {
-        int pc = cpu.GetPC();
-        memory.StackPushShort(pc);
-        cpu.SetPC(address & 0xFFFF);
-        return 16;
+    public int Execute(int opcode, int operand) {
+        return switch (opcode) {
+            case 0x00 -> 4;
+            case 0x01 -> {
+                cpu.SetBC(operand);
+                yield 12;
+            }
+            case 0x02 -> {
+                memory.Write(cpu.GetBC(), cpu.a);
+                yield 8;
+            }
+            case 0x03 -> {
+                cpu.SetBC(cpu.GetBC() + 1);
+                yield 8;
+            }
+            case 0x04 -> {
+                cpu.b = Increment(cpu.b);
+                yield 4;
+            }
+            case 0x05 -> {
+                cpu.b = Decrement(cpu.b);
+                yield 4;
+            }
+            case 0x06 -> {
+                cpu.b = operand;
+                yield 8;
+            }
+            case 0x07 -> {
+                cpu.a = RotateLeftCircular(cpu.a);
+                cpu.f &= flagC;
+                yield 4;
+            }
+            case 0x08 -> StoreStackPointer(operand);
+            case 0x09 -> {
+                AddHL(cpu.GetBC());
+                yield 8;
+            }
+            case 0x0A -> {
+                cpu.a = memory.Read(cpu.GetBC());
+                yield 8;
+            }
+            case 0x0B -> {
+                cpu.SetBC(cpu.GetBC() - 1);
+                yield 8;
+            }
+            case 0x0C -> {
+                cpu.c = Increment(cpu.c);
+                yield 4;
+            }
+            case 0x0D -> {
+                cpu.c = Decrement(cpu.c);
+                yield 4;
+            }
+            case 0x0E -> {
+                cpu.c = operand;
+                yield 8;
+            }
+            case 0x0F -> {
+                cpu.a = RotateRightCircular(cpu.a);
+                cpu.f &= flagC;
+                yield 4;
+            }
+            case 0x10 -> {
+                memory.HandleStopInstruction();
+                yield 4;
+            }
+            case 0x11 -> {
+                cpu.SetDE(operand);
+                yield 12;
+            }
+            case 0x12 -> {
+                memory.Write(cpu.GetDE(), cpu.a);
+                yield 8;
+            }
+            case 0x13 -> {
+                cpu.SetDE(cpu.GetDE() + 1);
+                yield 8;
+            }
+            case 0x14 -> {
+                cpu.d = Increment(cpu.d);
+                yield 4;
+            }
+            case 0x15 -> {
+                cpu.d = Decrement(cpu.d);
+                yield 4;
+            }
+            case 0x16 -> {
+                cpu.d = operand;
+                yield 8;
+            }
+            case 0x17 -> {
+                cpu.a = RotateLeft(cpu.a);
+                cpu.f &= flagC;
+                yield 4;
+            }
+            case 0x18 -> JumpRelative(operand);
+            case 0x19 -> {
+                AddHL(cpu.GetDE());
+                yield 8;
+            }
+            case 0x1A -> {
+                cpu.a = memory.Read(cpu.GetDE());
+                yield 8;
+            }
+            case 0x1B -> {
+                cpu.SetDE(cpu.GetDE() - 1);
+                yield 8;
+            }
+            case 0x1C -> {
+                cpu.e = Increment(cpu.e);
+                yield 4;
+            }
+            case 0x1D -> {
+                cpu.e = Decrement(cpu.e);
+                yield 4;
+            }
+            case 0x1E -> {
+                cpu.e = operand;
+                yield 8;
+            }
+            case 0x1F -> {
+                cpu.a = RotateRight(cpu.a);
+                cpu.f &= flagC;
+                yield 4;
+            }
+            case 0x20 -> (cpu.f & flagZ) == 0 ? JumpRelative(operand) : 8;
+            case 0x21 -> {
+                cpu.SetHL(operand);
+                yield 12;
+            }
+            case 0x22 -> {
+                int address = cpu.GetHL();
+                memory.Write(address, cpu.a);
+                cpu.SetHL(address + 1);
+                yield 8;
+            }
+            case 0x23 -> {
+                cpu.SetHL(cpu.GetHL() + 1);
+                yield 8;
+            }
+            case 0x24 -> {
+                cpu.h = Increment(cpu.h);
+                yield 4;
+            }
+            case 0x25 -> {
+                cpu.h = Decrement(cpu.h);
+                yield 4;
+            }
+            case 0x26 -> {
+                cpu.h = operand;
+                yield 8;
+            }
+            case 0x27 -> DecimalAdjustAccumulator();
+            case 0x28 -> (cpu.f & flagZ) != 0 ? JumpRelative(operand) : 8;
+            case 0x29 -> {
+                AddHL(cpu.GetHL());
+                yield 8;
+            }
+            case 0x2A -> {
+                int address = cpu.GetHL();
+                cpu.a = memory.Read(address);
+                cpu.SetHL(address + 1);
+                yield 8;
+            }
+            case 0x2B -> {
+                cpu.SetHL(cpu.GetHL() - 1);
+                yield 8;
+            }
+            case 0x2C -> {
+                cpu.l = Increment(cpu.l);
+                yield 4;
+            }
+            case 0x2D -> {
+                cpu.l = Decrement(cpu.l);
+                yield 4;
+            }
+            case 0x2E -> {
+                cpu.l = operand;
+                yield 8;
+            }
+            case 0x2F -> {
+                cpu.a ^= 0xFF;
+                cpu.f |= flagN | flagH;
+                yield 4;
+            }
+            case 0x30 -> (cpu.f & flagC) == 0 ? JumpRelative(operand) : 8;
+            case 0x31 -> {
+                cpu.sp = operand;
+                yield 12;
+            }
+            case 0x32 -> {
+                int address = cpu.GetHL();
+                memory.Write(address, cpu.a);
+                cpu.SetHL(address - 1);
+                yield 8;
+            }
+            case 0x33 -> {
+                cpu.sp = (cpu.sp + 1) & 0xFFFF;
+                yield 8;
+            }
+            case 0x34 -> {
+                WriteHL(Increment(ReadHL()));
+                yield 12;
+            }
+            case 0x35 -> {
+                WriteHL(Decrement(ReadHL()));
+                yield 12;
+            }
+            case 0x36 -> {
+                WriteHL(operand);
+                yield 12;
+            }
+            case 0x37 -> {
+                cpu.f = (cpu.f & flagZ) | flagC;
+                yield 4;
+            }
+            case 0x38 -> (cpu.f & flagC) != 0 ? JumpRelative(operand) : 8;
+            case 0x39 -> {
+                AddHL(cpu.sp);
+                yield 8;
+            }
+            case 0x3A -> {
+                int address = cpu.GetHL();
+                cpu.a = memory.Read(address);
+                cpu.SetHL(address - 1);
+                yield 8;
+            }
+            case 0x3B -> {
+                cpu.sp = (cpu.sp - 1) & 0xFFFF;
+                yield 8;
+            }
+            case 0x3C -> {
+                cpu.a = Increment(cpu.a);
+                yield 4;
+            }
+            case 0x3D -> {
+                cpu.a = Decrement(cpu.a);
+                yield 4;
+            }
+            case 0x3E -> {
+                cpu.a = operand;
+                yield 8;
+            }
+            case 0x3F -> {
+                cpu.f = (cpu.f ^ flagC) & (flagZ | flagC);
+                yield 4;
+            }
+            case 0x40 -> {
+                cpu.b = cpu.b;
+                yield 4;
+            }
+            case 0x41 -> {
+                cpu.b = cpu.c;
+                yield 4;
+            }
+            case 0x42 -> {
+                cpu.b = cpu.d;
+                yield 4;
+            }
+            case 0x43 -> {
+                cpu.b = cpu.e;
+                yield 4;
+            }
+            case 0x44 -> {
+                cpu.b = cpu.h;
+                yield 4;
+            }
+            case 0x45 -> {
+                cpu.b = cpu.l;
+                yield 4;
+            }
+            case 0x46 -> {
+                cpu.b = ReadHL();
+                yield 8;
+            }
+            case 0x47 -> {
+                cpu.b = cpu.a;
+                yield 4;
+            }
+            case 0x48 -> {
+                cpu.c = cpu.b;
+                yield 4;
+            }
+            case 0x49 -> {
+                cpu.c = cpu.c;
+                yield 4;
+            }
+            case 0x4A -> {
+                cpu.c = cpu.d;
+                yield 4;
+            }
+            case 0x4B -> {
+                cpu.c = cpu.e;
+                yield 4;
+            }
+            case 0x4C -> {
+                cpu.c = cpu.h;
+                yield 4;
+            }
+            case 0x4D -> {
+                cpu.c = cpu.l;
+                yield 4;
+            }
+            case 0x4E -> {
+                cpu.c = ReadHL();
+                yield 8;
+            }
+            case 0x4F -> {
+                cpu.c = cpu.a;
+                yield 4;
+            }
+            case 0x50 -> {
+                cpu.d = cpu.b;
+                yield 4;
+            }
+            case 0x51 -> {
+                cpu.d = cpu.c;
+                yield 4;
+            }
+            case 0x52 -> {
+                cpu.d = cpu.d;
+                yield 4;
+            }
+            case 0x53 -> {
+                cpu.d = cpu.e;
+                yield 4;
+            }
+            case 0x54 -> {
+                cpu.d = cpu.h;
+                yield 4;
+            }
+            case 0x55 -> {
+                cpu.d = cpu.l;
+                yield 4;
+            }
+            case 0x56 -> {
+                cpu.d = ReadHL();
+                yield 8;
+            }
+            case 0x57 -> {
+                cpu.d = cpu.a;
+                yield 4;
+            }
+            case 0x58 -> {
+                cpu.e = cpu.b;
+                yield 4;
+            }
+            case 0x59 -> {
+                cpu.e = cpu.c;
+                yield 4;
+            }
+            case 0x5A -> {
+                cpu.e = cpu.d;
+                yield 4;
+            }
+            case 0x5B -> {
+                cpu.e = cpu.e;
+                yield 4;
+            }
+            case 0x5C -> {
+                cpu.e = cpu.h;
+                yield 4;
+            }
+            case 0x5D -> {
+                cpu.e = cpu.l;
+                yield 4;
+            }
+            case 0x5E -> {
+                cpu.e = ReadHL();
+                yield 8;
+            }
+            case 0x5F -> {
+                cpu.e = cpu.a;
+                yield 4;
+            }
+            case 0x60 -> {
+                cpu.h = cpu.b;
+                yield 4;
+            }
+            case 0x61 -> {
+                cpu.h = cpu.c;
+                yield 4;
+            }
+            case 0x62 -> {
+                cpu.h = cpu.d;
+                yield 4;
+            }
+            case 0x63 -> {
+                cpu.h = cpu.e;
+                yield 4;
+            }
+            case 0x64 -> {
+                cpu.h = cpu.h;
+                yield 4;
+            }
+            case 0x65 -> {
+                cpu.h = cpu.l;
+                yield 4;
+            }
+            case 0x66 -> {
+                cpu.h = ReadHL();
+                yield 8;
+            }
+            case 0x67 -> {
+                cpu.h = cpu.a;
+                yield 4;
+            }
+            case 0x68 -> {
+                cpu.l = cpu.b;
+                yield 4;
+            }
+            case 0x69 -> {
+                cpu.l = cpu.c;
+                yield 4;
+            }
+            case 0x6A -> {
+                cpu.l = cpu.d;
+                yield 4;
+            }
+            case 0x6B -> {
+                cpu.l = cpu.e;
+                yield 4;
+            }
+            case 0x6C -> {
+                cpu.l = cpu.h;
+                yield 4;
+            }
+            case 0x6D -> {
+                cpu.l = cpu.l;
+                yield 4;
+            }
+            case 0x6E -> {
+                cpu.l = ReadHL();
+                yield 8;
+            }
+            case 0x6F -> {
+                cpu.l = cpu.a;
+                yield 4;
+            }
+            case 0x70 -> {
+                WriteHL(cpu.b);
+                yield 8;
+            }
+            case 0x71 -> {
+                WriteHL(cpu.c);
+                yield 8;
+            }
+            case 0x72 -> {
+                WriteHL(cpu.d);
+                yield 8;
+            }
+            case 0x73 -> {
+                WriteHL(cpu.e);
+                yield 8;
+            }
+            case 0x74 -> {
+                WriteHL(cpu.h);
+                yield 8;
+            }
+            case 0x75 -> {
+                WriteHL(cpu.l);
+                yield 8;
+            }
+            case 0x76 -> Halt();
+            case 0x77 -> {
+                WriteHL(cpu.a);
+                yield 8;
+            }
+            case 0x78 -> {
+                cpu.a = cpu.b;
+                yield 4;
+            }
+            case 0x79 -> {
+                cpu.a = cpu.c;
+                yield 4;
+            }
+            case 0x7A -> {
+                cpu.a = cpu.d;
+                yield 4;
+            }
+            case 0x7B -> {
+                cpu.a = cpu.e;
+                yield 4;
+            }
+            case 0x7C -> {
+                cpu.a = cpu.h;
+                yield 4;
+            }
+            case 0x7D -> {
+                cpu.a = cpu.l;
+                yield 4;
+            }
+            case 0x7E -> {
+                cpu.a = ReadHL();
+                yield 8;
+            }
+            case 0x7F -> {
+                cpu.a = cpu.a;
+                yield 4;
+            }
+            case 0x80 -> {
+                Add(cpu.b, 0);
+                yield 4;
+            }
+            case 0x81 -> {
+                Add(cpu.c, 0);
+                yield 4;
+            }
+            case 0x82 -> {
+                Add(cpu.d, 0);
+                yield 4;
+            }
+            case 0x83 -> {
+                Add(cpu.e, 0);
+                yield 4;
+            }
+            case 0x84 -> {
+                Add(cpu.h, 0);
+                yield 4;
+            }
+            case 0x85 -> {
+                Add(cpu.l, 0);
+                yield 4;
+            }
+            case 0x86 -> {
+                Add(ReadHL(), 0);
+                yield 8;
+            }
+            case 0x87 -> {
+                Add(cpu.a, 0);
+                yield 4;
+            }
+            case 0x88 -> {
+                Add(cpu.b, Carry());
+                yield 4;
+            }
+            case 0x89 -> {
+                Add(cpu.c, Carry());
+                yield 4;
+            }
+            case 0x8A -> {
+                Add(cpu.d, Carry());
+                yield 4;
+            }
+            case 0x8B -> {
+                Add(cpu.e, Carry());
+                yield 4;
+            }
+            case 0x8C -> {
+                Add(cpu.h, Carry());
+                yield 4;
+            }
+            case 0x8D -> {
+                Add(cpu.l, Carry());
+                yield 4;
+            }
+            case 0x8E -> {
+                Add(ReadHL(), Carry());
+                yield 8;
+            }
+            case 0x8F -> {
+                Add(cpu.a, Carry());
+                yield 4;
+            }
+            case 0x90 -> {
+                cpu.a = Subtract(cpu.b, 0);
+                yield 4;
+            }
+            case 0x91 -> {
+                cpu.a = Subtract(cpu.c, 0);
+                yield 4;
+            }
+            case 0x92 -> {
+                cpu.a = Subtract(cpu.d, 0);
+                yield 4;
+            }
+            case 0x93 -> {
+                cpu.a = Subtract(cpu.e, 0);
+                yield 4;
+            }
+            case 0x94 -> {
+                cpu.a = Subtract(cpu.h, 0);
+                yield 4;
+            }
+            case 0x95 -> {
+                cpu.a = Subtract(cpu.l, 0);
+                yield 4;
+            }
+            case 0x96 -> {
+                cpu.a = Subtract(ReadHL(), 0);
+                yield 8;
+            }
+            case 0x97 -> {
+                cpu.a = Subtract(cpu.a, 0);
+                yield 4;
+            }
+            case 0x98 -> {
+                cpu.a = Subtract(cpu.b, Carry());
+                yield 4;
+            }
+            case 0x99 -> {
+                cpu.a = Subtract(cpu.c, Carry());
+                yield 4;
+            }
+            case 0x9A -> {
+                cpu.a = Subtract(cpu.d, Carry());
+                yield 4;
+            }
+            case 0x9B -> {
+                cpu.a = Subtract(cpu.e, Carry());
+                yield 4;
+            }
+            case 0x9C -> {
+                cpu.a = Subtract(cpu.h, Carry());
+                yield 4;
+            }
+            case 0x9D -> {
+                cpu.a = Subtract(cpu.l, Carry());
+                yield 4;
+            }
+            case 0x9E -> {
+                cpu.a = Subtract(ReadHL(), Carry());
+                yield 8;
+            }
+            case 0x9F -> {
+                cpu.a = Subtract(cpu.a, Carry());
+                yield 4;
+            }
+            case 0xA0 -> {
+                And(cpu.b);
+                yield 4;
+            }
+            case 0xA1 -> {
+                And(cpu.c);
+                yield 4;
+            }
+            case 0xA2 -> {
+                And(cpu.d);
+                yield 4;
+            }
+            case 0xA3 -> {
+                And(cpu.e);
+                yield 4;
+            }
+            case 0xA4 -> {
+                And(cpu.h);
+                yield 4;
+            }
+            case 0xA5 -> {
+                And(cpu.l);
+                yield 4;
+            }
+            case 0xA6 -> {
+                And(ReadHL());
+                yield 8;
+            }
+            case 0xA7 -> {
+                And(cpu.a);
+                yield 4;
+            }
+            case 0xA8 -> {
+                Xor(cpu.b);
+                yield 4;
+            }
+            case 0xA9 -> {
+                Xor(cpu.c);
+                yield 4;
+            }
+            case 0xAA -> {
+                Xor(cpu.d);
+                yield 4;
+            }
+            case 0xAB -> {
+                Xor(cpu.e);
+                yield 4;
+            }
+            case 0xAC -> {
+                Xor(cpu.h);
+                yield 4;
+            }
+            case 0xAD -> {
+                Xor(cpu.l);
+                yield 4;
+            }
+            case 0xAE -> {
+                Xor(ReadHL());
+                yield 8;
+            }
+            case 0xAF -> {
+                Xor(cpu.a);
+                yield 4;
+            }
+            case 0xB0 -> {
+                Or(cpu.b);
+                yield 4;
+            }
+            case 0xB1 -> {
+                Or(cpu.c);
+                yield 4;
+            }
+            case 0xB2 -> {
+                Or(cpu.d);
+                yield 4;
+            }
+            case 0xB3 -> {
+                Or(cpu.e);
+                yield 4;
+            }
+            case 0xB4 -> {
+                Or(cpu.h);
+                yield 4;
+            }
+            case 0xB5 -> {
+                Or(cpu.l);
+                yield 4;
+            }
+            case 0xB6 -> {
+                Or(ReadHL());
+                yield 8;
+            }
+            case 0xB7 -> {
+                Or(cpu.a);
+                yield 4;
+            }
+            case 0xB8 -> {
+                Subtract(cpu.b, 0);
+                yield 4;
+            }
+            case 0xB9 -> {
+                Subtract(cpu.c, 0);
+                yield 4;
+            }
+            case 0xBA -> {
+                Subtract(cpu.d, 0);
+                yield 4;
+            }
+            case 0xBB -> {
+                Subtract(cpu.e, 0);
+                yield 4;
+            }
+            case 0xBC -> {
+                Subtract(cpu.h, 0);
+                yield 4;
+            }
+            case 0xBD -> {
+                Subtract(cpu.l, 0);
+                yield 4;
+            }
+            case 0xBE -> {
+                Subtract(ReadHL(), 0);
+                yield 8;
+            }
+            case 0xBF -> {
+                Subtract(cpu.a, 0);
+                yield 4;
+            }
+            case 0xC0 -> {
+                if ((cpu.f & flagZ) != 0) {
+                    yield 8;
+                }
+                ReturnFromCall();
+                yield 20;
+            }
+            case 0xC1 -> {
+                cpu.SetBC(memory.StackPopShort());
+                yield 12;
+            }
+            case 0xC2 -> {
+                if ((cpu.f & flagZ) != 0) {
+                    yield 12;
+                }
+                cpu.pc = operand;
+                yield 16;
+            }
+            case 0xC3 -> {
+                cpu.pc = operand;
+                yield 16;
+            }
+            case 0xC4 -> (cpu.f & flagZ) == 0 ? Call(operand) : 12;
+            case 0xC5 -> {
+                memory.StackPushShort(cpu.GetBC());
+                yield 16;
+            }
+            case 0xC6 -> {
+                Add(operand, 0);
+                yield 8;
+            }
+            case 0xC7 -> Restart(0x00);
+            case 0xC8 -> {
+                if ((cpu.f & flagZ) == 0) {
+                    yield 8;
+                }
+                ReturnFromCall();
+                yield 20;
+            }
+            case 0xC9 -> {
+                ReturnFromCall();
+                yield 16;
+            }
+            case 0xCA -> {
+                if ((cpu.f & flagZ) == 0) {
+                    yield 12;
+                }
+                cpu.pc = operand;
+                yield 16;
+            }
+            case 0xCB -> ExecuteCb(operand);
+            case 0xCC -> (cpu.f & flagZ) != 0 ? Call(operand) : 12;
+            case 0xCD -> Call(operand);
+            case 0xCE -> {
+                Add(operand, Carry());
+                yield 8;
+            }
+            case 0xCF -> Restart(0x08);
+            case 0xD0 -> {
+                if ((cpu.f & flagC) != 0) {
+                    yield 8;
+                }
+                ReturnFromCall();
+                yield 20;
+            }
+            case 0xD1 -> {
+                cpu.SetDE(memory.StackPopShort());
+                yield 12;
+            }
+            case 0xD2 -> {
+                if ((cpu.f & flagC) != 0) {
+                    yield 12;
+                }
+                cpu.pc = operand;
+                yield 16;
+            }
+            case 0xD4 -> (cpu.f & flagC) == 0 ? Call(operand) : 12;
+            case 0xD5 -> {
+                memory.StackPushShort(cpu.GetDE());
+                yield 16;
+            }
+            case 0xD6 -> {
+                cpu.a = Subtract(operand, 0);
+                yield 8;
+            }
+            case 0xD7 -> Restart(0x10);
+            case 0xD8 -> {
+                if ((cpu.f & flagC) == 0) {
+                    yield 8;
+                }
+                ReturnFromCall();
+                yield 20;
+            }
+            case 0xD9 -> {
+                ReturnFromCall();
+                cpu.EnableInterruptsImmediately();
+                yield 16;
+            }
+            case 0xDA -> {
+                if ((cpu.f & flagC) == 0) {
+                    yield 12;
+                }
+                cpu.pc = operand;
+                yield 16;
+            }
+            case 0xDC -> (cpu.f & flagC) != 0 ? Call(operand) : 12;
+            case 0xDE -> {
+                cpu.a = Subtract(operand, Carry());
+                yield 8;
+            }
+            case 0xDF -> Restart(0x18);
+            case 0xE0 -> {
+                memory.Write(0xFF00 | operand, cpu.a);
+                yield 12;
+            }
+            case 0xE1 -> {
+                cpu.SetHL(memory.StackPopShort());
+                yield 12;
+            }
+            case 0xE2 -> {
+                memory.Write(0xFF00 | cpu.c, cpu.a);
+                yield 8;
+            }
+            case 0xE5 -> {
+                memory.StackPushShort(cpu.GetHL());
+                yield 16;
+            }
+            case 0xE6 -> {
+                And(operand);
+                yield 8;
+            }
+            case 0xE7 -> Restart(0x20);
+            case 0xE8 -> {
+                cpu.sp = AddSignedToStackPointer(operand);
+                yield 16;
+            }
+            case 0xE9 -> {
+                cpu.pc = cpu.GetHL();
+                yield 4;
+            }
+            case 0xEA -> {
+                memory.Write(operand, cpu.a);
+                yield 16;
+            }
+            case 0xEE -> {
+                Xor(operand);
+                yield 8;
+            }
+            case 0xEF -> Restart(0x28);
+            case 0xF0 -> {
+                cpu.a = memory.Read(0xFF00 | operand);
+                yield 12;
+            }
+            case 0xF1 -> {
+                cpu.SetAF(memory.StackPopShort());
+                yield 12;
+            }
+            case 0xF2 -> {
+                cpu.a = memory.Read(0xFF00 | cpu.c);
+                yield 8;
+            }
+            case 0xF3 -> {
+                cpu.DisableInterrupts();
+                yield 4;
+            }
+            case 0xF5 -> {
+                memory.StackPushShort(cpu.GetAF());
+                yield 16;
+            }
+            case 0xF6 -> {
+                Or(operand);
+                yield 8;
+            }
+            case 0xF7 -> Restart(0x30);
+            case 0xF8 -> {
+                cpu.SetHL(AddSignedToStackPointer(operand));
+                yield 12;
+            }
+            case 0xF9 -> {
+                cpu.sp = cpu.GetHL();
+                yield 8;
+            }
+            case 0xFA -> {
+                cpu.a = memory.Read(operand);
+                yield 16;
+            }
+            case 0xFB -> {
+                cpu.ScheduleEnableInterrupts();
+                yield 4;
+            }
+            case 0xFE -> {
+                Subtract(operand, 0);
+                yield 8;
+            }
+            case 0xFF -> Restart(0x38);
+            default -> IllegalInstruction(opcode);
+        };
     }
 
     /**
-     * Executes `NOP`.
+     * Executes one CB-prefixed opcode.
      *
-     * @return 4 T-cycles
+     * @param opcode opcode byte that follows the {@code 0xCB} prefix
+     * @return T-cycles consumed, including the prefix
      */
-    public static int Nop() {
-        return 4;
-    }
-
-    /**
-     * Executes `DI` or `EI`.
-     *
-     * @param enable `true` to schedule interrupt enable, `false` to disable IME
-     * @return 4 T-cycles
-     */
-    public static int InterruptControl(boolean enable) {
-        if (enable) {
-            cpu.ScheduleEnableInterrupts();
-        } else {
-            cpu.DisableInterrupts();
-        }
-        return 4;
-    }
-
-    /**
-     * Executes `HALT`, including the halt bug case.
-     *
-     * @return 4 T-cycles
-     */
-    public static int Halt() {
-        int ie = memory.Read(DuckAddresses.IE);
-        int ifFlag = memory.Read(DuckAddresses.INTERRUPT_FLAG);
-        boolean interruptPending = (ie & ifFlag & 0x1F) != 0;
-        if (!cpu.IsInterruptMasterEnable() && interruptPending) {
-            cpu.SetHaltBug();
-        } else {
-            cpu.SetHalted(true);
-        }
-        return 4;
-    }
-
-    /**
-     * Executes `SCF`.
-     *
-     * @return 4 T-cycles
-     */
-    public static int SetCarryFlag() {
-        cpu.SetFlag(Flag.C, true);
-        cpu.SetFlag(Flag.N, false);
-        cpu.SetFlag(Flag.H, false);
-        return 4;
-    }
-
-    /**
-     * Increments or decrements a 16 bit register
-     * 
-     * @param register    the register to act on - must be calculated
-     * @param isIncrement true if its increment, false if its decrement
-     * @return 8 T cycles
-     */
-    public static int IncrementDecrementShort(Register register, boolean isIncrement) {
-        int value = cpu.GetRegisterPair(register);
-        value = (value + (isIncrement ? 1 : -1)) & 0xFFFF;
-        cpu.SetRegisterPair(register, value);
-        return 8;
-    }
-
-    /**
-     * Increments or decrements a 8 bit register
-     * 
-     * @param register    the register to act on - must be calculated
-     * @param isIncrement true if its increment, false if its decrement
-     * @return 4 T cycles
-     */
-    public static int IncrementDecrementByteRegister(Register register, boolean isIncrement) {
-        int value = cpu.GetRegister(register);
-        int oldValue = value;
-        value = (value + (isIncrement ? 1 : -1)) & 0xFF;
-        cpu.SetRegister(register, value);
-        cpu.SetFlag(Flag.Z, value == 0);
-        cpu.SetFlag(Flag.N, !isIncrement);
-        if (isIncrement) {
-            cpu.SetFlag(Flag.H, (oldValue & 0xF) == 0xF);
-        } else {
-            cpu.SetFlag(Flag.H, (oldValue & 0xF) == 0x0);
-        }
-        return 4;
-    }
-
-    /**
-     * Increments or decrements the byte at location specified by the HL register
-     * 
-     * @param isIncrement true if its increment, false if its decrement
-     * @return 12 T cycles
-     */
-    public static int IncrementDecrementByteHL(boolean isIncrement) {
-        int value = memory.Read(cpu.GetHL());
-        int oldValue = value;
-        value = (value + (isIncrement ? 1 : -1)) & 0xFF;
-        memory.Write(cpu.GetHL(), value);
-        cpu.SetFlag(Flag.Z, value == 0);
-        cpu.SetFlag(Flag.N, !isIncrement);
-        if (isIncrement) {
-            cpu.SetFlag(Flag.H, (oldValue & 0xF) == 0xF);
-        } else {
-            cpu.SetFlag(Flag.H, (oldValue & 0xF) == 0x0);
-        }
-        return 12;
-    }
-
-    /**
-     * Adjusts Accumulator to be a valid BCD number after an add/sub
-     * 
-     * @return 4 T-cycles
-     */
-    public static int DecimalAdjustAccumulator() {
-        int a = cpu.GetAccumulator();
-        int correction = 0;
-        boolean n = cpu.GetFlag(Flag.N);
-        boolean h = cpu.GetFlag(Flag.H);
-        boolean c = cpu.GetFlag(Flag.C);
-        if (n) {
-            if (c)
-                correction |= 0x60;
-            if (h)
-                correction |= 0x06;
-            a -= correction;
-        } else {
-            if (c || a > 0x99) {
-                correction |= 0x60;
-                c = true;
+    public int ExecuteCb(int opcode) {
+        return switch (opcode) {
+            case 0x00 -> {
+                cpu.b = RotateLeftCircular(cpu.b);
+                yield 8;
+            }
+            case 0x01 -> {
+                cpu.c = RotateLeftCircular(cpu.c);
+                yield 8;
+            }
+            case 0x02 -> {
+                cpu.d = RotateLeftCircular(cpu.d);
+                yield 8;
+            }
+            case 0x03 -> {
+                cpu.e = RotateLeftCircular(cpu.e);
+                yield 8;
+            }
+            case 0x04 -> {
+                cpu.h = RotateLeftCircular(cpu.h);
+                yield 8;
+            }
+            case 0x05 -> {
+                cpu.l = RotateLeftCircular(cpu.l);
+                yield 8;
+            }
+            case 0x06 -> {
+                WriteHL(RotateLeftCircular(ReadHL()));
+                yield 16;
+            }
+            case 0x07 -> {
+                cpu.a = RotateLeftCircular(cpu.a);
+                yield 8;
+            }
+            case 0x08 -> {
+                cpu.b = RotateRightCircular(cpu.b);
+                yield 8;
+            }
+            case 0x09 -> {
+                cpu.c = RotateRightCircular(cpu.c);
+                yield 8;
+            }
+            case 0x0A -> {
+                cpu.d = RotateRightCircular(cpu.d);
+                yield 8;
+            }
+            case 0x0B -> {
+                cpu.e = RotateRightCircular(cpu.e);
+                yield 8;
+            }
+            case 0x0C -> {
+                cpu.h = RotateRightCircular(cpu.h);
+                yield 8;
+            }
+            case 0x0D -> {
+                cpu.l = RotateRightCircular(cpu.l);
+                yield 8;
+            }
+            case 0x0E -> {
+                WriteHL(RotateRightCircular(ReadHL()));
+                yield 16;
+            }
+            case 0x0F -> {
+                cpu.a = RotateRightCircular(cpu.a);
+                yield 8;
+            }
+            case 0x10 -> {
+                cpu.b = RotateLeft(cpu.b);
+                yield 8;
+            }
+            case 0x11 -> {
+                cpu.c = RotateLeft(cpu.c);
+                yield 8;
+            }
+            case 0x12 -> {
+                cpu.d = RotateLeft(cpu.d);
+                yield 8;
+            }
+            case 0x13 -> {
+                cpu.e = RotateLeft(cpu.e);
+                yield 8;
+            }
+            case 0x14 -> {
+                cpu.h = RotateLeft(cpu.h);
+                yield 8;
+            }
+            case 0x15 -> {
+                cpu.l = RotateLeft(cpu.l);
+                yield 8;
+            }
+            case 0x16 -> {
+                WriteHL(RotateLeft(ReadHL()));
+                yield 16;
+            }
+            case 0x17 -> {
+                cpu.a = RotateLeft(cpu.a);
+                yield 8;
+            }
+            case 0x18 -> {
+                cpu.b = RotateRight(cpu.b);
+                yield 8;
+            }
+            case 0x19 -> {
+                cpu.c = RotateRight(cpu.c);
+                yield 8;
+            }
+            case 0x1A -> {
+                cpu.d = RotateRight(cpu.d);
+                yield 8;
+            }
+            case 0x1B -> {
+                cpu.e = RotateRight(cpu.e);
+                yield 8;
+            }
+            case 0x1C -> {
+                cpu.h = RotateRight(cpu.h);
+                yield 8;
+            }
+            case 0x1D -> {
+                cpu.l = RotateRight(cpu.l);
+                yield 8;
+            }
+            case 0x1E -> {
+                WriteHL(RotateRight(ReadHL()));
+                yield 16;
+            }
+            case 0x1F -> {
+                cpu.a = RotateRight(cpu.a);
+                yield 8;
+            }
+            case 0x20 -> {
+                cpu.b = ShiftLeftArithmetic(cpu.b);
+                yield 8;
+            }
+            case 0x21 -> {
+                cpu.c = ShiftLeftArithmetic(cpu.c);
+                yield 8;
+            }
+            case 0x22 -> {
+                cpu.d = ShiftLeftArithmetic(cpu.d);
+                yield 8;
+            }
+            case 0x23 -> {
+                cpu.e = ShiftLeftArithmetic(cpu.e);
+                yield 8;
+            }
+            case 0x24 -> {
+                cpu.h = ShiftLeftArithmetic(cpu.h);
+                yield 8;
+            }
+            case 0x25 -> {
+                cpu.l = ShiftLeftArithmetic(cpu.l);
+                yield 8;
+            }
+            case 0x26 -> {
+                WriteHL(ShiftLeftArithmetic(ReadHL()));
+                yield 16;
+            }
+            case 0x27 -> {
+                cpu.a = ShiftLeftArithmetic(cpu.a);
+                yield 8;
+            }
+            case 0x28 -> {
+                cpu.b = ShiftRightArithmetic(cpu.b);
+                yield 8;
+            }
+            case 0x29 -> {
+                cpu.c = ShiftRightArithmetic(cpu.c);
+                yield 8;
+            }
+            case 0x2A -> {
+                cpu.d = ShiftRightArithmetic(cpu.d);
+                yield 8;
+            }
+            case 0x2B -> {
+                cpu.e = ShiftRightArithmetic(cpu.e);
+                yield 8;
+            }
+            case 0x2C -> {
+                cpu.h = ShiftRightArithmetic(cpu.h);
+                yield 8;
+            }
+            case 0x2D -> {
+                cpu.l = ShiftRightArithmetic(cpu.l);
+                yield 8;
+            }
+            case 0x2E -> {
+                WriteHL(ShiftRightArithmetic(ReadHL()));
+                yield 16;
+            }
+            case 0x2F -> {
+                cpu.a = ShiftRightArithmetic(cpu.a);
+                yield 8;
+            }
+            case 0x30 -> {
+                cpu.b = Swap(cpu.b);
+                yield 8;
+            }
+            case 0x31 -> {
+                cpu.c = Swap(cpu.c);
+                yield 8;
+            }
+            case 0x32 -> {
+                cpu.d = Swap(cpu.d);
+                yield 8;
+            }
+            case 0x33 -> {
+                cpu.e = Swap(cpu.e);
+                yield 8;
+            }
+            case 0x34 -> {
+                cpu.h = Swap(cpu.h);
+                yield 8;
+            }
+            case 0x35 -> {
+                cpu.l = Swap(cpu.l);
+                yield 8;
+            }
+            case 0x36 -> {
+                WriteHL(Swap(ReadHL()));
+                yield 16;
+            }
+            case 0x37 -> {
+                cpu.a = Swap(cpu.a);
+                yield 8;
+            }
+            case 0x38 -> {
+                cpu.b = ShiftRightLogical(cpu.b);
+                yield 8;
+            }
+            case 0x39 -> {
+                cpu.c = ShiftRightLogical(cpu.c);
+                yield 8;
+            }
+            case 0x3A -> {
+                cpu.d = ShiftRightLogical(cpu.d);
+                yield 8;
+            }
+            case 0x3B -> {
+                cpu.e = ShiftRightLogical(cpu.e);
+                yield 8;
+            }
+            case 0x3C -> {
+                cpu.h = ShiftRightLogical(cpu.h);
+                yield 8;
+            }
+            case 0x3D -> {
+                cpu.l = ShiftRightLogical(cpu.l);
+                yield 8;
+            }
+            case 0x3E -> {
+                WriteHL(ShiftRightLogical(ReadHL()));
+                yield 16;
+            }
+            case 0x3F -> {
+                cpu.a = ShiftRightLogical(cpu.a);
+                yield 8;
+            }
+            case 0x40 -> {
+                TestBit(cpu.b, 0x01);
+                yield 8;
+            }
+            case 0x41 -> {
+                TestBit(cpu.c, 0x01);
+                yield 8;
+            }
+            case 0x42 -> {
+                TestBit(cpu.d, 0x01);
+                yield 8;
+            }
+            case 0x43 -> {
+                TestBit(cpu.e, 0x01);
+                yield 8;
+            }
+            case 0x44 -> {
+                TestBit(cpu.h, 0x01);
+                yield 8;
+            }
+            case 0x45 -> {
+                TestBit(cpu.l, 0x01);
+                yield 8;
+            }
+            case 0x46 -> {
+                TestBit(ReadHL(), 0x01);
+                yield 12;
+            }
+            case 0x47 -> {
+                TestBit(cpu.a, 0x01);
+                yield 8;
+            }
+            case 0x48 -> {
+                TestBit(cpu.b, 0x02);
+                yield 8;
+            }
+            case 0x49 -> {
+                TestBit(cpu.c, 0x02);
+                yield 8;
+            }
+            case 0x4A -> {
+                TestBit(cpu.d, 0x02);
+                yield 8;
+            }
+            case 0x4B -> {
+                TestBit(cpu.e, 0x02);
+                yield 8;
+            }
+            case 0x4C -> {
+                TestBit(cpu.h, 0x02);
+                yield 8;
+            }
+            case 0x4D -> {
+                TestBit(cpu.l, 0x02);
+                yield 8;
+            }
+            case 0x4E -> {
+                TestBit(ReadHL(), 0x02);
+                yield 12;
+            }
+            case 0x4F -> {
+                TestBit(cpu.a, 0x02);
+                yield 8;
+            }
+            case 0x50 -> {
+                TestBit(cpu.b, 0x04);
+                yield 8;
+            }
+            case 0x51 -> {
+                TestBit(cpu.c, 0x04);
+                yield 8;
+            }
+            case 0x52 -> {
+                TestBit(cpu.d, 0x04);
+                yield 8;
+            }
+            case 0x53 -> {
+                TestBit(cpu.e, 0x04);
+                yield 8;
+            }
+            case 0x54 -> {
+                TestBit(cpu.h, 0x04);
+                yield 8;
+            }
+            case 0x55 -> {
+                TestBit(cpu.l, 0x04);
+                yield 8;
+            }
+            case 0x56 -> {
+                TestBit(ReadHL(), 0x04);
+                yield 12;
+            }
+            case 0x57 -> {
+                TestBit(cpu.a, 0x04);
+                yield 8;
+            }
+            case 0x58 -> {
+                TestBit(cpu.b, 0x08);
+                yield 8;
+            }
+            case 0x59 -> {
+                TestBit(cpu.c, 0x08);
+                yield 8;
+            }
+            case 0x5A -> {
+                TestBit(cpu.d, 0x08);
+                yield 8;
+            }
+            case 0x5B -> {
+                TestBit(cpu.e, 0x08);
+                yield 8;
+            }
+            case 0x5C -> {
+                TestBit(cpu.h, 0x08);
+                yield 8;
+            }
+            case 0x5D -> {
+                TestBit(cpu.l, 0x08);
+                yield 8;
+            }
+            case 0x5E -> {
+                TestBit(ReadHL(), 0x08);
+                yield 12;
+            }
+            case 0x5F -> {
+                TestBit(cpu.a, 0x08);
+                yield 8;
+            }
+            case 0x60 -> {
+                TestBit(cpu.b, 0x10);
+                yield 8;
+            }
+            case 0x61 -> {
+                TestBit(cpu.c, 0x10);
+                yield 8;
+            }
+            case 0x62 -> {
+                TestBit(cpu.d, 0x10);
+                yield 8;
+            }
+            case 0x63 -> {
+                TestBit(cpu.e, 0x10);
+                yield 8;
+            }
+            case 0x64 -> {
+                TestBit(cpu.h, 0x10);
+                yield 8;
+            }
+            case 0x65 -> {
+                TestBit(cpu.l, 0x10);
+                yield 8;
+            }
+            case 0x66 -> {
+                TestBit(ReadHL(), 0x10);
+                yield 12;
+            }
+            case 0x67 -> {
+                TestBit(cpu.a, 0x10);
+                yield 8;
+            }
+            case 0x68 -> {
+                TestBit(cpu.b, 0x20);
+                yield 8;
+            }
+            case 0x69 -> {
+                TestBit(cpu.c, 0x20);
+                yield 8;
+            }
+            case 0x6A -> {
+                TestBit(cpu.d, 0x20);
+                yield 8;
+            }
+            case 0x6B -> {
+                TestBit(cpu.e, 0x20);
+                yield 8;
+            }
+            case 0x6C -> {
+                TestBit(cpu.h, 0x20);
+                yield 8;
+            }
+            case 0x6D -> {
+                TestBit(cpu.l, 0x20);
+                yield 8;
+            }
+            case 0x6E -> {
+                TestBit(ReadHL(), 0x20);
+                yield 12;
+            }
+            case 0x6F -> {
+                TestBit(cpu.a, 0x20);
+                yield 8;
+            }
+            case 0x70 -> {
+                TestBit(cpu.b, 0x40);
+                yield 8;
+            }
+            case 0x71 -> {
+                TestBit(cpu.c, 0x40);
+                yield 8;
+            }
+            case 0x72 -> {
+                TestBit(cpu.d, 0x40);
+                yield 8;
+            }
+            case 0x73 -> {
+                TestBit(cpu.e, 0x40);
+                yield 8;
+            }
+            case 0x74 -> {
+                TestBit(cpu.h, 0x40);
+                yield 8;
+            }
+            case 0x75 -> {
+                TestBit(cpu.l, 0x40);
+                yield 8;
+            }
+            case 0x76 -> {
+                TestBit(ReadHL(), 0x40);
+                yield 12;
+            }
+            case 0x77 -> {
+                TestBit(cpu.a, 0x40);
+                yield 8;
+            }
+            case 0x78 -> {
+                TestBit(cpu.b, 0x80);
+                yield 8;
+            }
+            case 0x79 -> {
+                TestBit(cpu.c, 0x80);
+                yield 8;
+            }
+            case 0x7A -> {
+                TestBit(cpu.d, 0x80);
+                yield 8;
+            }
+            case 0x7B -> {
+                TestBit(cpu.e, 0x80);
+                yield 8;
+            }
+            case 0x7C -> {
+                TestBit(cpu.h, 0x80);
+                yield 8;
+            }
+            case 0x7D -> {
+                TestBit(cpu.l, 0x80);
+                yield 8;
+            }
+            case 0x7E -> {
+                TestBit(ReadHL(), 0x80);
+                yield 12;
+            }
+            case 0x7F -> {
+                TestBit(cpu.a, 0x80);
+                yield 8;
+            }
+            case 0x80 -> {
+                cpu.b = cpu.b & 0xFE;
+                yield 8;
+            }
+            case 0x81 -> {
+                cpu.c = cpu.c & 0xFE;
+                yield 8;
+            }
+            case 0x82 -> {
+                cpu.d = cpu.d & 0xFE;
+                yield 8;
+            }
+            case 0x83 -> {
+                cpu.e = cpu.e & 0xFE;
+                yield 8;
+            }
+            case 0x84 -> {
+                cpu.h = cpu.h & 0xFE;
+                yield 8;
+            }
+            case 0x85 -> {
+                cpu.l = cpu.l & 0xFE;
+                yield 8;
+            }
+            case 0x86 -> {
+                WriteHL(ReadHL() & 0xFE);
+                yield 16;
+            }
+            case 0x87 -> {
+                cpu.a = cpu.a & 0xFE;
+                yield 8;
+            }
+            case 0x88 -> {
+                cpu.b = cpu.b & 0xFD;
+                yield 8;
+            }
+            case 0x89 -> {
+                cpu.c = cpu.c & 0xFD;
+                yield 8;
+            }
+            case 0x8A -> {
+                cpu.d = cpu.d & 0xFD;
+                yield 8;
+            }
+            case 0x8B -> {
+                cpu.e = cpu.e & 0xFD;
+                yield 8;
+            }
+            case 0x8C -> {
+                cpu.h = cpu.h & 0xFD;
+                yield 8;
+            }
+            case 0x8D -> {
+                cpu.l = cpu.l & 0xFD;
+                yield 8;
+            }
+            case 0x8E -> {
+                WriteHL(ReadHL() & 0xFD);
+                yield 16;
+            }
+            case 0x8F -> {
+                cpu.a = cpu.a & 0xFD;
+                yield 8;
+            }
+            case 0x90 -> {
+                cpu.b = cpu.b & 0xFB;
+                yield 8;
+            }
+            case 0x91 -> {
+                cpu.c = cpu.c & 0xFB;
+                yield 8;
+            }
+            case 0x92 -> {
+                cpu.d = cpu.d & 0xFB;
+                yield 8;
+            }
+            case 0x93 -> {
+                cpu.e = cpu.e & 0xFB;
+                yield 8;
+            }
+            case 0x94 -> {
+                cpu.h = cpu.h & 0xFB;
+                yield 8;
+            }
+            case 0x95 -> {
+                cpu.l = cpu.l & 0xFB;
+                yield 8;
+            }
+            case 0x96 -> {
+                WriteHL(ReadHL() & 0xFB);
+                yield 16;
+            }
+            case 0x97 -> {
+                cpu.a = cpu.a & 0xFB;
+                yield 8;
+            }
+            case 0x98 -> {
+                cpu.b = cpu.b & 0xF7;
+                yield 8;
+            }
+            case 0x99 -> {
+                cpu.c = cpu.c & 0xF7;
+                yield 8;
+            }
+            case 0x9A -> {
+                cpu.d = cpu.d & 0xF7;
+                yield 8;
+            }
+            case 0x9B -> {
+                cpu.e = cpu.e & 0xF7;
+                yield 8;
+            }
+            case 0x9C -> {
+                cpu.h = cpu.h & 0xF7;
+                yield 8;
+            }
+            case 0x9D -> {
+                cpu.l = cpu.l & 0xF7;
+                yield 8;
+            }
+            case 0x9E -> {
+                WriteHL(ReadHL() & 0xF7);
+                yield 16;
+            }
+            case 0x9F -> {
+                cpu.a = cpu.a & 0xF7;
+                yield 8;
+            }
+            case 0xA0 -> {
+                cpu.b = cpu.b & 0xEF;
+                yield 8;
+            }
+            case 0xA1 -> {
+                cpu.c = cpu.c & 0xEF;
+                yield 8;
+            }
+            case 0xA2 -> {
+                cpu.d = cpu.d & 0xEF;
+                yield 8;
+            }
+            case 0xA3 -> {
+                cpu.e = cpu.e & 0xEF;
+                yield 8;
+            }
+            case 0xA4 -> {
+                cpu.h = cpu.h & 0xEF;
+                yield 8;
+            }
+            case 0xA5 -> {
+                cpu.l = cpu.l & 0xEF;
+                yield 8;
+            }
+            case 0xA6 -> {
+                WriteHL(ReadHL() & 0xEF);
+                yield 16;
+            }
+            case 0xA7 -> {
+                cpu.a = cpu.a & 0xEF;
+                yield 8;
+            }
+            case 0xA8 -> {
+                cpu.b = cpu.b & 0xDF;
+                yield 8;
+            }
+            case 0xA9 -> {
+                cpu.c = cpu.c & 0xDF;
+                yield 8;
+            }
+            case 0xAA -> {
+                cpu.d = cpu.d & 0xDF;
+                yield 8;
+            }
+            case 0xAB -> {
+                cpu.e = cpu.e & 0xDF;
+                yield 8;
+            }
+            case 0xAC -> {
+                cpu.h = cpu.h & 0xDF;
+                yield 8;
+            }
+            case 0xAD -> {
+                cpu.l = cpu.l & 0xDF;
+                yield 8;
+            }
+            case 0xAE -> {
+                WriteHL(ReadHL() & 0xDF);
+                yield 16;
+            }
+            case 0xAF -> {
+                cpu.a = cpu.a & 0xDF;
+                yield 8;
+            }
+            case 0xB0 -> {
+                cpu.b = cpu.b & 0xBF;
+                yield 8;
+            }
+            case 0xB1 -> {
+                cpu.c = cpu.c & 0xBF;
+                yield 8;
+            }
+            case 0xB2 -> {
+                cpu.d = cpu.d & 0xBF;
+                yield 8;
+            }
+            case 0xB3 -> {
+                cpu.e = cpu.e & 0xBF;
+                yield 8;
+            }
+            case 0xB4 -> {
+                cpu.h = cpu.h & 0xBF;
+                yield 8;
+            }
+            case 0xB5 -> {
+                cpu.l = cpu.l & 0xBF;
+                yield 8;
+            }
+            case 0xB6 -> {
+                WriteHL(ReadHL() & 0xBF);
+                yield 16;
+            }
+            case 0xB7 -> {
+                cpu.a = cpu.a & 0xBF;
+                yield 8;
+            }
+            case 0xB8 -> {
+                cpu.b = cpu.b & 0x7F;
+                yield 8;
+            }
+            case 0xB9 -> {
+                cpu.c = cpu.c & 0x7F;
+                yield 8;
+            }
+            case 0xBA -> {
+                cpu.d = cpu.d & 0x7F;
+                yield 8;
+            }
+            case 0xBB -> {
+                cpu.e = cpu.e & 0x7F;
+                yield 8;
+            }
+            case 0xBC -> {
+                cpu.h = cpu.h & 0x7F;
+                yield 8;
+            }
+            case 0xBD -> {
+                cpu.l = cpu.l & 0x7F;
+                yield 8;
+            }
+            case 0xBE -> {
+                WriteHL(ReadHL() & 0x7F);
+                yield 16;
+            }
+            case 0xBF -> {
+                cpu.a = cpu.a & 0x7F;
+                yield 8;
+            }
+            case 0xC0 -> {
+                cpu.b = cpu.b | 0x01;
+                yield 8;
+            }
+            case 0xC1 -> {
+                cpu.c = cpu.c | 0x01;
+                yield 8;
+            }
+            case 0xC2 -> {
+                cpu.d = cpu.d | 0x01;
+                yield 8;
+            }
+            case 0xC3 -> {
+                cpu.e = cpu.e | 0x01;
+                yield 8;
+            }
+            case 0xC4 -> {
+                cpu.h = cpu.h | 0x01;
+                yield 8;
+            }
+            case 0xC5 -> {
+                cpu.l = cpu.l | 0x01;
+                yield 8;
+            }
+            case 0xC6 -> {
+                WriteHL(ReadHL() | 0x01);
+                yield 16;
+            }
+            case 0xC7 -> {
+                cpu.a = cpu.a | 0x01;
+                yield 8;
+            }
+            case 0xC8 -> {
+                cpu.b = cpu.b | 0x02;
+                yield 8;
+            }
+            case 0xC9 -> {
+                cpu.c = cpu.c | 0x02;
+                yield 8;
+            }
+            case 0xCA -> {
+                cpu.d = cpu.d | 0x02;
+                yield 8;
+            }
+            case 0xCB -> {
+                cpu.e = cpu.e | 0x02;
+                yield 8;
+            }
+            case 0xCC -> {
+                cpu.h = cpu.h | 0x02;
+                yield 8;
+            }
+            case 0xCD -> {
+                cpu.l = cpu.l | 0x02;
+                yield 8;
+            }
+            case 0xCE -> {
+                WriteHL(ReadHL() | 0x02);
+                yield 16;
+            }
+            case 0xCF -> {
+                cpu.a = cpu.a | 0x02;
+                yield 8;
+            }
+            case 0xD0 -> {
+                cpu.b = cpu.b | 0x04;
+                yield 8;
+            }
+            case 0xD1 -> {
+                cpu.c = cpu.c | 0x04;
+                yield 8;
+            }
+            case 0xD2 -> {
+                cpu.d = cpu.d | 0x04;
+                yield 8;
+            }
+            case 0xD3 -> {
+                cpu.e = cpu.e | 0x04;
+                yield 8;
+            }
+            case 0xD4 -> {
+                cpu.h = cpu.h | 0x04;
+                yield 8;
+            }
+            case 0xD5 -> {
+                cpu.l = cpu.l | 0x04;
+                yield 8;
+            }
+            case 0xD6 -> {
+                WriteHL(ReadHL() | 0x04);
+                yield 16;
+            }
+            case 0xD7 -> {
+                cpu.a = cpu.a | 0x04;
+                yield 8;
+            }
+            case 0xD8 -> {
+                cpu.b = cpu.b | 0x08;
+                yield 8;
+            }
+            case 0xD9 -> {
+                cpu.c = cpu.c | 0x08;
+                yield 8;
+            }
+            case 0xDA -> {
+                cpu.d = cpu.d | 0x08;
+                yield 8;
+            }
+            case 0xDB -> {
+                cpu.e = cpu.e | 0x08;
+                yield 8;
+            }
+            case 0xDC -> {
+                cpu.h = cpu.h | 0x08;
+                yield 8;
+            }
+            case 0xDD -> {
+                cpu.l = cpu.l | 0x08;
+                yield 8;
+            }
+            case 0xDE -> {
+                WriteHL(ReadHL() | 0x08);
+                yield 16;
+            }
+            case 0xDF -> {
+                cpu.a = cpu.a | 0x08;
+                yield 8;
+            }
+            case 0xE0 -> {
+                cpu.b = cpu.b | 0x10;
+                yield 8;
+            }
+            case 0xE1 -> {
+                cpu.c = cpu.c | 0x10;
+                yield 8;
+            }
+            case 0xE2 -> {
+                cpu.d = cpu.d | 0x10;
+                yield 8;
+            }
+            case 0xE3 -> {
+                cpu.e = cpu.e | 0x10;
+                yield 8;
+            }
+            case 0xE4 -> {
+                cpu.h = cpu.h | 0x10;
+                yield 8;
+            }
+            case 0xE5 -> {
+                cpu.l = cpu.l | 0x10;
+                yield 8;
+            }
+            case 0xE6 -> {
+                WriteHL(ReadHL() | 0x10);
+                yield 16;
+            }
+            case 0xE7 -> {
+                cpu.a = cpu.a | 0x10;
+                yield 8;
+            }
+            case 0xE8 -> {
+                cpu.b = cpu.b | 0x20;
+                yield 8;
+            }
+            case 0xE9 -> {
+                cpu.c = cpu.c | 0x20;
+                yield 8;
+            }
+            case 0xEA -> {
+                cpu.d = cpu.d | 0x20;
+                yield 8;
+            }
+            case 0xEB -> {
+                cpu.e = cpu.e | 0x20;
+                yield 8;
+            }
+            case 0xEC -> {
+                cpu.h = cpu.h | 0x20;
+                yield 8;
+            }
+            case 0xED -> {
+                cpu.l = cpu.l | 0x20;
+                yield 8;
+            }
+            case 0xEE -> {
+                WriteHL(ReadHL() | 0x20);
+                yield 16;
             }
-            if (h || (a & 0x0F) > 9) {
-                correction |= 0x06;
+            case 0xEF -> {
+                cpu.a = cpu.a | 0x20;
+                yield 8;
             }
-            a += correction;
-        }
-        a &= 0xFF;
-        cpu.SetAccumulator(a);
-        cpu.SetFlag(Flag.Z, a == 0);
-        cpu.SetFlag(Flag.H, false);
-        cpu.SetFlag(Flag.C, c);
-        return 4;
-    }
-
-    /**
-     * Inverts the Accumulator and adjusts flags
-     * 
-     * @return 4 T-cycles
-     */
-    public static int ComplementAccumulator() {
-        int a = cpu.GetAccumulator();
-        a = (~a) & 0xFF;
-        cpu.SetAccumulator(a);
-        cpu.SetFlag(Flag.N, true);
-        cpu.SetFlag(Flag.H, true);
-        return 4;
-    }
-
-    /**
-     * Flips the carry flag and adjusts other flags
-     * 
-     * @return 4 T-cycles
-     */
-    public static int ComplementCarryFlag() {
-        cpu.SetFlag(Flag.C, !cpu.GetFlag(Flag.C));
-        cpu.SetFlag(Flag.N, false);
-        cpu.SetFlag(Flag.H, false);
-        return 4;
-    }
-
-    private static void SetBitwiseFlags(int result, BitwiseType bitwiseType) {
-        cpu.SetFlag(Flag.H, bitwiseType == BitwiseType.AND);
-        cpu.SetFlag(Flag.Z, result == 0);
-        cpu.SetFlag(Flag.N, false);
-        cpu.SetFlag(Flag.C, false);
-    }
-
-    private static int CalculateBitwiseOp(int a, int b, BitwiseType bitwiseType) {
-        switch (bitwiseType) {
-            case AND -> {
-                return a & b;
+            case 0xF0 -> {
+                cpu.b = cpu.b | 0x40;
+                yield 8;
             }
-            case OR -> {
-                return a | b;
+            case 0xF1 -> {
+                cpu.c = cpu.c | 0x40;
+                yield 8;
             }
-            case XOR -> {
-                return a ^ b;
+            case 0xF2 -> {
+                cpu.d = cpu.d | 0x40;
+                yield 8;
             }
-        }
-        return -1;
+            case 0xF3 -> {
+                cpu.e = cpu.e | 0x40;
+                yield 8;
+            }
+            case 0xF4 -> {
+                cpu.h = cpu.h | 0x40;
+                yield 8;
+            }
+            case 0xF5 -> {
+                cpu.l = cpu.l | 0x40;
+                yield 8;
+            }
+            case 0xF6 -> {
+                WriteHL(ReadHL() | 0x40);
+                yield 16;
+            }
+            case 0xF7 -> {
+                cpu.a = cpu.a | 0x40;
+                yield 8;
+            }
+            case 0xF8 -> {
+                cpu.b = cpu.b | 0x80;
+                yield 8;
+            }
+            case 0xF9 -> {
+                cpu.c = cpu.c | 0x80;
+                yield 8;
+            }
+            case 0xFA -> {
+                cpu.d = cpu.d | 0x80;
+                yield 8;
+            }
+            case 0xFB -> {
+                cpu.e = cpu.e | 0x80;
+                yield 8;
+            }
+            case 0xFC -> {
+                cpu.h = cpu.h | 0x80;
+                yield 8;
+            }
+            case 0xFD -> {
+                cpu.l = cpu.l | 0x80;
+                yield 8;
+            }
+            case 0xFE -> {
+                WriteHL(ReadHL() | 0x80);
+                yield 16;
+            }
+            case 0xFF -> {
+                cpu.a = cpu.a | 0x80;
+                yield 8;
+            }
+            default -> throw new IllegalArgumentException("Invalid CB-prefixed opcode: " + opcode);
+        };
     }
 
-    private static int BitwiseEngine(BitwiseType bitwiseType, int b) {
-        int a = cpu.GetAccumulator();
-        int result = CalculateBitwiseOp(a, b, bitwiseType);
-        cpu.SetAccumulator(result);
-        SetBitwiseFlags(result, bitwiseType);
+    private int IllegalInstruction(int opcode) {
+        System.err.printf("Illegal or unimplemented instruction: 0x%02X%n", opcode);
         return 4;
     }
 
-    /**
-     * Bitwise Operation using byte specified in register HL
-     * 
-     * @param bitwiseType
-     * @return 8 T-cycles
-     */
-    public static int Bitwise(BitwiseType bitwiseType) {
-        BitwiseEngine(bitwiseType, memory.Read(cpu.GetHL()));
-        return 8;
+    private int ReadHL() {
+        return memory.Read(cpu.GetHL());
     }
 
-    /**
-     * Bitwise operation using specified register
-     * 
-     * @param bitwiseType type of operation to use
-     * @param register
-     * @return 4 T-cycles
-     */
-    public static int Bitwise(BitwiseType bitwiseType, Register register) {
-        BitwiseEngine(bitwiseType, cpu.GetRegister(register));
-        return 4;
+    private void WriteHL(int value) {
+        memory.Write(cpu.GetHL(), value);
     }
 
-    /**
-     * Bitwise operation using an immediate
-     * 
-     * @param bitwiseType type of operation to use
-     * @param immediate   the immediate value
-     * @return 8 T-cycles
-     */
-    public static int Bitwise(BitwiseType bitwiseType, int immediate) {
-        BitwiseEngine(bitwiseType, immediate);
-        return 8;
+    private int Carry() {
+        return (cpu.f & flagC) >>> 4;
     }
 
-    private static boolean CalculateHalfCarry(int positiveRegister, int modifier, int carry, ArithmeticType type) {
-        if (type == ArithmeticType.ADD)
-            return ((positiveRegister & 0xF) + (modifier & 0xF) + carry) > 0xF;
-        else
-            return ((positiveRegister & 0xF) - (modifier & 0xF) - carry) < 0;
+    // =============================================================
+    // 8-BIT ARITHMETIC AND LOGIC
+    // =============================================================
 
+    private int Increment(int value) {
+        int result = (value + 1) & 0xFF;
+        cpu.f = (result == 0 ? flagZ : 0)
+                | ((value & 0xF) == 0xF ? flagH : 0)
+                | (cpu.f & flagC);
+        return result;
     }
 
-    private static boolean CalculateCarry(int result, ArithmeticType type) {
-        if (type == ArithmeticType.ADD)
-            return result > 0xFF;
-        else
-            return result < 0;
-
+    private int Decrement(int value) {
+        int result = (value - 1) & 0xFF;
+        cpu.f = (result == 0 ? flagZ : 0)
+                | flagN
+                | ((value & 0xF) == 0 ? flagH : 0)
+                | (cpu.f & flagC);
+        return result;
     }
 
-    private static void ArithmeticEngine(int b, boolean usingCarry, ArithmeticType type) {
-        int a = cpu.GetAccumulator();
-        int result = 0;
-        int carry = (usingCarry && cpu.GetFlag(Flag.C) ? 1 : 0);
-        int diff = (b + carry);
-        if (type == ArithmeticType.ADD)
-            result = a + diff;
-        else
-            result = a - diff;
-
-        if (type != ArithmeticType.CP)
-            cpu.SetAccumulator(result);
-
-        cpu.SetFlag(Flag.Z, (result & 0xFF) == 0);
-        cpu.SetFlag(Flag.N, type != ArithmeticType.ADD);
-        cpu.SetFlag(Flag.C, CalculateCarry(result, type));
-        cpu.SetFlag(Flag.H, CalculateHalfCarry(a, b, carry, type));
+    private void Add(int value, int carry) {
+        int a = cpu.a;
+        int result = a + value + carry;
+        cpu.a = result & 0xFF;
+        cpu.f = ((result & 0xFF) == 0 ? flagZ : 0)
+                | (((a & 0xF) + (value & 0xF) + carry) > 0xF ? flagH : 0)
+                | (result > 0xFF ? flagC : 0);
     }
 
     /**
-     * Arithmetic operation for working on the data specified at address in register
-     * HL
-     * Default is not using carry
-     * 
-     * @param type the opeation type
-     * @return 8 T-cycles
+     * Subtracts from the accumulator and sets the flags, leaving the
+     * accumulator alone so {@code CP} can share it.
      */
-    public static int Arithmetic(ArithmeticType type) {
-        return Arithmetic(type, false);
+    private int Subtract(int value, int carry) {
+        int a = cpu.a;
+        int result = a - value - carry;
+        cpu.f = ((result & 0xFF) == 0 ? flagZ : 0)
+                | flagN
+                | (((a & 0xF) - (value & 0xF) - carry) < 0 ? flagH : 0)
+                | (result < 0 ? flagC : 0);
+        return result & 0xFF;
     }
 
-    /**
-     * Arithmetic operation for working on the data specified at address in register
-     * HL, specifying carry
-     * 
-     * @param type       the opeation type
-     * @param usingCarry whether to use carry or not
-     * @return 8 T-cycles
-     */
-    public static int Arithmetic(ArithmeticType type, boolean usingCarry) {
-        ArithmeticEngine(memory.Read(cpu.GetHL()), usingCarry, type);
-        return 8;
+    private void And(int value) {
+        cpu.a &= value;
+        cpu.f = (cpu.a == 0 ? flagZ : 0) | flagH;
     }
 
-    /**
-     * Arithmetic operation for working on the data in a register
-     * Default is not using carry
-     * 
-     * @param type     the opeation type
-     * @param register the register
-     * @return 4 T-cycles
-     */
-    public static int Arithmetic(ArithmeticType type, Register register) {
-        return Arithmetic(type, register, false);
+    private void Xor(int value) {
+        cpu.a ^= value;
+        cpu.f = cpu.a == 0 ? flagZ : 0;
     }
 
-    /**
-     * Arithmetic operation for working on the data in a register, specifying carry
-     * 
-     * @param type       the opeation type
-     * @param register   the register
-     * @param usingCarry whether to use carry or not
-     * @return 4 T-cycles
-     */
-    public static int Arithmetic(ArithmeticType type, Register register, boolean usingCarry) {
-        ArithmeticEngine(cpu.GetRegister(register), usingCarry, type);
-        return 4;
+    private void Or(int value) {
+        cpu.a |= value;
+        cpu.f = cpu.a == 0 ? flagZ : 0;
     }
 
     /**
-     * Arithmetic operation for working on an immediate
-     * Default is not using carry
-     * 
-     * @param type      the opeation type
-     * @param immediate the immediate
-     * @return 8 T-cycles
+     * Adjusts the accumulator to a valid BCD number after an add or subtract.
      */
-    public static int Arithmetic(ArithmeticType type, int immediate) {
-        return Arithmetic(type, immediate, false);
+    private int DecimalAdjustAccumulator() {
+        int a = cpu.a;
+        int correction = 0;
+        boolean carry = (cpu.f & flagC) != 0;
+        if ((cpu.f & flagN) != 0) {
+            if (carry)
+                correction |= 0x60;
+            if ((cpu.f & flagH) != 0)
+                correction |= 0x06;
+            a -= correction;
+        } else {
+            if (carry || a > 0x99) {
+                correction |= 0x60;
+                carry = true;
+            }
+            if ((cpu.f & flagH) != 0 || (a & 0x0F) > 9) {
+                correction |= 0x06;
+            }
+            a += correction;
+        }
+        a &= 0xFF;
+        cpu.a = a;
+        cpu.f = (a == 0 ? flagZ : 0) | (cpu.f & flagN) | (carry ? flagC : 0);
+        return 4;
     }
 
-    /**
-     * Arithmetic operation for working on an immediate, specifying carry
-     * 
-     * @param type       the opeation type
-     * @param immediate  the immediate
-     * @param usingCarry whether to use carry or not
-     * @return 8 T-cycles
-     */
-    public static int Arithmetic(ArithmeticType type, int immediate, boolean usingCarry) {
-        ArithmeticEngine(immediate, usingCarry, type);
-        return 8;
-    }
+    // =============================================================
+    // 16-BIT ARITHMETIC
+    // =============================================================
 
-    /**
-     * Adds a register pair to HL
-     * 
-     * @param registerPair the register pair to add
-     * @return 8 T-cycles
-     */
-    public static int AddPairHL(Register registerPair) {
+    private void AddHL(int value) {
         int hl = cpu.GetHL();
-        int value = cpu.GetRegisterPair(registerPair);
         int result = hl + value;
         cpu.SetHL(result & 0xFFFF);
-
-        cpu.SetFlag(Flag.N, false);
-        cpu.SetFlag(Flag.H, (hl & 0xFFF) + (value & 0xFFF) > 0xFFF);
-        cpu.SetFlag(Flag.C, result > 0xFFFF);
-        return 8;
+        cpu.f = (cpu.f & flagZ)
+                | ((hl & 0xFFF) + (value & 0xFFF) > 0xFFF ? flagH : 0)
+                | (result > 0xFFFF ? flagC : 0);
     }
 
-    public static int AddByteSP(int immediate) {
-        int sp = cpu.GetSP();
+    /**
+     * Adds a signed immediate to SP for {@code ADD SP,e8} and
+     * {@code LD HL,SP+e8}, setting the flags from the low byte.
+     */
+    private int AddSignedToStackPointer(int immediate) {
+        int sp = cpu.sp;
         int signedOffset = (byte) immediate;
         int result = (sp + signedOffset) & 0xFFFF;
         int xor = sp ^ signedOffset ^ result;
-
-        cpu.SetSP(result);
-        cpu.SetFlag(Flag.Z, false);
-        cpu.SetFlag(Flag.N, false);
-        cpu.SetFlag(Flag.H, (xor & 0x10) != 0);
-        cpu.SetFlag(Flag.C, (xor & 0x100) != 0);
-        return 16;
-    }
-
-    private static void LoadRegisterEngineByte(Register destination, int value) {
-        cpu.SetRegister(destination, value);
-    }
-
-    private static void LoadRegisterEngineShort(Register destination, int value) {
-        cpu.SetRegisterPair(destination, value);
-    }
-
-    /**
-     * Loads a value from a register into another register
-     * 
-     * @param destination the destination register
-     * @param source      the source register
-     * @return 4 T-cycles
-     */
-    public static int LoadRegisterFromRegister(Register destination, Register source) {
-        LoadRegisterEngineByte(destination, cpu.GetRegister(source));
-        return 4;
-    }
-
-    /**
-     * Loads a value from an immediate into a register
-     * 
-     * @param destination the destination register
-     * @param value       the immediate
-     * @return 8 T-cycles
-     */
-    public static int LoadRegisterFromImmediate(Register destination, int value) {
-        LoadRegisterEngineByte(destination, value);
-        return 8;
-    }
-
-    /**
-     * Loads a value from an immediate into a register pair
-     * 
-     * @param destination the destination register pair
-     * @param immediate   the immediate
-     * @return 12 T-cycles
-     */
-    public static int LoadRegisterPairFromImmediate(Register destination, int immediate) {
-        LoadRegisterEngineShort(destination, immediate);
-        return 12;
-    }
-
-    private static void StoreAccumulatorInAddress(int address) {
-        memory.Write(address, cpu.GetAccumulator());
-    }
-
-    /**
-     * Stores the accumulator value in memory at address specified by a register
-     * pair
-     * 
-     * @param registerPair the register pair
-     * @return 8 T-cycles
-     */
-    public static int AccumulatorToMemoryViaRegisterPair(Register registerPair) {
-        StoreAccumulatorInAddress(cpu.GetRegisterPair(registerPair));
-        return 8;
-    }
-
-    /**
-     * Stores the accumulator value in memory at address specified by HL.
-     * HL is then incremented
-     * 
-     * @return 8 T-cycles
-     */
-    public static int AccumulatorToMemoryViaHLIncrement() {
-        StoreAccumulatorInAddress(cpu.GetHL());
-        cpu.SetHL(cpu.GetHL() + 1);
-        return 8;
-    }
-
-    /**
-     * Stores the accumulator value in memory at address specified by HL.
-     * HL is then decremented
-     * 
-     * @return 8 T-cycles
-     */
-    public static int AccumulatorToMemoryViaHLDecrement() {
-        StoreAccumulatorInAddress(cpu.GetHL());
-        cpu.SetHL(cpu.GetHL() - 1);
-        return 8;
-    }
-
-    /**
-     * Store the accumulator contents specified by a 2-byte immediate value
-     * 
-     * @param immediate the immediate value
-     * @return 16 T-cycles
-     */
-    public static int AccumulatorToMemoryImmediate(int immediate) {
-        StoreAccumulatorInAddress(immediate);
-        return 16;
-    }
-
-    private static void AccumulatorToMemoryMasked(int mask) {
-        int maskedAddress = 0xFF00 | (mask & 0xFF);
-        StoreAccumulatorInAddress(maskedAddress);
-    }
-
-    /**
-     * Stores the accumulator in memory at register 0xFF00 + immediate
-     * 
-     * @param immediate the immediate value
-     * @return 12 T-cycles
-     */
-    public static int AccumulatorToMemoryWithImmediateMask(int immediate) {
-        AccumulatorToMemoryMasked(immediate);
-        return 12;
-    }
-
-    /**
-     * Stores the accumulator in memory at register 0xFF00 + C
-     * 
-     * @return 8 T-cycles
-     */
-    public static int AccumulatorToMemoryWithCRegisterMask() {
-        AccumulatorToMemoryMasked(cpu.GetC());
-        return 8;
-    }
-
-    /**
-     * Stores an immmediate in memory at the address specified by HL
-     * 
-     * @param immediate the immediate value
-     * @return 12 T-cycles
-     */
-    public static int ImmediateToMemoryViaHL(int immediate) {
-        memory.Write(cpu.GetHL(), immediate);
-        return 12;
-    }
-
-    /**
-     * Stores an accumulator in memory at the address specified by HL
-     * 
-     * @return 8 T-cycles
-     */
-    public static int RegisterToMemoryViaHL(Register register) {
-        memory.Write(cpu.GetHL(), cpu.GetRegister(register));
-        return 8;
-    }
-
-    private static void LoadAccumulatorFromMemoryAddress(int address) {
-        cpu.SetAccumulator(memory.Read(address));
-    }
-
-    public static int LoadAccumulatorFromMemoryViaRegisterPair(Register registerPair) {
-        LoadAccumulatorFromMemoryAddress(cpu.GetRegisterPair(registerPair));
-        return 8;
-    }
-
-    /**
-     * Loads the accumulator from memory at address specified by HL.
-     * HL is then incremented
-     * 
-     * @return 8 T-cycles
-     */
-
-    public static int LoadAccumulatorFromMemoryViaHLIncrement() {
-        LoadAccumulatorFromMemoryViaRegisterPair(Register.HL);
-        cpu.SetHL(cpu.GetHL() + 1);
-        return 8;
-    }
-
-    /**
-     * Loads the accumulator from memory at address specified by HL.
-     * HL is then decremented
-     * 
-     * @return 8 T-cycles
-     */
-    public static int LoadAccumulatorFromMemoryViaHLDecrement() {
-        LoadAccumulatorFromMemoryViaRegisterPair(Register.HL);
-        cpu.SetHL(cpu.GetHL() - 1);
-        return 8;
-    }
-
-    /**
-     * Loads the accumulator from memory at address specified by an immediate
-     * 
-     * @param immediate the immediate address
-     * @return 16 T-cycles
-     */
-    public static int LoadAccumulatorFromMemoryViaImmediate(int immediate) {
-        LoadAccumulatorFromMemoryAddress(immediate);
-        return 16;
-    }
-
-    /**
-     * Loads the accumulator from memory at address 0xFF00 + immediate mask
-     * 
-     * @param mask the immediate mask
-     * @return 12 T-cycles
-     */
-    public static int LoadAccumulatorFromMemoryViaMaskedImmediate(int mask) {
-        int maskedAddress = 0xFF00 | (mask & 0xFF);
-        LoadAccumulatorFromMemoryAddress(maskedAddress);
-        return 12;
-    }
-
-    /**
-     * Loads the accumulator from memory at address 0xFF00 + C register value
-     * 
-     * @return 8 T-cycles
-     */
-    public static int LoadAccumulatorFromMemoryViaCRegisterMask() {
-        LoadAccumulatorFromMemoryViaMaskedImmediate(cpu.GetC());
-        return 8;
-    }
-
-    /**
-     * Loads a register from memory at the address specified by HL
-     * 
-     * @param register the destination register
-     * @return 8 T-cycles
-     */
-    public static int LoadRegisterFromMemoryViaHL(Register register) {
-        cpu.SetRegister(register, memory.Read(cpu.GetHL()));
-        return 8;
-    }
-
-    /**
-     * Sets the Stack Pointer (SP) to the value of the HL register pair
-     * 
-     * @return 8 T-cycles
-     */
-    public static int SetSPToHL() {
-        cpu.SetSP(cpu.GetHL());
-        return 8;
-    }
-
-    /**
-     * Stores the Stack Pointer (SP) in memory at the address specified by a
-     * register pair
-     * 
-     * @param registerPair the register pair specifying the address
-     * @return 20 T-cycles
-     */
-    public static int StoreSPInAddressViaRegisterPair(Register registerPair) {
-        int sp = cpu.GetSP();
-        int address1 = cpu.GetRegisterPair(registerPair);
-        int address2 = (address1 + 1) & 0xFFFF;
-        memory.Write(address1, sp & 0xFF);
-        memory.Write(address2, (sp >> 8) & 0xFF);
-        return 20;
+        cpu.f = ((xor & 0x10) != 0 ? flagH : 0) | ((xor & 0x100) != 0 ? flagC : 0);
+        return result;
     }
 
-    /**
-     * Stores the Stack Pointer (SP) in memory at the specified address.
-     *
-     * @param address the destination address
-     * @return 20 T-cycles
-     */
-    public static int StoreSPInImmediateAddress(int address) {
-        int sp = cpu.GetSP();
+    private int StoreStackPointer(int address) {
+        int sp = cpu.sp;
         memory.Write(address, sp & 0xFF);
         memory.Write((address + 1) & 0xFFFF, (sp >> 8) & 0xFF);
         return 20;
     }
 
-    /**
-     * Loads HL with the result of SP + a signed immediate value
-     * 
-     * @param immediate the signed 8-bit immediate
-     * @return 12 T-cycles
-     */
-    public static int LoadToHLStackPointerPlusImmediate(int immediate) {
-        int sp = cpu.GetSP();
-        int signedOffset = (byte) immediate;
-        int result = (sp + signedOffset) & 0xFFFF;
-        int xor = sp ^ signedOffset ^ result;
-        cpu.SetHL(result);
-        cpu.SetFlag(Flag.Z, false);
-        cpu.SetFlag(Flag.N, false);
-        cpu.SetFlag(Flag.H, (xor & 0x10) != 0);
-        cpu.SetFlag(Flag.C, (xor & 0x100) != 0);
-        return 12;
-    }
-
-    /**
-     * Pops a 16-bit value from the stack into a register pair
-     * 
-     * @param registerPair the destination register pair
-     * @return 12 T-cycles
-     */
-    public static int StackPopToRegisterPair(Register registerPair) {
-        int popped = memory.StackPopShort();
-        cpu.SetRegisterPair(registerPair, popped);
-        return 12;
-    }
-
-    /**
-     * Pushes a 16-bit value from a register pair onto the stack
-     * 
-     * @param registerPair the source register pair
-     * @return 16 T-cycles
-     */
-    public static int StackPushFromRegisterPair(Register registerPair) {
-        memory.StackPushShort(cpu.GetRegisterPair(registerPair));
-        return 16;
-    }
-
     // =============================================================
-    // CB-PREFIXED INSTRUCTIONS
+    // ROTATES, SHIFTS AND BITS
     // =============================================================
 
-    private static void BitOpEngine(BitOpType opType, int bit, int value, Register register) {
-        int mask = 1 << bit;
-        int result = value;
-
-        switch (opType) {
-            case BIT:
-                cpu.SetFlag(Flag.Z, (value & mask) == 0);
-                cpu.SetFlag(Flag.N, false);
-                cpu.SetFlag(Flag.H, true);
-                return;
-            case RES:
-                result = value & ~mask;
-                break;
-            case SET:
-                result = value | mask;
-                break;
-        }
-
-        if (register == Register.HL_ADDR) {
-            memory.Write(cpu.GetHL(), result);
-        } else {
-            cpu.SetRegister(register, result);
-        }
+    private int RotateLeftCircular(int value) {
+        int result = ((value << 1) | (value >>> 7)) & 0xFF;
+        cpu.f = (result == 0 ? flagZ : 0) | ((value & 0x80) != 0 ? flagC : 0);
+        return result;
     }
 
-    /**
-     * Performs a BIT, RES, or SET operation on a register.
-     * 
-     * @param opType   the type of bit operation (BIT, RES, SET)
-     * @param bit      the bit position (0-7)
-     * @param register the target register
-     * @return 8 T-cycles
-     */
-    public static int BitOperation(BitOpType opType, int bit, Register register) {
-        BitOpEngine(opType, bit, cpu.GetRegister(register), register);
-        return 8;
+    private int RotateRightCircular(int value) {
+        int result = (value >>> 1) | ((value & 0x01) << 7);
+        cpu.f = (result == 0 ? flagZ : 0) | ((value & 0x01) != 0 ? flagC : 0);
+        return result;
     }
 
-    /**
-     * Performs a BIT, RES, or SET operation on the memory at (HL).
-     * 
-     * @param opType the type of bit operation (BIT, RES, SET)
-     * @param bit    the bit position (0-7)
-     * @return 12 T-cycles for BIT, 16 for RES/SET
-     */
-    public static int BitOperationHL(BitOpType opType, int bit) {
-        BitOpEngine(opType, bit, memory.Read(cpu.GetHL()), Register.HL_ADDR);
-        return opType == BitOpType.BIT ? 12 : 16;
+    private int RotateLeft(int value) {
+        int result = ((value << 1) | Carry()) & 0xFF;
+        cpu.f = (result == 0 ? flagZ : 0) | ((value & 0x80) != 0 ? flagC : 0);
+        return result;
     }
 
-    private static void RotateEngine(RotateType type, int value, Register register, boolean isCBPrefix) {
-        int result;
-        boolean oldCarry = cpu.GetFlag(Flag.C);
-        boolean newCarry;
-
-        switch (type) {
-            case RLC: // Rotate Left Circular
-            case RLCA:
-                newCarry = (value & 0x80) != 0;
-                result = (value << 1) | (newCarry ? 1 : 0);
-                break;
-            case RRC: // Rotate Right Circular
-            case RRCA:
-                newCarry = (value & 0x01) != 0;
-                result = (value >>> 1) | (newCarry ? 0x80 : 0);
-                break;
-            case RL: // Rotate Left through Carry
-            case RLA:
-                newCarry = (value & 0x80) != 0;
-                result = (value << 1) | (oldCarry ? 1 : 0);
-                break;
-            case RR: // Rotate Right through Carry
-            case RRA:
-                newCarry = (value & 0x01) != 0;
-                result = (value >>> 1) | (oldCarry ? 0x80 : 0);
-                break;
-            default:
-                return;
-        }
-
-        result &= 0xFF;
-
-        if (register == Register.HL_ADDR) {
-            memory.Write(cpu.GetHL(), result);
-        } else {
-            cpu.SetRegister(register, result);
-        }
-
-        cpu.SetFlag(Flag.Z, isCBPrefix && (result == 0));
-        cpu.SetFlag(Flag.N, false);
-        cpu.SetFlag(Flag.H, false);
-        cpu.SetFlag(Flag.C, newCarry);
+    private int RotateRight(int value) {
+        int result = (value >>> 1) | (Carry() << 7);
+        cpu.f = (result == 0 ? flagZ : 0) | ((value & 0x01) != 0 ? flagC : 0);
+        return result;
     }
 
-    /**
-     * Performs a rotate operation on a register or memory at (HL).
-     * 
-     * @param type     the type of rotate operation
-     * @param register the target register, or HL_ADDR for memory
-     * @return 4 for A-reg, 8 for other regs, 16 for (HL)
-     */
-    public static int Rotate(RotateType type, Register register) {
-        boolean isCBPrefix = type != RotateType.RLA && type != RotateType.RLCA && type != RotateType.RRA
-                && type != RotateType.RRCA;
-        int value = (register == Register.HL_ADDR) ? memory.Read(cpu.GetHL()) : cpu.GetRegister(register);
-
-        RotateEngine(type, value, register, isCBPrefix);
-
-        if (!isCBPrefix)
-            return 4;
-        return (register == Register.HL_ADDR) ? 16 : 8;
+    private int ShiftLeftArithmetic(int value) {
+        int result = (value << 1) & 0xFF;
+        cpu.f = (result == 0 ? flagZ : 0) | ((value & 0x80) != 0 ? flagC : 0);
+        return result;
     }
 
-    private static void ShiftEngine(ShiftType type, int value, Register register) {
-        int result;
-        boolean newCarry;
-
-        switch (type) {
-            case SLA: // Shift Left Arithmetic
-                newCarry = (value & 0x80) != 0;
-                result = value << 1;
-                break;
-            case SRA: // Shift Right Arithmetic
-                newCarry = (value & 0x01) != 0;
-                result = (value >> 1) | (value & 0x80); // Preserve MSB
-                break;
-            case SRL: // Shift Right Logical
-                newCarry = (value & 0x01) != 0;
-                result = value >>> 1;
-                break;
-            default:
-                return;
-        }
-        result &= 0xFF;
-
-        if (register == Register.HL_ADDR) {
-            memory.Write(cpu.GetHL(), result);
-        } else {
-            cpu.SetRegister(register, result);
-        }
-
-        cpu.SetFlag(Flag.Z, result == 0);
-        cpu.SetFlag(Flag.N, false);
-        cpu.SetFlag(Flag.H, false);
-        cpu.SetFlag(Flag.C, newCarry);
+    private int ShiftRightArithmetic(int value) {
+        int result = (value >> 1) | (value & 0x80);
+        cpu.f = (result == 0 ? flagZ : 0) | ((value & 0x01) != 0 ? flagC : 0);
+        return result;
     }
 
-    /**
-     * Performs a shift operation on a register or memory at (HL).
-     * 
-     * @param type     the type of shift operation
-     * @param register the target register, or HL_ADDR for memory
-     * @return 8 T-cycles for registers, 16 for (HL)
-     */
-    public static int Shift(ShiftType type, Register register) {
-        int value = (register == Register.HL_ADDR) ? memory.Read(cpu.GetHL()) : cpu.GetRegister(register);
-        ShiftEngine(type, value, register);
-        return (register == Register.HL_ADDR) ? 16 : 8;
+    private int ShiftRightLogical(int value) {
+        int result = value >>> 1;
+        cpu.f = (result == 0 ? flagZ : 0) | ((value & 0x01) != 0 ? flagC : 0);
+        return result;
     }
 
-    /**
-     * Swaps the upper and lower nibbles of a register or memory at (HL).
-     * 
-     * @param register the target register, or HL_ADDR for memory
-     * @return 8 T-cycles for registers, 16 for (HL)
-     */
-    public static int Swap(Register register) {
-        int value = (register == Register.HL_ADDR) ? memory.Read(cpu.GetHL()) : cpu.GetRegister(register);
+    private int Swap(int value) {
         int result = ((value & 0x0F) << 4) | ((value & 0xF0) >> 4);
+        cpu.f = result == 0 ? flagZ : 0;
+        return result;
+    }
 
-        if (register == Register.HL_ADDR) {
-            memory.Write(cpu.GetHL(), result);
-        } else {
-            cpu.SetRegister(register, result);
-        }
-
-        cpu.SetFlag(Flag.Z, result == 0);
-        cpu.SetFlag(Flag.N, false);
-        cpu.SetFlag(Flag.H, false);
-        cpu.SetFlag(Flag.C, false);
-
-        return (register == Register.HL_ADDR) ? 16 : 8;
+    private void TestBit(int value, int mask) {
+        cpu.f = ((value & mask) == 0 ? flagZ : 0) | flagH | (cpu.f & flagC);
     }
 
     // =============================================================
-    // FLOW CONTROL INSTRUCTIONS
+    // FLOW CONTROL
     // =============================================================
 
-    /**
-     * Jumps to a new address. Can be conditional, relative, or to (HL).
-     * 
-     * @param conditionMet true if the jump condition is met
-     * @param isRelative   true for a relative jump (JR)
-     * @param isHL         true for a jump to the address in HL
-     * @param operand      the 8-bit or 16-bit operand for the jump
-     * @return T-cycles (12/16 for JP, 8/12 for JR, 4 for JP (HL))
-     */
-    public static int Jump(boolean conditionMet, boolean isRelative, boolean isHL, int operand) {
-        if (!conditionMet) {
-            return isRelative ? 8 : 12;
-        }
-
-        if (isHL) {
-            cpu.SetPC(cpu.GetHL());
-            return 4;
-        } else if (isRelative) {
-            cpu.SetPC(cpu.GetPC() + (byte) operand);
-            return 12;
-        } else {
-            cpu.SetPC(operand);
-            return 16;
-        }
+    private int JumpRelative(int offset) {
+        cpu.pc = (cpu.pc + (byte) offset) & 0xFFFF;
+        return 12;
     }
 
-    /**
-     * Calls a subroutine at a new address. Can be conditional.
-     * 
-     * @param conditionMet true if the call condition is met
-     * @param address      the 16-bit address to call
-     * @return T-cycles (12 if not taken, 24 if taken)
-     */
-    public static int Call(boolean conditionMet, int address) {
-        if (!conditionMet) {
-            return 12;
-        }
-        memory.StackPushShort(cpu.GetPC());
-        cpu.SetPC(address);
+    private int Call(int address) {
+        memory.StackPushShort(cpu.pc);
+        cpu.pc = address;
         return 24;
     }
 
+    private void ReturnFromCall() {
+        cpu.pc = memory.StackPopShort();
+    }
+
+    private int Restart(int address) {
+        memory.StackPushShort(cpu.pc);
+        cpu.pc = address;
+        return 16;
+    }
+
     /**
-     * Returns from a subroutine. Can be conditional.
-     * 
-     * @param conditionMet true if the return condition is met
-     * @param isInterrupt  true if this is a RETI instruction
-     * @return T-cycles (8 if not taken, 16/20 if taken)
+     * Enters HALT, or arms the halt bug when an interrupt is already pending
+     * with IME off.
      */
-    public static int Return(boolean conditionMet, boolean isInterrupt, boolean isConditional) {
-        if (!conditionMet) {
-            return 8;
-        }
-        cpu.SetPC(memory.StackPopShort());
-        if (isInterrupt) {
-            cpu.EnableInterruptsImmediately();
+    private int Halt() {
+        int ie = memory.Read(DuckAddresses.IE);
+        int ifFlag = memory.Read(DuckAddresses.INTERRUPT_FLAG);
+        boolean interruptPending = (ie & ifFlag & 0x1F) != 0;
+        if (!cpu.IsInterruptMasterEnable() && interruptPending) {
+            cpu.SetHaltBug();
+        } else {
+            cpu.SetHalted(true);
         }
-        return isConditional ? 20 : 16;
+        return 4;
     }
 }
-
@@ -1,7 +0,0 @@
-package com.blackaby.Backend.GB.CPU;
-
-@FunctionalInterface
-public interface OpcodeHandler {
-    int Execute();
-}
-
@@ -1,13 +1,16 @@
 package com.blackaby.Backend.GB;
 
 import com.blackaby.Backend.GB.GBButton;
+import com.blackaby.Backend.GB.Misc.ROM;
 import com.blackaby.Backend.Platform.EmulatorBackend;
 import com.blackaby.Backend.Platform.EmulatorButton;
 import com.blackaby.Backend.Platform.EmulatorCapabilities;
 import com.blackaby.Backend.Platform.EmulatorDisplaySpec;
 import com.blackaby.Backend.Platform.EmulatorHost;
+import com.blackaby.Backend.Platform.EmulatorMedia;
 import com.blackaby.Backend.Platform.EmulatorProfile;
 import com.blackaby.Backend.Platform.EmulatorRuntime;
+import com.blackaby.Backend.Platform.EmulatorSession;
 import com.blackaby.Frontend.DuckDisplay;
 import com.blackaby.Misc.UiText;
 
@@ -37,6 +40,22 @@ public final class DuckBackend implements EmulatorBackend {
         return new DuckEmulation(host, display, profile);
     }
 
+    @Override
+    public EmulatorSession CreateSession(EmulatorMedia media) {
+        if (media == null) {
+            throw new IllegalArgumentException("A game is required to create a session.");
+        }
+        if (media instanceof ROM loadedRom) {
+            return new DuckSession(loadedRom, profile);
+        }
+        return new DuckSession(ROM.FromBytes(
+                media.sourcePath(),
+                media.programBytes(),
+                media.displayName(),
+                media.patchNames(),
+                media.patchSourcePaths()), profile);
+    }
+
     private static final class DuckProfile implements EmulatorProfile {
         private static final EmulatorDisplaySpec displaySpec = new EmulatorDisplaySpec(
                 160,
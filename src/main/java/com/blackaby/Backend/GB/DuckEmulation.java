@@ -1,13 +1,13 @@
 package com.blackaby.Backend.GB;
 
 import com.blackaby.Backend.GB.CPU.DuckCPU;
-import com.blackaby.Backend.GB.CPU.InstructionLogic;
 import com.blackaby.Backend.GB.Graphics.DuckPPU;
 import com.blackaby.Backend.GB.Memory.DuckAddresses;
 import com.blackaby.Backend.GB.Memory.DuckMemory;
 import com.blackaby.Backend.GB.Misc.ROM;
 import com.blackaby.Backend.GB.Misc.Specifics;
 import com.blackaby.Backend.GB.Peripherals.DuckAPU;
+import com.blackaby.Backend.GB.Peripherals.DuckAudioOutput;
 import com.blackaby.Backend.GB.GBButton;
 import com.blackaby.Backend.GB.Peripherals.DuckJoypad;
 import com.blackaby.Backend.GB.Peripherals.DuckTimer;
@@ -48,6 +48,8 @@ public class DuckEmulation implements Runnable, EmulatorRuntime {
     private static final long coarseParkThresholdNanos = 2_000_000L;
     private static final long fineSpinThresholdNanos = 250_000L;
     private static final double minRunSliceNanos = minCyclesPerRunSlice * Specifics.nanosecondsPerCycle;
+    private static final int audioPacedCyclesPerRunSlice = 8_192;
+    private static final long audioPacingTimeoutNanos = 100_000_000L;
 
     private DuckCPU cpu;
     private DuckMemory memory;
@@ -55,6 +57,8 @@ public class DuckEmulation implements Runnable, EmulatorRuntime {
     private DuckPPU ppu;
     private volatile DuckJoypad joypad;
     private DuckAPU apu;
+    private DuckAudioOutput audioOutput;
+    private DuckMachine machine;
     private final DuckDisplay display;
     private ROM rom;
     private final EmulatorHost host;
@@ -124,18 +128,15 @@ public class DuckEmulation implements Runnable, EmulatorRuntime {
         this.rom = rom;
         romName = rom.GetName();
 
-        memory = new DuckMemory();
-        apu = new DuckAPU(memory);
-        cpu = new DuckCPU(memory, this, this.rom);
-        joypad = new DuckJoypad(cpu);
-        timer = new DuckTimer(cpu, memory);
-        ppu = new DuckPPU(cpu, memory, display);
-
-        memory.SetTimer(timer);
-        memory.SetCpu(cpu);
-        memory.SetJoypad(joypad);
-        memory.SetApu(apu);
-        memory.LoadRom(this.rom, ShouldUseCgbHardware(this.rom));
+        audioOutput = new DuckAudioOutput(DuckAPU.outputSampleRate);
+        machine = new DuckMachine(this.rom, DuckMachine.ShouldUseCgbHardware(this.rom), display,
+                audioOutput, DebugLogger::SerialOutput);
+        memory = machine.GetMemory();
+        apu = machine.GetApu();
+        cpu = machine.GetCpu();
+        joypad = machine.GetJoypad();
+        timer = machine.GetTimer();
+        ppu = machine.GetPpu();
         SaveFileManager.LoadSaveBundle(this.rom).ifPresent(saveData -> {
             memory.LoadSaveData(saveData.primaryData());
             memory.LoadSupplementalSaveData(saveData.supplementalData());
@@ -147,7 +148,6 @@ public class DuckEmulation implements Runnable, EmulatorRuntime {
             exception.printStackTrace();
         }
 
-        InstructionLogic.Initialise(cpu, memory);
         host.SetSubtitle(romName);
         host.SetLoadedGame(this.rom, false);
         host.LoadGameArt(this.rom);
@@ -213,12 +213,15 @@ public class DuckEmulation implements Runnable, EmulatorRuntime {
         ppu = null;
         joypad = null;
         apu = null;
+        audioOutput = null;
+        machine = null;
         rom = null;
     }
 
     @Override
     public void run() {
         InitialiseBootState();
+        DuckAudioOutput output = audioOutput;
         long previousTime = System.nanoTime();
         double timeAccumulator = 0.0;
 
@@ -233,6 +236,17 @@ public class DuckEmulation implements Runnable, EmulatorRuntime {
                 continue;
             }
 
+            boolean audioPaced = Settings.audioClockPacing && output.IsOpen();
+            output.SetClockPacing(audioPaced);
+            if (audioPaced && output.WaitForBufferSpace(audioPacingTimeoutNanos)) {
+                // The sound card sets the pace, so keep the clock-based state
+                // fresh for when pacing is switched off again.
+                RunCycles(audioPacedCyclesPerRunSlice);
+                previousTime = System.nanoTime();
+                timeAccumulator = 0.0;
+                continue;
+            }
+
             long currentTime = System.nanoTime();
             double delta = currentTime - previousTime;
             previousTime = currentTime;
@@ -245,25 +259,22 @@ public class DuckEmulation implements Runnable, EmulatorRuntime {
                 continue;
             }
 
-            int cyclesToRun = Math.min(availableCycles, maxCyclesPerRunSlice);
-            int executedCycles = 0;
-            synchronized (stateLock) {
-                while (running && !paused && cyclesToRun > 0) {
-                    if (!cpu.IsHalted()) {
-                        cpu.Fetch();
-                        cpu.Decode();
-                    }
+            int executedCycles = RunCycles(Math.min(availableCycles, maxCyclesPerRunSlice));
+            timeAccumulator -= executedCycles * Specifics.nanosecondsPerCycle;
+        }
+    }
 
-                    int tCycles = cpu.Execute();
-                    int masterCycles = StepHardware(tCycles);
+    private int RunCycles(int cyclesToRun) {
+        int executedCycles = 0;
+        synchronized (stateLock) {
+            while (running && !paused && cyclesToRun > 0) {
+                int masterCycles = machine.RunInstruction();
 
-                    executedCycles += masterCycles;
-                    cyclesToRun -= masterCycles;
-                }
+                executedCycles += masterCycles;
+                cyclesToRun -= masterCycles;
             }
-
-            timeAccumulator -= executedCycles * Specifics.nanosecondsPerCycle;
         }
+        return executedCycles;
     }
 
     private void WaitForRunSlice(double timeAccumulator) {
@@ -537,78 +548,15 @@ public class DuckEmulation implements Runnable, EmulatorRuntime {
     }
 
     private void InitialiseBootStateWithoutBootRom() {
-        if (ShouldUseCgbHardware()) {
-            InitialiseCgbBootStateWithoutBootRom();
-            return;
-        }
-
-        cpu.SetPC(0x0100);
-        cpu.SetAF(0x01B0);
-        cpu.SetBC(0x0013);
-        cpu.SetDE(0x00D8);
-        cpu.SetHL(0x014D);
-        cpu.SetSP(0xFFFE);
-
-        memory.InitialiseDmgBootState();
-        timer.InitialiseDmgBootState();
-        memory.WriteDirect(DuckAddresses.STAT, 0x82);
-    }
-
-    private void InitialiseCgbBootStateWithoutBootRom() {
-        cpu.SetPC(0x0100);
-        cpu.SetAF(0x1180);
-        cpu.SetBC(0x0000);
-        cpu.SetDE(0xFF56);
-        cpu.SetHL(0x000D);
-        cpu.SetSP(0xFFFE);
-
-        memory.InitialiseCgbBootState();
-        timer.InitialiseDmgBootState();
-        memory.WriteDirect(DuckAddresses.STAT, 0x82);
+        machine.InitialisePostBootState();
     }
 
     private boolean ShouldUseCgbHardware() {
-        return ShouldUseCgbHardware(rom);
-    }
-
-    private boolean ShouldUseCgbHardware(ROM loadedRom) {
-        if (loadedRom == null || !loadedRom.IsCgbCompatible()) {
-            return false;
-        }
-        if (loadedRom.IsCgbOnly()) {
-            return true;
-        }
-        return !Settings.preferDmgModeForGbcCompatibleGames;
-    }
-
-    private int StepHardware(int tCycles) {
-        int masterCycles = memory.IsDoubleSpeedMode() ? Math.max(1, tCycles / 2) : tCycles;
-
-        for (int index = 0; index < tCycles; index++) {
-            timer.Tick();
-            memory.TickDma();
-            HandleSerial();
-        }
-
-        for (int index = 0; index < masterCycles; index++) {
-            ppu.Step();
-            memory.TickHdma(ppu.IsHblankTransferWindowOpen());
-            apu.Tick();
-        }
-
-        ppu.ConsumeCompletedFrames();
-        return masterCycles;
-    }
-
-    private void HandleSerial() {
-        if (memory.IsSerialTransferInProgress()) {
-            DebugLogger.SerialOutput(memory.ReadSerialDataRegister());
-            memory.CompleteSerialTransfer();
-            cpu.RequestInterrupt(DuckCPU.Interrupt.SERIAL);
-        }
+        return memory.IsCgbMode();
     }
 
     private QuickStateManager.QuickStateData CaptureQuickState() {
+        machine.SynchroniseComponents();
         return new QuickStateManager.QuickStateData(
                 cpu.CaptureState(),
                 memory.CaptureState(),
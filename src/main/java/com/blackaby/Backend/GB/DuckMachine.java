@@ -0,0 +1,271 @@
+package com.blackaby.Backend.GB;
+
+import com.blackaby.Backend.GB.CPU.DuckCPU;
+import com.blackaby.Backend.GB.Graphics.DuckPPU;
+import com.blackaby.Backend.GB.Memory.DuckAddresses;
+import com.blackaby.Backend.GB.Memory.DuckMemory;
+import com.blackaby.Backend.GB.Misc.ROM;
+import com.blackaby.Backend.GB.Peripherals.DuckAPU;
+import com.blackaby.Backend.GB.Peripherals.DuckJoypad;
+import com.blackaby.Backend.GB.Peripherals.DuckTimer;
+import com.blackaby.Backend.Platform.AudioSink;
+import com.blackaby.Backend.Platform.FrameSink;
+import com.blackaby.Misc.Settings;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Owns one complete set of Game Boy hardware blocks.
+ * <p>
+ * A machine wires the CPU, bus, timer, PPU, APU, joypad, and scheduler
+ * together and steps them one instruction at a time. It has no thread, pacing,
+ * or host callbacks of its own, so the desktop runtime and headless sessions
+ * can both drive it and several machines can run side by side in one process.
+ */
+public final class DuckMachine {
+
+    private static final int haltStepCycles = 4;
+    private static final int maxHaltIdleCycles = 4096;
+
+    private final ROM rom;
+    private final boolean cgbHardware;
+    private final DuckMemory memory;
+    private final DuckAPU apu;
+    private final DuckCPU cpu;
+    private final DuckJoypad joypad;
+    private final DuckTimer timer;
+    private final DuckPPU ppu;
+    private final DuckScheduler scheduler;
+    private final IntConsumer serialOutput;
+    private int completedFrames;
+
+    /**
+     * Builds and wires the hardware for a cartridge.
+     *
+     * @param rom          cartridge image to insert
+     * @param cgbHardware  whether to run the cartridge on CGB hardware
+     * @param frameSink    destination for rendered pixels
+     * @param audioSink    destination for mixed audio samples
+     * @param serialOutput receiver for bytes shifted out of the serial port
+     */
+    public DuckMachine(ROM rom, boolean cgbHardware, FrameSink frameSink, AudioSink audioSink,
+            IntConsumer serialOutput) {
+        if (rom == null) {
+            throw new IllegalArgumentException("A ROM is required to build a machine.");
+        }
+        if (frameSink == null || audioSink == null) {
+            throw new IllegalArgumentException("Frame and audio sinks are required to build a machine.");
+        }
+
+        this.rom = rom;
+        this.serialOutput = serialOutput == null ? value -> {
+        } : serialOutput;
+
+        memory = new DuckMemory();
+        apu = new DuckAPU(memory, audioSink);
+        cpu = new DuckCPU(memory, rom);
+        joypad = new DuckJoypad(cpu);
+        timer = new DuckTimer(cpu, memory);
+        ppu = new DuckPPU(cpu, memory, frameSink);
+        scheduler = new DuckScheduler();
+
+        memory.SetTimer(timer);
+        memory.SetCpu(cpu);
+        memory.SetJoypad(joypad);
+        memory.SetApu(apu);
+        memory.SetPpu(ppu);
+        ppu.SetScheduler(scheduler);
+        apu.SetScheduler(scheduler);
+        memory.LoadRom(rom, cgbHardware);
+        this.cgbHardware = memory.IsCgbMode();
+    }
+
+    /**
+     * Returns whether a cartridge should run on CGB hardware under the current
+     * settings.
+     *
+     * @param rom cartridge image
+     * @return {@code true} when CGB hardware should be used
+     */
+    public static boolean ShouldUseCgbHardware(ROM rom) {
+        if (rom == null || !rom.IsCgbCompatible()) {
+            return false;
+        }
+        if (rom.IsCgbOnly()) {
+            return true;
+        }
+        return !Settings.preferDmgModeForGbcCompatibleGames;
+    }
+
+    /**
+     * Applies the register and I/O state the boot ROM leaves behind, so the
+     * cartridge can start at 0x0100 without running a boot ROM.
+     */
+    public void InitialisePostBootState() {
+        if (cgbHardware) {
+            cpu.SetPC(0x0100);
+            cpu.SetAF(0x1180);
+            cpu.SetBC(0x0000);
+            cpu.SetDE(0xFF56);
+            cpu.SetHL(0x000D);
+            cpu.SetSP(0xFFFE);
+
+            memory.InitialiseCgbBootState();
+        } else {
+            cpu.SetPC(0x0100);
+            cpu.SetAF(0x01B0);
+            cpu.SetBC(0x0013);
+            cpu.SetDE(0x00D8);
+            cpu.SetHL(0x014D);
+            cpu.SetSP(0xFFFE);
+
+            memory.InitialiseDmgBootState();
+        }
+
+        timer.InitialiseDmgBootState();
+        memory.WriteDirect(DuckAddresses.STAT, 0x82);
+        // LCDC was written behind the PPU's back, so let it pick up the new mode.
+        ppu.RequestRefresh();
+    }
+
+    /**
+     * Executes one CPU instruction, or one halted step, and brings the rest of
+     * the hardware up to date with it.
+     *
+     * @return master cycles consumed
+     */
+    public int RunInstruction() {
+        if (cpu.IsHalted()) {
+            int idleCycles = GetHaltedIdleCycles();
+            if (idleCycles > haltStepCycles) {
+                return StepHardware(idleCycles);
+            }
+        } else {
+            cpu.Fetch();
+            cpu.Decode();
+        }
+
+        return StepHardware(cpu.Execute());
+    }
+
+    /**
+     * Returns and clears the number of frames finished since the last call.
+     *
+     * @return completed frame count
+     */
+    public int ConsumeCompletedFrames() {
+        int frames = completedFrames;
+        completedFrames = 0;
+        return frames;
+    }
+
+    /**
+     * Brings the lazily stepped timer, PPU, and APU up to the current cycle.
+     */
+    public void SynchroniseComponents() {
+        timer.CatchUp();
+        ppu.CatchUp();
+        apu.CatchUp();
+    }
+
+    public ROM GetRom() {
+        return rom;
+    }
+
+    public DuckCPU GetCpu() {
+        return cpu;
+    }
+
+    public DuckMemory GetMemory() {
+        return memory;
+    }
+
+    public DuckTimer GetTimer() {
+        return timer;
+    }
+
+    public DuckPPU GetPpu() {
+        return ppu;
+    }
+
+    public DuckJoypad GetJoypad() {
+        return joypad;
+    }
+
+    public DuckAPU GetApu() {
+        return apu;
+    }
+
+    public DuckScheduler GetScheduler() {
+        return scheduler;
+    }
+
+    private int StepHardware(int tCycles) {
+        int masterCycles = memory.IsDoubleSpeedMode() ? Math.max(1, tCycles / 2) : tCycles;
+        long startCycle = scheduler.Now();
+        long targetCycle = startCycle + masterCycles;
+
+        if (memory.IsDmaActive()) {
+            // OAM DMA copies through the bus once per tick, so keep it interleaved
+            // with the timer and let the PPU catch up before any bytes land.
+            ppu.CatchUp();
+            for (int index = 0; index < tCycles; index++) {
+                timer.Tick();
+                memory.TickDma();
+                HandleSerial();
+            }
+        } else {
+            timer.Advance(tCycles);
+            HandleSerial();
+        }
+
+        if (memory.IsHdmaActive()) {
+            for (int index = 0; index < masterCycles; index++) {
+                ppu.Synchronise(startCycle + index + 1);
+                memory.TickHdma(ppu.IsHblankTransferWindowOpen());
+            }
+        } else {
+            memory.TickHdma(false);
+            if (scheduler.IsDue(DuckScheduler.Event.PPU, targetCycle)) {
+                ppu.Synchronise(targetCycle);
+            }
+        }
+
+        if (scheduler.IsDue(DuckScheduler.Event.APU, targetCycle)) {
+            apu.Synchronise(targetCycle);
+        }
+
+        completedFrames += ppu.ConsumeCompletedFrames();
+        scheduler.Advance(masterCycles);
+        return masterCycles;
+    }
+
+    // A halted CPU only burns 4 T-cycles per step until something raises an
+    // interrupt. When nothing can do that before the next PPU or APU event or
+    // timer deadline, the steps up to the one that reaches it are run as a
+    // single hardware step, which leaves every component in the same state.
+    private int GetHaltedIdleCycles() {
+        if (cpu.IsInterruptPending() || cpu.IsImeChangePending()
+                || memory.IsDmaActive() || memory.IsHdmaActive()
+                || memory.IsSerialTransferInProgress()) {
+            return 0;
+        }
+
+        int tCyclesPerMasterCycle = memory.IsDoubleSpeedMode() ? 2 : 1;
+        long untilEvent = Math.min(maxHaltIdleCycles, scheduler.NextEventCycle() - scheduler.Now());
+        long idleCycles = Math.min(untilEvent * tCyclesPerMasterCycle, timer.GetCyclesUntilDue());
+        idleCycles = Math.min(idleCycles, maxHaltIdleCycles);
+        if (idleCycles <= 0) {
+            return 0;
+        }
+        return (int) ((idleCycles + haltStepCycles - 1) / haltStepCycles) * haltStepCycles;
+    }
+
+    private void HandleSerial() {
+        if (memory.IsSerialTransferInProgress()) {
+            serialOutput.accept(memory.ReadSerialDataRegister());
+            memory.CompleteSerialTransfer();
+            cpu.RequestInterrupt(DuckCPU.Interrupt.SERIAL);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.blackaby.Backend.GB;
+
+import java.util.Arrays;
+
+/**
+ * Tracks emulated time for the hardware blocks that run beside the CPU.
+ * <p>
+ * The scheduler owns a master-cycle timestamp and one deadline per hardware
+ * event source. Components that can run lazily record the next cycle at which
+ * they must observe the clock, and catch up on demand when a CPU access reaches
+ * their registers. The emulation loop only has to service components whose
+ * deadlines fall inside the instruction it has just executed.
+ */
+public final class DuckScheduler {
+
+    /**
+     * Identifies the hardware blocks that can register deadlines.
+     */
+    public enum Event {
+        PPU,
+        APU
+    }
+
+    /** Deadline value used when an event source has nothing pending. */
+    public static final long never = Long.MAX_VALUE;
+
+    private final long[] deadlines = new long[Event.values().length];
+    private long now;
+    private long nextDeadline = never;
+
+    /**
+     * Creates a scheduler at cycle zero with no pending events.
+     */
+    public DuckScheduler() {
+        Arrays.fill(deadlines, never);
+    }
+
+    /**
+     * Returns the current master-cycle timestamp.
+     *
+     * @return elapsed master cycles
+     */
+    public long Now() {
+        return now;
+    }
+
+    /**
+     * Moves the timestamp forward once the current instruction has been
+     * serviced.
+     *
+     * @param masterCycles master cycles to add
+     */
+    public void Advance(int masterCycles) {
+        now += masterCycles;
+    }
+
+    /**
+     * Registers the next cycle at which an event source needs servicing.
+     *
+     * @param event event source
+     * @param cycle absolute master cycle, or {@link #never}
+     */
+    public void Schedule(Event event, long cycle) {
+        deadlines[event.ordinal()] = cycle;
+        if (cycle < nextDeadline) {
+            nextDeadline = cycle;
+        } else {
+            RecomputeNextDeadline();
+        }
+    }
+
+    /**
+     * Clears the deadline of an event source.
+     *
+     * @param event event source
+     */
+    public void Cancel(Event event) {
+        Schedule(event, never);
+    }
+
+    /**
+     * Returns whether an event source is due at or before the given cycle.
+     *
+     * @param event event source
+     * @param cycle absolute master cycle
+     * @return {@code true} when the event needs servicing
+     */
+    public boolean IsDue(Event event, long cycle) {
+        return deadlines[event.ordinal()] <= cycle;
+    }
+
+    /**
+     * Returns whether any event source is due at or before the given cycle.
+     *
+     * @param cycle absolute master cycle
+     * @return {@code true} when at least one event needs servicing
+     */
+    public boolean AnyDue(long cycle) {
+        return nextDeadline <= cycle;
+    }
+
+    /**
+     * Returns the earliest pending deadline.
+     *
+     * @return absolute master cycle, or {@link #never}
+     */
+    public long NextEventCycle() {
+        return nextDeadline;
+    }
+
+    /**
+     * Returns the deadline registered for one event source.
+     *
+     * @param event event source
+     * @return absolute master cycle, or {@link #never}
+     */
+    public long GetDeadline(Event event) {
+        return deadlines[event.ordinal()];
+    }
+
+    private void RecomputeNextDeadline() {
+        long earliest = never;
+        for (long deadline : deadlines) {
+            earliest = Math.min(earliest, deadline);
+        }
+        nextDeadline = earliest;
+    }
+}
@@ -0,0 +1,132 @@
+package com.blackaby.Backend.GB;
+
+import com.blackaby.Backend.GB.Misc.ROM;
+import com.blackaby.Backend.GB.Peripherals.DuckAPU;
+import com.blackaby.Backend.GB.Peripherals.DuckJoypad;
+import com.blackaby.Backend.Platform.AudioCaptureSink;
+import com.blackaby.Backend.Platform.EmulatorGame;
+import com.blackaby.Backend.Platform.EmulatorProfile;
+import com.blackaby.Backend.Platform.EmulatorSession;
+import com.blackaby.Backend.Platform.FrameBufferSink;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Headless Game Boy session backed by its own {@link DuckMachine}.
+ * <p>
+ * Sessions always start from the post-boot register state and never touch boot
+ * ROMs, save files, or the game library, so the same inputs give the same
+ * output on every run.
+ */
+public final class DuckSession implements EmulatorSession {
+
+    private static final int cyclesPerFrame = 70_224;
+
+    private final EmulatorProfile profile;
+    private final ROM rom;
+    private final FrameBufferSink frameSink;
+    private final AudioCaptureSink audioSink = new AudioCaptureSink();
+    private final StringBuilder serialOutput = new StringBuilder();
+    private final DuckMachine machine;
+    private boolean closed;
+
+    /**
+     * Creates a session for a cartridge.
+     *
+     * @param rom cartridge image to run
+     * @param profile backend profile exposed to callers
+     */
+    public DuckSession(ROM rom, EmulatorProfile profile) {
+        this.rom = rom;
+        this.profile = profile;
+        frameSink = new FrameBufferSink(profile.displaySpec().frameWidth(), profile.displaySpec().frameHeight());
+        machine = new DuckMachine(rom, DuckMachine.ShouldUseCgbHardware(rom), frameSink, audioSink,
+                value -> serialOutput.append((char) (value & 0xFF)));
+        machine.InitialisePostBootState();
+    }
+
+    @Override
+    public EmulatorProfile Profile() {
+        return profile;
+    }
+
+    @Override
+    public EmulatorGame GetLoadedGame() {
+        return rom;
+    }
+
+    /**
+     * Runs the core for the requested number of frames.
+     * <p>
+     * A frame ends when the PPU enters VBlank. While the LCD is off a frame
+     * ends after one frame's worth of cycles instead, so the step always
+     * finishes.
+     */
+    @Override
+    public synchronized StepResult Step(int frames, Set<String> pressedButtonIds) {
+        if (closed) {
+            throw new IllegalStateException("The session has been closed.");
+        }
+        if (frames < 0) {
+            throw new IllegalArgumentException("The frame count cannot be negative.");
+        }
+
+        ApplyButtons(pressedButtonIds);
+        int framesCompleted = 0;
+        long cyclesExecuted = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            int frameCycles = 0;
+            while (frameCycles < cyclesPerFrame) {
+                frameCycles += machine.RunInstruction();
+                if (machine.ConsumeCompletedFrames() > 0) {
+                    framesCompleted++;
+                    break;
+                }
+            }
+            cyclesExecuted += frameCycles;
+        }
+
+        machine.SynchroniseComponents();
+        return new StepResult(
+                frameSink.CopyFrame(),
+                frameSink.GetWidth(),
+                frameSink.GetHeight(),
+                audioSink.Drain(),
+                (int) DuckAPU.outputSampleRate,
+                framesCompleted,
+                cyclesExecuted);
+    }
+
+    /**
+     * Returns the bytes the cartridge has sent over the serial port.
+     *
+     * @return serial output as text
+     */
+    public synchronized String GetSerialOutput() {
+        return serialOutput.toString();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        audioSink.Close();
+    }
+
+    private void ApplyButtons(Set<String> pressedButtonIds) {
+        Set<GBButton> pressed = EnumSet.noneOf(GBButton.class);
+        if (pressedButtonIds != null) {
+            for (String buttonId : pressedButtonIds) {
+                GBButton button = GBButton.FromId(buttonId);
+                if (button != null) {
+                    pressed.add(button);
+                }
+            }
+        }
+
+        DuckJoypad joypad = machine.GetJoypad();
+        for (GBButton button : GBButton.values()) {
+            joypad.SetButtonPressed(button, pressed.contains(button));
+        }
+    }
+}
@@ -2,10 +2,11 @@ package com.blackaby.Backend.GB.Graphics;
 
 import java.util.Arrays;
 
+import com.blackaby.Backend.GB.DuckScheduler;
 import com.blackaby.Backend.GB.CPU.DuckCPU;
 import com.blackaby.Backend.GB.Memory.DuckAddresses;
 import com.blackaby.Backend.GB.Memory.DuckMemory;
-import com.blackaby.Frontend.DuckDisplay;
+import com.blackaby.Backend.Platform.FrameSink;
 import com.blackaby.Misc.Settings;
 
 /**
@@ -13,7 +14,11 @@ import com.blackaby.Misc.Settings;
  * <p>
  * The PPU advances one T-cycle at a time, manages the LCD mode state machine,
  * renders background, window, and sprite pixels, and raises the matching LCD
- * interrupts.
+ * interrupts. When attached to a {@link DuckScheduler} it runs lazily: the
+ * emulation loop only services it at mode boundaries, and memory catches it up
+ * before the CPU observes or changes anything the renderer depends on. Pixels
+ * are drawn in spans between those catch-ups, so a line without mid-line writes
+ * is rendered in a single pass.
  */
 public class DuckPPU {
 
@@ -35,7 +40,11 @@ public class DuckPPU {
     private static final int screenHeight = 144;
     private static final int screenWidth = 160;
     private static final int maxSpritesPerScanline = 10;
-    private static final int noSpritePixel = Integer.MIN_VALUE;
+    private static final int oamSpriteCount = 40;
+    private static final int dmgPreviousFrameBlendWeight = 3;
+    private static final int dmgCurrentFrameBlendWeight = 5;
+    private static final int cgbPreviousFrameBlendWeight = 1;
+    private static final int cgbCurrentFrameBlendWeight = 7;
 
     private static final int regLcdc = DuckAddresses.LCDC;
     private static final int regStat = DuckAddresses.STAT;
@@ -64,18 +73,39 @@ public class DuckPPU {
 
     private final DuckCPU cpu;
     private final DuckMemory memory;
-    private final DuckDisplay display;
+    private final FrameSink display;
+    private int[] frameBuffer;
+    private DuckScheduler scheduler;
+    private long syncedCycle;
+    private boolean synchronising;
     private final int[] backgroundPriorityBuffer = new int[screenWidth];
     private final boolean[] backgroundTilePriorityBuffer = new boolean[screenWidth];
     private final int[] visibleSpriteY = new int[maxSpritesPerScanline];
     private final int[] visibleSpriteX = new int[maxSpritesPerScanline];
     private final int[] visibleSpriteTile = new int[maxSpritesPerScanline];
     private final int[] visibleSpriteAttributes = new int[maxSpritesPerScanline];
-    private final int[] visibleSpriteRowLow = new int[maxSpritesPerScanline];
-    private final int[] visibleSpriteRowHigh = new int[maxSpritesPerScanline];
+    private final int[] visibleSpriteRow = new int[maxSpritesPerScanline];
+    // OAM entries selected for each visible line, in drawing priority order.
+    // Rebuilt only when OAM, the sprite height, or the priority mode changes.
+    private final int[] oamSpriteY = new int[oamSpriteCount];
+    private final int[] oamSpriteX = new int[oamSpriteCount];
+    private final int[] oamSpriteTile = new int[oamSpriteCount];
+    private final int[] oamSpriteAttributes = new int[oamSpriteCount];
+    private final int[] scanlineSpriteCounts = new int[screenHeight];
+    private final int[] scanlineSprites = new int[screenHeight * maxSpritesPerScanline];
+    private boolean spriteIndexValid;
+    private int spriteIndexOamVersion;
+    private boolean spriteIndexUse8x16;
+    private boolean spriteIndexSortedByX;
+    private final GBColor[] dmgPaletteColours = new GBColor[4];
     private final int[] activeBackgroundPalette = new int[4];
     private final int[] activeSpritePalette0 = new int[4];
     private final int[] activeSpritePalette1 = new int[4];
+    // Host colour for every palette register value and colour index, stored
+    // at (register * 4) + colour index.
+    private final int[] backgroundPaletteTable = new int[256 * 4];
+    private final int[] spritePalette0Table = new int[256 * 4];
+    private final int[] spritePalette1Table = new int[256 * 4];
     private PpuMode mode;
     private int scanline;
     private int cycle;
@@ -92,23 +122,77 @@ public class DuckPPU {
     private boolean backgroundTileCacheUnsignedTileData;
     private boolean backgroundTileCacheCgbMode;
     private int backgroundTileCacheAttributes;
-    private int backgroundTileCacheLowByte;
-    private int backgroundTileCacheHighByte;
+    private int backgroundTileCacheRow;
 
     /**
-     * Creates a PPU bound to the current CPU, memory bus, and display target.
+     * Creates a PPU bound to the current CPU, memory bus, and frame sink.
      *
      * @param cpu CPU for interrupt requests
      * @param memory memory bus
-     * @param display host display surface
+     * @param display destination for rendered pixels
      */
-    public DuckPPU(DuckCPU cpu, DuckMemory memory, DuckDisplay display) {
+    public DuckPPU(DuckCPU cpu, DuckMemory memory, FrameSink display) {
         this.cpu = cpu;
         this.memory = memory;
         this.display = display;
+        frameBuffer = display.GetFrameBuffer();
         mode = PpuMode.OAM;
     }
 
+    /**
+     * Attaches the shared scheduler and registers the next mode boundary.
+     *
+     * @param scheduler emulation scheduler, or {@code null} to step manually
+     */
+    public void SetScheduler(DuckScheduler scheduler) {
+        this.scheduler = scheduler;
+        syncedCycle = scheduler == null ? 0L : scheduler.Now();
+        ScheduleNextEvent();
+    }
+
+    /**
+     * Brings the PPU up to the scheduler's current timestamp.
+     */
+    public void CatchUp() {
+        if (scheduler != null) {
+            Synchronise(scheduler.Now());
+        }
+    }
+
+    /**
+     * Advances the PPU until it has observed the requested master cycle.
+     * <p>
+     * Cycles between mode boundaries are applied in bulk, which produces the
+     * same state as calling {@link #Step()} once per cycle because nothing the
+     * renderer reads can change without first catching the PPU up.
+     *
+     * @param targetCycle absolute master cycle to reach
+     */
+    public void Synchronise(long targetCycle) {
+        if (synchronising || targetCycle <= syncedCycle) {
+            return;
+        }
+
+        synchronising = true;
+        try {
+            RunCycles(targetCycle - syncedCycle);
+            syncedCycle = targetCycle;
+        } finally {
+            synchronising = false;
+        }
+        ScheduleNextEvent();
+    }
+
+    /**
+     * Requests servicing on the next master cycle after a register write that
+     * can change the STAT interrupt line or the LCD power state.
+     */
+    public void RequestRefresh() {
+        if (scheduler != null) {
+            scheduler.Schedule(DuckScheduler.Event.PPU, scheduler.Now() + 1);
+        }
+    }
+
     /**
      * Advances the PPU by one T-cycle.
      */
@@ -133,11 +217,10 @@ public class DuckPPU {
                 }
             }
             case VRAM -> {
-                while (pixelTransferX < screenWidth && pixelTransferX < cycle) {
-                    RenderNextPixel();
-                }
+                RenderPixels(Math.min(screenWidth, cycle));
                 if (cycle >= vramDuration) {
                     cycle -= vramDuration;
+                    display.ScanlineCompleted(scanline);
                     SetMode(PpuMode.HBLANK);
                 }
             }
@@ -155,13 +238,9 @@ public class DuckPPU {
                         cpu.RequestInterrupt(DuckCPU.Interrupt.VBLANK);
                         completedFrames++;
                         if (memory.IsCgbMode()) {
-                            display.presentFrame(
-                                    DuckDisplay.DefaultCgbPreviousFrameBlendWeight(),
-                                    DuckDisplay.DefaultCgbCurrentFrameBlendWeight());
+                            display.PresentFrame(cgbPreviousFrameBlendWeight, cgbCurrentFrameBlendWeight);
                         } else {
-                            display.presentFrame(
-                                    DuckDisplay.DefaultDmgPreviousFrameBlendWeight(),
-                                    DuckDisplay.DefaultDmgCurrentFrameBlendWeight());
+                            display.PresentFrame(dmgPreviousFrameBlendWeight, dmgCurrentFrameBlendWeight);
                         }
                     } else {
                         SetMode(PpuMode.OAM);
@@ -193,6 +272,7 @@ public class DuckPPU {
      * @return PPU state snapshot
      */
     public PpuState CaptureState() {
+        CatchUp();
         return new PpuState(mode.ordinal(), scanline, cycle, statInterruptLine,
                 pixelTransferX, windowLineCounter, windowRenderedOnCurrentScanline);
     }
@@ -221,6 +301,10 @@ public class DuckPPU {
                 : 0;
         InvalidatePixelTransferCaches();
         completedFrames = 0;
+        if (scheduler != null) {
+            syncedCycle = scheduler.Now();
+            ScheduleNextEvent();
+        }
     }
 
     /**
@@ -254,6 +338,50 @@ public class DuckPPU {
                 && scanline < screenHeight;
     }
 
+    private void RunCycles(long cycles) {
+        while (cycles > 0) {
+            if ((memory.ReadRegisterDirect(regLcdc) & 0x80) == 0) {
+                HandleLcdDisabled();
+                return;
+            }
+
+            int untilBoundary = CurrentModeDuration() - cycle;
+            if (untilBoundary <= 1) {
+                Step();
+                cycles--;
+                continue;
+            }
+
+            int idleCycles = (int) Math.min(cycles, untilBoundary - 1);
+            UpdateLycCompare();
+            cycle += idleCycles;
+            if (mode == PpuMode.VRAM) {
+                RenderPixels(Math.min(screenWidth, cycle));
+            }
+            cycles -= idleCycles;
+        }
+    }
+
+    private int CurrentModeDuration() {
+        return switch (mode) {
+            case OAM -> oamDuration;
+            case VRAM -> vramDuration;
+            case HBLANK -> scanlineCycles - oamDuration - vramDuration;
+            case VBLANK -> scanlineCycles;
+        };
+    }
+
+    private void ScheduleNextEvent() {
+        if (scheduler == null) {
+            return;
+        }
+        if ((memory.ReadRegisterDirect(regLcdc) & 0x80) == 0) {
+            scheduler.Cancel(DuckScheduler.Event.PPU);
+            return;
+        }
+        scheduler.Schedule(DuckScheduler.Event.PPU, syncedCycle + Math.max(1, CurrentModeDuration() - cycle));
+    }
+
     private void HandleLcdDisabled() {
         scanline = 0;
         cycle = 0;
@@ -310,6 +438,7 @@ public class DuckPPU {
 
     private void BeginPixelTransfer() {
         pixelTransferX = 0;
+        frameBuffer = display.GetFrameBuffer();
         windowRenderedOnCurrentScanline = false;
         InvalidatePixelTransferCaches();
         Arrays.fill(backgroundPriorityBuffer, 0);
@@ -319,13 +448,17 @@ public class DuckPPU {
         if (!memory.IsCgbMode()) {
             boolean useGbcColourisation = ShouldUseGbcColourisation();
             if (useGbcColourisation) {
-                LoadPalette(Settings.gbcBackgroundPaletteObjects, activeBackgroundPalette);
-                LoadPalette(Settings.gbcSpritePalette0Objects, activeSpritePalette0);
-                LoadPalette(Settings.gbcSpritePalette1Objects, activeSpritePalette1);
+                LoadPaletteTable(Settings.gbcBackgroundPaletteObjects, activeBackgroundPalette, backgroundPaletteTable);
+                LoadPaletteTable(Settings.gbcSpritePalette0Objects, activeSpritePalette0, spritePalette0Table);
+                LoadPaletteTable(Settings.gbcSpritePalette1Objects, activeSpritePalette1, spritePalette1Table);
             } else {
-                LoadDmgPalette(activeBackgroundPalette);
-                LoadDmgPalette(activeSpritePalette0);
-                LoadDmgPalette(activeSpritePalette1);
+                dmgPaletteColours[0] = Settings.gbColour0Object;
+                dmgPaletteColours[1] = Settings.gbColour1Object;
+                dmgPaletteColours[2] = Settings.gbColour2Object;
+                dmgPaletteColours[3] = Settings.gbColour3Object;
+                LoadPaletteTable(dmgPaletteColours, activeBackgroundPalette, backgroundPaletteTable);
+                LoadPaletteTable(dmgPaletteColours, activeSpritePalette0, spritePalette0Table);
+                LoadPaletteTable(dmgPaletteColours, activeSpritePalette1, spritePalette1Table);
             }
         }
     }
@@ -339,203 +472,225 @@ public class DuckPPU {
         visibleSpriteCount = 0;
     }
 
-    private void RenderNextPixel() {
-        int x = pixelTransferX;
+    // Draws every pixel up to endX in one pass. Any write that can change the
+    // output catches the PPU up first, so the registers and OAM read here hold
+    // for the whole span and a mid-line write simply starts a new span.
+    private void RenderPixels(int endX) {
+        int startX = pixelTransferX;
+        if (startX >= endX) {
+            return;
+        }
+
         int lcdControl = memory.ReadRegisterDirect(regLcdc);
         boolean cgbMode = memory.IsCgbMode();
-
-        int backgroundColour = ResolveBackgroundPixel(x, lcdControl, cgbMode);
-        display.setPixel(x, scanline, backgroundColour, false);
-
-        int spriteColour = ResolveSpritePixel(x, lcdControl, cgbMode);
-        if (spriteColour != noSpritePixel) {
-            display.setPixel(x, scanline, spriteColour, false);
+        RenderBackgroundSpan(startX, endX, lcdControl, cgbMode);
+        if ((lcdControl & 0x02) != 0) {
+            RenderSpriteSpan(startX, endX, lcdControl, cgbMode);
         }
-
-        pixelTransferX++;
+        pixelTransferX = endX;
     }
 
-    private int ResolveBackgroundPixel(int screenX, int lcdControl, boolean cgbMode) {
+    private void RenderBackgroundSpan(int startX, int endX, int lcdControl, boolean cgbMode) {
+        int rowOffset = scanline * screenWidth;
         if (!cgbMode && (lcdControl & 0x01) == 0) {
-            backgroundPriorityBuffer[screenX] = 0;
-            backgroundTilePriorityBuffer[screenX] = false;
-            return ResolveDmgPaletteColour(memory.ReadRegisterDirect(regBgp), activeBackgroundPalette, 0);
+            int colour = backgroundPaletteTable[memory.ReadRegisterDirect(regBgp) * 4];
+            Arrays.fill(frameBuffer, rowOffset + startX, rowOffset + endX, colour);
+            Arrays.fill(backgroundPriorityBuffer, startX, endX, 0);
+            Arrays.fill(backgroundTilePriorityBuffer, startX, endX, false);
+            return;
         }
 
         int windowY = memory.ReadRegisterDirect(regWy);
         int windowX = memory.ReadRegisterDirect(regWx) - 7;
-        boolean windowEnabled = (lcdControl & 0x20) != 0
-                && scanline >= windowY
-                && screenX >= windowX
-                && windowX < screenWidth;
-        if (windowEnabled) {
+        int windowStartX = endX;
+        if ((lcdControl & 0x20) != 0 && scanline >= windowY && windowX < screenWidth) {
+            windowStartX = Math.max(startX, windowX);
+        }
+
+        if (startX < windowStartX) {
+            RenderLayerSpan(startX, Math.min(endX, windowStartX), lcdControl, cgbMode, false, windowX);
+        }
+        if (windowStartX < endX) {
             windowRenderedOnCurrentScanline = true;
-            return SampleBackgroundLayerPixel(screenX, lcdControl, cgbMode, true, windowX, windowLineCounter);
+            RenderLayerSpan(windowStartX, endX, lcdControl, cgbMode, true, windowX);
         }
-        return SampleBackgroundLayerPixel(screenX, lcdControl, cgbMode, false, windowX, 0);
     }
 
-    private int SampleBackgroundLayerPixel(int screenX, int lcdControl, boolean cgbMode, boolean windowLayer,
-            int windowX, int activeWindowLine) {
+    private void RenderLayerSpan(int startX, int endX, int lcdControl, boolean cgbMode, boolean windowLayer,
+            int windowX) {
         boolean unsignedTileData = (lcdControl & 0x10) != 0;
         int tileMapBase = windowLayer
                 ? (((lcdControl & 0x40) != 0) ? 0x9C00 : 0x9800)
                 : (((lcdControl & 0x08) != 0) ? 0x9C00 : 0x9800);
-        int tileDataBase = unsignedTileData ? 0x8000 : 0x9000;
-        int xPosition = windowLayer ? (screenX - windowX) : ((screenX + memory.ReadRegisterDirect(regScx)) & 0xFF);
-        int yPosition = windowLayer ? activeWindowLine : ((scanline + memory.ReadRegisterDirect(regScy)) & 0xFF);
-        int tileRow = yPosition / 8;
-        int tileColumn = (xPosition & 0xFF) / 8;
-
-        int tileAddress = tileMapBase + (tileRow * 32) + tileColumn;
+        int scrollX = windowLayer ? 0 : memory.ReadRegisterDirect(regScx);
+        int yPosition = windowLayer ? windowLineCounter : ((scanline + memory.ReadRegisterDirect(regScy)) & 0xFF);
+        int tileRowAddress = tileMapBase + ((yPosition / 8) * 32);
         int tileLine = yPosition % 8;
-        LoadBackgroundTileRow(windowLayer, tileAddress, tileLine, unsignedTileData, tileDataBase, cgbMode);
-
-        int bit = 7 - (xPosition % 8);
-        if (cgbMode && (backgroundTileCacheAttributes & 0x20) != 0) {
-            bit = xPosition % 8;
+        int backgroundPaletteBase = cgbMode ? 0 : memory.ReadRegisterDirect(regBgp) * 4;
+        int rowOffset = scanline * screenWidth;
+
+        int screenX = startX;
+        while (screenX < endX) {
+            int xPosition = windowLayer ? (screenX - windowX) : ((screenX + scrollX) & 0xFF);
+            LoadBackgroundTileRow(windowLayer, tileRowAddress + ((xPosition & 0xFF) / 8), tileLine,
+                    unsignedTileData, cgbMode);
+
+            int attributes = backgroundTileCacheAttributes;
+            int tileRow = backgroundTileCacheRow;
+            boolean tilePriority = cgbMode && (attributes & 0x80) != 0;
+            int tileEndX = Math.min(endX, screenX + 8 - (xPosition % 8));
+            for (; screenX < tileEndX; screenX++, xPosition++) {
+                int colourIndex = (tileRow >>> ((xPosition % 8) * 2)) & 0x03;
+
+                backgroundPriorityBuffer[screenX] = colourIndex;
+                backgroundTilePriorityBuffer[screenX] = tilePriority;
+                frameBuffer[rowOffset + screenX] = cgbMode
+                        ? memory.ReadCgbBackgroundPaletteColourRgb(attributes & 0x07, colourIndex)
+                        : backgroundPaletteTable[backgroundPaletteBase + colourIndex];
+            }
         }
-        int high = (backgroundTileCacheHighByte >> bit) & 1;
-        int low = (backgroundTileCacheLowByte >> bit) & 1;
-        int colourIndex = (high << 1) | low;
-
-        backgroundPriorityBuffer[screenX] = colourIndex;
-        backgroundTilePriorityBuffer[screenX] = cgbMode && (backgroundTileCacheAttributes & 0x80) != 0;
-
-        return cgbMode
-                ? memory.ReadCgbBackgroundPaletteColourRgb(backgroundTileCacheAttributes & 0x07, colourIndex)
-                : ResolveDmgPaletteColour(memory.ReadRegisterDirect(regBgp), activeBackgroundPalette, colourIndex);
     }
 
-    private int ResolveSpritePixel(int screenX, int lcdControl, boolean cgbMode) {
-        if ((lcdControl & 0x02) == 0) {
-            return noSpritePixel;
-        }
-
-        boolean use8x16 = (lcdControl & 0x04) != 0;
+    // Sprites are drawn from the lowest priority up, so the first sprite that
+    // produces a visible pixel in scan order is the one left on screen.
+    private void RenderSpriteSpan(int startX, int endX, int lcdControl, boolean cgbMode) {
         boolean bgMasterPriority = cgbMode && (lcdControl & 0x01) != 0;
+        int spritePalette0Base = cgbMode ? 0 : memory.ReadRegisterDirect(regObp0) * 4;
+        int spritePalette1Base = cgbMode ? 0 : memory.ReadRegisterDirect(regObp1) * 4;
+        int rowOffset = scanline * screenWidth;
+
+        for (int spriteIndex = visibleSpriteCount - 1; spriteIndex >= 0; spriteIndex--) {
+            int spriteStartX = visibleSpriteX[spriteIndex];
+            int fromX = Math.max(startX, spriteStartX);
+            int toX = Math.min(endX, spriteStartX + 8);
+            if (fromX >= toX) {
+                continue;
+            }
 
-        for (int spriteIndex = 0; spriteIndex < visibleSpriteCount; spriteIndex++) {
-            int colour = ResolveSpritePixelFromEntry(screenX, spriteIndex, cgbMode, bgMasterPriority);
-            if (colour != noSpritePixel) {
-                return colour;
+            int attributes = visibleSpriteAttributes[spriteIndex];
+            boolean behindBackground = (attributes & 0x80) != 0;
+            boolean usePalette1 = (attributes & 0x10) != 0;
+            int[] paletteTable = usePalette1 ? spritePalette1Table : spritePalette0Table;
+            int paletteBase = usePalette1 ? spritePalette1Base : spritePalette0Base;
+            int spriteRow = visibleSpriteRow[spriteIndex];
+
+            for (int screenX = fromX; screenX < toX; screenX++) {
+                int colourIndex = (spriteRow >>> ((screenX - spriteStartX) * 2)) & 0x03;
+                if (colourIndex == 0) {
+                    continue;
+                }
+
+                if (cgbMode) {
+                    if (bgMasterPriority && backgroundPriorityBuffer[screenX] != 0
+                            && (behindBackground || backgroundTilePriorityBuffer[screenX])) {
+                        continue;
+                    }
+                } else if (behindBackground && backgroundPriorityBuffer[screenX] != 0) {
+                    continue;
+                }
+
+                frameBuffer[rowOffset + screenX] = cgbMode
+                        ? memory.ReadCgbObjectPaletteColourRgb(attributes & 0x07, colourIndex)
+                        : paletteTable[paletteBase + colourIndex];
             }
         }
-        return noSpritePixel;
     }
 
-    private int ResolveSpritePixelFromEntry(int screenX, int spriteIndex, boolean cgbMode,
-            boolean bgMasterPriority) {
-        int attributes = visibleSpriteAttributes[spriteIndex];
-        int spriteStartX = visibleSpriteX[spriteIndex];
-        if (screenX < spriteStartX || screenX >= spriteStartX + 8) {
-            return noSpritePixel;
+    private int LoadSpritesOnScanline(boolean use8x16) {
+        boolean sortByX = !memory.IsCgbMode() || memory.ReadRegisterDirect(DuckAddresses.OPRI) != 0;
+        RefreshSpriteIndex(use8x16, sortByX);
+        if (scanline >= screenHeight) {
+            return 0;
         }
 
-        int localX = screenX - spriteStartX;
-        int bit = (attributes & 0x20) != 0 ? localX : 7 - localX;
-        int high = (visibleSpriteRowHigh[spriteIndex] >> bit) & 1;
-        int low = (visibleSpriteRowLow[spriteIndex] >> bit) & 1;
-        int colourIndex = (high << 1) | low;
-
-        if (colourIndex == 0) {
-            return noSpritePixel;
+        int visibleSpriteCount = scanlineSpriteCounts[scanline];
+        int base = scanline * maxSpritesPerScanline;
+        for (int slot = 0; slot < visibleSpriteCount; slot++) {
+            int index = scanlineSprites[base + slot];
+            visibleSpriteY[slot] = oamSpriteY[index];
+            visibleSpriteX[slot] = oamSpriteX[index];
+            visibleSpriteTile[slot] = oamSpriteTile[index];
+            visibleSpriteAttributes[slot] = oamSpriteAttributes[index];
+            CacheVisibleSpriteRow(slot, use8x16, oamSpriteY[index], oamSpriteTile[index], oamSpriteAttributes[index]);
         }
+        return visibleSpriteCount;
+    }
 
-        if (cgbMode) {
-            if (bgMasterPriority && backgroundPriorityBuffer[screenX] != 0
-                    && (((attributes & 0x80) != 0) || backgroundTilePriorityBuffer[screenX])) {
-                return noSpritePixel;
-            }
-        } else if ((attributes & 0x80) != 0 && backgroundPriorityBuffer[screenX] != 0) {
-            return noSpritePixel;
+    private void RefreshSpriteIndex(boolean use8x16, boolean sortByX) {
+        int oamVersion = memory.GetOamVersion();
+        if (spriteIndexValid
+                && spriteIndexOamVersion == oamVersion
+                && spriteIndexUse8x16 == use8x16
+                && spriteIndexSortedByX == sortByX) {
+            return;
         }
 
-        return cgbMode
-                ? memory.ReadCgbObjectPaletteColourRgb(attributes & 0x07, colourIndex)
-                : ResolveDmgPaletteColour(
-                        memory.ReadRegisterDirect((attributes & 0x10) != 0 ? regObp1 : regObp0),
-                        (attributes & 0x10) != 0 ? activeSpritePalette1 : activeSpritePalette0,
-                        colourIndex);
-    }
-
-    private int LoadSpritesOnScanline(boolean use8x16) {
-        int visibleSpriteCount = 0;
+        Arrays.fill(scanlineSpriteCounts, 0);
         int spriteHeight = use8x16 ? 16 : 8;
-
-        for (int index = 0; index < 40; index++) {
+        for (int index = 0; index < oamSpriteCount; index++) {
             int address = 0xFE00 + (index * 4);
             int y = memory.ReadOamByte(address) - 16;
-            int x = memory.ReadOamByte(address + 1) - 8;
-            int tile = memory.ReadOamByte(address + 2);
-            int attributes = memory.ReadOamByte(address + 3);
-
-            if (scanline >= y && scanline < (y + spriteHeight)) {
-                visibleSpriteY[visibleSpriteCount] = y;
-                visibleSpriteX[visibleSpriteCount] = x;
-                visibleSpriteTile[visibleSpriteCount] = tile;
-                visibleSpriteAttributes[visibleSpriteCount] = attributes;
-                CacheVisibleSpriteRow(visibleSpriteCount, use8x16, y, tile, attributes);
-                visibleSpriteCount++;
+            oamSpriteY[index] = y;
+            oamSpriteX[index] = memory.ReadOamByte(address + 1) - 8;
+            oamSpriteTile[index] = memory.ReadOamByte(address + 2);
+            oamSpriteAttributes[index] = memory.ReadOamByte(address + 3);
+
+            // Each line keeps the first ten sprites in OAM order that cover it.
+            int lastLine = Math.min(screenHeight, y + spriteHeight);
+            for (int line = Math.max(0, y); line < lastLine; line++) {
+                int count = scanlineSpriteCounts[line];
+                if (count < maxSpritesPerScanline) {
+                    scanlineSprites[(line * maxSpritesPerScanline) + count] = index;
+                    scanlineSpriteCounts[line] = count + 1;
+                }
             }
+        }
 
-            if (visibleSpriteCount >= maxSpritesPerScanline) {
-                break;
+        if (sortByX) {
+            for (int line = 0; line < screenHeight; line++) {
+                SortScanlineSpritesByX(line * maxSpritesPerScanline, scanlineSpriteCounts[line]);
             }
         }
 
-        if ((!memory.IsCgbMode() || memory.ReadRegisterDirect(DuckAddresses.OPRI) != 0) && visibleSpriteCount > 1) {
-            SortVisibleSpritesByX(visibleSpriteCount);
-        }
-        return visibleSpriteCount;
+        spriteIndexValid = true;
+        spriteIndexOamVersion = oamVersion;
+        spriteIndexUse8x16 = use8x16;
+        spriteIndexSortedByX = sortByX;
     }
 
-    private void SortVisibleSpritesByX(int count) {
-        for (int index = 1; index < count; index++) {
-            int spriteY = visibleSpriteY[index];
-            int spriteX = visibleSpriteX[index];
-            int spriteTile = visibleSpriteTile[index];
-            int spriteAttributes = visibleSpriteAttributes[index];
-            int spriteRowLow = visibleSpriteRowLow[index];
-            int spriteRowHigh = visibleSpriteRowHigh[index];
-            int compareIndex = index - 1;
-
-            while (compareIndex >= 0 && spriteX < visibleSpriteX[compareIndex]) {
-                visibleSpriteY[compareIndex + 1] = visibleSpriteY[compareIndex];
-                visibleSpriteX[compareIndex + 1] = visibleSpriteX[compareIndex];
-                visibleSpriteTile[compareIndex + 1] = visibleSpriteTile[compareIndex];
-                visibleSpriteAttributes[compareIndex + 1] = visibleSpriteAttributes[compareIndex];
-                visibleSpriteRowLow[compareIndex + 1] = visibleSpriteRowLow[compareIndex];
-                visibleSpriteRowHigh[compareIndex + 1] = visibleSpriteRowHigh[compareIndex];
-                compareIndex--;
-            }
+    // Stable, so sprites sharing an X position keep their OAM order.
+    private void SortScanlineSpritesByX(int base, int count) {
+        for (int slot = 1; slot < count; slot++) {
+            int index = scanlineSprites[base + slot];
+            int spriteX = oamSpriteX[index];
+            int compareSlot = slot - 1;
 
-            visibleSpriteY[compareIndex + 1] = spriteY;
-            visibleSpriteX[compareIndex + 1] = spriteX;
-            visibleSpriteTile[compareIndex + 1] = spriteTile;
-            visibleSpriteAttributes[compareIndex + 1] = spriteAttributes;
-            visibleSpriteRowLow[compareIndex + 1] = spriteRowLow;
-            visibleSpriteRowHigh[compareIndex + 1] = spriteRowHigh;
+            while (compareSlot >= 0 && spriteX < oamSpriteX[scanlineSprites[base + compareSlot]]) {
+                scanlineSprites[base + compareSlot + 1] = scanlineSprites[base + compareSlot];
+                compareSlot--;
+            }
+            scanlineSprites[base + compareSlot + 1] = index;
         }
     }
 
-    private int ResolveDmgPaletteColour(int paletteRegister, int[] paletteColours, int colourIndex) {
-        int shift = colourIndex * 2;
-        int colourId = (paletteRegister >> shift) & 0x03;
-        return paletteColours[colourId];
-    }
-
-    private void LoadPalette(GBColor[] palette, int[] target) {
-        for (int index = 0; index < target.length; index++) {
-            target[index] = palette[index].ToRgb();
+    // Rebuilding the table takes 1024 writes, so it only happens when the
+    // chosen host colours differ from the ones it was built from.
+    private void LoadPaletteTable(GBColor[] palette, int[] colours, int[] table) {
+        boolean changed = false;
+        for (int index = 0; index < colours.length; index++) {
+            int rgb = palette[index].ToRgb();
+            changed |= colours[index] != rgb;
+            colours[index] = rgb;
+        }
+        if (!changed) {
+            return;
         }
-    }
 
-    private void LoadDmgPalette(int[] target) {
-        target[0] = Settings.gbColour0Object.ToRgb();
-        target[1] = Settings.gbColour1Object.ToRgb();
-        target[2] = Settings.gbColour2Object.ToRgb();
-        target[3] = Settings.gbColour3Object.ToRgb();
+        for (int register = 0; register < 256; register++) {
+            for (int colourIndex = 0; colourIndex < 4; colourIndex++) {
+                table[(register * 4) + colourIndex] = colours[(register >> (colourIndex * 2)) & 0x03];
+            }
+        }
     }
 
     private boolean ShouldUseGbcColourisation() {
@@ -543,7 +698,7 @@ public class DuckPPU {
     }
 
     private void LoadBackgroundTileRow(boolean windowLayer, int tileAddress, int tileLine, boolean unsignedTileData,
-            int tileDataBase, boolean cgbMode) {
+            boolean cgbMode) {
         if (backgroundTileCacheValid
                 && backgroundTileCacheWindowLayer == windowLayer
                 && backgroundTileCacheTileAddress == tileAddress
@@ -555,18 +710,19 @@ public class DuckPPU {
 
         int tileNumber = cgbMode ? memory.ReadVideoRam(0, tileAddress) : memory.Read(tileAddress);
         int tileAttributes = cgbMode ? memory.ReadVideoRam(1, tileAddress) : 0;
-        if (!unsignedTileData) {
-            tileNumber = (byte) tileNumber;
-        }
+        // Tiles 0-255 start at 0x8000; signed addressing reaches 128-383.
+        int tileIndex = unsignedTileData ? tileNumber : 256 + (byte) tileNumber;
 
         int resolvedTileLine = tileLine;
         if (cgbMode && (tileAttributes & 0x40) != 0) {
             resolvedTileLine = 7 - resolvedTileLine;
         }
 
-        int tileLineAddress = tileDataBase + (tileNumber * 16);
-        int lineOffset = resolvedTileLine * 2;
         int vramBank = cgbMode && (tileAttributes & 0x08) != 0 ? 1 : 0;
+        int row = memory.ReadDecodedTileRow(vramBank, tileIndex, resolvedTileLine);
+        if (cgbMode && (tileAttributes & 0x20) != 0) {
+            row >>>= 16;
+        }
 
         backgroundTileCacheWindowLayer = windowLayer;
         backgroundTileCacheTileAddress = tileAddress;
@@ -574,12 +730,7 @@ public class DuckPPU {
         backgroundTileCacheUnsignedTileData = unsignedTileData;
         backgroundTileCacheCgbMode = cgbMode;
         backgroundTileCacheAttributes = tileAttributes;
-        backgroundTileCacheLowByte = cgbMode
-                ? memory.ReadVideoRam(vramBank, tileLineAddress + lineOffset)
-                : memory.Read(tileLineAddress + lineOffset);
-        backgroundTileCacheHighByte = cgbMode
-                ? memory.ReadVideoRam(vramBank, tileLineAddress + lineOffset + 1)
-                : memory.Read(tileLineAddress + lineOffset + 1);
+        backgroundTileCacheRow = row;
         backgroundTileCacheValid = true;
     }
 
@@ -599,14 +750,9 @@ public class DuckPPU {
             }
         }
 
-        int tileAddress = 0x8000 + (tileIndex * 16) + (line * 2);
-        int vramBank = (attributes & 0x08) != 0 ? 1 : 0;
-        visibleSpriteRowLow[spriteIndex] = memory.IsCgbMode()
-                ? memory.ReadVideoRam(vramBank, tileAddress)
-                : memory.Read(tileAddress);
-        visibleSpriteRowHigh[spriteIndex] = memory.IsCgbMode()
-                ? memory.ReadVideoRam(vramBank, tileAddress + 1)
-                : memory.Read(tileAddress + 1);
+        int vramBank = memory.IsCgbMode() && (attributes & 0x08) != 0 ? 1 : 0;
+        int row = memory.ReadDecodedTileRow(vramBank, tileIndex, line);
+        visibleSpriteRow[spriteIndex] = (attributes & 0x20) != 0 ? row >>> 16 : row & 0xFFFF;
     }
 
     private void InvalidatePixelTransferCaches() {
@@ -18,8 +18,8 @@ public abstract class CartridgeController {
     }
 
     protected final ROM rom;
-    protected final int[] romData;
-    protected final int[] ramData;
+    protected final byte[] romData;
+    protected final byte[] ramData;
 
     /**
      * Creates a controller backed by the supplied cartridge image.
@@ -30,7 +30,7 @@ public abstract class CartridgeController {
     protected CartridgeController(ROM rom, int ramSizeBytes) {
         this.rom = rom;
         romData = rom.GetData();
-        ramData = ramSizeBytes > 0 ? new int[ramSizeBytes] : new int[0];
+        ramData = ramSizeBytes > 0 ? new byte[ramSizeBytes] : new byte[0];
     }
 
     /**
@@ -77,6 +77,63 @@ public abstract class CartridgeController {
      */
     public abstract void Write(int address, int value);
 
+    /**
+     * Returns where one 16 KiB ROM window currently points inside the ROM
+     * image.
+     * <p>
+     * The memory map uses this to read banked ROM straight from the image.
+     * Mappers that need to see every read return {@code -1}.
+     *
+     * @param window 0 for 0x0000-0x3FFF, 1 for 0x4000-0x7FFF
+     * @return offset into the ROM image, or {@code -1} to use {@link #ReadRom(int)}
+     */
+    public int MapRomWindow(int window) {
+        return -1;
+    }
+
+    /**
+     * Returns where the external RAM window currently points inside cartridge
+     * RAM.
+     * <p>
+     * A mapped window is read and written directly by the memory map, so
+     * mappers must return {@code -1} whenever accesses have side effects, RAM
+     * is disabled, or a register such as the RTC is selected.
+     *
+     * @return offset into cartridge RAM, or {@code -1} to use the mapper
+     */
+    public int MapRamWindow() {
+        return -1;
+    }
+
+    /**
+     * Returns the offset of a whole ROM bank, using the same wrapping as
+     * {@link #ReadRomBank(int, int)}.
+     *
+     * @param bank bank number
+     * @return offset into the ROM image, or {@code -1} when the bank is truncated
+     */
+    protected int RomBankOffset(int bank) {
+        int bankCount = Math.max(1, rom.GetEffectiveRomBankCount());
+        int offset = Math.floorMod(bank, bankCount) * 0x4000;
+        return offset + 0x4000 <= romData.length ? offset : -1;
+    }
+
+    /**
+     * Returns the offset of a whole external RAM bank, using the same wrapping
+     * as {@link #ReadRamBank(int, int)}.
+     *
+     * @param bank bank number
+     * @return offset into cartridge RAM, or {@code -1} when no full bank exists
+     */
+    protected int RamBankOffset(int bank) {
+        int bankSize = 0x2000;
+        if (ramData.length < bankSize) {
+            return -1;
+        }
+        int bankCount = ramData.length / bankSize;
+        return Math.floorMod(bank, bankCount) * bankSize;
+    }
+
     /**
      * Reads a byte from a ROM bank, clamping out-of-range addresses to
      * {@code 0xFF}.
@@ -136,7 +193,7 @@ public abstract class CartridgeController {
         if (index < 0 || index >= ramData.length) {
             return;
         }
-        ramData[index] = value & 0xFF;
+        ramData[index] = (byte) value;
     }
 
     /**
@@ -163,11 +220,7 @@ public abstract class CartridgeController {
      * @return raw save RAM bytes
      */
     public byte[] ExportSaveData() {
-        byte[] saveData = new byte[ramData.length];
-        for (int index = 0; index < ramData.length; index++) {
-            saveData[index] = (byte) (ramData[index] & 0xFF);
-        }
-        return saveData;
+        return Arrays.copyOf(ramData, ramData.length);
     }
 
     /**
@@ -185,14 +238,11 @@ public abstract class CartridgeController {
      * @param saveData raw save RAM bytes
      */
     public void LoadSaveData(byte[] saveData) {
-        Arrays.fill(ramData, 0);
+        Arrays.fill(ramData, (byte) 0);
         if (saveData == null) {
             return;
         }
-        int limit = Math.min(ramData.length, saveData.length);
-        for (int index = 0; index < limit; index++) {
-            ramData[index] = saveData[index] & 0xFF;
-        }
+        System.arraycopy(saveData, 0, ramData, 0, Math.min(ramData.length, saveData.length));
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.blackaby.Backend.GB.Memory;
 
 import com.blackaby.Backend.GB.CPU.DuckCPU;
+import com.blackaby.Backend.GB.Graphics.DuckPPU;
 import com.blackaby.Backend.GB.Misc.ROM;
 import com.blackaby.Backend.GB.Peripherals.DuckAPU;
 import com.blackaby.Backend.GB.Peripherals.DuckJoypad;
@@ -20,8 +21,8 @@ import java.util.Arrays;
 public class DuckMemory {
 
     public record MemoryState(
-            int[] ram,
-            int[] bootRom,
+            byte[] ram,
+            byte[] bootRom,
             boolean bootRomMapped,
             boolean cgbBootRomMapped,
             boolean cgbMode,
@@ -38,19 +39,25 @@ public class DuckMemory {
             int hdmaDestination,
             int hdmaBlocksRemaining,
             boolean hdmaTransferredThisHblank,
-            int[][] vramBanks,
-            int[][] wramBanks,
+            byte[][] vramBanks,
+            byte[][] wramBanks,
             int[] bgPaletteRam,
             int[] objPaletteRam,
             CartridgeController.MapperState cartridgeState) implements java.io.Serializable {
     }
 
     private static final int vramBankSize = 0x2000;
+    private static final int tileDataSize = 0x1800;
+    private static final int tileRowsPerBank = tileDataSize / 2;
     private static final int wramBankSize = 0x1000;
     private static final int cgbPaletteRamSize = 0x40;
+    private static final int pageCount = 0x100;
+    private static final int pageSize = 0x100;
+    // Colour-corrected ARGB for every RGB555 value a palette can hold.
+    private static final int[] cgbColourTable = BuildCgbColourTable();
 
-    private int[] ram;
-    private int[] bootRom;
+    private byte[] ram;
+    private byte[] bootRom;
     private boolean bootRomMapped;
     private boolean cgbBootRomMapped;
     private CartridgeController cartridge;
@@ -59,15 +66,26 @@ public class DuckMemory {
     private DuckCPU cpu;
     private DuckJoypad joypad;
     private DuckAPU apu;
+    private DuckPPU ppu;
 
-    private final int[][] vramBanks = new int[2][vramBankSize];
-    private final int[][] wramBanks = new int[8][wramBankSize];
+    private final byte[][] vramBanks = new byte[2][vramBankSize];
+    private final byte[][] wramBanks = new byte[8][wramBankSize];
     private final int[] bgPaletteRam = new int[cgbPaletteRamSize];
     private final int[] objPaletteRam = new int[cgbPaletteRamSize];
     private final int[] bgPaletteRgbCache = new int[32];
     private final int[] objPaletteRgbCache = new int[32];
+    // Every tile row in both banks, decoded to 2-bit colour indices with the
+    // leftmost pixel in the lowest bits and the mirrored row in the upper half.
+    private final int[] decodedTileRows = new int[2 * tileRowsPerBank];
+    // One entry per 256-byte page. Pages backed by plain storage point straight
+    // at their array; null pages fall through to the register-aware paths.
+    private final byte[][] readPages = new byte[pageCount][];
+    private final int[] readPageOffsets = new int[pageCount];
+    private final byte[][] writePages = new byte[pageCount][];
+    private final int[] writePageOffsets = new int[pageCount];
 
     private boolean cgbMode;
+    private int oamVersion;
     private int activeVramBank;
     private int activeWramBank = 1;
     private boolean key1Armed;
@@ -87,7 +105,7 @@ public class DuckMemory {
      * Creates an empty memory map with no cartridge attached.
      */
     public DuckMemory() {
-        ram = new int[DuckAddresses.MEMORY_SIZE];
+        ram = new byte[DuckAddresses.MEMORY_SIZE];
     }
 
     /**
@@ -120,6 +138,15 @@ public class DuckMemory {
         }
     }
 
+    /**
+     * Attaches the PPU so renderer-visible accesses can catch it up first.
+     *
+     * @param ppu pixel processing unit
+     */
+    public void SetPpu(DuckPPU ppu) {
+        this.ppu = ppu;
+    }
+
     /**
      * Attaches the audio unit and mirrors the master control register.
      *
@@ -153,7 +180,8 @@ public class DuckMemory {
         currentRom = rom;
         cgbMode = rom != null && (rom.IsCgbOnly() || (rom.IsCgbCompatible() && useCgbMode));
 
-        ram = new int[DuckAddresses.MEMORY_SIZE];
+        ram = new byte[DuckAddresses.MEMORY_SIZE];
+        oamVersion++;
         bootRom = null;
         bootRomMapped = false;
         cgbBootRomMapped = false;
@@ -172,10 +200,10 @@ public class DuckMemory {
         hdmaTransferredThisHblank = false;
 
         for (int bank = 0; bank < vramBanks.length; bank++) {
-            vramBanks[bank] = new int[vramBankSize];
+            vramBanks[bank] = new byte[vramBankSize];
         }
         for (int bank = 0; bank < wramBanks.length; bank++) {
-            wramBanks[bank] = new int[wramBankSize];
+            wramBanks[bank] = new byte[wramBankSize];
         }
         for (int index = 0; index < bgPaletteRam.length; index++) {
             bgPaletteRam[index] = 0;
@@ -183,6 +211,8 @@ public class DuckMemory {
         }
         Arrays.fill(bgPaletteRgbCache, 0);
         Arrays.fill(objPaletteRgbCache, 0);
+        Arrays.fill(decodedTileRows, 0);
+        RemapAllPages();
     }
 
     /**
@@ -215,14 +245,12 @@ public class DuckMemory {
                             + " bytes.");
         }
 
-        bootRom = new int[bootRomBytes.length];
-        for (int index = 0; index < bootRomBytes.length; index++) {
-            bootRom[index] = bootRomBytes[index] & 0xFF;
-        }
+        bootRom = Arrays.copyOf(bootRomBytes, bootRomBytes.length);
 
         bootRomMapped = true;
         cgbBootRomMapped = isCgbBootRom;
         WriteDirect(DuckAddresses.BOOT_ROM_DISABLE, 0x00);
+        RemapRomPages();
     }
 
     /**
@@ -377,18 +405,22 @@ public class DuckMemory {
             return;
         }
 
+        if (address >= DuckAddresses.OAM_START && address <= DuckAddresses.OAM_END) {
+            oamVersion++;
+        }
+
         if (address >= DuckAddresses.VRAM_START && address <= DuckAddresses.VRAM_END) {
-            vramBanks[activeVramBank][address - DuckAddresses.VRAM_START] = value;
+            WriteVideoRam(address - DuckAddresses.VRAM_START, value);
             return;
         }
 
         if (address >= DuckAddresses.WORK_RAM_START && address <= 0xCFFF) {
-            wramBanks[0][address - DuckAddresses.WORK_RAM_START] = value;
+            wramBanks[0][address - DuckAddresses.WORK_RAM_START] = (byte) value;
             return;
         }
 
         if (address >= 0xD000 && address <= DuckAddresses.WORK_RAM_END) {
-            wramBanks[activeWramBank][address - 0xD000] = value;
+            wramBanks[activeWramBank][address - 0xD000] = (byte) value;
             return;
         }
 
@@ -399,28 +431,30 @@ public class DuckMemory {
 
         if (address == DuckAddresses.VBK) {
             activeVramBank = value & 0x01;
-            ram[address] = 0xFE | activeVramBank;
+            ram[address] = (byte) (0xFE | activeVramBank);
+            RemapVideoRamPages();
             return;
         }
 
         if (address == DuckAddresses.SVBK) {
             activeWramBank = DecodeWramBank(value);
-            ram[address] = 0xF8 | activeWramBank;
+            ram[address] = (byte) (0xF8 | activeWramBank);
+            RemapWorkRamPages();
             return;
         }
 
         if (address == DuckAddresses.KEY1) {
             key1Armed = (value & 0x01) != 0;
-            ram[address] = (doubleSpeedMode ? 0x80 : 0x00) | (key1Armed ? 0x01 : 0x00);
+            ram[address] = (byte) ((doubleSpeedMode ? 0x80 : 0x00) | (key1Armed ? 0x01 : 0x00));
             return;
         }
 
         if (address == DuckAddresses.BCPS || address == DuckAddresses.OCPS) {
-            ram[address] = 0x40 | (value & 0xBF);
+            ram[address] = (byte) (0x40 | (value & 0xBF));
             return;
         }
 
-        ram[address] = value;
+        ram[address] = (byte) value;
     }
 
     /**
@@ -431,6 +465,11 @@ public class DuckMemory {
      */
     public int Read(int address) {
         address &= 0xFFFF;
+        int page = address >>> 8;
+        byte[] backing = readPages[page];
+        if (backing != null) {
+            return backing[readPageOffsets[page] + (address & 0xFF)] & 0xFF;
+        }
 
         if (bootRomMapped && bootRom != null && IsBootRomAddress(address)) {
             return bootRom[BootRomIndex(address)] & 0xFF;
@@ -465,7 +504,7 @@ public class DuckMemory {
         }
 
         if (address == DuckAddresses.SERIAL_CONTROL) {
-            return cgbMode ? (ram[address] | 0x7C) : (ram[address] | 0x7E);
+            return cgbMode ? ((ram[address] & 0xFF) | 0x7C) : ((ram[address] & 0xFF) | 0x7E);
         }
 
         if (address == DuckAddresses.JOYPAD && joypad != null) {
@@ -475,20 +514,31 @@ public class DuckMemory {
         if ((address >= DuckAddresses.AUDIO_START && address <= DuckAddresses.AUDIO_END)
                 || (address >= DuckAddresses.WAVE_PATTERN_START && address <= DuckAddresses.WAVE_PATTERN_END)) {
             if (apu != null) {
+                apu.CatchUp();
                 return apu.Read(address);
             }
         }
 
+        if (address == DuckAddresses.DIV || address == DuckAddresses.TIMA) {
+            if (timer != null) {
+                timer.CatchUp();
+            }
+            return ram[address] & 0xFF;
+        }
+
         if (address == DuckAddresses.TAC) {
-            return ram[address] | 0xF8;
+            return (ram[address] & 0xFF) | 0xF8;
         }
 
         if (address == DuckAddresses.INTERRUPT_FLAG) {
-            return ram[address] | 0xE0;
+            return (ram[address] & 0xFF) | 0xE0;
         }
 
-        if (address == DuckAddresses.STAT) {
-            return ram[address] | 0x80;
+        if (address == DuckAddresses.STAT || address == DuckAddresses.LY) {
+            if (ppu != null) {
+                ppu.CatchUp();
+            }
+            return address == DuckAddresses.STAT ? (ram[address] & 0xFF) | 0x80 : ram[address] & 0xFF;
         }
 
         if (address == DuckAddresses.KEY1) {
@@ -532,33 +582,44 @@ public class DuckMemory {
     public void Write(int address, int value) {
         address &= 0xFFFF;
         value &= 0xFF;
+        int page = address >>> 8;
+        byte[] backing = writePages[page];
+        if (backing != null) {
+            backing[writePageOffsets[page] + (address & 0xFF)] = (byte) value;
+            return;
+        }
 
         if (address < 0x8000) {
             if (cartridge != null) {
                 cartridge.Write(address, value);
+                RemapCartridgePages();
             }
             return;
         }
 
         if (address >= DuckAddresses.VRAM_START && address <= DuckAddresses.VRAM_END) {
-            vramBanks[activeVramBank][address - DuckAddresses.VRAM_START] = value;
+            if (ppu != null) {
+                ppu.CatchUp();
+            }
+            WriteVideoRam(address - DuckAddresses.VRAM_START, value);
             return;
         }
 
         if (address >= DuckAddresses.EXTERNAL_RAM_START && address <= DuckAddresses.EXTERNAL_RAM_END) {
             if (cartridge != null) {
                 cartridge.Write(address, value);
+                RemapCartridgePages();
             }
             return;
         }
 
         if (address >= DuckAddresses.WORK_RAM_START && address <= 0xCFFF) {
-            wramBanks[0][address - DuckAddresses.WORK_RAM_START] = value;
+            wramBanks[0][address - DuckAddresses.WORK_RAM_START] = (byte) value;
             return;
         }
 
         if (address >= 0xD000 && address <= DuckAddresses.WORK_RAM_END) {
-            wramBanks[activeWramBank][address - 0xD000] = value;
+            wramBanks[activeWramBank][address - 0xD000] = (byte) value;
             return;
         }
 
@@ -571,26 +632,35 @@ public class DuckMemory {
             return;
         }
 
+        if (ppu != null && IsPpuVisibleRegister(address)) {
+            ppu.CatchUp();
+        }
+
+        if (address >= DuckAddresses.OAM_START && address <= DuckAddresses.OAM_END) {
+            oamVersion++;
+        }
+
         if (address == DuckAddresses.JOYPAD) {
             if (joypad != null) {
                 joypad.WriteRegister(value);
-                ram[address] = joypad.ReadRegister();
+                ram[address] = (byte) joypad.ReadRegister();
             } else {
-                ram[address] = 0xC0 | (value & 0x30) | 0x0F;
+                ram[address] = (byte) (0xC0 | (value & 0x30) | 0x0F);
             }
             return;
         }
 
         if (address == DuckAddresses.SERIAL_CONTROL) {
-            ram[address] = cgbMode ? (0x7C | (value & 0x83)) : (0x7E | (value & 0x81));
+            ram[address] = (byte) (cgbMode ? (0x7C | (value & 0x83)) : (0x7E | (value & 0x81)));
             return;
         }
 
         if (address == DuckAddresses.BOOT_ROM_DISABLE) {
-            ram[address] = value & 0x01;
+            ram[address] = (byte) (value & 0x01);
             if ((value & 0x01) != 0) {
                 bootRomMapped = false;
                 cgbBootRomMapped = false;
+                RemapRomPages();
             }
             return;
         }
@@ -598,42 +668,58 @@ public class DuckMemory {
         if ((address >= DuckAddresses.AUDIO_START && address <= DuckAddresses.AUDIO_END)
                 || (address >= DuckAddresses.WAVE_PATTERN_START && address <= DuckAddresses.WAVE_PATTERN_END)) {
             if (apu != null) {
+                apu.CatchUp();
                 apu.Write(address, value);
             } else {
-                ram[address] = value;
+                ram[address] = (byte) value;
             }
             return;
         }
 
         if (address == DuckAddresses.DIV) {
             if (timer != null) {
+                timer.CatchUp();
                 timer.ResetDiv();
             }
             return;
         }
 
-        if (address == DuckAddresses.TIMA) {
-            if (timer != null && timer.timaOverflowPending) {
-                timer.CancelPendingOverflow();
+        if (address == DuckAddresses.TIMA || address == DuckAddresses.TMA) {
+            if (timer != null) {
+                timer.CatchUp();
+                if (address == DuckAddresses.TIMA && timer.timaOverflowPending) {
+                    timer.CancelPendingOverflow();
+                }
+                ram[address] = (byte) value;
+                timer.RequestRefresh();
+                return;
             }
         }
 
         if (address == DuckAddresses.TAC) {
             if (timer != null) {
+                timer.CatchUp();
                 timer.WriteTac(value);
             } else {
-                ram[address] = 0xF8 | (value & 0x07);
+                ram[address] = (byte) (0xF8 | (value & 0x07));
             }
             return;
         }
 
         if (address == DuckAddresses.INTERRUPT_FLAG) {
-            ram[address] = 0xE0 | (value & 0x1F);
+            ram[address] = (byte) (0xE0 | (value & 0x1F));
             return;
         }
 
         if (address == DuckAddresses.STAT) {
-            ram[address] = 0x80 | (ram[address] & 0x07) | (value & 0x78);
+            ram[address] = (byte) (0x80 | (ram[address] & 0x07) | (value & 0x78));
+            RequestPpuRefresh();
+            return;
+        }
+
+        if (address == DuckAddresses.LCDC || address == DuckAddresses.LYC) {
+            ram[address] = (byte) value;
+            RequestPpuRefresh();
             return;
         }
 
@@ -647,7 +733,7 @@ public class DuckMemory {
             dmaCounter = 0;
             dmaCycleCounter = 0;
             dmaActive = true;
-            ram[address] = value;
+            ram[address] = (byte) value;
             return;
         }
 
@@ -657,24 +743,26 @@ public class DuckMemory {
 
         if (address == DuckAddresses.KEY1) {
             key1Armed = (value & 0x01) != 0;
-            ram[address] = (doubleSpeedMode ? 0x80 : 0x00) | (key1Armed ? 0x01 : 0x00);
+            ram[address] = (byte) ((doubleSpeedMode ? 0x80 : 0x00) | (key1Armed ? 0x01 : 0x00));
             return;
         }
 
         if (address == DuckAddresses.VBK) {
             activeVramBank = value & 0x01;
-            ram[address] = 0xFE | activeVramBank;
+            ram[address] = (byte) (0xFE | activeVramBank);
+            RemapVideoRamPages();
             return;
         }
 
         if (address == DuckAddresses.SVBK) {
             activeWramBank = DecodeWramBank(value);
-            ram[address] = 0xF8 | activeWramBank;
+            ram[address] = (byte) (0xF8 | activeWramBank);
+            RemapWorkRamPages();
             return;
         }
 
         if (address == DuckAddresses.BCPS || address == DuckAddresses.OCPS) {
-            ram[address] = 0x40 | (value & 0xBF);
+            ram[address] = (byte) (0x40 | (value & 0xBF));
             return;
         }
 
@@ -690,7 +778,7 @@ public class DuckMemory {
 
         if (address == DuckAddresses.HDMA1 || address == DuckAddresses.HDMA2
                 || address == DuckAddresses.HDMA3 || address == DuckAddresses.HDMA4) {
-            ram[address] = value;
+            ram[address] = (byte) value;
             return;
         }
 
@@ -699,7 +787,25 @@ public class DuckMemory {
             return;
         }
 
-        ram[address] = value;
+        ram[address] = (byte) value;
+    }
+
+    /**
+     * Returns whether an OAM DMA transfer is still copying bytes.
+     *
+     * @return {@code true} while OAM DMA is active
+     */
+    public boolean IsDmaActive() {
+        return dmaActive;
+    }
+
+    /**
+     * Returns whether a CGB H-Blank DMA transfer is waiting for H-Blank periods.
+     *
+     * @return {@code true} while H-Blank DMA is active
+     */
+    public boolean IsHdmaActive() {
+        return hdmaActive;
     }
 
     /**
@@ -719,7 +825,8 @@ public class DuckMemory {
         int destination = (DuckAddresses.OAM_START + dmaCounter) & 0xFFFF;
         int source = (dmaSource + dmaCounter) & 0xFFFF;
         int value = Read(source);
-        ram[destination] = value;
+        ram[destination] = (byte) value;
+        oamVersion++;
 
         dmaCounter++;
         if (dmaCounter >= 0xA0) {
@@ -923,6 +1030,35 @@ public class DuckMemory {
         return ram[address & 0xFFFF] & 0xFF;
     }
 
+    /**
+     * Returns the ROM image of the inserted cartridge.
+     * <p>
+     * The array is shared and must be treated as read-only.
+     *
+     * @return cartridge ROM bytes, or {@code null} when no cartridge is loaded
+     */
+    public byte[] GetRomImage() {
+        return cartridge == null ? null : cartridge.romData;
+    }
+
+    /**
+     * Resolves the cartridge ROM byte a CPU address currently reads from.
+     * <p>
+     * Only addresses served straight from the ROM image through the page table
+     * resolve. Boot ROM overlays, RAM, and anything a mapper handles itself
+     * return {@code -1}.
+     *
+     * @param address CPU address
+     * @return offset into {@link #GetRomImage()}, or {@code -1}
+     */
+    public int ResolveRomOffset(int address) {
+        int page = (address >>> 8) & 0xFF;
+        if (cartridge == null || readPages[page] != cartridge.romData) {
+            return -1;
+        }
+        return readPageOffsets[page] + (address & 0xFF);
+    }
+
     /**
      * Reads from a specific VRAM bank regardless of the currently selected bank.
      *
@@ -939,6 +1075,32 @@ public class DuckMemory {
         return vramBanks[resolvedBank][offset] & 0xFF;
     }
 
+    /**
+     * Returns a counter that changes whenever anything may have written OAM,
+     * so sprite data derived from OAM can tell when it is stale.
+     *
+     * @return current OAM version
+     */
+    public int GetOamVersion() {
+        return oamVersion;
+    }
+
+    /**
+     * Returns one row of tile data, already split into colour indices.
+     * <p>
+     * Pixel {@code x} of the row is {@code (row >>> (x * 2)) & 3}. The upper 16
+     * bits hold the same row mirrored, so {@code row >>> 16} gives the
+     * horizontally flipped row in the same layout.
+     *
+     * @param bank      VRAM bank index
+     * @param tileIndex tile from 0 to 383, counted from {@code 0x8000}
+     * @param line      row within the tile from 0 to 7
+     * @return decoded row in both orientations
+     */
+    public int ReadDecodedTileRow(int bank, int tileIndex, int line) {
+        return decodedTileRows[((bank & 0x01) * tileRowsPerBank) + (tileIndex * 8) + (line & 0x07)];
+    }
+
     /**
      * Reads one byte from OAM without applying CPU-side access rules.
      *
@@ -961,9 +1123,7 @@ public class DuckMemory {
      * @return packed ARGB value
      */
     public int ReadCgbBackgroundPaletteColourRgb(int paletteIndex, int colourIndex) {
-        int safePaletteIndex = Math.max(0, Math.min(7, paletteIndex));
-        int safeColourIndex = Math.max(0, Math.min(3, colourIndex));
-        return bgPaletteRgbCache[(safePaletteIndex * 4) + safeColourIndex];
+        return bgPaletteRgbCache[((paletteIndex & 0x07) * 4) + (colourIndex & 0x03)];
     }
 
     /**
@@ -974,9 +1134,7 @@ public class DuckMemory {
      * @return packed ARGB value
      */
     public int ReadCgbObjectPaletteColourRgb(int paletteIndex, int colourIndex) {
-        int safePaletteIndex = Math.max(0, Math.min(7, paletteIndex));
-        int safeColourIndex = Math.max(0, Math.min(3, colourIndex));
-        return objPaletteRgbCache[(safePaletteIndex * 4) + safeColourIndex];
+        return objPaletteRgbCache[((paletteIndex & 0x07) * 4) + (colourIndex & 0x03)];
     }
 
     /**
@@ -1001,7 +1159,7 @@ public class DuckMemory {
      * Applies the usual transfer-complete side effects for the serial port.
      */
     public void CompleteSerialTransfer() {
-        ram[DuckAddresses.SERIAL_DATA] = 0xFF;
+        ram[DuckAddresses.SERIAL_DATA] = (byte) 0xFF;
         ram[DuckAddresses.SERIAL_CONTROL] &= ~0x80;
     }
 
@@ -1015,7 +1173,7 @@ public class DuckMemory {
 
         doubleSpeedMode = !doubleSpeedMode;
         key1Armed = false;
-        ram[DuckAddresses.KEY1] = doubleSpeedMode ? 0x80 : 0x00;
+        ram[DuckAddresses.KEY1] = (byte) (doubleSpeedMode ? 0x80 : 0x00);
     }
 
     /**
@@ -1067,6 +1225,7 @@ public class DuckMemory {
         }
 
         ram = Arrays.copyOf(state.ram(), state.ram().length);
+        oamVersion++;
         bootRom = state.bootRom() == null ? null : Arrays.copyOf(state.bootRom(), state.bootRom().length);
         bootRomMapped = state.bootRomMapped();
         cgbBootRomMapped = state.cgbBootRomMapped();
@@ -1085,6 +1244,7 @@ public class DuckMemory {
         hdmaTransferredThisHblank = state.hdmaTransferredThisHblank();
 
         CopyInto(state.vramBanks(), vramBanks);
+        RebuildDecodedTileRows();
         CopyInto(state.wramBanks(), wramBanks);
         CopyInto(state.bgPaletteRam(), bgPaletteRam);
         CopyInto(state.objPaletteRam(), objPaletteRam);
@@ -1094,6 +1254,97 @@ public class DuckMemory {
         if (cartridge != null && state.cartridgeState() != null) {
             cartridge.RestoreState(state.cartridgeState());
         }
+        RemapAllPages();
+    }
+
+    private void RemapAllPages() {
+        RemapRomPages();
+        RemapVideoRamPages();
+        RemapCartridgeRamPages();
+        RemapWorkRamPages();
+    }
+
+    private void RemapCartridgePages() {
+        RemapRomPages();
+        RemapCartridgeRamPages();
+    }
+
+    private void RemapRomPages() {
+        for (int window = 0; window < 2; window++) {
+            int offset = cartridge == null ? -1 : cartridge.MapRomWindow(window);
+            int firstPage = window * (0x4000 / pageSize);
+            for (int index = 0; index < 0x4000 / pageSize; index++) {
+                MapReadPage(firstPage + index, offset < 0 ? null : cartridge.romData, offset + (index * pageSize));
+            }
+        }
+
+        if (bootRomMapped && bootRom != null) {
+            MapReadPage(0x00, bootRom, 0x0000);
+            if (cgbBootRomMapped) {
+                for (int page = 0x02; page <= 0x08; page++) {
+                    MapReadPage(page, bootRom, BootRomIndex(page * pageSize));
+                }
+            }
+        }
+    }
+
+    private void RemapVideoRamPages() {
+        // VRAM writes stay on the slow path so the PPU can catch up first.
+        int firstPage = DuckAddresses.VRAM_START / pageSize;
+        for (int index = 0; index < vramBankSize / pageSize; index++) {
+            MapReadPage(firstPage + index, vramBanks[activeVramBank], index * pageSize);
+        }
+    }
+
+    private void RemapCartridgeRamPages() {
+        int offset = cartridge == null ? -1 : cartridge.MapRamWindow();
+        byte[] backing = offset < 0 ? null : cartridge.ramData;
+        int firstPage = DuckAddresses.EXTERNAL_RAM_START / pageSize;
+        for (int index = 0; index < 0x2000 / pageSize; index++) {
+            MapReadPage(firstPage + index, backing, offset + (index * pageSize));
+            MapWritePage(firstPage + index, backing, offset + (index * pageSize));
+        }
+    }
+
+    private void RemapWorkRamPages() {
+        int bankPages = wramBankSize / pageSize;
+        for (int index = 0; index < bankPages; index++) {
+            MapWorkRamPage(0xC0 + index, wramBanks[0], index * pageSize);
+            MapWorkRamPage(0xD0 + index, wramBanks[activeWramBank], index * pageSize);
+            MapWorkRamPage(0xE0 + index, wramBanks[0], index * pageSize);
+        }
+        // Echo RAM stops at 0xFDFF; 0xFE00 onwards is OAM and unusable space.
+        for (int index = 0; index < (DuckAddresses.ECHO_RAM_END + 1 - 0xF000) / pageSize; index++) {
+            MapWorkRamPage(0xF0 + index, wramBanks[activeWramBank], index * pageSize);
+        }
+    }
+
+    private void MapWorkRamPage(int page, byte[] backing, int offset) {
+        MapReadPage(page, backing, offset);
+        MapWritePage(page, backing, offset);
+    }
+
+    private void MapReadPage(int page, byte[] backing, int offset) {
+        readPages[page] = backing;
+        readPageOffsets[page] = offset;
+    }
+
+    private void MapWritePage(int page, byte[] backing, int offset) {
+        writePages[page] = backing;
+        writePageOffsets[page] = offset;
+    }
+
+    private boolean IsPpuVisibleRegister(int address) {
+        return (address >= DuckAddresses.OAM_START && address <= DuckAddresses.OAM_END)
+                || (address >= DuckAddresses.LCDC && address <= DuckAddresses.WX)
+                || (address >= DuckAddresses.HDMA1 && address <= DuckAddresses.HDMA5)
+                || (address >= DuckAddresses.BCPS && address <= DuckAddresses.OPRI);
+    }
+
+    private void RequestPpuRefresh() {
+        if (ppu != null) {
+            ppu.RequestRefresh();
+        }
     }
 
     private boolean IsBootRomAddress(int address) {
@@ -1137,7 +1388,7 @@ public class DuckMemory {
         UpdateCgbPaletteCacheEntry(paletteRam, rgbCache, paletteIndex);
         if ((ram[indexRegister] & 0x80) != 0) {
             int nextIndex = (paletteIndex + 1) & 0x3F;
-            ram[indexRegister] = (ram[indexRegister] & 0x80) | 0x40 | nextIndex;
+            ram[indexRegister] = (byte) ((ram[indexRegister] & 0x80) | 0x40 | nextIndex);
         }
     }
 
@@ -1146,19 +1397,19 @@ public class DuckMemory {
             if ((value & 0x80) == 0) {
                 hdmaActive = false;
                 hdmaTransferredThisHblank = false;
-                ram[DuckAddresses.HDMA5] = 0x80 | Math.max(0, hdmaBlocksRemaining - 1);
+                ram[DuckAddresses.HDMA5] = (byte) (0x80 | Math.max(0, hdmaBlocksRemaining - 1));
             }
             return;
         }
 
         if ((value & 0x80) != 0) {
             hdmaActive = true;
-            hdmaSource = ((ram[DuckAddresses.HDMA1] << 8) | (ram[DuckAddresses.HDMA2] & 0xF0)) & 0xFFF0;
+            hdmaSource = (((ram[DuckAddresses.HDMA1] & 0xFF) << 8) | (ram[DuckAddresses.HDMA2] & 0xF0)) & 0xFFF0;
             hdmaDestination = 0x8000
                     | (((ram[DuckAddresses.HDMA3] & 0x1F) << 8) | (ram[DuckAddresses.HDMA4] & 0xF0));
             hdmaBlocksRemaining = (value & 0x7F) + 1;
             hdmaTransferredThisHblank = false;
-            ram[DuckAddresses.HDMA5] = Math.max(0, hdmaBlocksRemaining - 1) & 0x7F;
+            ram[DuckAddresses.HDMA5] = (byte) (Math.max(0, hdmaBlocksRemaining - 1) & 0x7F);
             return;
         }
 
@@ -1167,7 +1418,7 @@ public class DuckMemory {
 
     private void PerformGeneralHdmaTransfer(int controlValue) {
         int length = ((controlValue & 0x7F) + 1) * 0x10;
-        int source = ((ram[DuckAddresses.HDMA1] << 8) | (ram[DuckAddresses.HDMA2] & 0xF0)) & 0xFFF0;
+        int source = (((ram[DuckAddresses.HDMA1] & 0xFF) << 8) | (ram[DuckAddresses.HDMA2] & 0xF0)) & 0xFFF0;
         int destination = 0x8000 | (((ram[DuckAddresses.HDMA3] & 0x1F) << 8) | (ram[DuckAddresses.HDMA4] & 0xF0));
 
         for (int index = 0; index < length; index++) {
@@ -1177,7 +1428,7 @@ public class DuckMemory {
         hdmaActive = false;
         hdmaBlocksRemaining = 0;
         hdmaTransferredThisHblank = false;
-        ram[DuckAddresses.HDMA5] = 0xFF;
+        ram[DuckAddresses.HDMA5] = (byte) 0xFF;
     }
 
     private void TransferHdmaBlock() {
@@ -1191,11 +1442,11 @@ public class DuckMemory {
 
         if (hdmaBlocksRemaining == 0) {
             hdmaActive = false;
-            ram[DuckAddresses.HDMA5] = 0xFF;
+            ram[DuckAddresses.HDMA5] = (byte) 0xFF;
             return;
         }
 
-        ram[DuckAddresses.HDMA5] = (hdmaBlocksRemaining - 1) & 0x7F;
+        ram[DuckAddresses.HDMA5] = (byte) ((hdmaBlocksRemaining - 1) & 0x7F);
     }
 
     private void InitialiseCgbPalettesToWhite(int[] paletteRam, int[] rgbCache) {
@@ -1209,6 +1460,34 @@ public class DuckMemory {
         RebuildCgbPaletteCache(paletteRam, rgbCache);
     }
 
+    private void WriteVideoRam(int offset, int value) {
+        vramBanks[activeVramBank][offset] = (byte) value;
+        if (offset < tileDataSize) {
+            UpdateDecodedTileRow(activeVramBank, offset & ~1);
+        }
+    }
+
+    private void RebuildDecodedTileRows() {
+        for (int bank = 0; bank < vramBanks.length; bank++) {
+            for (int offset = 0; offset < tileDataSize; offset += 2) {
+                UpdateDecodedTileRow(bank, offset);
+            }
+        }
+    }
+
+    private void UpdateDecodedTileRow(int bank, int offset) {
+        int low = vramBanks[bank][offset] & 0xFF;
+        int high = vramBanks[bank][offset + 1] & 0xFF;
+        int row = 0;
+        for (int pixel = 0; pixel < 8; pixel++) {
+            int bit = 7 - pixel;
+            int colourIndex = (((high >> bit) & 1) << 1) | ((low >> bit) & 1);
+            row |= colourIndex << (pixel * 2);
+            row |= colourIndex << (30 - (pixel * 2));
+        }
+        decodedTileRows[(bank * tileRowsPerBank) + (offset >> 1)] = row;
+    }
+
     private void RebuildCgbPaletteCache(int[] paletteRam, int[] rgbCache) {
         for (int index = 0; index < rgbCache.length; index++) {
             int base = index * 2;
@@ -1223,10 +1502,18 @@ public class DuckMemory {
 
     private int ReadCgbPaletteColourRgbFromRam(int[] paletteRam, int base) {
         int colour555 = paletteRam[base] | ((paletteRam[base + 1] & 0x7F) << 8);
-        return Cgb555ToRgb(colour555);
+        return cgbColourTable[colour555];
+    }
+
+    private static int[] BuildCgbColourTable() {
+        int[] table = new int[0x8000];
+        for (int colour555 = 0; colour555 < table.length; colour555++) {
+            table[colour555] = Cgb555ToRgb(colour555);
+        }
+        return table;
     }
 
-    private int Cgb555ToRgb(int colour555) {
+    private static int Cgb555ToRgb(int colour555) {
         int red = colour555 & 0x1F;
         int green = (colour555 >> 5) & 0x1F;
         int blue = (colour555 >> 10) & 0x1F;
@@ -1239,20 +1526,20 @@ public class DuckMemory {
         return 0xFF000000 | (correctedRed << 16) | (correctedGreen << 8) | correctedBlue;
     }
 
-    private int ScaleCorrectedCgbChannel(int value) {
+    private static int ScaleCorrectedCgbChannel(int value) {
         int clamped = Math.max(0, Math.min(960, value));
         return (clamped * 255 + 480) / 960;
     }
 
-    private int[][] Copy2dArray(int[][] source) {
-        int[][] copy = new int[source.length][];
+    private byte[][] Copy2dArray(byte[][] source) {
+        byte[][] copy = new byte[source.length][];
         for (int index = 0; index < source.length; index++) {
             copy[index] = Arrays.copyOf(source[index], source[index].length);
         }
         return copy;
     }
 
-    private void CopyInto(int[][] source, int[][] target) {
+    private void CopyInto(byte[][] source, byte[][] target) {
         if (source == null || target == null || source.length != target.length) {
             throw new IllegalArgumentException("The quick state bank data is invalid.");
         }
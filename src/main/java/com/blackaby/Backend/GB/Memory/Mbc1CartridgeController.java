@@ -39,6 +39,27 @@ final class Mbc1CartridgeController extends CartridgeController {
         return ReadRamBank(bank, address & 0x1FFF);
     }
 
+    @Override
+    public int MapRomWindow(int window) {
+        if (window == 0) {
+            return RomBankOffset(ramBankingMode ? (upperBankBits << 5) : 0);
+        }
+
+        int bank = (upperBankBits << 5) | romBankLow5;
+        if ((bank & 0x1F) == 0) {
+            bank++;
+        }
+        return RomBankOffset(bank);
+    }
+
+    @Override
+    public int MapRamWindow() {
+        if (!ramEnabled) {
+            return -1;
+        }
+        return RamBankOffset(ramBankingMode ? upperBankBits : 0);
+    }
+
     @Override
     public void Write(int address, int value) {
         if (address <= 0x1FFF) {
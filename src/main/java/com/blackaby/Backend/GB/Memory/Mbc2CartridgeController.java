@@ -31,6 +31,11 @@ final class Mbc2CartridgeController extends CartridgeController {
         return 0xF0 | (ramData[index] & 0x0F);
     }
 
+    @Override
+    public int MapRomWindow(int window) {
+        return RomBankOffset(window == 0 ? 0 : romBank);
+    }
+
     @Override
     public void Write(int address, int value) {
         if (address <= 0x3FFF) {
@@ -46,7 +51,7 @@ final class Mbc2CartridgeController extends CartridgeController {
         }
 
         if (address >= DuckAddresses.EXTERNAL_RAM_START && address <= DuckAddresses.EXTERNAL_RAM_END && ramEnabled) {
-            ramData[address & 0x01FF] = value & 0x0F;
+            ramData[address & 0x01FF] = (byte) (value & 0x0F);
         }
     }
 
@@ -75,6 +75,19 @@ final class Mbc3CartridgeController extends CartridgeController {
         return ReadRamBank(ramBankOrRtcRegister, address & 0x1FFF);
     }
 
+    @Override
+    public int MapRomWindow(int window) {
+        return RomBankOffset(window == 0 ? 0 : romBank);
+    }
+
+    @Override
+    public int MapRamWindow() {
+        if (!ramEnabled || ramBankOrRtcRegister >= 0x04) {
+            return -1;
+        }
+        return RamBankOffset(ramBankOrRtcRegister);
+    }
+
     @Override
     public void Write(int address, int value) {
         if (address <= 0x1FFF) {
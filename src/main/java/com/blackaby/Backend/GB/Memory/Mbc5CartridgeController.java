@@ -31,6 +31,19 @@ final class Mbc5CartridgeController extends CartridgeController {
         return ReadRamBank(ramBank, address & 0x1FFF);
     }
 
+    @Override
+    public int MapRomWindow(int window) {
+        return RomBankOffset(window == 0 ? 0 : romBank);
+    }
+
+    @Override
+    public int MapRamWindow() {
+        if (!ramEnabled) {
+            return -1;
+        }
+        return RamBankOffset(ramBank);
+    }
+
     @Override
     public void Write(int address, int value) {
         if (address <= 0x1FFF) {
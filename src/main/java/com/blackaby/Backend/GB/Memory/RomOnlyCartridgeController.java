@@ -24,6 +24,16 @@ final class RomOnlyCartridgeController extends CartridgeController {
         return ReadRamBank(0, address & 0x1FFF);
     }
 
+    @Override
+    public int MapRomWindow(int window) {
+        return RomBankOffset(window);
+    }
+
+    @Override
+    public int MapRamWindow() {
+        return RamBankOffset(0);
+    }
+
     @Override
     public void Write(int address, int value) {
         if (address >= DuckAddresses.EXTERNAL_RAM_START && address <= DuckAddresses.EXTERNAL_RAM_END && HasRam()) {
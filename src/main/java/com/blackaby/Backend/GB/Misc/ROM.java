@@ -5,7 +5,6 @@ import com.blackaby.Backend.Platform.EmulatorMedia;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -32,7 +31,7 @@ public class ROM implements EmulatorMedia {
     private final List<String> patchNames;
     private final List<String> patchSourcePaths;
     private String headerTitle;
-    private int[] data;
+    private final byte[] data;
     private int cartridgeTypeCode;
     private CartridgeMapperType mapperType;
     private int declaredRomBankCount;
@@ -58,10 +57,7 @@ public class ROM implements EmulatorMedia {
                 : displayName;
         this.patchNames = List.copyOf(patchNames == null ? List.of() : patchNames);
         this.patchSourcePaths = List.copyOf(patchSourcePaths == null ? List.of() : patchSourcePaths);
-        data = new int[romBytes.length];
-        for (int index = 0; index < romBytes.length; index++) {
-            data[index] = romBytes[index] & 0xFF;
-        }
+        data = romBytes;
         ParseHeader();
     }
 
@@ -88,8 +84,8 @@ public class ROM implements EmulatorMedia {
      * @throws IOException when either file cannot be read
      */
     public static ROM LoadPatched(String romFilename, String patchFilename, String patchDisplayName) throws IOException {
-        byte[] romBytes = Files.readAllBytes(Path.of(romFilename));
-        byte[] patchedBytes = IpsPatch.Apply(romBytes, Path.of(patchFilename));
+        byte[] romBytes = RomImageCache.Load(Path.of(romFilename));
+        byte[] patchedBytes = RomImageCache.ShareOwned(IpsPatch.Apply(romBytes, Path.of(patchFilename)));
         String displayName = patchDisplayName == null || patchDisplayName.isBlank()
                 ? DisplayNameFromPath(patchFilename)
                 : patchDisplayName;
@@ -124,8 +120,7 @@ public class ROM implements EmulatorMedia {
             throw new IllegalArgumentException("A base ROM is required.");
         }
 
-        byte[] romBytes = baseRom.ToByteArray();
-        byte[] patchedBytes = IpsPatch.Apply(romBytes, Path.of(patchFilename));
+        byte[] patchedBytes = RomImageCache.ShareOwned(IpsPatch.Apply(baseRom.data, Path.of(patchFilename)));
         List<String> patchNames = new ArrayList<>(baseRom.patchNames);
         List<String> patchSourcePaths = new ArrayList<>(baseRom.patchSourcePaths);
         String displayName = patchDisplayName == null || patchDisplayName.isBlank()
@@ -138,6 +133,9 @@ public class ROM implements EmulatorMedia {
 
     /**
      * Creates a ROM directly from raw bytes.
+     * <p>
+     * The bytes are shared with any other ROM that has the same content, and
+     * copied only when no such ROM exists yet.
      *
      * @param filename source path or identifier
      * @param romBytes ROM bytes
@@ -145,7 +143,7 @@ public class ROM implements EmulatorMedia {
      * @return ROM image instance
      */
     public static ROM FromBytes(String filename, byte[] romBytes, String displayName) {
-        return new ROM(filename, Arrays.copyOf(romBytes, romBytes.length), displayName, List.of(), List.of());
+        return new ROM(filename, RomImageCache.Share(romBytes), displayName, List.of(), List.of());
     }
 
     /**
@@ -160,15 +158,18 @@ public class ROM implements EmulatorMedia {
      */
     public static ROM FromBytes(String filename, byte[] romBytes, String displayName, List<String> patchNames,
                                 List<String> patchSourcePaths) {
-        return new ROM(filename, Arrays.copyOf(romBytes, romBytes.length), displayName, patchNames, patchSourcePaths);
+        return new ROM(filename, RomImageCache.Share(romBytes), displayName, patchNames, patchSourcePaths);
     }
 
     /**
-     * Returns the ROM bytes as unsigned values.
+     * Returns the ROM image without copying it.
+     * <p>
+     * The array is shared with every mapper and every other ROM that has the
+     * same content, so callers must treat it as read-only.
      *
-     * @return ROM byte array
+     * @return ROM bytes
      */
-    public int[] GetData() {
+    public byte[] GetData() {
         return data;
     }
 
@@ -353,11 +354,7 @@ public class ROM implements EmulatorMedia {
      * @return ROM bytes
      */
     public byte[] ToByteArray() {
-        byte[] romBytes = new byte[data.length];
-        for (int index = 0; index < data.length; index++) {
-            romBytes[index] = (byte) (data[index] & 0xFF);
-        }
-        return romBytes;
+        return Arrays.copyOf(data, data.length);
     }
 
     @Override
@@ -491,7 +488,7 @@ public class ROM implements EmulatorMedia {
         }
 
         try {
-            return Files.readAllBytes(Path.of(filename));
+            return RomImageCache.Load(Path.of(filename));
         } catch (IOException exception) {
             exception.printStackTrace();
             return new byte[0];
@@ -0,0 +1,147 @@
+package com.blackaby.Backend.GB.Misc;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Shares read-only ROM images between every {@link ROM} with the same content.
+ * <p>
+ * Images are keyed by their SHA-1 digest, so any number of sessions running
+ * the same cartridge read from one array. Files are also indexed by path, size,
+ * and modification time, which lets repeat loads of an unchanged file skip the
+ * read entirely. Entries are only weakly held and disappear once no ROM uses
+ * them.
+ */
+public final class RomImageCache {
+
+    private static final Map<String, WeakReference<byte[]>> imagesByHash = new HashMap<>();
+    private static final Map<FileKey, WeakReference<byte[]>> imagesByFile = new HashMap<>();
+    private static final Map<byte[], Boolean> sharedImages = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private RomImageCache() {
+    }
+
+    /**
+     * Returns the shared image with the same content as the supplied bytes.
+     * <p>
+     * The bytes are copied when no matching image exists yet, so the caller
+     * keeps ownership of its array.
+     *
+     * @param romBytes ROM bytes
+     * @return shared read-only image
+     */
+    public static byte[] Share(byte[] romBytes) {
+        Objects.requireNonNull(romBytes, "romBytes");
+        if (sharedImages.containsKey(romBytes)) {
+            return romBytes;
+        }
+        return Intern(romBytes, true);
+    }
+
+    /**
+     * Loads a ROM file, reusing the shared image when the file has not changed
+     * since it was last read.
+     *
+     * @param path ROM path
+     * @return shared read-only image
+     * @throws IOException when the file cannot be read
+     */
+    public static byte[] Load(Path path) throws IOException {
+        FileKey key = FileKey.Of(path);
+        synchronized (RomImageCache.class) {
+            byte[] cached = Resolve(imagesByFile, key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        byte[] image = Intern(Files.readAllBytes(path), false);
+        synchronized (RomImageCache.class) {
+            imagesByFile.put(key, new WeakReference<>(image));
+        }
+        return image;
+    }
+
+    /**
+     * Returns whether an array is a shared image handed out by this cache.
+     *
+     * @param romBytes array to check
+     * @return {@code true} when the array is shared
+     */
+    public static boolean IsShared(byte[] romBytes) {
+        return romBytes != null && sharedImages.containsKey(romBytes);
+    }
+
+    /**
+     * Takes ownership of freshly built ROM bytes, such as a patched image, and
+     * returns the shared copy.
+     *
+     * @param romBytes ROM bytes no other code holds on to
+     * @return shared read-only image
+     */
+    static byte[] ShareOwned(byte[] romBytes) {
+        Objects.requireNonNull(romBytes, "romBytes");
+        if (sharedImages.containsKey(romBytes)) {
+            return romBytes;
+        }
+        return Intern(romBytes, false);
+    }
+
+    private static byte[] Intern(byte[] romBytes, boolean copy) {
+        String hash = Hash(romBytes);
+        synchronized (RomImageCache.class) {
+            byte[] cached = Resolve(imagesByHash, hash);
+            if (cached != null && Arrays.equals(cached, romBytes)) {
+                return cached;
+            }
+
+            byte[] image = copy ? Arrays.copyOf(romBytes, romBytes.length) : romBytes;
+            imagesByHash.put(hash, new WeakReference<>(image));
+            sharedImages.put(image, Boolean.TRUE);
+            return image;
+        }
+    }
+
+    private static <K> byte[] Resolve(Map<K, WeakReference<byte[]>> images, K key) {
+        WeakReference<byte[]> reference = images.get(key);
+        if (reference == null) {
+            return null;
+        }
+        byte[] image = reference.get();
+        if (image == null) {
+            images.remove(key);
+        }
+        return image;
+    }
+
+    private static String Hash(byte[] value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(value);
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte item : digest) {
+                builder.append(String.format("%02x", item));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-1 is unavailable.", exception);
+        }
+    }
+
+    private record FileKey(Path path, long size, long lastModified) {
+        private static FileKey Of(Path path) throws IOException {
+            Path resolvedPath = path.toAbsolutePath().normalize();
+            return new FileKey(resolvedPath, Files.size(resolvedPath),
+                    Files.getLastModifiedTime(resolvedPath).toMillis());
+        }
+    }
+}
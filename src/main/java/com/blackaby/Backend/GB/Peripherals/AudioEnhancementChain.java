@@ -8,39 +8,36 @@ import java.util.List;
 
 /**
  * Applies a configurable sequence of host-side audio enhancements.
+ * <p>
+ * Audio arrives in blocks of interleaved stereo floats. Each processor runs
+ * over a whole block in one loop, so the chain costs one virtual call per
+ * processor per block rather than per sample.
  */
 public final class AudioEnhancementChain {
     private static final double silenceThreshold = 0.0005;
     private static final double wetMixFloor = 0.0001;
-
-    /**
-     * Mutable stereo frame reused during processing to avoid per-sample allocation.
-     */
-    public static final class StereoFrame {
-        private double left;
-        private double right;
-
-        public double Left() {
-            return left;
-        }
-
-        public double Right() {
-            return right;
-        }
-    }
+    private static final Processor[] noProcessors = new Processor[0];
 
     private interface Processor {
-        void Process(StereoFrame frame);
+        /**
+         * Processes interleaved stereo samples in place.
+         *
+         * @param samples interleaved left/right samples
+         * @param from first array index to process, always a left sample
+         * @param to array index after the last sample to process
+         */
+        void Process(float[] samples, int from, int to);
 
         default void ResetState() {
         }
     }
 
     private final float sampleRate;
-    private final StereoFrame workingFrame = new StereoFrame();
     private final int silenceHoldSamples;
     private final double wetMixFadeStep;
-    private List<Processor> processors = List.of();
+    private Processor[] processors = noProcessors;
+    private float[] drySamples = new float[0];
+    private float[] wetMixes = new float[0];
     private int consecutiveSilentSamples;
     private double wetPathMix = 1.0;
     private boolean processorsAtRest;
@@ -65,36 +62,50 @@ public final class AudioEnhancementChain {
             }
             rebuilt.add(ProcessorsFor(setting));
         }
-        processors = List.copyOf(rebuilt);
+        processors = rebuilt.toArray(noProcessors);
         ResetState();
     }
 
     /**
-     * Processes one stereo frame through the active enhancement chain.
+     * Processes a block of stereo frames through the active enhancement chain
+     * in place.
+     * <p>
+     * Frames that arrive while the chain is resting after a stretch of silence
+     * pass through untouched. Every other run of frames goes through each
+     * processor in turn.
      *
-     * @param left input left sample
-     * @param right input right sample
-     * @return processed frame reference
+     * @param samples interleaved left/right samples
+     * @param frameCount number of stereo frames in the block
      */
-    public StereoFrame Process(double left, double right) {
-        UpdateSilenceState(left, right);
-
-        workingFrame.left = left;
-        workingFrame.right = right;
-
-        if (processors.isEmpty() || processorsAtRest || wetPathMix <= wetMixFloor) {
-            return workingFrame;
+    public void Process(float[] samples, int frameCount) {
+        if (processors.length == 0 || frameCount <= 0) {
+            return;
         }
-
-        for (Processor processor : processors) {
-            processor.Process(workingFrame);
-            workingFrame.left = ClampSample(workingFrame.left);
-            workingFrame.right = ClampSample(workingFrame.right);
+        if (wetMixes.length < frameCount) {
+            wetMixes = new float[frameCount];
+            drySamples = new float[frameCount * 2];
         }
 
-        workingFrame.left = ClampSample(left + ((workingFrame.left - left) * wetPathMix));
-        workingFrame.right = ClampSample(right + ((workingFrame.right - right) * wetPathMix));
-        return workingFrame;
+        int runStart = -1;
+        for (int frame = 0; frame < frameCount; frame++) {
+            if (UpdateSilenceState(samples[frame * 2], samples[frame * 2 + 1])) {
+                if (runStart >= 0) {
+                    RunProcessors(samples, runStart, frame);
+                    runStart = -1;
+                }
+                ResetProcessors();
+            }
+            if (processorsAtRest) {
+                continue;
+            }
+            if (runStart < 0) {
+                runStart = frame;
+            }
+            wetMixes[frame] = (float) wetPathMix;
+        }
+        if (runStart >= 0) {
+            RunProcessors(samples, runStart, frameCount);
+        }
     }
 
     /**
@@ -160,28 +171,48 @@ public final class AudioEnhancementChain {
         return minimum + ((maximum - minimum) * (Math.max(0, Math.min(100, percent)) / 100.0));
     }
 
-    private void UpdateSilenceState(double left, double right) {
+    private void RunProcessors(float[] samples, int startFrame, int endFrame) {
+        int from = startFrame * 2;
+        int to = endFrame * 2;
+        System.arraycopy(samples, from, drySamples, from, to - from);
+
+        for (Processor processor : processors) {
+            processor.Process(samples, from, to);
+            ClampSamples(samples, from, to);
+        }
+
+        for (int index = from; index < to; index += 2) {
+            float mix = wetMixes[index >> 1];
+            samples[index] = ClampSample(drySamples[index] + ((samples[index] - drySamples[index]) * mix));
+            samples[index + 1] = ClampSample(drySamples[index + 1]
+                    + ((samples[index + 1] - drySamples[index + 1]) * mix));
+        }
+    }
+
+    // Returns true when this frame lets the chain come to rest, so the
+    // processors need resetting before the next audible frame.
+    private boolean UpdateSilenceState(float left, float right) {
         double peak = Math.max(Math.abs(left), Math.abs(right));
         if (peak > silenceThreshold) {
             consecutiveSilentSamples = 0;
             wetPathMix = 1.0;
             processorsAtRest = false;
-            return;
+            return false;
         }
 
         consecutiveSilentSamples++;
         if (processorsAtRest || consecutiveSilentSamples <= silenceHoldSamples) {
-            return;
+            return false;
         }
 
         wetPathMix = Math.max(0.0, wetPathMix - wetMixFadeStep);
         if (wetPathMix > wetMixFloor) {
-            return;
+            return false;
         }
 
         wetPathMix = 0.0;
-        ResetProcessors();
         processorsAtRest = true;
+        return true;
     }
 
     private void ResetProcessors() {
@@ -191,27 +222,30 @@ public final class AudioEnhancementChain {
     }
 
     private static final class IntensityProcessor implements Processor {
-        private final List<Processor> processors;
-        private final double mix;
+        private final Processor[] processors;
+        private final float mix;
+        private float[] drySamples = new float[0];
 
         private IntensityProcessor(List<Processor> processors, double mix) {
-            this.processors = processors;
-            this.mix = Math.max(0.0, Math.min(1.0, mix));
+            this.processors = processors.toArray(noProcessors);
+            this.mix = (float) Math.max(0.0, Math.min(1.0, mix));
         }
 
         @Override
-        public void Process(StereoFrame frame) {
-            double dryLeft = frame.left;
-            double dryRight = frame.right;
+        public void Process(float[] samples, int from, int to) {
+            if (drySamples.length < to) {
+                drySamples = new float[samples.length];
+            }
+            System.arraycopy(samples, from, drySamples, from, to - from);
 
             for (Processor processor : processors) {
-                processor.Process(frame);
-                frame.left = ClampSample(frame.left);
-                frame.right = ClampSample(frame.right);
+                processor.Process(samples, from, to);
+                ClampSamples(samples, from, to);
             }
 
-            frame.left = ClampSample(dryLeft + ((frame.left - dryLeft) * mix));
-            frame.right = ClampSample(dryRight + ((frame.right - dryRight) * mix));
+            for (int index = from; index < to; index++) {
+                samples[index] = ClampSample(drySamples[index] + ((samples[index] - drySamples[index]) * mix));
+            }
         }
 
         @Override
@@ -234,11 +268,17 @@ public final class AudioEnhancementChain {
         }
 
         @Override
-        public void Process(StereoFrame frame) {
-            leftState += alpha * (frame.left - leftState);
-            rightState += alpha * (frame.right - rightState);
-            frame.left = leftState;
-            frame.right = rightState;
+        public void Process(float[] samples, int from, int to) {
+            double left = leftState;
+            double right = rightState;
+            for (int index = from; index < to; index += 2) {
+                left += alpha * (samples[index] - left);
+                right += alpha * (samples[index + 1] - right);
+                samples[index] = (float) left;
+                samples[index + 1] = (float) right;
+            }
+            leftState = left;
+            rightState = right;
         }
 
         @Override
@@ -262,20 +302,19 @@ public final class AudioEnhancementChain {
         }
 
         @Override
-        public void Process(StereoFrame frame) {
-            double currentLeft = frame.left;
-            double currentRight = frame.right;
-
-            double filteredLeft = alpha * (previousOutputLeft + currentLeft - previousInputLeft);
-            double filteredRight = alpha * (previousOutputRight + currentRight - previousInputRight);
-
-            previousInputLeft = currentLeft;
-            previousInputRight = currentRight;
-            previousOutputLeft = filteredLeft;
-            previousOutputRight = filteredRight;
-
-            frame.left = filteredLeft;
-            frame.right = filteredRight;
+        public void Process(float[] samples, int from, int to) {
+            for (int index = from; index < to; index += 2) {
+                double currentLeft = samples[index];
+                double currentRight = samples[index + 1];
+
+                previousOutputLeft = alpha * (previousOutputLeft + currentLeft - previousInputLeft);
+                previousOutputRight = alpha * (previousOutputRight + currentRight - previousInputRight);
+                previousInputLeft = currentLeft;
+                previousInputRight = currentRight;
+
+                samples[index] = (float) previousOutputLeft;
+                samples[index + 1] = (float) previousOutputRight;
+            }
         }
 
         @Override
@@ -297,9 +336,10 @@ public final class AudioEnhancementChain {
         }
 
         @Override
-        public void Process(StereoFrame frame) {
-            frame.left = Math.tanh(frame.left * drive) / scale;
-            frame.right = Math.tanh(frame.right * drive) / scale;
+        public void Process(float[] samples, int from, int to) {
+            for (int index = from; index < to; index++) {
+                samples[index] = (float) (Math.tanh(samples[index] * drive) / scale);
+            }
         }
     }
 
@@ -311,11 +351,13 @@ public final class AudioEnhancementChain {
         }
 
         @Override
-        public void Process(StereoFrame frame) {
-            double mid = (frame.left + frame.right) * 0.5;
-            double side = (frame.left - frame.right) * 0.5 * width;
-            frame.left = mid + side;
-            frame.right = mid - side;
+        public void Process(float[] samples, int from, int to) {
+            for (int index = from; index < to; index += 2) {
+                double mid = (samples[index] + samples[index + 1]) * 0.5;
+                double side = (samples[index] - samples[index + 1]) * 0.5 * width;
+                samples[index] = (float) (mid + side);
+                samples[index + 1] = (float) (mid - side);
+            }
         }
     }
 
@@ -344,9 +386,15 @@ public final class AudioEnhancementChain {
         }
 
         @Override
-        public void Process(StereoFrame frame) {
-            double dryLeft = frame.left;
-            double dryRight = frame.right;
+        public void Process(float[] samples, int from, int to) {
+            for (int index = from; index < to; index += 2) {
+                ProcessFrame(samples, index);
+            }
+        }
+
+        private void ProcessFrame(float[] samples, int index) {
+            double dryLeft = samples[index];
+            double dryRight = samples[index + 1];
 
             double modulatedLeftDelay = baseDelaySamples + depthSamples * ((Math.sin(phase) + 1.0) * 0.5);
             double modulatedRightDelay = baseDelaySamples
@@ -364,8 +412,8 @@ public final class AudioEnhancementChain {
                 phase -= Math.PI * 2.0;
             }
 
-            frame.left = ClampSample(dryLeft * (1.0 - wet) + delayedLeft * wet);
-            frame.right = ClampSample(dryRight * (1.0 - wet) + delayedRight * wet);
+            samples[index] = (float) ClampSample(dryLeft * (1.0 - wet) + delayedLeft * wet);
+            samples[index + 1] = (float) ClampSample(dryRight * (1.0 - wet) + delayedRight * wet);
         }
 
         @Override
@@ -398,9 +446,15 @@ public final class AudioEnhancementChain {
         }
 
         @Override
-        public void Process(StereoFrame frame) {
-            double dryLeft = frame.left;
-            double dryRight = frame.right;
+        public void Process(float[] samples, int from, int to) {
+            for (int index = from; index < to; index += 2) {
+                ProcessFrame(samples, index);
+            }
+        }
+
+        private void ProcessFrame(float[] samples, int index) {
+            double dryLeft = samples[index];
+            double dryRight = samples[index + 1];
             double delayedLeft = leftBuffer[writeIndex];
             double delayedRight = rightBuffer[writeIndex];
 
@@ -413,8 +467,8 @@ public final class AudioEnhancementChain {
             rightBuffer[writeIndex] = rightFeedbackState;
             writeIndex = (writeIndex + 1) % leftBuffer.length;
 
-            frame.left = ClampSample(dryLeft * (1.0 - wet) + delayedLeft * wet);
-            frame.right = ClampSample(dryRight * (1.0 - wet) + delayedRight * wet);
+            samples[index] = (float) ClampSample(dryLeft * (1.0 - wet) + delayedLeft * wet);
+            samples[index + 1] = (float) ClampSample(dryRight * (1.0 - wet) + delayedRight * wet);
         }
 
         @Override
@@ -465,9 +519,15 @@ public final class AudioEnhancementChain {
         }
 
         @Override
-        public void Process(StereoFrame frame) {
-            double dryLeft = frame.left;
-            double dryRight = frame.right;
+        public void Process(float[] samples, int from, int to) {
+            for (int index = from; index < to; index += 2) {
+                ProcessFrame(samples, index);
+            }
+        }
+
+        private void ProcessFrame(float[] samples, int index) {
+            double dryLeft = samples[index];
+            double dryRight = samples[index + 1];
 
             double wetLeft = ClampSample(ReadTapped(leftBuffer, writeIndex, leftTapOffsets, tapGains)
                     + ReadTapped(rightBuffer, writeIndex, rightTapOffsets, tapGains) * 0.18);
@@ -483,8 +543,8 @@ public final class AudioEnhancementChain {
             rightBuffer[writeIndex] = rightStoreState;
             writeIndex = (writeIndex + 1) % leftBuffer.length;
 
-            frame.left = ClampSample(dryLeft * (1.0 - wet) + wetLeft * wet);
-            frame.right = ClampSample(dryRight * (1.0 - wet) + wetRight * wet);
+            samples[index] = (float) ClampSample(dryLeft * (1.0 - wet) + wetLeft * wet);
+            samples[index + 1] = (float) ClampSample(dryRight * (1.0 - wet) + wetRight * wet);
         }
 
         @Override
@@ -534,5 +594,15 @@ public final class AudioEnhancementChain {
     private static double ClampSample(double sample) {
         return Math.max(-1.0, Math.min(1.0, sample));
     }
+
+    private static float ClampSample(float sample) {
+        return Math.max(-1.0f, Math.min(1.0f, sample));
+    }
+
+    private static void ClampSamples(float[] samples, int from, int to) {
+        for (int index = from; index < to; index++) {
+            samples[index] = Math.max(-1.0f, Math.min(1.0f, samples[index]));
+        }
+    }
 }
 
@@ -0,0 +1,103 @@
+package com.blackaby.Backend.GB.Peripherals;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free ring of interleaved stereo float samples for exactly one producer
+ * thread and one consumer thread.
+ * <p>
+ * The producer only moves the write position and the consumer only moves the
+ * read position, so neither side ever waits for the other. A full ring drops
+ * the part of a block that does not fit instead of blocking the producer.
+ */
+public final class AudioRingBuffer {
+
+    private static final int channels = 2;
+
+    private final float[] samples;
+    private final int mask;
+    private final AtomicLong writePosition = new AtomicLong();
+    private final AtomicLong readPosition = new AtomicLong();
+
+    /**
+     * Creates a ring that holds at least the given number of stereo frames.
+     *
+     * @param capacityFrames minimum capacity in stereo frames
+     */
+    public AudioRingBuffer(int capacityFrames) {
+        if (capacityFrames <= 0 || capacityFrames > (1 << 24)) {
+            throw new IllegalArgumentException("The audio ring capacity is out of range.");
+        }
+        int capacity = Integer.highestOneBit(capacityFrames * channels - 1) << 1;
+        samples = new float[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Appends frames from the producer thread.
+     *
+     * @param source interleaved left/right samples
+     * @param frameCount number of frames to append
+     * @return number of frames that fit
+     */
+    public int Write(float[] source, int frameCount) {
+        long write = writePosition.get();
+        long read = readPosition.getAcquire();
+        int free = samples.length - (int) (write - read);
+        int count = Math.min(frameCount * channels, free);
+
+        int start = (int) (write & mask);
+        int firstPart = Math.min(count, samples.length - start);
+        System.arraycopy(source, 0, samples, start, firstPart);
+        System.arraycopy(source, firstPart, samples, 0, count - firstPart);
+
+        writePosition.setRelease(write + count);
+        return count / channels;
+    }
+
+    /**
+     * Takes frames from the consumer thread.
+     *
+     * @param destination interleaved left/right samples
+     * @param maxFrames most frames to take
+     * @return number of frames taken
+     */
+    public int Read(float[] destination, int maxFrames) {
+        long read = readPosition.get();
+        long write = writePosition.getAcquire();
+        int count = Math.min(maxFrames * channels, (int) (write - read));
+
+        int start = (int) (read & mask);
+        int firstPart = Math.min(count, samples.length - start);
+        System.arraycopy(samples, start, destination, 0, firstPart);
+        System.arraycopy(samples, 0, destination, firstPart, count - firstPart);
+
+        readPosition.setRelease(read + count);
+        return count / channels;
+    }
+
+    /**
+     * Drops every buffered frame. Only the consumer thread may call this.
+     */
+    public void Clear() {
+        readPosition.setRelease(writePosition.getAcquire());
+    }
+
+    /**
+     * Returns how many frames are waiting to be read.
+     *
+     * @return buffered stereo frames
+     */
+    public int GetBufferedFrames() {
+        return (int) (writePosition.getAcquire() - readPosition.getAcquire()) / channels;
+    }
+
+    /**
+     * Returns how many frames the ring can hold.
+     *
+     * @return capacity in stereo frames
+     */
+    public int GetCapacityFrames() {
+        return samples.length / channels;
+    }
+}
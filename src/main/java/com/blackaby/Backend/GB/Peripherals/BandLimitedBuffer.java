@@ -0,0 +1,138 @@
+package com.blackaby.Backend.GB.Peripherals;
+
+import java.util.Arrays;
+
+/**
+ * Turns amplitude changes stamped with clock cycles into band-limited output
+ * samples.
+ * <p>
+ * Each change is spread over a short windowed-sinc step instead of landing on
+ * a single sample, so square and noise waves above the output Nyquist limit no
+ * longer alias. Changes are collected for one frame and then integrated into
+ * samples in a single pass. Time is tracked as a fixed-point sample position
+ * with 15 fractional bits, so a clock whose ratio to the sample rate is
+ * {@code phasePerCycle / 32768} converts without drift.
+ */
+public final class BandLimitedBuffer {
+
+    private static final int fractionBits = 15;
+    private static final int phaseBits = 5;
+    private static final int phaseCount = 1 << phaseBits;
+    private static final int kernelWidth = 16;
+    private static final double cutoff = 0.9;
+    private static final double[][] kernels = BuildKernels();
+
+    private final int phasePerCycle;
+    private final double[] deltas;
+    private int startPhase;
+    private double level;
+
+    /**
+     * Creates a buffer for frames of up to the given length.
+     *
+     * @param phasePerCycle output samples per clock cycle, in units of 1/32768
+     * @param maxFrameCycles longest frame that will be ended in one go
+     */
+    public BandLimitedBuffer(int phasePerCycle, int maxFrameCycles) {
+        if (phasePerCycle <= 0 || phasePerCycle > (1 << fractionBits)) {
+            throw new IllegalArgumentException("The clock must run at least as fast as the sample rate.");
+        }
+        this.phasePerCycle = phasePerCycle;
+        int maxSamples = (int) (((long) maxFrameCycles * phasePerCycle) >>> fractionBits) + 1;
+        deltas = new double[maxSamples + kernelWidth];
+    }
+
+    /**
+     * Records an amplitude change.
+     *
+     * @param cycle clock cycle within the current frame
+     * @param delta change in output level
+     */
+    public void AddDelta(int cycle, double delta) {
+        long position = startPhase + (long) cycle * phasePerCycle;
+        int sample = (int) (position >>> fractionBits);
+        double[] kernel = kernels[(int) (position >>> (fractionBits - phaseBits)) & (phaseCount - 1)];
+        for (int index = 0; index < kernelWidth; index++) {
+            deltas[sample + index] += delta * kernel[index];
+        }
+    }
+
+    /**
+     * Ends the current frame and integrates every sample it completed.
+     *
+     * @param cycles length of the frame in clock cycles
+     * @param output destination for the finished samples
+     * @param offset index of the first sample in the destination
+     * @param stride distance between samples in the destination, such as 2 for
+     * one side of an interleaved stereo block
+     * @return number of samples written
+     */
+    public int EndFrame(int cycles, float[] output, int offset, int stride) {
+        long position = startPhase + (long) cycles * phasePerCycle;
+        int sampleCount = (int) (position >>> fractionBits);
+        startPhase = (int) (position & ((1 << fractionBits) - 1));
+
+        for (int index = 0; index < sampleCount; index++) {
+            level += deltas[index];
+            output[offset + index * stride] = (float) level;
+        }
+
+        System.arraycopy(deltas, sampleCount, deltas, 0, kernelWidth);
+        Arrays.fill(deltas, kernelWidth, Math.max(kernelWidth, sampleCount + kernelWidth), 0.0);
+        return sampleCount;
+    }
+
+    /**
+     * Returns how far into the next output sample the current frame starts.
+     *
+     * @param cycle clock cycle within the current frame
+     * @return fractional sample position in units of 1/32768
+     */
+    public int GetPhase(int cycle) {
+        return (int) ((startPhase + (long) cycle * phasePerCycle) & ((1 << fractionBits) - 1));
+    }
+
+    /**
+     * Drops all pending changes and resets the output level to silence.
+     *
+     * @param phase fractional sample position of the next frame start
+     */
+    public void Clear(int phase) {
+        Arrays.fill(deltas, 0.0);
+        level = 0.0;
+        startPhase = phase & ((1 << fractionBits) - 1);
+    }
+
+    /**
+     * Returns the most samples one frame can produce.
+     *
+     * @return most samples written by one {@link #EndFrame(int, float[], int, int)}
+     */
+    public int GetMaxFrameSamples() {
+        return deltas.length - kernelWidth;
+    }
+
+    // Builds one band-limited impulse per sub-sample phase. Each kernel sums to
+    // one, so integrating the spread delta settles on the exact new level.
+    private static double[][] BuildKernels() {
+        double[][] table = new double[phaseCount][kernelWidth];
+        int centre = kernelWidth / 2 - 1;
+        for (int phase = 0; phase < phaseCount; phase++) {
+            double offset = phase / (double) phaseCount;
+            double sum = 0.0;
+            for (int index = 0; index < kernelWidth; index++) {
+                double time = index - centre - offset;
+                double sinc = time == 0.0 ? 1.0 : Math.sin(Math.PI * cutoff * time) / (Math.PI * cutoff * time);
+                double window = 0.42 + 0.5 * Math.cos(Math.PI * time / (kernelWidth / 2.0))
+                        + 0.08 * Math.cos(2.0 * Math.PI * time / (kernelWidth / 2.0));
+                double value = Math.abs(time) >= kernelWidth / 2.0 ? 0.0 : sinc * window;
+                table[phase][index] = value;
+                sum += value;
+            }
+            for (int index = 0; index < kernelWidth; index++) {
+                table[phase][index] /= sum;
+            }
+        }
+        return table;
+    }
+}
@@ -1,8 +1,10 @@
 package com.blackaby.Backend.GB.Peripherals;
 
+import com.blackaby.Backend.GB.DuckScheduler;
 import com.blackaby.Backend.GB.Memory.DuckAddresses;
 import com.blackaby.Backend.GB.Memory.DuckMemory;
 import com.blackaby.Backend.GB.Misc.Specifics;
+import com.blackaby.Backend.Platform.AudioSink;
 import com.blackaby.Misc.Settings;
 
 import java.util.Arrays;
@@ -14,6 +16,17 @@ import java.util.Arrays;
  * with register semantics, frame sequencer timing, mixing, and host audio
  * output.
  * </p>
+ * <p>
+ * When attached to a {@link DuckScheduler} the unit is synchronised lazily.
+ * Channel timers are advanced in bulk between frame sequencer steps, and memory
+ * catches the unit up before any register access.
+ * </p>
+ * <p>
+ * Audible channels report a level change only on the cycle their output
+ * actually moves. The changes are mixed into a left and a right
+ * {@link BandLimitedBuffer}, which turn them into output samples once per
+ * output frame.
+ * </p>
  */
 public class DuckAPU {
 
@@ -86,9 +99,15 @@ public class DuckAPU {
             NoiseChannelState channel4) implements java.io.Serializable {
     }
 
-    private static final float outputSampleRate = 48_000.0f;
-    private static final double cyclesPerSample = Specifics.cyclesPerSecond / outputSampleRate;
+    /** Sample rate of the mixed output stream in hertz. */
+    public static final float outputSampleRate = 48_000.0f;
+    // 4194304 / 48000 cycles per sample is exactly 32768 / 375, so the sample
+    // clock is tracked as an integer phase to keep bulk catch-up exact.
+    private static final int samplePhasePerCycle = 375;
+    private static final int samplePhasePerSample = (int) Math.round(
+            Specifics.cyclesPerSecond / outputSampleRate * samplePhasePerCycle);
     private static final int frameSequencerPeriod = 8192;
+    private static final int outputFrameCycles = 8192;
     private static final int[] dutyPatterns = {
             0b00000001,
             0b10000001,
@@ -98,13 +117,21 @@ public class DuckAPU {
     private static final int[] noiseDivisors = { 8, 16, 32, 48, 64, 80, 96, 112 };
 
     private final DuckMemory memory;
-    private final DuckAudioOutput audioOutput;
+    private final AudioSink audioOutput;
     private final int[] waveRam = new int[16];
 
     private final PulseChannel channel1 = new PulseChannel(true);
     private final PulseChannel channel2 = new PulseChannel(false);
     private final WaveChannel channel3 = new WaveChannel();
     private final NoiseChannel channel4 = new NoiseChannel();
+    private final BaseChannel[] channels = { channel1, channel2, channel3, channel4 };
+
+    private final BandLimitedBuffer leftOutput = new BandLimitedBuffer(samplePhasePerCycle, outputFrameCycles);
+    private final BandLimitedBuffer rightOutput = new BandLimitedBuffer(samplePhasePerCycle, outputFrameCycles);
+    private final float[] outputSamples = new float[leftOutput.GetMaxFrameSamples() * 2];
+    private final double[] leftGains = new double[4];
+    private final double[] rightGains = new double[4];
+    private int outputCycle;
 
     private boolean powerEnabled;
     private int nr50;
@@ -113,11 +140,22 @@ public class DuckAPU {
 
     private int frameSequencerCounter = frameSequencerPeriod;
     private int frameSequencerStep;
-    private double sampleAccumulator;
+    private DuckScheduler scheduler;
+    private long syncedCycle;
 
     public DuckAPU(DuckMemory memory) {
+        this(memory, new DuckAudioOutput(outputSampleRate));
+    }
+
+    /**
+     * Creates an APU that mixes into the supplied sink.
+     *
+     * @param memory memory bus that mirrors the audio registers
+     * @param audioOutput destination for mixed samples
+     */
+    public DuckAPU(DuckMemory memory, AudioSink audioOutput) {
         this.memory = memory;
-        this.audioOutput = new DuckAudioOutput(outputSampleRate);
+        this.audioOutput = audioOutput;
         PowerOff();
     }
 
@@ -128,7 +166,7 @@ public class DuckAPU {
         nr52 = 0x80;
         frameSequencerCounter = frameSequencerPeriod;
         frameSequencerStep = 0;
-        sampleAccumulator = 0.0;
+        ClearOutput(0);
 
         // When boot ROM execution is skipped, keep the boot register defaults but
         // do not start channel 1 already sounding. That avoids a loud startup tone
@@ -149,25 +187,55 @@ public class DuckAPU {
         audioOutput.DiscardBufferedAudio();
     }
 
-    public void Tick() {
-        if (powerEnabled) {
-            channel1.TickTimer();
-            channel2.TickTimer();
-            channel3.TickTimer();
-            channel4.TickTimer();
+    /**
+     * Attaches the shared scheduler and registers the next frame sequencer step.
+     *
+     * @param scheduler emulation scheduler, or {@code null} to tick manually
+     */
+    public void SetScheduler(DuckScheduler scheduler) {
+        this.scheduler = scheduler;
+        syncedCycle = scheduler == null ? 0L : scheduler.Now();
+        ScheduleNextEvent();
+    }
 
-            frameSequencerCounter--;
-            if (frameSequencerCounter <= 0) {
-                frameSequencerCounter += frameSequencerPeriod;
-                StepFrameSequencer();
-            }
+    /**
+     * Brings the unit up to the scheduler's current timestamp.
+     */
+    public void CatchUp() {
+        if (scheduler != null) {
+            Synchronise(scheduler.Now());
+        }
+    }
+
+    /**
+     * Advances the unit until it has observed the requested master cycle.
+     * <p>
+     * Time is split at frame sequencer steps and output frame ends so each
+     * span can advance the channel timers in one go.
+     *
+     * @param targetCycle absolute master cycle to reach
+     */
+    public void Synchronise(long targetCycle) {
+        if (targetCycle <= syncedCycle) {
+            return;
         }
 
-        sampleAccumulator += 1.0;
-        while (sampleAccumulator >= cyclesPerSample) {
-            sampleAccumulator -= cyclesPerSample;
-            WriteMixedSample();
+        long remaining = targetCycle - syncedCycle;
+        while (remaining > 0) {
+            int span = (int) Math.min(remaining, outputFrameCycles - outputCycle);
+            if (powerEnabled) {
+                span = Math.min(span, frameSequencerCounter);
+            }
+            RunCycles(span);
+            remaining -= span;
         }
+
+        syncedCycle = targetCycle;
+        ScheduleNextEvent();
+    }
+
+    public void Tick() {
+        RunCycles(1);
     }
 
     public int Read(int address) {
@@ -261,6 +329,7 @@ public class DuckAPU {
      * @return APU state snapshot
      */
     public synchronized ApuState CaptureState() {
+        CatchUp();
         return new ApuState(
                 powerEnabled,
                 nr50,
@@ -268,7 +337,7 @@ public class DuckAPU {
                 nr52,
                 frameSequencerCounter,
                 frameSequencerStep,
-                sampleAccumulator,
+                leftOutput.GetPhase(outputCycle) / (double) samplePhasePerCycle,
                 Arrays.copyOf(waveRam, waveRam.length),
                 CapturePulseChannel(channel1),
                 CapturePulseChannel(channel2),
@@ -295,7 +364,8 @@ public class DuckAPU {
         nr52 = state.nr52() & 0xFF;
         frameSequencerCounter = Math.max(1, state.frameSequencerCounter());
         frameSequencerStep = state.frameSequencerStep() & 0x07;
-        sampleAccumulator = Math.max(0.0, state.sampleAccumulator());
+        ClearOutput((int) Math.max(0L, Math.min(samplePhasePerSample - 1L,
+                Math.round(state.sampleAccumulator() * samplePhasePerCycle))));
         System.arraycopy(state.waveRam(), 0, waveRam, 0, waveRam.length);
 
         RestorePulseChannel(channel1, state.channel1());
@@ -305,6 +375,109 @@ public class DuckAPU {
 
         audioOutput.DiscardBufferedAudio();
         SyncMirrors();
+        if (scheduler != null) {
+            syncedCycle = scheduler.Now();
+            ScheduleNextEvent();
+        }
+    }
+
+    private void RunCycles(int cycles) {
+        if (powerEnabled) {
+            UpdateMixGains();
+            for (int index = 0; index < channels.length; index++) {
+                RunChannel(channels[index], index, cycles);
+            }
+
+            frameSequencerCounter -= cycles;
+            if (frameSequencerCounter <= 0) {
+                frameSequencerCounter += frameSequencerPeriod;
+                StepFrameSequencer();
+            }
+        }
+
+        outputCycle += cycles;
+        if (outputCycle >= outputFrameCycles) {
+            EndOutputFrame();
+        }
+    }
+
+    // Register writes, envelope steps, and mixer changes since the last span
+    // all land on its first cycle. After that only timer steps move the output.
+    private void RunChannel(BaseChannel channel, int index, int cycles) {
+        UpdateOutput(channel, index, outputCycle);
+        if (!channel.IsActive() || (leftGains[index] == 0.0 && rightGains[index] == 0.0)) {
+            channel.AdvanceTimer(cycles);
+            return;
+        }
+
+        int cycle = outputCycle;
+        int remaining = cycles;
+        while (remaining >= channel.timer) {
+            int step = channel.timer;
+            channel.AdvanceTimer(step);
+            remaining -= step;
+            cycle += step;
+            UpdateOutput(channel, index, cycle);
+        }
+        channel.AdvanceTimer(remaining);
+    }
+
+    private void UpdateOutput(BaseChannel channel, int index, int cycle) {
+        double sample = channel.Sample();
+        double left = sample * leftGains[index];
+        double right = sample * rightGains[index];
+        if (left != channel.leftLevel) {
+            leftOutput.AddDelta(cycle, left - channel.leftLevel);
+            channel.leftLevel = left;
+        }
+        if (right != channel.rightLevel) {
+            rightOutput.AddDelta(cycle, right - channel.rightLevel);
+            channel.rightLevel = right;
+        }
+    }
+
+    private void UpdateMixGains() {
+        double masterVolume = Settings.soundEnabled ? Math.max(0, Settings.masterVolume) / 100.0 : 0.0;
+        double leftVolume = ((nr50 >>> 4) & 0x07) / 7.0 * masterVolume * 0.30 / 4.0;
+        double rightVolume = (nr50 & 0x07) / 7.0 * masterVolume * 0.30 / 4.0;
+        boolean[] muted = Settings.channelMuted;
+        int[] volumes = Settings.channelVolume;
+
+        for (int index = 0; index < channels.length; index++) {
+            double channelVolume = muted[index] || volumes[index] <= 0 ? 0.0 : volumes[index] / 100.0;
+            leftGains[index] = (nr51 & (0x10 << index)) != 0 ? channelVolume * leftVolume : 0.0;
+            rightGains[index] = (nr51 & (0x01 << index)) != 0 ? channelVolume * rightVolume : 0.0;
+        }
+    }
+
+    private void EndOutputFrame() {
+        int frameCount = leftOutput.EndFrame(outputCycle, outputSamples, 0, 2);
+        rightOutput.EndFrame(outputCycle, outputSamples, 1, 2);
+        outputCycle = 0;
+
+        // Silent frames are still sent so the sink sees a steady sample clock,
+        // which audio-paced emulation relies on.
+        audioOutput.WriteSamples(outputSamples, frameCount);
+    }
+
+    private void ClearOutput(int phase) {
+        leftOutput.Clear(phase);
+        rightOutput.Clear(phase);
+        outputCycle = 0;
+        for (BaseChannel channel : channels) {
+            channel.leftLevel = 0.0;
+            channel.rightLevel = 0.0;
+        }
+    }
+
+    private void ScheduleNextEvent() {
+        if (scheduler != null) {
+            int untilNextStep = outputFrameCycles - outputCycle;
+            if (powerEnabled) {
+                untilNextStep = Math.min(untilNextStep, frameSequencerCounter);
+            }
+            scheduler.Schedule(DuckScheduler.Event.APU, syncedCycle + untilNextStep);
+        }
     }
 
     private void PowerOn() {
@@ -330,7 +503,7 @@ public class DuckAPU {
         nr52 = 0;
         frameSequencerCounter = frameSequencerPeriod;
         frameSequencerStep = 0;
-        sampleAccumulator = 0.0;
+        ClearOutput(0);
 
         channel1.Reset();
         channel2.Reset();
@@ -401,59 +574,6 @@ public class DuckAPU {
         frameSequencerStep = (frameSequencerStep + 1) & 0x07;
     }
 
-    private void WriteMixedSample() {
-        if (!powerEnabled || !Settings.soundEnabled || Settings.masterVolume <= 0) {
-            return;
-        }
-
-        boolean[] muted = Settings.channelMuted;
-        int[] volumes = Settings.channelVolume;
-
-        double channel1Sample = ApplyChannelSettings(channel1.Sample(), muted[0], volumes[0]);
-        double channel2Sample = ApplyChannelSettings(channel2.Sample(), muted[1], volumes[1]);
-        double channel3Sample = ApplyChannelSettings(channel3.Sample(), muted[2], volumes[2]);
-        double channel4Sample = ApplyChannelSettings(channel4.Sample(), muted[3], volumes[3]);
-
-        int leftRouteMask = (nr51 >>> 4) & 0x0F;
-        int rightRouteMask = nr51 & 0x0F;
-
-        double leftMix = MixChannels(leftRouteMask, channel1Sample, channel2Sample, channel3Sample, channel4Sample);
-        double rightMix = MixChannels(rightRouteMask, channel1Sample, channel2Sample, channel3Sample, channel4Sample);
-
-        double masterVolume = Settings.masterVolume / 100.0;
-        double leftVolume = ((nr50 >>> 4) & 0x07) / 7.0;
-        double rightVolume = (nr50 & 0x07) / 7.0;
-
-        audioOutput.WriteSample(
-                (leftMix / 4.0) * leftVolume * masterVolume * 0.30,
-                (rightMix / 4.0) * rightVolume * masterVolume * 0.30);
-    }
-
-    private double ApplyChannelSettings(double sample, boolean muted, int volume) {
-        if (muted || volume <= 0) {
-            return 0.0;
-        }
-        return sample * (volume / 100.0);
-    }
-
-    private double MixChannels(int routeMask, double channel1Sample, double channel2Sample,
-            double channel3Sample, double channel4Sample) {
-        double mix = 0.0;
-        if ((routeMask & 0x01) != 0) {
-            mix += channel1Sample;
-        }
-        if ((routeMask & 0x02) != 0) {
-            mix += channel2Sample;
-        }
-        if ((routeMask & 0x04) != 0) {
-            mix += channel3Sample;
-        }
-        if ((routeMask & 0x08) != 0) {
-            mix += channel4Sample;
-        }
-        return mix;
-    }
-
     private PulseChannelState CapturePulseChannel(PulseChannel channel) {
         return new PulseChannelState(
                 channel.enabled,
@@ -582,6 +702,9 @@ public class DuckAPU {
         protected boolean enabled;
         protected boolean lengthEnabled;
         protected int lengthCounter;
+        protected int timer;
+        private double leftLevel;
+        private double rightLevel;
 
         public boolean IsActive() {
             return enabled && IsDacEnabled();
@@ -600,6 +723,10 @@ public class DuckAPU {
             }
         }
 
+        public abstract void AdvanceTimer(int cycles);
+
+        public abstract double Sample();
+
         protected abstract boolean IsDacEnabled();
     }
 
@@ -613,7 +740,6 @@ public class DuckAPU {
 
         private int duty;
         private int frequency;
-        private int timer;
         private int dutyPosition;
 
         private int volume;
@@ -728,11 +854,17 @@ public class DuckAPU {
             }
         }
 
-        public void TickTimer() {
-            if (--timer <= 0) {
-                ReloadTimer();
-                dutyPosition = (dutyPosition + 1) & 0x07;
+        @Override
+        public void AdvanceTimer(int cycles) {
+            if (cycles < timer) {
+                timer -= cycles;
+                return;
             }
+
+            int period = TimerPeriod();
+            int elapsed = cycles - timer;
+            dutyPosition = (dutyPosition + 1 + (elapsed / period)) & 0x07;
+            timer = period - (elapsed % period);
         }
 
         public void StepEnvelope() {
@@ -776,6 +908,7 @@ public class DuckAPU {
             }
         }
 
+        @Override
         public double Sample() {
             if (!enabled || !dacEnabled) {
                 return 0.0;
@@ -823,7 +956,11 @@ public class DuckAPU {
         }
 
         private void ReloadTimer() {
-            timer = Math.max(1, (2048 - frequency) * 4);
+            timer = TimerPeriod();
+        }
+
+        private int TimerPeriod() {
+            return Math.max(1, (2048 - frequency) * 4);
         }
     }
 
@@ -833,7 +970,6 @@ public class DuckAPU {
         private int nr4;
 
         private int frequency;
-        private int timer;
         private int sampleIndex;
         private boolean dacEnabled;
 
@@ -897,13 +1033,20 @@ public class DuckAPU {
             }
         }
 
-        public void TickTimer() {
-            if (--timer <= 0) {
-                ReloadTimer();
-                sampleIndex = (sampleIndex + 1) & 0x1F;
+        @Override
+        public void AdvanceTimer(int cycles) {
+            if (cycles < timer) {
+                timer -= cycles;
+                return;
             }
+
+            int period = TimerPeriod();
+            int elapsed = cycles - timer;
+            sampleIndex = (sampleIndex + 1 + (elapsed / period)) & 0x1F;
+            timer = period - (elapsed % period);
         }
 
+        @Override
         public double Sample() {
             if (!enabled || !dacEnabled) {
                 return 0.0;
@@ -942,7 +1085,11 @@ public class DuckAPU {
         }
 
         private void ReloadTimer() {
-            timer = Math.max(1, (2048 - frequency) * 2);
+            timer = TimerPeriod();
+        }
+
+        private int TimerPeriod() {
+            return Math.max(1, (2048 - frequency) * 2);
         }
     }
 
@@ -951,7 +1098,6 @@ public class DuckAPU {
         private int nr3;
         private int nr4;
 
-        private int timer;
         private int lfsr;
         private int volume;
         private int envelopeTimer;
@@ -1022,9 +1168,18 @@ public class DuckAPU {
             }
         }
 
-        public void TickTimer() {
-            if (--timer <= 0) {
-                ReloadTimer();
+        @Override
+        public void AdvanceTimer(int cycles) {
+            if (cycles < timer) {
+                timer -= cycles;
+                return;
+            }
+
+            int period = TimerPeriod();
+            int elapsed = cycles - timer;
+            int steps = 1 + (elapsed / period);
+            timer = period - (elapsed % period);
+            for (int step = 0; step < steps; step++) {
                 int xor = (lfsr & 0x01) ^ ((lfsr >>> 1) & 0x01);
                 lfsr = (lfsr >>> 1) | (xor << 14);
                 if ((nr3 & 0x08) != 0) {
@@ -1048,6 +1203,7 @@ public class DuckAPU {
             }
         }
 
+        @Override
         public double Sample() {
             if (!enabled || !dacEnabled) {
                 return 0.0;
@@ -1078,9 +1234,13 @@ public class DuckAPU {
         }
 
         private void ReloadTimer() {
+            timer = TimerPeriod();
+        }
+
+        private int TimerPeriod() {
             int divisor = noiseDivisors[nr3 & 0x07];
             int clockShift = (nr3 >>> 4) & 0x0F;
-            timer = Math.max(1, divisor << clockShift);
+            return Math.max(1, divisor << clockShift);
         }
     }
 }
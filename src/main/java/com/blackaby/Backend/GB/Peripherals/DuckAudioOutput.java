@@ -1,29 +1,57 @@
 package com.blackaby.Backend.GB.Peripherals;
 
+import com.blackaby.Backend.Platform.AudioSink;
 import com.blackaby.Misc.Settings;
 
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.SourceDataLine;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Wraps the host PCM output line used by the emulator.
+ * <p>
+ * The emulation thread only runs the enhancement chain and drops each block
+ * into an {@link AudioRingBuffer}. A dedicated writer thread drains the ring
+ * into the host line, so a slow or busy line never stalls emulation. The
+ * writer nudges its resampling ratio by up to half a percent to hold the ring
+ * near a target fill, which absorbs the drift between the emulated and host
+ * audio clocks without audible pitch changes.
+ * <p>
+ * With clock pacing on, the emulation thread instead waits in
+ * {@link #WaitForBufferSpace(long)} until the writer has drained the ring, so
+ * the host audio clock sets the emulation speed and the ratio stays at one.
  */
-public class DuckAudioOutput {
+public class DuckAudioOutput implements AudioSink {
 
     private static final int channels = 2;
     private static final int bytesPerSample = 2;
     private static final int frameBytes = channels * bytesPerSample;
-    private static final int bufferFrames = 1024;
+    private static final int lineBufferFrames = 2048;
+    private static final int ringFrames = 8192;
+    private static final int targetBufferedFrames = 1536;
+    private static final int chunkFrames = 256;
+    private static final double maxRateAdjustment = 0.005;
+    private static final double fillSmoothing = 0.05;
+    private static final long idleParkNanos = 1_000_000L;
 
-    private final byte[] buffer = new byte[bufferFrames * frameBytes];
     private final float sampleRate;
     private final AudioEnhancementChain enhancementChain;
+    private final AudioRingBuffer ring = new AudioRingBuffer(ringFrames);
+    private final AtomicBoolean discardRequested = new AtomicBoolean();
+    private final AtomicLong underrunCount = new AtomicLong();
+    private final AtomicLong overrunCount = new AtomicLong();
 
     private SourceDataLine line;
-    private boolean available;
-    private int writeIndex;
+    private volatile boolean available;
+    private volatile boolean clockPacing;
+    private volatile Thread pacedThread;
+    private Thread writerThread;
+    private float[] processedSamples = new float[0];
     private long appliedEnhancementChainVersion = Long.MIN_VALUE;
 
     /**
@@ -41,112 +69,150 @@ public class DuckAudioOutput {
         AudioFormat format = new AudioFormat(sampleRate, 16, channels, true, false);
         try {
             line = AudioSystem.getSourceDataLine(format);
-            line.open(format, buffer.length * 8);
+            line.open(format, lineBufferFrames * frameBytes);
             line.start();
             available = true;
         } catch (LineUnavailableException | IllegalArgumentException exception) {
             available = false;
             line = null;
-        }
-    }
-
-    /**
-     * Appends one stereo sample frame to the output buffer.
-     *
-     * @param left left channel sample from -1.0 to 1.0
-     * @param right right channel sample from -1.0 to 1.0
-     */
-    public synchronized void WriteSample(double left, double right) {
-        if (!available) {
             return;
         }
 
-        SyncEnhancementChain();
-        AudioEnhancementChain.StereoFrame processedFrame = enhancementChain.Process(left, right);
-
-        short leftSample = ToPcm16(processedFrame.Left());
-        short rightSample = ToPcm16(processedFrame.Right());
-
-        buffer[writeIndex++] = (byte) (leftSample & 0xFF);
-        buffer[writeIndex++] = (byte) ((leftSample >>> 8) & 0xFF);
-        buffer[writeIndex++] = (byte) (rightSample & 0xFF);
-        buffer[writeIndex++] = (byte) ((rightSample >>> 8) & 0xFF);
-
-        if (writeIndex >= buffer.length) {
-            Flush();
-        }
+        writerThread = new Thread(new Writer(line), "gameduck-audio-output");
+        writerThread.setDaemon(true);
+        writerThread.start();
     }
 
     /**
-     * Flushes the buffered PCM data to the host audio line.
+     * Runs a block of stereo frames through the enhancement chain and queues
+     * it for the writer thread. Frames that do not fit in the ring are dropped
+     * and counted as an overrun.
+     *
+     * @param samples interleaved left/right samples from -1.0 to 1.0
+     * @param frameCount number of stereo frames in the block
      */
-    public synchronized void Flush() {
-        if (!available || writeIndex == 0) {
+    public synchronized void WriteSamples(float[] samples, int frameCount) {
+        if (!available || frameCount <= 0) {
             return;
         }
 
-        if (line == null) {
-            writeIndex = 0;
-            enhancementChain.ResetState();
-            return;
+        int sampleCount = frameCount * channels;
+        if (processedSamples.length < sampleCount) {
+            processedSamples = new float[sampleCount];
         }
+        System.arraycopy(samples, 0, processedSamples, 0, sampleCount);
 
-        int writableBytes = line.available();
-        writableBytes -= writableBytes % frameBytes;
-
-        if (writableBytes <= 0) {
-            // Drop queued audio rather than stalling the emulation thread.
-            writeIndex = 0;
-            enhancementChain.ResetState();
-            return;
-        }
-
-        int bytesToWrite = Math.min(writeIndex, writableBytes);
-        bytesToWrite -= bytesToWrite % frameBytes;
-        if (bytesToWrite <= 0) {
-            writeIndex = 0;
-            enhancementChain.ResetState();
-            return;
-        }
+        SyncEnhancementChain();
+        enhancementChain.Process(processedSamples, frameCount);
 
-        line.write(buffer, 0, bytesToWrite);
-        if (bytesToWrite < writeIndex) {
-            System.arraycopy(buffer, bytesToWrite, buffer, 0, writeIndex - bytesToWrite);
+        if (ring.Write(processedSamples, frameCount) < frameCount) {
+            overrunCount.incrementAndGet();
         }
-        writeIndex -= bytesToWrite;
     }
 
     /**
-     * Flushes and closes the host audio line.
+     * Stops the writer thread and closes the host audio line.
      */
     public synchronized void Close() {
         if (!available) {
             return;
         }
 
-        DiscardBufferedAudio();
-        if (line != null) {
-            line.stop();
-            line.close();
-        }
         available = false;
+        line.stop();
+        line.flush();
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(1000);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        line.close();
         line = null;
+        writerThread = null;
     }
 
     /**
-     * Drops any host audio queued for playback and clears the pending PCM buffer.
+     * Drops any host audio queued for playback and clears the pending ring.
      */
     public synchronized void DiscardBufferedAudio() {
-        writeIndex = 0;
+        discardRequested.set(true);
         if (line != null) {
             line.flush();
         }
         enhancementChain.ResetState();
     }
 
-    private short ToPcm16(double sample) {
-        double clamped = Math.max(-1.0, Math.min(1.0, sample));
-        return (short) Math.round(clamped * Short.MAX_VALUE);
+    /**
+     * Returns whether a host line is open and the writer thread is running.
+     *
+     * @return {@code true} when audio is reaching the host
+     */
+    public boolean IsOpen() {
+        return available;
+    }
+
+    /**
+     * Sets whether the caller paces itself through
+     * {@link #WaitForBufferSpace(long)}. The writer stops adjusting its rate
+     * while this is on, since the producer already follows the host clock.
+     *
+     * @param enabled whether clock pacing is active
+     */
+    public void SetClockPacing(boolean enabled) {
+        clockPacing = enabled;
+    }
+
+    /**
+     * Parks the calling thread until the ring has drained to its target fill.
+     *
+     * @param timeoutNanos longest time to wait
+     * @return {@code true} when there is room for more audio, or
+     * {@code false} when the wait timed out or the output is closed
+     */
+    public boolean WaitForBufferSpace(long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        pacedThread = Thread.currentThread();
+        try {
+            while (available && ring.GetBufferedFrames() > targetBufferedFrames) {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0L) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remainingNanos);
+            }
+        } finally {
+            pacedThread = null;
+        }
+        return available;
+    }
+
+    /**
+     * Returns how often the writer thread ran out of audio while playing.
+     *
+     * @return underrun count since the output was opened
+     */
+    public long GetUnderrunCount() {
+        return underrunCount.get();
+    }
+
+    /**
+     * Returns how often a block arrived while the ring was too full to take
+     * all of it.
+     *
+     * @return overrun count since the output was opened
+     */
+    public long GetOverrunCount() {
+        return overrunCount.get();
+    }
+
+    /**
+     * Returns how many frames are waiting for the writer thread.
+     *
+     * @return buffered stereo frames
+     */
+    public int GetBufferedFrames() {
+        return ring.GetBufferedFrames();
     }
 
     private void SyncEnhancementChain() {
@@ -161,5 +227,90 @@ public class DuckAudioOutput {
         appliedEnhancementChainVersion = currentVersion;
     }
 
-}
+    private static short ToPcm16(float sample) {
+        float clamped = Math.max(-1.0f, Math.min(1.0f, sample));
+        return (short) Math.round(clamped * Short.MAX_VALUE);
+    }
+
+    /**
+     * Drains the ring into the host line with a slowly adjusted linear
+     * resampler.
+     */
+    private final class Writer implements Runnable {
+        private final SourceDataLine outputLine;
+        private final float[] chunk = new float[chunkFrames * channels];
+        // Frame 0 repeats the last frame of the previous chunk so the
+        // interpolation can run across chunk boundaries.
+        private final float[] input = new float[(chunkFrames + 1) * channels];
+        private final byte[] pcm = new byte[(chunkFrames * 2 + 2) * frameBytes];
+        private double position;
+        private double averageFill = targetBufferedFrames;
+        private boolean playing;
+
+        private Writer(SourceDataLine outputLine) {
+            this.outputLine = outputLine;
+        }
+
+        @Override
+        public void run() {
+            while (available) {
+                if (discardRequested.getAndSet(false)) {
+                    ring.Clear();
+                    Restart();
+                }
 
+                int bufferedFrames = ring.GetBufferedFrames();
+                if (!playing && bufferedFrames < targetBufferedFrames / 2) {
+                    LockSupport.parkNanos(idleParkNanos);
+                    continue;
+                }
+                if (bufferedFrames == 0) {
+                    underrunCount.incrementAndGet();
+                    Restart();
+                    continue;
+                }
+
+                playing = true;
+                averageFill += (bufferedFrames - averageFill) * fillSmoothing;
+                double deviation = (averageFill - targetBufferedFrames) / targetBufferedFrames;
+                double ratio = clockPacing ? 1.0 : 1.0 + Math.max(-maxRateAdjustment,
+                        Math.min(maxRateAdjustment, deviation * maxRateAdjustment));
+
+                int frameCount = ring.Read(chunk, chunkFrames);
+                Thread waitingThread = pacedThread;
+                if (waitingThread != null) {
+                    LockSupport.unpark(waitingThread);
+                }
+                int byteCount = Resample(frameCount, ratio);
+                outputLine.write(pcm, 0, byteCount);
+            }
+        }
+
+        private int Resample(int frameCount, double ratio) {
+            System.arraycopy(chunk, 0, input, channels, frameCount * channels);
+            int byteCount = 0;
+            while (position < frameCount) {
+                int index = (int) position;
+                float fraction = (float) (position - index);
+                for (int channel = 0; channel < channels; channel++) {
+                    float first = input[index * channels + channel];
+                    float second = input[(index + 1) * channels + channel];
+                    short sample = ToPcm16(first + ((second - first) * fraction));
+                    pcm[byteCount++] = (byte) (sample & 0xFF);
+                    pcm[byteCount++] = (byte) ((sample >>> 8) & 0xFF);
+                }
+                position += ratio;
+            }
+            position -= frameCount;
+            System.arraycopy(input, frameCount * channels, input, 0, channels);
+            return byteCount;
+        }
+
+        private void Restart() {
+            playing = false;
+            position = 0.0;
+            averageFill = targetBufferedFrames;
+            Arrays.fill(input, 0.0f);
+        }
+    }
+}
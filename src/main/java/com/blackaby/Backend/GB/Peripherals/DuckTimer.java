@@ -9,6 +9,11 @@ import com.blackaby.Backend.GB.Memory.DuckMemory;
  * <p>
  * The timer follows the Game Boy's falling-edge behaviour and preserves the
  * delayed TIMA overflow reload used by many test ROMs.
+ * <p>
+ * The timer runs lazily. {@link #Advance(int)} only adds to a count of pending
+ * cycles until the next TIMA overflow or reload is due, and DIV and TIMA are
+ * brought up to date through {@link #CatchUp()} when the bus reads or writes a
+ * timer register.
  */
 public class DuckTimer {
 
@@ -21,10 +26,13 @@ public class DuckTimer {
 
     private static final int tacEnableBit = 0x04;
     private static final int tacClockSelectMask = 0x03;
+    private static final int maxPendingCycles = 0x10000;
 
     private int internalCounter;
     private boolean previousTimerBit;
     private int overflowCounter;
+    private int pendingCycles;
+    private int cyclesUntilEvent;
 
     public boolean timaOverflowPending;
 
@@ -46,15 +54,69 @@ public class DuckTimer {
      * Seeds the DMG post-boot divider phase used when the boot ROM is skipped.
      */
     public void InitialiseDmgBootState() {
+        CatchUp();
         internalCounter = 0xABCC;
         memory.SetDividerFromTimer((internalCounter >> 8) & 0xFF);
         SyncTimerBit();
     }
 
     /**
-     * Advances the timer by one T-cycle.
+     * Advances the timer by one T-cycle straight away.
      */
     public void Tick() {
+        if (pendingCycles > 0) {
+            Run(pendingCycles);
+            pendingCycles = 0;
+        }
+        TickCycle();
+        RequestRefresh();
+    }
+
+    /**
+     * Advances the timer by several T-cycles.
+     * <p>
+     * The cycles are only counted until the next TIMA overflow or reload is
+     * due. Anything that reads the timer state first calls {@link #CatchUp()}.
+     *
+     * @param tCycles number of T-cycles to run
+     */
+    public void Advance(int tCycles) {
+        pendingCycles += tCycles;
+        if (pendingCycles >= cyclesUntilEvent) {
+            CatchUp();
+        }
+    }
+
+    /**
+     * Runs every pending cycle so DIV, TIMA, and the overflow state are
+     * current.
+     */
+    public void CatchUp() {
+        int cycles = pendingCycles;
+        pendingCycles = 0;
+        Run(cycles);
+        cyclesUntilEvent = GetCyclesUntilEvent();
+    }
+
+    /**
+     * Makes the next {@link #Advance(int)} recompute when the timer is next
+     * due, after TIMA or TAC changed behind its back.
+     */
+    public void RequestRefresh() {
+        cyclesUntilEvent = 0;
+    }
+
+    /**
+     * Returns how many more T-cycles {@link #Advance(int)} can take before the
+     * timer has to run again. No timer interrupt can be raised sooner.
+     *
+     * @return T-cycles until the timer is next due
+     */
+    public int GetCyclesUntilDue() {
+        return Math.max(0, cyclesUntilEvent - pendingCycles);
+    }
+
+    private void TickCycle() {
         if (overflowCounter > 0) {
             overflowCounter--;
             if (overflowCounter == 0 && timaOverflowPending) {
@@ -69,6 +131,45 @@ public class DuckTimer {
         UpdateTima();
     }
 
+    // Cycles that cannot produce a falling edge on the monitored divider bit are
+    // skipped in one step, so the result matches ticking once per cycle.
+    private void Run(int tCycles) {
+        if (tCycles <= 0) {
+            return;
+        }
+
+        // The first tick resamples the timer bit after any register write, so
+        // the skips below can assume it matches the counter.
+        TickCycle();
+        int remaining = tCycles - 1;
+        while (remaining > 0) {
+            if (overflowCounter > 0) {
+                TickCycle();
+                remaining--;
+                continue;
+            }
+
+            int tac = memory.ReadRegisterDirect(DuckAddresses.TAC);
+            int skip = remaining;
+            if ((tac & tacEnableBit) != 0) {
+                int edgePeriod = 1 << (GetMonitoredBit(tac) + 1);
+                int untilEdge = edgePeriod - (internalCounter & (edgePeriod - 1));
+                skip = Math.min(remaining, untilEdge - 1);
+            }
+
+            if (skip == 0) {
+                TickCycle();
+                remaining--;
+                continue;
+            }
+
+            internalCounter = (internalCounter + skip) & 0xFFFF;
+            memory.SetDividerFromTimer((internalCounter >> 8) & 0xFF);
+            previousTimerBit = GetTimerBit(tac);
+            remaining -= skip;
+        }
+    }
+
     /**
      * Resets the divider and applies the usual divider glitch behaviour.
      */
@@ -85,6 +186,7 @@ public class DuckTimer {
 
         previousTimerBit = false;
         memory.SetDividerFromTimer(0);
+        RequestRefresh();
     }
 
     /**
@@ -95,6 +197,7 @@ public class DuckTimer {
         boolean timerEnabled = (tac & tacEnableBit) != 0;
         int monitoredBit = GetMonitoredBit(tac);
         previousTimerBit = timerEnabled && ((internalCounter & (1 << monitoredBit)) != 0);
+        RequestRefresh();
     }
 
     /**
@@ -115,6 +218,7 @@ public class DuckTimer {
         }
 
         previousTimerBit = newTimerBit;
+        RequestRefresh();
     }
 
     /**
@@ -123,6 +227,7 @@ public class DuckTimer {
      * @return raw internal counter
      */
     public int GetInternalCounter() {
+        CatchUp();
         return internalCounter;
     }
 
@@ -132,6 +237,7 @@ public class DuckTimer {
     public void CancelPendingOverflow() {
         timaOverflowPending = false;
         overflowCounter = 0;
+        RequestRefresh();
     }
 
     /**
@@ -140,6 +246,7 @@ public class DuckTimer {
      * @return timer state snapshot
      */
     public TimerState CaptureState() {
+        CatchUp();
         return new TimerState(internalCounter, previousTimerBit, overflowCounter, timaOverflowPending);
     }
 
@@ -157,6 +264,29 @@ public class DuckTimer {
         previousTimerBit = state.previousTimerBit();
         overflowCounter = Math.max(0, state.overflowCounter());
         timaOverflowPending = state.timaOverflowPending();
+        pendingCycles = 0;
+        RequestRefresh();
+    }
+
+    // Returns how many cycles can pass before the timer next raises an
+    // interrupt or reloads TIMA. Erring early only costs an extra catch-up.
+    private int GetCyclesUntilEvent() {
+        if (overflowCounter > 0) {
+            return overflowCounter;
+        }
+
+        int tac = memory.ReadRegisterDirect(DuckAddresses.TAC);
+        if ((tac & tacEnableBit) == 0) {
+            return maxPendingCycles;
+        }
+        if (previousTimerBit && !GetTimerBit(tac)) {
+            return 1;
+        }
+
+        int edgePeriod = 1 << (GetMonitoredBit(tac) + 1);
+        int untilEdge = edgePeriod - (internalCounter & (edgePeriod - 1));
+        int edgesToOverflow = 0x100 - memory.ReadRegisterDirect(DuckAddresses.TIMA);
+        return Math.min(maxPendingCycles, untilEdge + (edgesToOverflow - 1) * edgePeriod);
     }
 
     private void UpdateTima() {
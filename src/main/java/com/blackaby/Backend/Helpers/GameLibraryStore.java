@@ -1,6 +1,7 @@
 package com.blackaby.Backend.Helpers;
 
 import com.blackaby.Backend.GB.Misc.ROM;
+import com.blackaby.Backend.GB.Misc.RomImageCache;
 import com.blackaby.Backend.Platform.EmulatorGame;
 
 import java.io.IOException;
@@ -37,7 +38,7 @@ public final class GameLibraryStore {
         }
 
         public ROM LoadRom() throws IOException {
-            byte[] romBytes = Files.readAllBytes(romPath);
+            byte[] romBytes = RomImageCache.Load(romPath);
             return ROM.FromBytes(sourcePath, romBytes, displayName, patchNames, patchSourcePaths);
         }
     }
@@ -62,7 +62,7 @@ public final class QuickStateManager {
     }
 
     private static final int fileMagic = 0x47515331;
-    private static final int fileVersion = 2;
+    private static final int fileVersion = 3;
 
     private QuickStateManager() {
     }
@@ -0,0 +1,54 @@
+package com.blackaby.Backend.Platform;
+
+import java.util.Arrays;
+
+/**
+ * Audio sink that collects interleaved 16-bit stereo PCM in memory.
+ * <p>
+ * Headless sessions drain the captured samples after each step instead of
+ * opening a host audio line.
+ */
+public final class AudioCaptureSink implements AudioSink {
+
+    private static final int initialCapacity = 4096;
+
+    private short[] samples = new short[initialCapacity];
+    private int sampleCount;
+
+    @Override
+    public void WriteSamples(float[] block, int frameCount) {
+        int blockLength = frameCount * 2;
+        if (sampleCount + blockLength > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, sampleCount + blockLength));
+        }
+        for (int index = 0; index < blockLength; index++) {
+            samples[sampleCount++] = ToPcm16(block[index]);
+        }
+    }
+
+    @Override
+    public void DiscardBufferedAudio() {
+        sampleCount = 0;
+    }
+
+    @Override
+    public void Close() {
+        sampleCount = 0;
+    }
+
+    /**
+     * Returns and clears the samples captured since the last drain.
+     *
+     * @return interleaved left/right PCM samples
+     */
+    public short[] Drain() {
+        short[] drained = Arrays.copyOf(samples, sampleCount);
+        sampleCount = 0;
+        return drained;
+    }
+
+    private short ToPcm16(float sample) {
+        float clamped = Math.max(-1.0f, Math.min(1.0f, sample));
+        return (short) Math.round(clamped * Short.MAX_VALUE);
+    }
+}
@@ -0,0 +1,31 @@
+package com.blackaby.Backend.Platform;
+
+/**
+ * Receives the stereo samples produced by an emulator core.
+ * <p>
+ * Cores hand over audio in blocks, so any locking or settings checks a sink
+ * needs happen once per block rather than once per sample.
+ */
+public interface AudioSink {
+
+    /**
+     * Appends a block of stereo sample frames.
+     * <p>
+     * The array belongs to the caller and is reused for the next block, so the
+     * sink must copy anything it keeps and must not modify it.
+     *
+     * @param samples interleaved left/right samples from -1.0 to 1.0
+     * @param frameCount number of stereo frames in the block
+     */
+    void WriteSamples(float[] samples, int frameCount);
+
+    /**
+     * Drops any audio that has been written but not yet consumed.
+     */
+    void DiscardBufferedAudio();
+
+    /**
+     * Releases any host resources held by the sink.
+     */
+    void Close();
+}
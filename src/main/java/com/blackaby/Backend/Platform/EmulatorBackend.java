@@ -10,4 +10,12 @@ public interface EmulatorBackend {
     EmulatorProfile Profile();
 
     EmulatorRuntime CreateRuntime(EmulatorHost host, DuckDisplay display);
+
+    /**
+     * Creates a headless session that is stepped programmatically.
+     *
+     * @param media game to boot
+     * @return new session
+     */
+    EmulatorSession CreateSession(EmulatorMedia media);
 }
@@ -0,0 +1,52 @@
+package com.blackaby.Backend.Platform;
+
+import java.util.Set;
+
+/**
+ * One emulator core driven programmatically instead of by a paced thread.
+ * <p>
+ * Sessions have no window, display surface, or audio line. Each call to
+ * {@link #Step(int, Set)} runs the core as fast as the host allows and hands
+ * back the latest frame and the audio produced along the way. A session is not
+ * safe for concurrent steps, but different sessions can run on different
+ * threads at the same time.
+ */
+public interface EmulatorSession extends AutoCloseable {
+
+    /**
+     * Output of one step call.
+     *
+     * @param frame latest completed frame as packed RGB pixels
+     * @param width frame width in pixels
+     * @param height frame height in pixels
+     * @param audioSamples interleaved 16-bit stereo samples produced during the step
+     * @param sampleRate audio sample rate in hertz
+     * @param framesCompleted frames completed during the step
+     * @param cyclesExecuted emulated master cycles executed during the step
+     */
+    record StepResult(
+            int[] frame,
+            int width,
+            int height,
+            short[] audioSamples,
+            int sampleRate,
+            int framesCompleted,
+            long cyclesExecuted) {
+    }
+
+    EmulatorProfile Profile();
+
+    EmulatorGame GetLoadedGame();
+
+    /**
+     * Runs the core for the requested number of frames.
+     *
+     * @param frames number of frames to run
+     * @param pressedButtonIds ids of the buttons held for the whole step
+     * @return frame and audio output
+     */
+    StepResult Step(int frames, Set<String> pressedButtonIds);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,82 @@
+package com.blackaby.Backend.Platform;
+
+import java.util.Arrays;
+
+/**
+ * Frame sink that keeps the latest completed frame in a plain pixel array.
+ * <p>
+ * Headless sessions use this instead of the Swing display. The core draws into
+ * the back buffer, which is copied to the front buffer when a frame completes,
+ * so readers always see a whole frame.
+ */
+public final class FrameBufferSink implements FrameSink {
+
+    private final int width;
+    private final int height;
+    private final int[] backBuffer;
+    private final int[] frontBuffer;
+    private long presentedFrames;
+
+    /**
+     * Creates a frame buffer for the requested resolution.
+     *
+     * @param width frame width in pixels
+     * @param height frame height in pixels
+     */
+    public FrameBufferSink(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Frame dimensions must be positive.");
+        }
+        this.width = width;
+        this.height = height;
+        backBuffer = new int[width * height];
+        frontBuffer = new int[width * height];
+    }
+
+    @Override
+    public int[] GetFrameBuffer() {
+        return backBuffer;
+    }
+
+    @Override
+    public void PresentFrame(int previousFrameWeight, int currentFrameWeight) {
+        System.arraycopy(backBuffer, 0, frontBuffer, 0, frontBuffer.length);
+        presentedFrames++;
+    }
+
+    /**
+     * Copies the latest completed frame.
+     *
+     * @return packed RGB pixels in row-major order
+     */
+    public int[] CopyFrame() {
+        return Arrays.copyOf(frontBuffer, frontBuffer.length);
+    }
+
+    /**
+     * Returns how many frames have been presented since creation.
+     *
+     * @return presented frame count
+     */
+    public long GetPresentedFrames() {
+        return presentedFrames;
+    }
+
+    /**
+     * Returns the frame width.
+     *
+     * @return width in pixels
+     */
+    public int GetWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the frame height.
+     *
+     * @return height in pixels
+     */
+    public int GetHeight() {
+        return height;
+    }
+}
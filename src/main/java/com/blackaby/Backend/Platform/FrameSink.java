@@ -0,0 +1,40 @@
+package com.blackaby.Backend.Platform;
+
+/**
+ * Receives the pixels produced by an emulator core.
+ * <p>
+ * The core draws straight into the array returned by
+ * {@link #GetFrameBuffer()}, so no per-pixel calls cross this interface. Sinks
+ * are told when each scanline is finished and when the frame is complete. The
+ * desktop display is one implementation. Headless sessions use a plain frame
+ * buffer so a core can run without any Swing surface.
+ */
+public interface FrameSink {
+
+    /**
+     * Returns the array the core draws the current frame into.
+     * <p>
+     * Pixels are packed RGB values in row-major order, using the frame width
+     * and height from the backend's display spec. The core only writes to the
+     * array between {@link #PresentFrame(int, int)} calls.
+     *
+     * @return frame buffer owned by the sink
+     */
+    int[] GetFrameBuffer();
+
+    /**
+     * Signals that one scanline of the frame buffer has been fully drawn.
+     *
+     * @param y scanline index
+     */
+    default void ScanlineCompleted(int y) {
+    }
+
+    /**
+     * Publishes the frame that has just finished drawing.
+     *
+     * @param previousFrameWeight blend weight for the previously shown frame
+     * @param currentFrameWeight blend weight for the new frame
+     */
+    void PresentFrame(int previousFrameWeight, int currentFrameWeight);
+}
@@ -0,0 +1,123 @@
+package com.blackaby.Backend.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Runs many headless emulator sessions on a shared worker pool.
+ * <p>
+ * Every session owns its own core, so steps for different sessions can run in
+ * parallel without locking. The pool is work-stealing, which keeps all workers
+ * busy when some games take longer per frame than others.
+ */
+public final class HeadlessSessionHost implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+    private final List<EmulatorSession> sessions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a host with one worker per available processor.
+     */
+    public HeadlessSessionHost() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a host with a fixed number of workers.
+     *
+     * @param workerCount number of worker threads
+     */
+    public HeadlessSessionHost(int workerCount) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("A session host needs at least one worker.");
+        }
+        pool = new ForkJoinPool(workerCount);
+    }
+
+    /**
+     * Opens a new session and keeps track of it until the host closes.
+     *
+     * @param backend backend that builds the core
+     * @param media game to boot
+     * @return new session
+     */
+    public EmulatorSession Open(EmulatorBackend backend, EmulatorMedia media) {
+        if (backend == null) {
+            throw new IllegalArgumentException("A backend is required to open a session.");
+        }
+        EmulatorSession session = backend.CreateSession(media);
+        sessions.add(session);
+        return session;
+    }
+
+    /**
+     * Closes one session and stops tracking it.
+     *
+     * @param session session to close
+     */
+    public void Close(EmulatorSession session) {
+        if (session != null && sessions.remove(session)) {
+            session.close();
+        }
+    }
+
+    /**
+     * Returns the sessions that are currently open.
+     *
+     * @return open sessions
+     */
+    public List<EmulatorSession> GetSessions() {
+        return List.copyOf(sessions);
+    }
+
+    /**
+     * Steps one session on the worker pool.
+     *
+     * @param session session to step
+     * @param frames number of frames to run
+     * @param pressedButtonIds ids of the buttons held for the whole step
+     * @return pending step result
+     */
+    public CompletableFuture<EmulatorSession.StepResult> Step(EmulatorSession session, int frames,
+            Set<String> pressedButtonIds) {
+        return CompletableFuture.supplyAsync(() -> session.Step(frames, pressedButtonIds), pool);
+    }
+
+    /**
+     * Steps several sessions in parallel and waits for all of them.
+     *
+     * @param targets sessions to step
+     * @param frames number of frames to run for each session
+     * @param inputs supplies the held buttons for each session
+     * @return step results in the same order as {@code targets}
+     */
+    public List<EmulatorSession.StepResult> StepAll(List<? extends EmulatorSession> targets, int frames,
+            Function<EmulatorSession, Set<String>> inputs) {
+        List<ForkJoinTask<EmulatorSession.StepResult>> tasks = new ArrayList<>(targets.size());
+        for (EmulatorSession session : targets) {
+            Set<String> pressedButtonIds = inputs == null ? Set.of() : inputs.apply(session);
+            tasks.add(pool.submit(() -> session.Step(frames, pressedButtonIds)));
+        }
+
+        List<EmulatorSession.StepResult> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<EmulatorSession.StepResult> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        for (EmulatorSession session : sessions) {
+            session.close();
+        }
+        sessions.clear();
+        pool.shutdownNow();
+    }
+}
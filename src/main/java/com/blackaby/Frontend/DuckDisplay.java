@@ -2,11 +2,13 @@ package com.blackaby.Frontend;
 
 import com.blackaby.Backend.GB.GBBackends;
 import com.blackaby.Backend.Platform.EmulatorDisplaySpec;
+import com.blackaby.Backend.Platform.FrameSink;
 import com.blackaby.Frontend.Borders.DisplayBorderManager;
 import com.blackaby.Frontend.Borders.DisplayBorderRenderer;
 import com.blackaby.Frontend.Borders.LoadedDisplayBorder;
 import com.blackaby.Frontend.Shaders.DisplayShaderManager;
 import com.blackaby.Frontend.Shaders.LoadedDisplayShader;
+import com.blackaby.Frontend.Shaders.PixelKernels;
 import com.blackaby.Misc.Settings;
 
 import java.awt.Color;
@@ -20,18 +22,31 @@ import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 
 /**
  * A custom JPanel for rendering Game Boy display output.
  * Handles pixel manipulation, image scaling, and drawing logic.
+ * <p>
+ * Presenting a frame records which rows of the visible frame changed. A frame
+ * with no changed rows skips shading and repainting, and otherwise the shader
+ * only re-renders the rows the change can reach.
+ * <p>
+ * Frames move between threads through lock-free {@link TripleBuffer}
+ * exchanges, and frames that nobody took in time are simply dropped. The
+ * emulation thread publishes each changed frame and then renders it only if
+ * it can claim the render state. Shader refreshes from the EDT are posted as
+ * requests that the next claimant applies, so the emulator never waits on a
+ * paint, a shader render, or the UI. Paint shows the newer of the images
+ * published by the renderer and by the async shader worker.
  */
-public class DuckDisplay extends JPanel {
+public class DuckDisplay extends JPanel implements FrameSink {
     private static final int dmgPreviousFrameBlendWeight = 3;
     private static final int dmgCurrentFrameBlendWeight = 5;
-    private static final int cgbPreviousFrameBlendWeight = 1;
-    private static final int cgbCurrentFrameBlendWeight = 7;
+    private static final int rerenderRequest = 1;
+    private static final int rebuildRequest = 2;
 
     public record FrameState(int[] frontBuffer, int[] backBuffer) implements java.io.Serializable {
     }
@@ -40,24 +55,28 @@ public class DuckDisplay extends JPanel {
     }
 
     private final EmulatorDisplaySpec displaySpec;
-    private final Object frameLock = new Object();
-    private final Object shaderQueueLock = new Object();
+    private final AtomicBoolean renderStateClaimed = new AtomicBoolean();
+    private final AtomicInteger pendingRenderRequests = new AtomicInteger();
     private final AtomicBoolean repaintQueued = new AtomicBoolean();
     private final AtomicBoolean shaderRenderQueued = new AtomicBoolean();
+    private final AtomicInteger shaderRenderEpoch = new AtomicInteger();
+    private final AtomicInteger skippedFrameCount = new AtomicInteger();
+    private final TripleBuffer<int[]> logicalFrames;
+    private final TripleBuffer<ShaderFrame> shaderFrames = new TripleBuffer<>(ShaderFrame::new);
+    private final TripleBuffer<PaintFrame> presentedFrames = new TripleBuffer<>(PaintFrame::new);
+    private final TripleBuffer<PaintFrame> shadedFrames = new TripleBuffer<>(PaintFrame::new);
     private final boolean asyncShaderRenderingEnabled;
     private final ExecutorService shaderRenderExecutor = Executors.newSingleThreadExecutor(run -> {
         Thread thread = new Thread(run, "gameduck-display-shader");
         thread.setDaemon(true);
         return thread;
     });
-    private BufferedImage image;
     private int[] frontBuffer;
     private int[] backBuffer;
+    private int[] renderedFrameBuffer;
     private int[] imageBuffer;
-    private int[] paintBuffer;
     private int[] shaderSourceBuffer;
     private int[] shaderScratchBuffer;
-    private int[] pendingFrameBuffer;
     private int[] workerFrameBuffer;
     private int[] workerShaderSourceBuffer;
     private int[] workerShaderTargetBuffer;
@@ -69,14 +88,17 @@ public class DuckDisplay extends JPanel {
     private transient int preparedBorderWidth = -1;
     private transient int preparedBorderHeight = -1;
     private transient long statsWindowStartNanos;
-    private transient int statsWindowPaintCount;
-    private transient long lastPaintNanos;
+    private transient int statsWindowFrameCount;
+    private transient long lastPresentationNanos;
     private transient double smoothedFrameIntervalNanos;
     private volatile PresentationStats presentationStats = new PresentationStats(0.0, 0.0);
-    private int pendingShaderFrameVersion;
-    private int displayedShaderFrameVersion;
-    private int shaderRenderEpoch;
+    private volatile int shadedFrameEpoch = -1;
+    private long frameStamp;
     private int renderScale = 1;
+    private LoadedDisplayShader renderedShader;
+    private LoadedDisplayShader queuedShader;
+    private LoadedDisplayShader workerRenderedShader;
+    private int workerRenderedEpoch;
 
     /**
      * Constructs a DuckDisplay with a black background and
@@ -99,6 +121,7 @@ public class DuckDisplay extends JPanel {
         super();
         this.displaySpec = displaySpec;
         this.asyncShaderRenderingEnabled = asyncShaderRenderingEnabled;
+        this.logicalFrames = new TripleBuffer<>(this::BlankFrame);
         setBackground(displaySpec == null ? Color.BLACK : displaySpec.backgroundColour());
         setDoubleBuffered(true);
         initializeFrameBuffers();
@@ -193,18 +216,15 @@ public class DuckDisplay extends JPanel {
      * then repaints the component.
      */
     public void clear() {
-        if (backBuffer == null || frontBuffer == null || imageBuffer == null) {
+        if (backBuffer == null || frontBuffer == null) {
             return;
         }
 
         Arrays.fill(backBuffer, Color.BLACK.getRGB());
-        synchronized (frameLock) {
-            Arrays.fill(frontBuffer, Color.BLACK.getRGB());
-            FillDisplayBuffersLocked(Color.BLACK.getRGB());
-            InvalidateAsyncShaderFrames();
-        }
-
-        RequestRepaint();
+        Arrays.fill(frontBuffer, Color.BLACK.getRGB());
+        PublishLogicalFrame();
+        // Drop any shaded frames still in flight for the old picture.
+        RequestRender(rerenderRequest);
     }
 
     /**
@@ -238,22 +258,39 @@ public class DuckDisplay extends JPanel {
             return;
         }
 
-        boolean repaintNow;
-        synchronized (frameLock) {
+        boolean frameChanged = false;
+        int width = frameWidth();
+        for (int y = 0, offset = 0; y < frameHeight(); y++, offset += width) {
             if (previousFrameWeight <= 0 || currentFrameWeight <= 0) {
-                System.arraycopy(backBuffer, 0, frontBuffer, 0, backBuffer.length);
-            } else {
-                for (int index = 0; index < backBuffer.length; index++) {
-                    frontBuffer[index] = BlendRgb(frontBuffer[index], backBuffer[index],
-                            previousFrameWeight, currentFrameWeight);
+                if (Arrays.mismatch(backBuffer, offset, offset + width, frontBuffer, offset, offset + width) >= 0) {
+                    System.arraycopy(backBuffer, offset, frontBuffer, offset, width);
+                    frameChanged = true;
                 }
+            } else {
+                frameChanged |= PixelKernels.blendRow(frontBuffer, backBuffer, offset, width,
+                        previousFrameWeight, currentFrameWeight);
             }
-            repaintNow = RenderImageBufferLocked();
         }
 
-        if (repaintNow) {
-            RequestRepaint();
+        if (frameChanged) {
+            PublishLogicalFrame();
+        } else if (pendingRenderRequests.get() == 0) {
+            // An identical frame still counts as presented, so the stats keep
+            // moving on a static screen.
+            skippedFrameCount.incrementAndGet();
+            return;
         }
+        DrainRenderWork();
+    }
+
+    @Override
+    public int[] GetFrameBuffer() {
+        return backBuffer;
+    }
+
+    @Override
+    public void PresentFrame(int previousFrameWeight, int currentFrameWeight) {
+        presentFrame(previousFrameWeight, currentFrameWeight);
     }
 
     /**
@@ -266,11 +303,9 @@ public class DuckDisplay extends JPanel {
             return new FrameState(new int[0], new int[0]);
         }
 
-        synchronized (frameLock) {
-            return new FrameState(
-                    Arrays.copyOf(frontBuffer, frontBuffer.length),
-                    Arrays.copyOf(backBuffer, backBuffer.length));
-        }
+        return new FrameState(
+                Arrays.copyOf(frontBuffer, frontBuffer.length),
+                Arrays.copyOf(backBuffer, backBuffer.length));
     }
 
     /**
@@ -288,13 +323,10 @@ public class DuckDisplay extends JPanel {
             throw new IllegalArgumentException("Quick state frame data is invalid for this display.");
         }
 
-        synchronized (frameLock) {
-            System.arraycopy(frameState.frontBuffer(), 0, frontBuffer, 0, frontBuffer.length);
-            System.arraycopy(frameState.backBuffer(), 0, backBuffer, 0, backBuffer.length);
-            if (RenderImageBufferLocked()) {
-                RequestRepaint();
-            }
-        }
+        System.arraycopy(frameState.frontBuffer(), 0, frontBuffer, 0, frontBuffer.length);
+        System.arraycopy(frameState.backBuffer(), 0, backBuffer, 0, backBuffer.length);
+        PublishLogicalFrame();
+        DrainRenderWork();
     }
 
     /**
@@ -306,6 +338,7 @@ public class DuckDisplay extends JPanel {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        BufferedImage image = LatestPaintImage();
         if (image != null) {
             Graphics2D g2d = (Graphics2D) g.create();
             LoadedDisplayBorder border = activeBorder == null
@@ -313,11 +346,19 @@ public class DuckDisplay extends JPanel {
                     : activeBorder;
             DisplayBorderRenderer.paint(g2d, image, prepareBorderFrame(border, getWidth(), getHeight()));
             g2d.dispose();
-            recordPaintPresentation();
+            recordPresentation(1);
         }
     }
 
+    /**
+     * Returns the latest presentation stats. Frames that were presented but
+     * skipped because nothing changed count alongside painted ones. Call this
+     * from the EDT.
+     *
+     * @return presentation stats
+     */
     public PresentationStats SnapshotPresentationStats() {
+        recordPresentation(0);
         return presentationStats;
     }
 
@@ -326,27 +367,18 @@ public class DuckDisplay extends JPanel {
      * standard Game Boy resolution, preserving existing content if possible.
      */
     public void resizeImage() {
-        initializeFrameBuffers();
-        initializeRenderBuffers(activeShader == null ? 1 : activeShader.renderScale());
-        RefreshShader();
+        activeShader = DisplayShaderManager.Resolve(Settings.displayShaderId);
+        RequestRender(rebuildRequest);
     }
 
     /**
      * Re-resolves the selected shader and reapplies it to the current frame.
+     * The change is posted as a request, so this never waits for a frame that
+     * is being rendered; whichever thread renders next picks it up.
      */
     public void RefreshShader() {
         activeShader = DisplayShaderManager.Resolve(Settings.displayShaderId);
-        InvalidateAsyncShaderFrames();
-        boolean repaintNow = false;
-        synchronized (frameLock) {
-            if (frontBuffer != null && imageBuffer != null && shaderScratchBuffer != null) {
-                EnsureRenderBuffersForShader(activeShader);
-                repaintNow = RenderImageBufferLocked();
-            }
-        }
-        if (repaintNow) {
-            RequestRepaint();
-        }
+        RequestRender(rerenderRequest);
     }
 
     /**
@@ -389,33 +421,19 @@ public class DuckDisplay extends JPanel {
         backBuffer = new int[frameWidth() * frameHeight()];
         Arrays.fill(frontBuffer, Color.BLACK.getRGB());
         Arrays.fill(backBuffer, Color.BLACK.getRGB());
-        pendingFrameBuffer = new int[frameWidth() * frameHeight()];
-        workerFrameBuffer = new int[frameWidth() * frameHeight()];
-        Arrays.fill(pendingFrameBuffer, Color.BLACK.getRGB());
-        Arrays.fill(workerFrameBuffer, Color.BLACK.getRGB());
+        renderedFrameBuffer = BlankFrame();
     }
 
     private void initializeRenderBuffers(int nextRenderScale) {
-        int clampedRenderScale = Math.max(1, nextRenderScale);
-        synchronized (shaderQueueLock) {
-            renderScale = clampedRenderScale;
-            image = new BufferedImage(renderWidth(), renderHeight(), BufferedImage.TYPE_INT_RGB);
-            paintBuffer = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
-            imageBuffer = new int[renderWidth() * renderHeight()];
-            shaderSourceBuffer = new int[renderWidth() * renderHeight()];
-            shaderScratchBuffer = new int[renderWidth() * renderHeight()];
-            workerShaderSourceBuffer = new int[renderWidth() * renderHeight()];
-            workerShaderTargetBuffer = new int[renderWidth() * renderHeight()];
-            workerShaderScratchBuffer = new int[renderWidth() * renderHeight()];
-            Arrays.fill(paintBuffer, Color.BLACK.getRGB());
-            Arrays.fill(imageBuffer, Color.BLACK.getRGB());
-            Arrays.fill(shaderSourceBuffer, Color.BLACK.getRGB());
-            Arrays.fill(shaderScratchBuffer, Color.BLACK.getRGB());
-            Arrays.fill(workerShaderSourceBuffer, Color.BLACK.getRGB());
-            Arrays.fill(workerShaderTargetBuffer, Color.BLACK.getRGB());
-            Arrays.fill(workerShaderScratchBuffer, Color.BLACK.getRGB());
-            InvalidateAsyncShaderFramesLocked();
-        }
+        renderScale = Math.max(1, nextRenderScale);
+        imageBuffer = new int[renderWidth() * renderHeight()];
+        shaderSourceBuffer = new int[renderWidth() * renderHeight()];
+        shaderScratchBuffer = new int[renderWidth() * renderHeight()];
+        Arrays.fill(imageBuffer, Color.BLACK.getRGB());
+        Arrays.fill(shaderSourceBuffer, Color.BLACK.getRGB());
+        Arrays.fill(shaderScratchBuffer, Color.BLACK.getRGB());
+        renderedShader = null;
+        InvalidateAsyncShaderFrames();
     }
 
     private int frameWidth() {
@@ -445,69 +463,109 @@ public class DuckDisplay extends JPanel {
         });
     }
 
-    public static int DefaultDmgPreviousFrameBlendWeight() {
-        return dmgPreviousFrameBlendWeight;
-    }
-
-    public static int DefaultDmgCurrentFrameBlendWeight() {
-        return dmgCurrentFrameBlendWeight;
-    }
-
-    public static int DefaultCgbPreviousFrameBlendWeight() {
-        return cgbPreviousFrameBlendWeight;
+    private void PublishLogicalFrame() {
+        System.arraycopy(frontBuffer, 0, logicalFrames.WriteSlot(), 0, frontBuffer.length);
+        logicalFrames.Publish();
     }
 
-    public static int DefaultCgbCurrentFrameBlendWeight() {
-        return cgbCurrentFrameBlendWeight;
+    private void RequestRender(int request) {
+        pendingRenderRequests.getAndAccumulate(request, (pending, added) -> pending | added);
+        DrainRenderWork();
     }
 
-    private int BlendRgb(int previousRgb, int currentRgb, int previousWeight, int currentWeight) {
-        int previousRed = (previousRgb >> 16) & 0xFF;
-        int previousGreen = (previousRgb >> 8) & 0xFF;
-        int previousBlue = previousRgb & 0xFF;
-
-        int currentRed = (currentRgb >> 16) & 0xFF;
-        int currentGreen = (currentRgb >> 8) & 0xFF;
-        int currentBlue = currentRgb & 0xFF;
-
-        int totalWeight = Math.max(1, previousWeight + currentWeight);
-        int blendedRed = ((previousRed * previousWeight) + (currentRed * currentWeight)) / totalWeight;
-        int blendedGreen = ((previousGreen * previousWeight) + (currentGreen * currentWeight)) / totalWeight;
-        int blendedBlue = ((previousBlue * previousWeight) + (currentBlue * currentWeight)) / totalWeight;
-        return (blendedRed << 16) | (blendedGreen << 8) | blendedBlue;
-    }
-
-    private boolean RenderImageBufferLocked() {
-        if (frontBuffer == null || imageBuffer == null || shaderScratchBuffer == null) {
-            return false;
+    // Whoever claims the render state applies every pending request and
+    // renders the newest published frame. A caller that finds it claimed
+    // leaves its work to the owner, which looks for more after letting go,
+    // so no thread ever waits for another.
+    private void DrainRenderWork() {
+        while ((pendingRenderRequests.get() != 0 || logicalFrames.HasFreshSlot())
+                && renderStateClaimed.compareAndSet(false, true)) {
+            boolean repaintNow;
+            try {
+                repaintNow = RenderPendingWorkClaimed();
+            } finally {
+                renderStateClaimed.set(false);
+            }
+            if (repaintNow) {
+                RequestRepaint();
+            }
         }
+    }
 
+    private boolean RenderPendingWorkClaimed() {
+        int requests = pendingRenderRequests.getAndSet(0);
+        logicalFrames.Acquire();
         LoadedDisplayShader shader = activeShader == null
                 ? DisplayShaderManager.Resolve(Settings.displayShaderId)
                 : activeShader;
+        if ((requests & rebuildRequest) != 0) {
+            initializeRenderBuffers(shader == null ? 1 : shader.renderScale());
+        }
+        if ((requests & rerenderRequest) != 0) {
+            renderedShader = null;
+            InvalidateAsyncShaderFrames();
+        }
+
+        int[] frame = logicalFrames.ReadSlot();
+        int width = frameWidth();
+        int startRow = frameHeight();
+        int endRow = 0;
+        for (int y = 0, offset = 0; y < frameHeight(); y++, offset += width) {
+            if (Arrays.mismatch(frame, offset, offset + width, renderedFrameBuffer, offset, offset + width) >= 0) {
+                System.arraycopy(frame, offset, renderedFrameBuffer, offset, width);
+                startRow = Math.min(startRow, y);
+                endRow = y + 1;
+            }
+        }
+        return RenderImageBuffer(shader, startRow, endRow);
+    }
+
+    private boolean RenderImageBuffer(LoadedDisplayShader shader, int startRow, int endRow) {
         EnsureRenderBuffersForShader(shader);
+        boolean rowsChanged = startRow < endRow;
         if (ShouldRenderShaderAsync(shader)) {
-            QueueAsyncShaderRenderLocked();
-            synchronized (shaderQueueLock) {
-                if (displayedShaderFrameVersion > 0) {
-                    return false;
-                }
+            renderedShader = null;
+            if (!rowsChanged && shader == queuedShader) {
+                return false;
+            }
+            QueueAsyncShaderRender(shader);
+            // Until the worker has shaded a frame for this epoch, show the
+            // queued frame unshaded so the display never lags behind it.
+            if (shadedFrameEpoch == shaderRenderEpoch.get()) {
+                return false;
             }
-            prepareShaderSource(frontBuffer, imageBuffer);
-            CopyVisibleImageBufferLocked();
+            prepareShaderSource(renderedFrameBuffer, imageBuffer);
+            PublishImageBuffer();
             return true;
         }
 
+        if (shader != null && shader == renderedShader && !rowsChanged) {
+            return false;
+        }
+
+        // The image buffer still holds this shader's output for every row
+        // outside the changed range, so only those rows need shading again.
+        boolean fullRender = shader == null || shader != renderedShader;
+        if (fullRender) {
+            startRow = 0;
+            endRow = frameHeight();
+        }
+        renderedShader = null;
         try {
-            prepareShaderSource(frontBuffer, shaderSourceBuffer);
-            shader.apply(shaderSourceBuffer, imageBuffer, shaderScratchBuffer, renderWidth(), renderHeight());
+            prepareShaderSource(renderedFrameBuffer, shaderSourceBuffer, renderScale, startRow, endRow);
+            if (fullRender) {
+                shader.apply(shaderSourceBuffer, imageBuffer, shaderScratchBuffer, renderWidth(), renderHeight());
+            } else {
+                shader.applyRows(shaderSourceBuffer, imageBuffer, shaderScratchBuffer, renderWidth(), renderHeight(),
+                        startRow * renderScale, endRow * renderScale);
+            }
+            renderedShader = shader;
         } catch (RuntimeException exception) {
             exception.printStackTrace();
-            prepareShaderSource(frontBuffer, imageBuffer);
-        }
-        if (paintBuffer != null && paintBuffer.length == imageBuffer.length) {
-            CopyVisibleImageBufferLocked();
+            prepareShaderSource(renderedFrameBuffer, imageBuffer);
         }
+        frameStamp++;
+        PublishImageBuffer();
         return true;
     }
 
@@ -518,15 +576,18 @@ public class DuckDisplay extends JPanel {
                 && shader.prefersAsyncRendering();
     }
 
-    private void QueueAsyncShaderRenderLocked() {
-        if (pendingFrameBuffer == null || frontBuffer == null || pendingFrameBuffer.length != frontBuffer.length) {
-            return;
-        }
-
-        synchronized (shaderQueueLock) {
-            System.arraycopy(frontBuffer, 0, pendingFrameBuffer, 0, frontBuffer.length);
-            pendingShaderFrameVersion++;
+    private void QueueAsyncShaderRender(LoadedDisplayShader shader) {
+        ShaderFrame frame = shaderFrames.WriteSlot();
+        if (frame.pixels.length != renderedFrameBuffer.length) {
+            frame.pixels = new int[renderedFrameBuffer.length];
         }
+        System.arraycopy(renderedFrameBuffer, 0, frame.pixels, 0, renderedFrameBuffer.length);
+        frame.shader = shader;
+        frame.renderScale = renderScale;
+        frame.epoch = shaderRenderEpoch.get();
+        frame.stamp = ++frameStamp;
+        shaderFrames.Publish();
+        queuedShader = shader;
         ScheduleAsyncShaderRender();
     }
 
@@ -540,84 +601,105 @@ public class DuckDisplay extends JPanel {
 
     private void RunAsyncShaderRenderLoop() {
         try {
-            while (true) {
-                LoadedDisplayShader shader;
-                int frameVersion;
-                int epoch;
-                int queuedRenderScale;
-                synchronized (shaderQueueLock) {
-                    if (pendingShaderFrameVersion == displayedShaderFrameVersion
-                            || pendingFrameBuffer == null
-                            || workerFrameBuffer == null
-                            || workerShaderSourceBuffer == null
-                            || workerShaderTargetBuffer == null
-                            || workerShaderScratchBuffer == null) {
-                        return;
-                    }
-
-                    System.arraycopy(pendingFrameBuffer, 0, workerFrameBuffer, 0, pendingFrameBuffer.length);
-                    frameVersion = pendingShaderFrameVersion;
-                    epoch = shaderRenderEpoch;
-                    queuedRenderScale = renderScale;
-                    shader = activeShader == null
-                            ? DisplayShaderManager.Resolve(Settings.displayShaderId)
-                            : activeShader;
-                }
-
-                try {
-                    if (shader == null || "none".equals(shader.id())) {
-                        prepareShaderSource(workerFrameBuffer, workerShaderTargetBuffer, queuedRenderScale);
-                    } else {
-                        prepareShaderSource(workerFrameBuffer, workerShaderSourceBuffer, queuedRenderScale);
-                        shader.apply(workerShaderSourceBuffer, workerShaderTargetBuffer,
-                                workerShaderScratchBuffer, frameWidth() * queuedRenderScale, frameHeight() * queuedRenderScale);
-                    }
-                } catch (RuntimeException exception) {
-                    exception.printStackTrace();
-                    prepareShaderSource(workerFrameBuffer, workerShaderTargetBuffer, queuedRenderScale);
-                }
-
-                boolean repaintNow = false;
-                synchronized (shaderQueueLock) {
-                    if (epoch == shaderRenderEpoch
-                            && frameVersion == pendingShaderFrameVersion
-                            && frameVersion > displayedShaderFrameVersion
-                            && imageBuffer != null
-                            && paintBuffer != null
-                            && workerShaderTargetBuffer.length == imageBuffer.length
-                            && imageBuffer.length == paintBuffer.length) {
-                        System.arraycopy(workerShaderTargetBuffer, 0, imageBuffer, 0, workerShaderTargetBuffer.length);
-                        System.arraycopy(workerShaderTargetBuffer, 0, paintBuffer, 0, workerShaderTargetBuffer.length);
-                        displayedShaderFrameVersion = frameVersion;
-                        repaintNow = true;
-                    }
-                }
-
-                if (repaintNow) {
-                    RequestRepaint();
+            while (shaderFrames.Acquire()) {
+                ShaderFrame frame = shaderFrames.ReadSlot();
+                if (frame.epoch == shaderRenderEpoch.get()) {
+                    RenderAsyncShaderFrame(frame);
                 }
             }
         } finally {
             shaderRenderQueued.set(false);
-            synchronized (shaderQueueLock) {
-                if (pendingShaderFrameVersion != displayedShaderFrameVersion && ShouldRenderShaderAsync(activeShader)) {
-                    ScheduleAsyncShaderRender();
-                }
+            if (shaderFrames.HasFreshSlot()) {
+                ScheduleAsyncShaderRender();
             }
         }
     }
 
-    private void FillDisplayBuffersLocked(int rgb) {
-        Arrays.fill(imageBuffer, rgb);
-        if (paintBuffer != null) {
-            Arrays.fill(paintBuffer, rgb);
+    private void RenderAsyncShaderFrame(ShaderFrame frame) {
+        int width = frameWidth() * frame.renderScale;
+        int height = frameHeight() * frame.renderScale;
+        int renderLength = width * height;
+        if (workerFrameBuffer == null || workerFrameBuffer.length != frame.pixels.length
+                || workerShaderTargetBuffer.length != renderLength) {
+            workerFrameBuffer = new int[frame.pixels.length];
+            workerShaderSourceBuffer = new int[renderLength];
+            workerShaderTargetBuffer = new int[renderLength];
+            workerShaderScratchBuffer = new int[renderLength];
+            workerRenderedShader = null;
+        }
+
+        // The worker target keeps the output of the last frame this worker
+        // rendered, so only rows that differ from that frame need shading.
+        boolean fullRender = frame.shader != workerRenderedShader || frame.epoch != workerRenderedEpoch;
+        int changedStartRow = fullRender ? 0 : frameHeight();
+        int changedEndRow = fullRender ? frameHeight() : 0;
+        int logicalWidth = frameWidth();
+        for (int y = 0, offset = 0; !fullRender && y < frameHeight(); y++, offset += logicalWidth) {
+            if (Arrays.mismatch(frame.pixels, offset, offset + logicalWidth,
+                    workerFrameBuffer, offset, offset + logicalWidth) >= 0) {
+                changedStartRow = Math.min(changedStartRow, y);
+                changedEndRow = y + 1;
+            }
+        }
+        System.arraycopy(frame.pixels, 0, workerFrameBuffer, 0, frame.pixels.length);
+
+        workerRenderedShader = null;
+        try {
+            if (frame.shader == null || "none".equals(frame.shader.id())) {
+                prepareShaderSource(frame.pixels, workerShaderTargetBuffer, frame.renderScale);
+            } else {
+                if (fullRender) {
+                    prepareShaderSource(frame.pixels, workerShaderSourceBuffer, frame.renderScale);
+                    frame.shader.apply(workerShaderSourceBuffer, workerShaderTargetBuffer,
+                            workerShaderScratchBuffer, width, height);
+                } else if (changedStartRow < changedEndRow) {
+                    prepareShaderSource(frame.pixels, workerShaderSourceBuffer, frame.renderScale,
+                            changedStartRow, changedEndRow);
+                    frame.shader.applyRows(workerShaderSourceBuffer, workerShaderTargetBuffer,
+                            workerShaderScratchBuffer, width, height,
+                            changedStartRow * frame.renderScale, changedEndRow * frame.renderScale);
+                }
+                workerRenderedShader = frame.shader;
+                workerRenderedEpoch = frame.epoch;
+            }
+        } catch (RuntimeException exception) {
+            exception.printStackTrace();
+            prepareShaderSource(frame.pixels, workerShaderTargetBuffer, frame.renderScale);
         }
-    }
 
-    private void CopyVisibleImageBufferLocked() {
-        if (paintBuffer != null && imageBuffer != null && paintBuffer.length == imageBuffer.length) {
-            System.arraycopy(imageBuffer, 0, paintBuffer, 0, imageBuffer.length);
+        if (frame.epoch != shaderRenderEpoch.get()) {
+            return;
         }
+        PaintFrame paintFrame = shadedFrames.WriteSlot();
+        System.arraycopy(workerShaderTargetBuffer, 0, paintFrame.Pixels(width, height), 0, renderLength);
+        paintFrame.stamp = frame.stamp;
+        shadedFrames.Publish();
+        shadedFrameEpoch = frame.epoch;
+        RequestRepaint();
+    }
+
+    private int[] BlankFrame() {
+        int[] frame = new int[frameWidth() * frameHeight()];
+        Arrays.fill(frame, Color.BLACK.getRGB());
+        return frame;
+    }
+
+    private void PublishImageBuffer() {
+        PaintFrame frame = presentedFrames.WriteSlot();
+        System.arraycopy(imageBuffer, 0, frame.Pixels(renderWidth(), renderHeight()), 0, imageBuffer.length);
+        frame.stamp = frameStamp;
+        presentedFrames.Publish();
+    }
+
+    // Paint shows the newer of the last frame the emulation thread presented
+    // and the last frame the shader worker finished. On a tie the worker's
+    // copy wins, since it is the same frame with the shader applied.
+    private BufferedImage LatestPaintImage() {
+        presentedFrames.Acquire();
+        shadedFrames.Acquire();
+        PaintFrame presented = presentedFrames.ReadSlot();
+        PaintFrame shaded = shadedFrames.ReadSlot();
+        return shaded.image != null && shaded.stamp >= presented.stamp ? shaded.image : presented.image;
     }
 
     private void EnsureRenderBuffersForShader(LoadedDisplayShader shader) {
@@ -633,18 +715,24 @@ public class DuckDisplay extends JPanel {
     }
 
     private void prepareShaderSource(int[] logicalSource, int[] renderTarget, int targetRenderScale) {
+        prepareShaderSource(logicalSource, renderTarget, targetRenderScale, 0, frameHeight());
+    }
+
+    private void prepareShaderSource(int[] logicalSource, int[] renderTarget, int targetRenderScale, int startRow,
+            int endRow) {
         if (logicalSource == null || renderTarget == null) {
             return;
         }
         int logicalWidth = frameWidth();
-        int logicalHeight = frameHeight();
         if (targetRenderScale <= 1) {
-            System.arraycopy(logicalSource, 0, renderTarget, 0, Math.min(logicalSource.length, renderTarget.length));
+            int start = startRow * logicalWidth;
+            int end = Math.min(endRow * logicalWidth, Math.min(logicalSource.length, renderTarget.length));
+            System.arraycopy(logicalSource, start, renderTarget, start, Math.max(0, end - start));
             return;
         }
 
         int renderWidth = logicalWidth * targetRenderScale;
-        for (int y = 0; y < logicalHeight; y++) {
+        for (int y = startRow; y < endRow; y++) {
             int sourceRowOffset = y * logicalWidth;
             int renderRowBase = y * targetRenderScale * renderWidth;
             int destinationOffset = renderRowBase;
@@ -661,15 +749,8 @@ public class DuckDisplay extends JPanel {
     }
 
     private void InvalidateAsyncShaderFrames() {
-        synchronized (shaderQueueLock) {
-            InvalidateAsyncShaderFramesLocked();
-        }
-    }
-
-    private void InvalidateAsyncShaderFramesLocked() {
-        shaderRenderEpoch++;
-        pendingShaderFrameVersion = 0;
-        displayedShaderFrameVersion = 0;
+        shaderRenderEpoch.incrementAndGet();
+        queuedShader = null;
     }
 
     private DisplayBorderRenderer.PreparedBorderFrame prepareBorderFrame(LoadedDisplayBorder border, int width, int height) {
@@ -696,31 +777,59 @@ public class DuckDisplay extends JPanel {
         preparedBorderHeight = -1;
     }
 
-    private void recordPaintPresentation() {
+    private void recordPresentation(int paintedFrames) {
+        int frameCount = paintedFrames + skippedFrameCount.getAndSet(0);
+        if (frameCount == 0) {
+            return;
+        }
+
         long now = System.nanoTime();
-        if (lastPaintNanos > 0L) {
-            long frameIntervalNanos = now - lastPaintNanos;
+        if (lastPresentationNanos > 0L) {
+            double frameIntervalNanos = (now - lastPresentationNanos) / (double) frameCount;
             smoothedFrameIntervalNanos = smoothedFrameIntervalNanos <= 0.0
                     ? frameIntervalNanos
                     : (smoothedFrameIntervalNanos * 0.85) + (frameIntervalNanos * 0.15);
         }
-        lastPaintNanos = now;
+        lastPresentationNanos = now;
 
         if (statsWindowStartNanos == 0L) {
             statsWindowStartNanos = now;
         }
 
-        statsWindowPaintCount++;
+        statsWindowFrameCount += frameCount;
         long elapsedNanos = now - statsWindowStartNanos;
         if (elapsedNanos < 250_000_000L) {
             return;
         }
 
-        double fps = (statsWindowPaintCount * 1_000_000_000.0) / elapsedNanos;
+        double fps = (statsWindowFrameCount * 1_000_000_000.0) / elapsedNanos;
         double averageFrameTimeMs = smoothedFrameIntervalNanos / 1_000_000.0;
         presentationStats = new PresentationStats(fps, averageFrameTimeMs);
         statsWindowStartNanos = now;
-        statsWindowPaintCount = 0;
+        statsWindowFrameCount = 0;
     }
-}
 
+    // A rendered image waiting to be painted, stamped with the frame it shows.
+    private static final class PaintFrame {
+        private BufferedImage image;
+        private int[] pixels;
+        private long stamp = -1L;
+
+        private int[] Pixels(int width, int height) {
+            if (image == null || image.getWidth() != width || image.getHeight() != height) {
+                image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            }
+            return pixels;
+        }
+    }
+
+    // A visible frame waiting for the async shader worker.
+    private static final class ShaderFrame {
+        private int[] pixels = new int[0];
+        private LoadedDisplayShader shader;
+        private int renderScale = 1;
+        private int epoch;
+        private long stamp;
+    }
+}
@@ -1332,6 +1332,16 @@ public class OptionsWindow extends DuckWindow {
             mainWindow.GetEmulation().ResetTransientAudioState();
         });
 
+        JCheckBox audioClockPacingCheckBox = new JCheckBox(UiText.OptionsWindow.AUDIO_CLOCK_PACING_CHECKBOX,
+                Settings.audioClockPacing);
+        audioClockPacingCheckBox.setFont(Styling.menuFont.deriveFont(Font.BOLD, 14f));
+        audioClockPacingCheckBox.setForeground(accentColour);
+        audioClockPacingCheckBox.setBackground(Styling.sectionHighlightColour);
+        audioClockPacingCheckBox.addActionListener(event -> {
+            Settings.audioClockPacing = audioClockPacingCheckBox.isSelected();
+            Config.Save();
+        });
+
         JPanel outputCard = new JPanel(new BorderLayout());
         outputCard.setBackground(Styling.sectionHighlightColour);
         outputCard.setBorder(BorderFactory.createCompoundBorder(
@@ -1343,9 +1353,10 @@ public class OptionsWindow extends DuckWindow {
                 UiText.OptionsWindow.PLAYBACK_HELPER,
                 16f);
 
-        JPanel toggleWrap = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        JPanel toggleWrap = new JPanel(new FlowLayout(FlowLayout.RIGHT, 12, 0));
         toggleWrap.setOpaque(false);
         toggleWrap.add(soundEnabledCheckBox);
+        toggleWrap.add(audioClockPacingCheckBox);
 
         outputCard.add(createResponsiveGroup(280, 2, outputText, toggleWrap), BorderLayout.CENTER);
         stack.add(outputCard);
@@ -1431,6 +1442,7 @@ public class OptionsWindow extends DuckWindow {
         resetSoundButton.addActionListener(event -> {
             Settings.ResetSound();
             soundEnabledCheckBox.setSelected(Settings.soundEnabled);
+            audioClockPacingCheckBox.setSelected(Settings.audioClockPacing);
             if (masterVolumeKnobHolder[0] != null) {
                 masterVolumeKnobHolder[0].SetValue(Settings.masterVolume);
             }
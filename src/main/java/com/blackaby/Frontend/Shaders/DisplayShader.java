@@ -60,4 +60,23 @@ public interface DisplayShader {
      * @param height  frame height in pixels
      */
     void Apply(int[] source, int[] target, int[] scratch, int width, int height);
+
+    /**
+     * Updates {@code target} after only source rows {@code startRow} up to
+     * {@code endRow} changed. {@code target} must still hold this shader's
+     * output for the previous source frame. The default re-renders the whole
+     * frame.
+     *
+     * @param source   raw source frame
+     * @param target   processed frame output from the previous source frame
+     * @param scratch  reusable scratch buffer matching the source length
+     * @param width    frame width in pixels
+     * @param height   frame height in pixels
+     * @param startRow first source row that changed
+     * @param endRow   row after the last source row that changed
+     */
+    default void ApplyRows(int[] source, int[] target, int[] scratch, int width, int height, int startRow,
+            int endRow) {
+        Apply(source, target, scratch, width, height);
+    }
 }
@@ -55,6 +55,22 @@ public record LoadedDisplayShader(
         shader.Apply(source, target, scratch, width, height);
     }
 
+    /**
+     * Updates the output of the wrapped shader after some source rows changed.
+     *
+     * @param source   raw source frame
+     * @param target   processed output from the previous source frame
+     * @param scratch  reusable scratch buffer
+     * @param width    frame width in pixels
+     * @param height   frame height in pixels
+     * @param startRow first source row that changed
+     * @param endRow   row after the last source row that changed
+     */
+    public void applyRows(int[] source, int[] target, int[] scratch, int width, int height, int startRow,
+            int endRow) {
+        shader.ApplyRows(source, target, scratch, width, height, startRow, endRow);
+    }
+
     /**
      * Returns whether the wrapped shader prefers async rendering.
      *
@@ -1,17 +1,47 @@
 package com.blackaby.Frontend.Shaders;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 /**
  * A configurable multi-pass CPU shader built from reusable post-process passes.
+ * <p>
+ * Passes that can render bands of rows on their own are split across a shared
+ * work-stealing pool once a frame is large enough, with the calling thread
+ * rendering the first band itself. Runs of adjacent pointwise passes are fused
+ * into a single pass that shades each row through the whole run while it is
+ * still in cache, instead of sweeping the frame once per pass. When only some
+ * source rows change, each pass re-renders just the rows those changes can
+ * reach, widened by the halo of the passes after it.
  */
 public final class PipelineDisplayShader implements DisplayShader {
 
+    private static final int minimumBandPixels = 32 * 1024;
+    private static final int maxBandCount = Runtime.getRuntime().availableProcessors();
+    private static final ForkJoinPool bandPool = new ForkJoinPool(
+            Math.max(1, maxBandCount - 1),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("gameduck-shader-band-" + thread.getPoolIndex());
+                return thread;
+            },
+            null,
+            false);
+
+    // Partial re-renders need a second intermediate buffer. One shader
+    // instance is shared by the display, its async worker and previews, so
+    // each calling thread keeps its own.
+    private static final ThreadLocal<int[]> bandScratch = ThreadLocal.withInitial(() -> new int[0]);
+
     private final String id;
     private final String displayName;
     private final String description;
     private final List<ShaderPass> passes;
+    private final List<ShaderPass> renderPasses;
     private final boolean prefersAsyncRendering;
 
     /**
@@ -27,6 +57,7 @@ public final class PipelineDisplayShader implements DisplayShader {
         this.displayName = displayName;
         this.description = description == null ? "" : description;
         this.passes = passes == null ? List.of() : List.copyOf(passes);
+        this.renderPasses = fusePointwisePasses(this.passes);
         this.prefersAsyncRendering = this.passes.stream().anyMatch(ShaderPass::prefersAsyncRendering);
     }
 
@@ -52,12 +83,7 @@ public final class PipelineDisplayShader implements DisplayShader {
 
     @Override
     public void Apply(int[] source, int[] target, int[] scratch, int width, int height) {
-        if (source == null || target == null || scratch == null) {
-            throw new IllegalArgumentException("Shader buffers cannot be null.");
-        }
-        if (source.length != target.length || source.length != scratch.length) {
-            throw new IllegalArgumentException("Shader buffers must be the same size.");
-        }
+        checkBuffers(source, target, scratch);
         if (passes.isEmpty()) {
             System.arraycopy(source, 0, target, 0, source.length);
             return;
@@ -65,8 +91,8 @@ public final class PipelineDisplayShader implements DisplayShader {
 
         int[] read = source;
         int[] write = target;
-        for (ShaderPass pass : passes) {
-            pass.apply(read, write, width, height);
+        for (ShaderPass pass : renderPasses) {
+            applyPass(pass, read, write, width, height, 0, height);
             read = write;
             write = (write == target) ? scratch : target;
         }
@@ -76,6 +102,149 @@ public final class PipelineDisplayShader implements DisplayShader {
         }
     }
 
+    @Override
+    public void ApplyRows(int[] source, int[] target, int[] scratch, int width, int height, int startRow,
+            int endRow) {
+        checkBuffers(source, target, scratch);
+        int passCount = renderPasses.size();
+        int[] bandStarts = new int[Math.max(1, passCount)];
+        int[] bandEnds = new int[Math.max(1, passCount)];
+        if (!planBands(height, Math.max(0, startRow), Math.min(height, endRow), bandStarts, bandEnds)) {
+            Apply(source, target, scratch, width, height);
+            return;
+        }
+        if (passCount == 0) {
+            copyRows(source, target, width, bandStarts[0], bandEnds[0]);
+            return;
+        }
+        if (bandStarts[passCount - 1] >= bandEnds[passCount - 1]) {
+            return;
+        }
+
+        // Intermediate passes alternate between the two scratch buffers, so
+        // target rows outside the final band keep the previous output.
+        int[] rowScratch = bandScratch.get();
+        if (rowScratch.length != source.length) {
+            rowScratch = new int[source.length];
+            bandScratch.set(rowScratch);
+        }
+        int[] read = source;
+        for (int index = 0; index < passCount; index++) {
+            int[] write = index == passCount - 1
+                    ? target
+                    : (index % 2 == 0 ? scratch : rowScratch);
+            applyPass(renderPasses.get(index), read, write, width, height, bandStarts[index], bandEnds[index]);
+            read = write;
+        }
+    }
+
+    // Works forward to find the output rows a change can reach, then back to
+    // find the rows every earlier pass must produce for the next one to read.
+    private boolean planBands(int height, int startRow, int endRow, int[] bandStarts, int[] bandEnds) {
+        int passCount = renderPasses.size();
+        if (passCount == 0) {
+            bandStarts[0] = startRow;
+            bandEnds[0] = endRow;
+            return true;
+        }
+        if (startRow >= endRow) {
+            bandStarts[passCount - 1] = 0;
+            bandEnds[passCount - 1] = 0;
+            return true;
+        }
+
+        int start = startRow;
+        int end = endRow;
+        for (ShaderPass pass : renderPasses) {
+            if (!(pass instanceof RowBandShaderPass bandPass)) {
+                return false;
+            }
+            int alignment = bandPass.rowBandAlignment();
+            start = alignDown(Math.max(0, start - bandPass.haloRows()), alignment);
+            end = Math.min(height, alignUp(end + bandPass.haloRows(), alignment));
+        }
+
+        bandStarts[passCount - 1] = start;
+        bandEnds[passCount - 1] = end;
+        for (int index = passCount - 1; index > 0; index--) {
+            int halo = ((RowBandShaderPass) renderPasses.get(index)).haloRows();
+            int alignment = ((RowBandShaderPass) renderPasses.get(index - 1)).rowBandAlignment();
+            bandStarts[index - 1] = alignDown(Math.max(0, bandStarts[index] - halo), alignment);
+            bandEnds[index - 1] = Math.min(height, alignUp(bandEnds[index] + halo, alignment));
+        }
+        return true;
+    }
+
+    private static int alignDown(int row, int alignment) {
+        return (row / alignment) * alignment;
+    }
+
+    private static int alignUp(int row, int alignment) {
+        return ((row + alignment - 1) / alignment) * alignment;
+    }
+
+    private static void checkBuffers(int[] source, int[] target, int[] scratch) {
+        if (source == null || target == null || scratch == null) {
+            throw new IllegalArgumentException("Shader buffers cannot be null.");
+        }
+        if (source.length != target.length || source.length != scratch.length) {
+            throw new IllegalArgumentException("Shader buffers must be the same size.");
+        }
+    }
+
+    private static List<ShaderPass> fusePointwisePasses(List<ShaderPass> passes) {
+        List<ShaderPass> fused = new ArrayList<>(passes.size());
+        List<PointwisePass> run = new ArrayList<>();
+        for (ShaderPass pass : passes) {
+            if (pass instanceof PointwisePass pointwisePass) {
+                run.add(pointwisePass);
+                continue;
+            }
+            addPointwiseRun(fused, run);
+            fused.add(pass);
+        }
+        addPointwiseRun(fused, run);
+        return List.copyOf(fused);
+    }
+
+    private static void addPointwiseRun(List<ShaderPass> fused, List<PointwisePass> run) {
+        if (run.size() == 1) {
+            fused.add(run.get(0));
+        } else if (run.size() > 1) {
+            fused.add(new FusedPointwisePass(run.toArray(new PointwisePass[0])));
+        }
+        run.clear();
+    }
+
+    private static void applyPass(ShaderPass shaderPass, int[] source, int[] target, int width, int height,
+            int startRow, int endRow) {
+        if (!(shaderPass instanceof RowBandShaderPass pass)) {
+            shaderPass.apply(source, target, width, height);
+            return;
+        }
+
+        int alignment = pass.rowBandAlignment();
+        int rows = endRow - startRow;
+        int bandCount = Math.min(maxBandCount, Math.min((width * rows) / minimumBandPixels, rows / alignment));
+        pass.prepareRows(source, width, height);
+        if (bandCount <= 1) {
+            pass.applyRows(source, target, width, height, startRow, endRow);
+            return;
+        }
+
+        int bandRows = alignUp((rows + bandCount - 1) / bandCount, alignment);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(bandCount - 1);
+        for (int row = startRow + bandRows; row < endRow; row += bandRows) {
+            int bandStart = row;
+            int bandEnd = Math.min(endRow, row + bandRows);
+            tasks.add(bandPool.submit(() -> pass.applyRows(source, target, width, height, bandStart, bandEnd)));
+        }
+        pass.applyRows(source, target, width, height, startRow, Math.min(endRow, startRow + bandRows));
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
     /**
      * Shared pass contract for JSON-defined and built-in shaders.
      */
@@ -101,10 +270,140 @@ public final class PipelineDisplayShader implements DisplayShader {
         }
     }
 
+    /**
+     * Contract for passes that can render any band of output rows on its own.
+     * Passes without it always render the whole frame in one call, and a
+     * partial re-render that reaches one of them renders the whole frame.
+     */
+    public interface RowBandShaderPass extends ShaderPass {
+
+        /**
+         * Returns the row granularity at which this pass can render bands of
+         * the frame independently. Every band reads from the complete source
+         * frame, so a pass that samples neighbouring rows needs no halo copy;
+         * the value only keeps band edges on the pass's own cell boundaries.
+         *
+         * @return band row alignment, at least one
+         */
+        default int rowBandAlignment() {
+            return 1;
+        }
+
+        /**
+         * Returns how many rows above or below an output row the pass may
+         * read from its source. Partial re-renders widen each band by this
+         * much for the pass before.
+         *
+         * @return source rows read beyond each output row
+         */
+        default int haloRows() {
+            return 0;
+        }
+
+        /**
+         * Builds any per-frame state shared by every band. Runs once on the
+         * calling thread before {@link #applyRows} is called for any band.
+         * During a partial re-render, source rows beyond the halo of the
+         * requested bands may hold stale pixels, and must not change them.
+         *
+         * @param source source pixels
+         * @param width  frame width
+         * @param height frame height
+         */
+        default void prepareRows(int[] source, int width, int height) {
+        }
+
+        /**
+         * Renders output rows {@code startRow} up to {@code endRow}. Bands of
+         * the same frame may run at the same time on different threads.
+         *
+         * @param source   source pixels
+         * @param target   output pixels
+         * @param width    frame width
+         * @param height   frame height
+         * @param startRow first output row, a multiple of the band alignment
+         * @param endRow   row after the last output row
+         */
+        void applyRows(int[] source, int[] target, int width, int height, int startRow, int endRow);
+    }
+
+    /**
+     * Shared helper for passes that can render any band of output rows once
+     * their per-frame state is prepared.
+     */
+    private abstract static class RowBandPass implements RowBandShaderPass {
+
+        @Override
+        public final void apply(int[] source, int[] target, int width, int height) {
+            prepareRows(source, width, height);
+            applyRows(source, target, width, height, 0, height);
+        }
+    }
+
+    /**
+     * Shared helper for passes whose output pixel depends only on the source
+     * pixel at the same position. Such passes shade a row in place, which lets
+     * a run of them share one sweep over the frame.
+     */
+    private abstract static class PointwisePass extends RowBandPass {
+
+        @Override
+        public final void applyRows(int[] source, int[] target, int width, int height, int startRow, int endRow) {
+            for (int y = startRow; y < endRow; y++) {
+                shadeRow(source, target, y * width, width, y);
+            }
+        }
+
+        /**
+         * Shades one row. {@code source} and {@code target} may be the same
+         * array.
+         *
+         * @param source    source pixels
+         * @param target    output pixels
+         * @param rowOffset index of the first pixel in the row
+         * @param width     frame width
+         * @param y         row index
+         */
+        protected abstract void shadeRow(int[] source, int[] target, int rowOffset, int width, int y);
+    }
+
+    /**
+     * Runs several pointwise passes in one sweep. The first pass shades each
+     * row from the source and the rest shade it again in place, so the
+     * result matches running the passes one after another.
+     */
+    private static final class FusedPointwisePass extends RowBandPass {
+        private final PointwisePass[] passes;
+
+        private FusedPointwisePass(PointwisePass[] passes) {
+            this.passes = passes;
+        }
+
+        @Override
+        public void prepareRows(int[] source, int width, int height) {
+            // Pointwise passes only build position-based tables here, so the
+            // frame they are handed does not matter.
+            for (PointwisePass pass : passes) {
+                pass.prepareRows(source, width, height);
+            }
+        }
+
+        @Override
+        public void applyRows(int[] source, int[] target, int width, int height, int startRow, int endRow) {
+            for (int y = startRow; y < endRow; y++) {
+                int rowOffset = y * width;
+                passes[0].shadeRow(source, target, rowOffset, width, y);
+                for (int index = 1; index < passes.length; index++) {
+                    passes[index].shadeRow(target, target, rowOffset, width, y);
+                }
+            }
+        }
+    }
+
     /**
      * Alternating scanline darkening.
      */
-    public static final class ScanlinesPass implements ShaderPass {
+    public static final class ScanlinesPass extends PointwisePass {
         private final int spacing;
         private final int offset;
         private final int darkenScale256;
@@ -118,15 +417,13 @@ public final class PipelineDisplayShader implements DisplayShader {
         }
 
         @Override
-        public void apply(int[] source, int[] target, int width, int height) {
+        public void prepareRows(int[] source, int width, int height) {
             ensureRowScaleCache(height);
-            for (int y = 0; y < height; y++) {
-                int rowOffset = y * width;
-                int factor256 = cachedRowScale256[y];
-                for (int x = 0; x < width; x++) {
-                    target[rowOffset + x] = scaleRgb256(source[rowOffset + x], factor256);
-                }
-            }
+        }
+
+        @Override
+        protected void shadeRow(int[] source, int[] target, int rowOffset, int width, int y) {
+            PixelKernels.scaleRow(source, target, rowOffset, width, cachedRowScale256[y]);
         }
 
         private void ensureRowScaleCache(int height) {
@@ -145,7 +442,7 @@ public final class PipelineDisplayShader implements DisplayShader {
     /**
      * Adds a subtle grid across rows and columns.
      */
-    public static final class PixelGridPass implements ShaderPass {
+    public static final class PixelGridPass extends PointwisePass {
         private final int rowSpacing;
         private final int columnSpacing;
         private final int rowScale256;
@@ -154,6 +451,7 @@ public final class PipelineDisplayShader implements DisplayShader {
         private int cachedHeight = -1;
         private int[] cachedRowScale256 = new int[0];
         private int[] cachedColumnScale256 = new int[0];
+        private int[] cachedGridRowScale256 = new int[0];
 
         public PixelGridPass(double intensity, int rowSpacing, int columnSpacing) {
             double clampedIntensity = clampUnit(intensity);
@@ -164,23 +462,26 @@ public final class PipelineDisplayShader implements DisplayShader {
         }
 
         @Override
-        public void apply(int[] source, int[] target, int width, int height) {
+        public void prepareRows(int[] source, int width, int height) {
             ensureFactorCache(width, height);
-            for (int y = 0; y < height; y++) {
-                int rowOffset = y * width;
-                int rowFactor256 = cachedRowScale256[y];
-                for (int x = 0; x < width; x++) {
-                    int factor256 = (rowFactor256 * cachedColumnScale256[x] + 128) >> 8;
-                    target[rowOffset + x] = scaleRgb256(source[rowOffset + x], factor256);
-                }
-            }
         }
 
+        @Override
+        protected void shadeRow(int[] source, int[] target, int rowOffset, int width, int y) {
+            int[] factors256 = cachedRowScale256[y] == 256 ? cachedColumnScale256 : cachedGridRowScale256;
+            PixelKernels.scaleRow(source, target, rowOffset, width, factors256, 0);
+        }
+
+        // Every row is either a grid row or a plain one, so each kind gets
+        // its column factors combined with the row factor up front. Plain
+        // rows scale by 256, which leaves the column factors unchanged.
         private void ensureFactorCache(int width, int height) {
             if (cachedWidth != width) {
                 cachedColumnScale256 = new int[width];
+                cachedGridRowScale256 = new int[width];
                 for (int x = 0; x < width; x++) {
                     cachedColumnScale256[x] = Math.floorMod(x + 1, columnSpacing) == 0 ? columnScale256 : 256;
+                    cachedGridRowScale256[x] = (rowScale256 * cachedColumnScale256[x] + 128) >> 8;
                 }
                 cachedWidth = width;
             }
@@ -198,7 +499,7 @@ public final class PipelineDisplayShader implements DisplayShader {
     /**
      * Shapes pixels into repeated rounded dots for LCD and matrix-style looks.
      */
-    public static final class DotMatrixPass implements ShaderPass {
+    public static final class DotMatrixPass extends PointwisePass {
         private final double intensity;
         private final int cellWidth;
         private final int cellHeight;
@@ -215,11 +516,13 @@ public final class PipelineDisplayShader implements DisplayShader {
         }
 
         @Override
-        public void apply(int[] source, int[] target, int width, int height) {
+        public void prepareRows(int[] source, int width, int height) {
             ensureScaleCache(width, height);
-            for (int index = 0; index < source.length; index++) {
-                target[index] = scaleRgb256(source[index], cachedScale256[index]);
-            }
+        }
+
+        @Override
+        protected void shadeRow(int[] source, int[] target, int rowOffset, int width, int y) {
+            PixelKernels.scaleRow(source, target, rowOffset, width, cachedScale256, rowOffset);
         }
 
         private void ensureScaleCache(int width, int height) {
@@ -258,7 +561,7 @@ public final class PipelineDisplayShader implements DisplayShader {
     /**
      * Darkens the border of each repeated pixel cell.
      */
-    public static final class PixelOutlinePass implements ShaderPass {
+    public static final class PixelOutlinePass extends PointwisePass {
         private final double intensity;
         private final int cellWidth;
         private final int cellHeight;
@@ -275,11 +578,13 @@ public final class PipelineDisplayShader implements DisplayShader {
         }
 
         @Override
-        public void apply(int[] source, int[] target, int width, int height) {
+        public void prepareRows(int[] source, int width, int height) {
             ensureScaleCache(width, height);
-            for (int index = 0; index < source.length; index++) {
-                target[index] = scaleRgb256(source[index], cachedScale256[index]);
-            }
+        }
+
+        @Override
+        protected void shadeRow(int[] source, int[] target, int rowOffset, int width, int y) {
+            PixelKernels.scaleRow(source, target, rowOffset, width, cachedScale256, rowOffset);
         }
 
         private void ensureScaleCache(int width, int height) {
@@ -317,7 +622,7 @@ public final class PipelineDisplayShader implements DisplayShader {
     /**
      * Interpolates enlarged sprite corners while keeping cell centers crisp.
      */
-    public static final class SpriteInterpolationPass implements ShaderPass {
+    public static final class SpriteInterpolationPass extends RowBandPass {
         private final double strength;
         private final int cellWidth;
         private final int cellHeight;
@@ -331,15 +636,25 @@ public final class PipelineDisplayShader implements DisplayShader {
         }
 
         @Override
-        public void apply(int[] source, int[] target, int width, int height) {
+        public int rowBandAlignment() {
+            return cellHeight;
+        }
+
+        @Override
+        public int haloRows() {
+            return cellHeight;
+        }
+
+        @Override
+        public void applyRows(int[] source, int[] target, int width, int height, int startRow, int endRow) {
             if (strength <= 0.0 || (cellWidth <= 1 && cellHeight <= 1)) {
-                System.arraycopy(source, 0, target, 0, source.length);
+                copyRows(source, target, width, startRow, endRow);
                 return;
             }
 
             int cellColumns = (width + cellWidth - 1) / cellWidth;
-            int cellRows = (height + cellHeight - 1) / cellHeight;
-            for (int cellY = 0; cellY < cellRows; cellY++) {
+            int cellRows = (endRow + cellHeight - 1) / cellHeight;
+            for (int cellY = startRow / cellHeight; cellY < cellRows; cellY++) {
                 int startY = cellY * cellHeight;
                 int endY = Math.min(height, startY + cellHeight);
                 int actualCellHeight = endY - startY;
@@ -418,7 +733,7 @@ public final class PipelineDisplayShader implements DisplayShader {
      * Shared helper for fixed-scale pixel-art upscalers that reinterpret the
      * nearest-neighbour-expanded frame as a logical cell grid.
      */
-    private abstract static class FixedCellScalerPass implements ShaderPass {
+    private abstract static class FixedCellScalerPass extends RowBandPass {
         private final int scale;
         private int cachedLogicalWidth = -1;
         private int cachedLogicalHeight = -1;
@@ -429,13 +744,18 @@ public final class PipelineDisplayShader implements DisplayShader {
         }
 
         @Override
-        public void apply(int[] source, int[] target, int width, int height) {
-            if (scale <= 1
-                    || width <= 0
-                    || height <= 0
-                    || width % scale != 0
-                    || height % scale != 0) {
-                System.arraycopy(source, 0, target, 0, source.length);
+        public int rowBandAlignment() {
+            return scale;
+        }
+
+        @Override
+        public int haloRows() {
+            return scale;
+        }
+
+        @Override
+        public void prepareRows(int[] source, int width, int height) {
+            if (!canScale(width, height)) {
                 return;
             }
 
@@ -443,14 +763,32 @@ public final class PipelineDisplayShader implements DisplayShader {
             int logicalHeight = height / scale;
             ensureLogicalBuffer(logicalWidth, logicalHeight);
             populateLogicalBuffer(source, width, height, logicalWidth, logicalHeight);
+        }
 
-            for (int cellY = 0; cellY < logicalHeight; cellY++) {
+        @Override
+        public void applyRows(int[] source, int[] target, int width, int height, int startRow, int endRow) {
+            if (!canScale(width, height)) {
+                copyRows(source, target, width, startRow, endRow);
+                return;
+            }
+
+            int logicalWidth = width / scale;
+            int logicalHeight = height / scale;
+            for (int cellY = startRow / scale; cellY < endRow / scale; cellY++) {
                 for (int cellX = 0; cellX < logicalWidth; cellX++) {
                     renderCell(logicalBuffer, logicalWidth, logicalHeight, cellX, cellY, target, width);
                 }
             }
         }
 
+        private boolean canScale(int width, int height) {
+            return scale > 1
+                    && width > 0
+                    && height > 0
+                    && width % scale == 0
+                    && height % scale == 0;
+        }
+
         protected abstract void renderCell(
                 int[] logicalBuffer,
                 int logicalWidth,
@@ -680,7 +1018,7 @@ public final class PipelineDisplayShader implements DisplayShader {
     /**
      * Darkens the edges to focus the image center.
      */
-    public static final class VignettePass implements ShaderPass {
+    public static final class VignettePass extends PointwisePass {
         private final double strength;
         private final double roundness;
         private int cachedWidth = -1;
@@ -693,11 +1031,13 @@ public final class PipelineDisplayShader implements DisplayShader {
         }
 
         @Override
-        public void apply(int[] source, int[] target, int width, int height) {
+        public void prepareRows(int[] source, int width, int height) {
             ensureScaleCache(width, height);
-            for (int index = 0; index < source.length; index++) {
-                target[index] = scaleRgb256(source[index], cachedScale256[index]);
-            }
+        }
+
+        @Override
+        protected void shadeRow(int[] source, int[] target, int rowOffset, int width, int y) {
+            PixelKernels.scaleRow(source, target, rowOffset, width, cachedScale256, rowOffset);
         }
 
         private void ensureScaleCache(int width, int height) {
@@ -730,7 +1070,7 @@ public final class PipelineDisplayShader implements DisplayShader {
     /**
      * Brightens highlights by sampling nearby bright pixels.
      */
-    public static final class BloomPass implements ShaderPass {
+    public static final class BloomPass extends RowBandPass {
         private final int radius;
         private final int glowScale256;
         private final int luminanceThresholdScaled;
@@ -739,6 +1079,7 @@ public final class PipelineDisplayShader implements DisplayShader {
         private int[] integralGreen = new int[0];
         private int[] integralBlue = new int[0];
         private int[] integralCount = new int[0];
+        private int brightPixelCount;
 
         public BloomPass(int radius, double strength, double threshold) {
             this.radius = Math.max(1, Math.min(4, radius));
@@ -752,19 +1093,33 @@ public final class PipelineDisplayShader implements DisplayShader {
         }
 
         @Override
-        public void apply(int[] source, int[] target, int width, int height) {
+        public int haloRows() {
+            return radius;
+        }
+
+        // Rows outside a band only reach its window sums through both corners
+        // of each region, so stale rows cancel out of the integral exactly.
+        @Override
+        public void prepareRows(int[] source, int width, int height) {
+            brightPixelCount = 0;
             if (glowScale256 <= 0) {
-                System.arraycopy(source, 0, target, 0, source.length);
                 return;
             }
 
             int stride = width + 1;
             ensureIntegralCapacity(stride, height + 1);
-            if (buildIntegralBuffers(source, width, height, stride) == 0) {
-                System.arraycopy(source, 0, target, 0, source.length);
+            brightPixelCount = buildIntegralBuffers(source, width, height, stride);
+        }
+
+        @Override
+        public void applyRows(int[] source, int[] target, int width, int height, int startRow, int endRow) {
+            if (brightPixelCount == 0) {
+                copyRows(source, target, width, startRow, endRow);
                 return;
             }
-            for (int y = 0; y < height; y++) {
+
+            int stride = width + 1;
+            for (int y = startRow; y < endRow; y++) {
                 int rowOffset = y * width;
                 int minY = Math.max(0, y - radius);
                 int maxY = Math.min(height - 1, y + radius);
@@ -852,7 +1207,7 @@ public final class PipelineDisplayShader implements DisplayShader {
     /**
      * Shifts the red and blue samples for a light chromatic split.
      */
-    public static final class RgbShiftPass implements ShaderPass {
+    public static final class RgbShiftPass extends RowBandPass {
         private final int redX;
         private final int redY;
         private final int blueX;
@@ -868,8 +1223,13 @@ public final class PipelineDisplayShader implements DisplayShader {
         }
 
         @Override
-        public void apply(int[] source, int[] target, int width, int height) {
-            for (int y = 0; y < height; y++) {
+        public int haloRows() {
+            return Math.max(Math.abs(redY), Math.abs(blueY));
+        }
+
+        @Override
+        public void applyRows(int[] source, int[] target, int width, int height, int startRow, int endRow) {
+            for (int y = startRow; y < endRow; y++) {
                 int rowOffset = y * width;
                 for (int x = 0; x < width; x++) {
                     int baseRgb = source[rowOffset + x];
@@ -885,36 +1245,27 @@ public final class PipelineDisplayShader implements DisplayShader {
     /**
      * Applies simple brightness, contrast, saturation, and warmth grading.
      */
-    public static final class ColorGradePass implements ShaderPass {
-        private final double brightness;
-        private final double contrast;
-        private final double saturation;
-        private final double warmth;
+    public static final class ColorGradePass extends PointwisePass {
+        private final PixelKernels.ColorGrade grade;
 
         public ColorGradePass(double brightness, double contrast, double saturation, double warmth) {
-            this.brightness = clamp(brightness, -1.0, 1.0);
-            this.contrast = clamp(contrast, 0.2, 2.5);
-            this.saturation = clamp(saturation, 0.0, 2.5);
-            this.warmth = clamp(warmth, -1.0, 1.0);
+            this.grade = new PixelKernels.ColorGrade(
+                    clamp(brightness, -1.0, 1.0),
+                    clamp(contrast, 0.2, 2.5),
+                    clamp(saturation, 0.0, 2.5),
+                    clamp(warmth, -1.0, 1.0));
         }
 
         @Override
-        public void apply(int[] source, int[] target, int width, int height) {
-            double brightnessOffset = brightness * 255.0;
-            for (int index = 0; index < source.length; index++) {
-                int rgb = source[index];
-                double red = ((red(rgb) - 127.5) * contrast) + 127.5 + brightnessOffset + (warmth * 36.0);
-                double green = ((green(rgb) - 127.5) * contrast) + 127.5 + brightnessOffset + (warmth * 8.0);
-                double blue = ((blue(rgb) - 127.5) * contrast) + 127.5 + brightnessOffset - (warmth * 40.0);
-                double grayscale = (red * 0.299) + (green * 0.587) + (blue * 0.114);
-                target[index] = compose(
-                        clampChannel((int) Math.round(grayscale + ((red - grayscale) * saturation))),
-                        clampChannel((int) Math.round(grayscale + ((green - grayscale) * saturation))),
-                        clampChannel((int) Math.round(grayscale + ((blue - grayscale) * saturation))));
-            }
+        protected void shadeRow(int[] source, int[] target, int rowOffset, int width, int y) {
+            PixelKernels.gradeRow(source, target, rowOffset, width, grade);
         }
     }
 
+    private static void copyRows(int[] source, int[] target, int width, int startRow, int endRow) {
+        System.arraycopy(source, startRow * width, target, startRow * width, (endRow - startRow) * width);
+    }
+
     private static int sampleIndex(int x, int y, int width, int height) {
         int clampedX = Math.max(0, Math.min(width - 1, x));
         int clampedY = Math.max(0, Math.min(height - 1, y));
@@ -929,19 +1280,6 @@ public final class PipelineDisplayShader implements DisplayShader {
                 clampChannel((int) Math.round((blue(rgbA) * (1.0 - clampedMix)) + (blue(rgbB) * clampedMix))));
     }
 
-    private static int scaleRgb256(int rgb, int factor256) {
-        if (factor256 >= 256) {
-            return rgb & 0xFFFFFF;
-        }
-        if (factor256 <= 0) {
-            return 0;
-        }
-        return compose(
-                (red(rgb) * factor256 + 128) >> 8,
-                (green(rgb) * factor256 + 128) >> 8,
-                (blue(rgb) * factor256 + 128) >> 8);
-    }
-
     private static int regionSum(int[] integral, int stride, int minX, int minY, int maxX, int maxY) {
         int x0 = minX;
         int y0 = minY;
@@ -0,0 +1,166 @@
+package com.blackaby.Frontend.Shaders;
+
+/**
+ * Row kernels for the per-pixel loops that run on every presented frame:
+ * scaling colours by a factor, colour grading and blending two frames.
+ * <p>
+ * When the {@code jdk.incubator.vector} module is resolved at startup, which
+ * takes {@code --add-modules jdk.incubator.vector}, the kernels run on the
+ * Vector API. Otherwise they run in plain Java. The choice is made once, when
+ * this class loads, and both versions give the same output.
+ */
+public final class PixelKernels {
+
+    private static final String vectorModuleName = "jdk.incubator.vector";
+    private static final boolean vectorKernels = loadVectorKernels();
+
+    private PixelKernels() {
+    }
+
+    /**
+     * Returns whether the kernels run on the Vector API.
+     *
+     * @return {@code true} when the vector module is available
+     */
+    public static boolean isVectorized() {
+        return vectorKernels;
+    }
+
+    /**
+     * Scales the colour channels of a run of pixels by one factor, rounding
+     * each channel to the nearest level. The alpha byte is cleared.
+     * {@code source} and {@code target} may be the same array.
+     *
+     * @param source    source pixels
+     * @param target    output pixels
+     * @param offset    index of the first pixel
+     * @param length    number of pixels
+     * @param factor256 scale factor in 256ths, from 0 to 256
+     */
+    public static void scaleRow(int[] source, int[] target, int offset, int length, int factor256) {
+        if (vectorKernels) {
+            VectorPixelKernels.scaleRow(source, target, offset, length, factor256);
+        } else {
+            ScalarPixelKernels.scaleRow(source, target, offset, length, factor256);
+        }
+    }
+
+    /**
+     * Scales the colour channels of a run of pixels by a factor per pixel.
+     *
+     * @param source       source pixels
+     * @param target       output pixels
+     * @param offset       index of the first pixel
+     * @param length       number of pixels
+     * @param factors256   scale factors in 256ths, from 0 to 256
+     * @param factorOffset index of the first pixel's factor
+     */
+    public static void scaleRow(int[] source, int[] target, int offset, int length, int[] factors256,
+            int factorOffset) {
+        if (vectorKernels) {
+            VectorPixelKernels.scaleRow(source, target, offset, length, factors256, factorOffset);
+        } else {
+            ScalarPixelKernels.scaleRow(source, target, offset, length, factors256, factorOffset);
+        }
+    }
+
+    /**
+     * Colour grades a run of pixels.
+     *
+     * @param source source pixels
+     * @param target output pixels
+     * @param offset index of the first pixel
+     * @param length number of pixels
+     * @param grade  grading settings
+     */
+    public static void gradeRow(int[] source, int[] target, int offset, int length, ColorGrade grade) {
+        if (vectorKernels) {
+            VectorPixelKernels.gradeRow(source, target, offset, length, grade);
+        } else {
+            ScalarPixelKernels.gradeRow(source, target, offset, length, grade);
+        }
+    }
+
+    /**
+     * Blends a run of pixels into the previous frame in place, rounding each
+     * channel down. Weights that add up to a power of two no larger than 256,
+     * as the DMG and CGB persistence weights do, divide with a shift; any
+     * other weights take a per-channel divide.
+     *
+     * @param previous       previous frame, overwritten with the blend
+     * @param current        current frame
+     * @param offset         index of the first pixel
+     * @param length         number of pixels
+     * @param previousWeight blend weight for the previous frame, above zero
+     * @param currentWeight  blend weight for the current frame, above zero
+     * @return whether any pixel of {@code previous} changed
+     */
+    public static boolean blendRow(int[] previous, int[] current, int offset, int length, int previousWeight,
+            int currentWeight) {
+        if (vectorKernels) {
+            return VectorPixelKernels.blendRow(previous, current, offset, length, previousWeight, currentWeight);
+        }
+        return ScalarPixelKernels.blendRow(previous, current, offset, length, previousWeight, currentWeight);
+    }
+
+    static boolean isShiftBlend(int previousWeight, int currentWeight) {
+        int totalWeight = previousWeight + currentWeight;
+        return Integer.bitCount(totalWeight) == 1 && totalWeight <= 256;
+    }
+
+    // The vector class is only touched once the module is known to be in the
+    // boot layer, so without it nothing that names the Vector API is loaded.
+    private static boolean loadVectorKernels() {
+        if (ModuleLayer.boot().findModule(vectorModuleName).isEmpty()) {
+            return false;
+        }
+        try {
+            int[] probe = new int[1];
+            VectorPixelKernels.scaleRow(probe, probe, 0, probe.length, 256);
+            return true;
+        } catch (LinkageError error) {
+            return false;
+        }
+    }
+
+    /**
+     * Brightness, contrast, saturation and warmth settings for
+     * {@link #gradeRow}, with the per-level channel values worked out up front.
+     */
+    public static final class ColorGrade {
+        final double contrast;
+        final double brightnessOffset;
+        final double saturation;
+        final double redWarmth;
+        final double greenWarmth;
+        final double blueWarmth;
+        final double[] redLevels = new double[256];
+        final double[] greenLevels = new double[256];
+        final double[] blueLevels = new double[256];
+
+        /**
+         * Creates grading settings. Values are used as given, so callers
+         * clamp them first.
+         *
+         * @param brightness brightness shift from -1 to 1
+         * @param contrast   contrast multiplier
+         * @param saturation saturation multiplier
+         * @param warmth     warmth shift from -1 to 1
+         */
+        public ColorGrade(double brightness, double contrast, double saturation, double warmth) {
+            this.contrast = contrast;
+            this.brightnessOffset = brightness * 255.0;
+            this.saturation = saturation;
+            this.redWarmth = warmth * 36.0;
+            this.greenWarmth = warmth * 8.0;
+            this.blueWarmth = -(warmth * 40.0);
+
+            for (int level = 0; level < 256; level++) {
+                double contrasted = ((level - 127.5) * contrast) + 127.5 + brightnessOffset;
+                redLevels[level] = contrasted + redWarmth;
+                greenLevels[level] = contrasted + greenWarmth;
+                blueLevels[level] = contrasted + blueWarmth;
+            }
+        }
+    }
+}
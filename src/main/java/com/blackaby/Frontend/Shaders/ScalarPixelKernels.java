@@ -0,0 +1,104 @@
+package com.blackaby.Frontend.Shaders;
+
+/**
+ * Plain Java versions of the {@link PixelKernels} row kernels, used when the
+ * vector module is not available.
+ * <p>
+ * The scale and blend kernels work on packed lanes: red and blue share one
+ * multiply and green takes another, with enough headroom in each lane that
+ * the result matches working on every channel on its own. The loops have no
+ * branches, so C2 can still vectorise some of them by itself.
+ */
+final class ScalarPixelKernels {
+
+    private ScalarPixelKernels() {
+    }
+
+    static void scaleRow(int[] source, int[] target, int offset, int length, int factor256) {
+        int end = offset + length;
+        for (int index = offset; index < end; index++) {
+            target[index] = scaleRgb256(source[index], factor256);
+        }
+    }
+
+    static void scaleRow(int[] source, int[] target, int offset, int length, int[] factors256, int factorOffset) {
+        for (int index = 0; index < length; index++) {
+            target[offset + index] = scaleRgb256(source[offset + index], factors256[factorOffset + index]);
+        }
+    }
+
+    static void gradeRow(int[] source, int[] target, int offset, int length, PixelKernels.ColorGrade grade) {
+        double[] redLevels = grade.redLevels;
+        double[] greenLevels = grade.greenLevels;
+        double[] blueLevels = grade.blueLevels;
+        double saturation = grade.saturation;
+        int end = offset + length;
+        for (int index = offset; index < end; index++) {
+            int rgb = source[index];
+            double red = redLevels[(rgb >> 16) & 0xFF];
+            double green = greenLevels[(rgb >> 8) & 0xFF];
+            double blue = blueLevels[rgb & 0xFF];
+            double grayscale = (red * 0.299) + (green * 0.587) + (blue * 0.114);
+            target[index] = (roundChannel(grayscale + ((red - grayscale) * saturation)) << 16)
+                    | (roundChannel(grayscale + ((green - grayscale) * saturation)) << 8)
+                    | roundChannel(grayscale + ((blue - grayscale) * saturation));
+        }
+    }
+
+    static boolean blendRow(int[] previous, int[] current, int offset, int length, int previousWeight,
+            int currentWeight) {
+        int end = offset + length;
+        int changedBits = 0;
+        if (!PixelKernels.isShiftBlend(previousWeight, currentWeight)) {
+            for (int index = offset; index < end; index++) {
+                int blended = blendRgb(previous[index], current[index], previousWeight, currentWeight);
+                changedBits |= blended ^ previous[index];
+                previous[index] = blended;
+            }
+            return changedBits != 0;
+        }
+
+        int shift = Integer.numberOfTrailingZeros(previousWeight + currentWeight);
+        for (int index = offset; index < end; index++) {
+            int previousRgb = previous[index];
+            int blended = blendRgb(previousRgb, current[index], previousWeight, currentWeight, shift);
+            changedBits |= blended ^ previousRgb;
+            previous[index] = blended;
+        }
+        return changedBits != 0;
+    }
+
+    static int scaleRgb256(int rgb, int factor256) {
+        int redBlue = (((rgb & 0xFF00FF) * factor256 + 0x800080) >>> 8) & 0xFF00FF;
+        int green = (((rgb & 0x00FF00) * factor256 + 0x008000) >>> 8) & 0x00FF00;
+        return redBlue | green;
+    }
+
+    static int blendRgb(int previousRgb, int currentRgb, int previousWeight, int currentWeight, int shift) {
+        int redBlue = ((previousRgb & 0xFF00FF) * previousWeight
+                + (currentRgb & 0xFF00FF) * currentWeight) >>> shift;
+        int green = ((previousRgb & 0x00FF00) * previousWeight
+                + (currentRgb & 0x00FF00) * currentWeight) >>> shift;
+        return (redBlue & 0xFF00FF) | (green & 0x00FF00);
+    }
+
+    private static int blendRgb(int previousRgb, int currentRgb, int previousWeight, int currentWeight) {
+        int previousRed = (previousRgb >> 16) & 0xFF;
+        int previousGreen = (previousRgb >> 8) & 0xFF;
+        int previousBlue = previousRgb & 0xFF;
+
+        int currentRed = (currentRgb >> 16) & 0xFF;
+        int currentGreen = (currentRgb >> 8) & 0xFF;
+        int currentBlue = currentRgb & 0xFF;
+
+        int totalWeight = Math.max(1, previousWeight + currentWeight);
+        int blendedRed = ((previousRed * previousWeight) + (currentRed * currentWeight)) / totalWeight;
+        int blendedGreen = ((previousGreen * previousWeight) + (currentGreen * currentWeight)) / totalWeight;
+        int blendedBlue = ((previousBlue * previousWeight) + (currentBlue * currentWeight)) / totalWeight;
+        return (blendedRed << 16) | (blendedGreen << 8) | blendedBlue;
+    }
+
+    private static int roundChannel(double value) {
+        return Math.max(0, Math.min(255, (int) Math.round(value)));
+    }
+}
@@ -0,0 +1,147 @@
+package com.blackaby.Frontend.Shaders;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API versions of the {@link PixelKernels} row kernels.
+ * <p>
+ * Every kernel works on a whole vector of pixels at a time and gives the
+ * same output as {@link ScalarPixelKernels}. The pixels left over at the end
+ * of a row, fewer than one vector's worth, go through the scalar code. This class refers to {@code jdk.incubator.vector}
+ * directly, so only {@link PixelKernels} may load it, after it has checked
+ * that the module is present.
+ */
+final class VectorPixelKernels {
+
+    private static final VectorSpecies<Integer> pixelSpecies = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> gradeSpecies = DoubleVector.SPECIES_PREFERRED;
+    // Colour grading works in doubles, so it reads as many pixels as fit in
+    // one double vector, from an int vector half its width.
+    private static final VectorSpecies<Integer> gradePixelSpecies = VectorSpecies.of(int.class,
+            VectorShape.forBitSize(gradeSpecies.vectorBitSize() / 2));
+    private static final double doubleIntegerBias = 0x1.0p52;
+
+    private VectorPixelKernels() {
+    }
+
+    static void scaleRow(int[] source, int[] target, int offset, int length, int factor256) {
+        int vectorEnd = pixelSpecies.loopBound(length);
+        int index = 0;
+        for (; index < vectorEnd; index += pixelSpecies.length()) {
+            IntVector rgb = IntVector.fromArray(pixelSpecies, source, offset + index);
+            IntVector redBlue = rgb.and(0xFF00FF).mul(factor256).add(0x800080)
+                    .lanewise(VectorOperators.LSHR, 8).and(0xFF00FF);
+            IntVector green = rgb.and(0x00FF00).mul(factor256).add(0x008000)
+                    .lanewise(VectorOperators.LSHR, 8).and(0x00FF00);
+            redBlue.or(green).intoArray(target, offset + index);
+        }
+        ScalarPixelKernels.scaleRow(source, target, offset + index, length - index, factor256);
+    }
+
+    static void scaleRow(int[] source, int[] target, int offset, int length, int[] factors256, int factorOffset) {
+        int vectorEnd = pixelSpecies.loopBound(length);
+        int index = 0;
+        for (; index < vectorEnd; index += pixelSpecies.length()) {
+            IntVector rgb = IntVector.fromArray(pixelSpecies, source, offset + index);
+            IntVector factor256 = IntVector.fromArray(pixelSpecies, factors256, factorOffset + index);
+            IntVector redBlue = rgb.and(0xFF00FF).mul(factor256).add(0x800080)
+                    .lanewise(VectorOperators.LSHR, 8).and(0xFF00FF);
+            IntVector green = rgb.and(0x00FF00).mul(factor256).add(0x008000)
+                    .lanewise(VectorOperators.LSHR, 8).and(0x00FF00);
+            redBlue.or(green).intoArray(target, offset + index);
+        }
+        ScalarPixelKernels.scaleRow(source, target, offset + index, length - index, factors256,
+                factorOffset + index);
+    }
+
+    // Computes each channel level the same way, in the same order, as the
+    // scalar lookup tables were built, so the doubles match bit for bit.
+    //
+    // Graded values are rounded half up like Math.round without leaving
+    // doubles: adding and removing 2^52 rounds to the nearest whole number
+    // with ties going to even, so only a tie left below the value needs
+    // stepping up. The rounding is written out per channel rather than in a
+    // helper because C2 stops inlining helpers in a body this large, and a
+    // vector passed to a call that is not inlined gets boxed.
+    static void gradeRow(int[] source, int[] target, int offset, int length, PixelKernels.ColorGrade grade) {
+        int vectorEnd = gradePixelSpecies.loopBound(length);
+        int index = 0;
+        for (; index < vectorEnd; index += gradePixelSpecies.length()) {
+            IntVector rgb = IntVector.fromArray(gradePixelSpecies, source, offset + index);
+            DoubleVector red = level(rgb.lanewise(VectorOperators.LSHR, 16).and(0xFF), grade, grade.redWarmth);
+            DoubleVector green = level(rgb.lanewise(VectorOperators.LSHR, 8).and(0xFF), grade, grade.greenWarmth);
+            DoubleVector blue = level(rgb.and(0xFF), grade, grade.blueWarmth);
+            DoubleVector grayscale = red.mul(0.299).add(green.mul(0.587)).add(blue.mul(0.114));
+
+            DoubleVector gradedRed = grayscale.add(red.sub(grayscale).mul(grade.saturation));
+            DoubleVector gradedGreen = grayscale.add(green.sub(grayscale).mul(grade.saturation));
+            DoubleVector gradedBlue = grayscale.add(blue.sub(grayscale).mul(grade.saturation));
+            DoubleVector nearestRed = gradedRed.add(doubleIntegerBias).sub(doubleIntegerBias);
+            DoubleVector nearestGreen = gradedGreen.add(doubleIntegerBias).sub(doubleIntegerBias);
+            DoubleVector nearestBlue = gradedBlue.add(doubleIntegerBias).sub(doubleIntegerBias);
+            DoubleVector roundedRed = nearestRed
+                    .add(1.0, gradedRed.sub(nearestRed).compare(VectorOperators.EQ, 0.5))
+                    .max(0.0).min(255.0);
+            DoubleVector roundedGreen = nearestGreen
+                    .add(1.0, gradedGreen.sub(nearestGreen).compare(VectorOperators.EQ, 0.5))
+                    .max(0.0).min(255.0);
+            DoubleVector roundedBlue = nearestBlue
+                    .add(1.0, gradedBlue.sub(nearestBlue).compare(VectorOperators.EQ, 0.5))
+                    .max(0.0).min(255.0);
+
+            // Packing the whole-number channels into one double and adding
+            // 2^52 leaves the packed pixel in the low 32 bits of its bit
+            // pattern, which avoids a double to int conversion that JDK 17
+            // does not compile to vector code.
+            DoubleVector packed = roundedRed.mul(65536.0).add(roundedGreen.mul(256.0)).add(roundedBlue);
+            ((IntVector) packed.add(doubleIntegerBias).reinterpretAsLongs()
+                    .convertShape(VectorOperators.L2I, gradePixelSpecies, 0))
+                    .intoArray(target, offset + index);
+        }
+        ScalarPixelKernels.gradeRow(source, target, offset + index, length - index, grade);
+    }
+
+    static boolean blendRow(int[] previous, int[] current, int offset, int length, int previousWeight,
+            int currentWeight) {
+        if (!PixelKernels.isShiftBlend(previousWeight, currentWeight)) {
+            return ScalarPixelKernels.blendRow(previous, current, offset, length, previousWeight, currentWeight);
+        }
+
+        int shift = Integer.numberOfTrailingZeros(previousWeight + currentWeight);
+        int vectorEnd = pixelSpecies.loopBound(length);
+        IntVector changedBits = IntVector.zero(pixelSpecies);
+        int index = 0;
+        for (; index < vectorEnd; index += pixelSpecies.length()) {
+            IntVector previousRgb = IntVector.fromArray(pixelSpecies, previous, offset + index);
+            IntVector currentRgb = IntVector.fromArray(pixelSpecies, current, offset + index);
+            IntVector redBlue = previousRgb.and(0xFF00FF).mul(previousWeight)
+                    .add(currentRgb.and(0xFF00FF).mul(currentWeight))
+                    .lanewise(VectorOperators.LSHR, shift).and(0xFF00FF);
+            IntVector green = previousRgb.and(0x00FF00).mul(previousWeight)
+                    .add(currentRgb.and(0x00FF00).mul(currentWeight))
+                    .lanewise(VectorOperators.LSHR, shift).and(0x00FF00);
+            IntVector blended = redBlue.or(green);
+            changedBits = changedBits.or(blended.lanewise(VectorOperators.XOR, previousRgb));
+            blended.intoArray(previous, offset + index);
+        }
+
+        int tailBits = 0;
+        for (; index < length; index++) {
+            int previousRgb = previous[offset + index];
+            int blended = ScalarPixelKernels.blendRgb(previousRgb, current[offset + index], previousWeight,
+                    currentWeight, shift);
+            tailBits |= blended ^ previousRgb;
+            previous[offset + index] = blended;
+        }
+        return (changedBits.reduceLanes(VectorOperators.OR) | tailBits) != 0;
+    }
+
+    private static DoubleVector level(IntVector channel, PixelKernels.ColorGrade grade, double warmthOffset) {
+        DoubleVector level = (DoubleVector) channel.convertShape(VectorOperators.I2D, gradeSpecies, 0);
+        return level.sub(127.5).mul(grade.contrast).add(127.5).add(grade.brightnessOffset).add(warmthOffset);
+    }
+}
@@ -0,0 +1,94 @@
+package com.blackaby.Frontend;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free triple buffer for handing whole frames from exactly one producer
+ * thread to exactly one consumer thread.
+ * <p>
+ * The producer fills its own slot and publishes it by swapping it with the
+ * shared middle slot, and the consumer takes the middle slot the same way.
+ * Each swap is one atomic exchange, so neither side ever waits for the other.
+ * When the producer publishes again before the consumer has taken the last
+ * frame, the older frame is dropped and its slot goes back to the producer.
+ *
+ * @param <T> mutable frame held in each slot
+ */
+public final class TripleBuffer<T> {
+
+    private static final int indexMask = 0x3;
+    private static final int freshBit = 0x4;
+
+    private final Object[] slots = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int writeIndex;
+    private int readIndex = 2;
+
+    /**
+     * Creates a triple buffer with three slots from the given factory.
+     *
+     * @param slotFactory creates the frame held in each slot
+     */
+    public TripleBuffer(Supplier<T> slotFactory) {
+        if (slotFactory == null) {
+            throw new IllegalArgumentException("A triple buffer needs a slot factory.");
+        }
+        for (int index = 0; index < slots.length; index++) {
+            slots[index] = slotFactory.get();
+        }
+    }
+
+    /**
+     * Returns the slot the producer may fill. It stays the same until the next
+     * {@link #Publish()}.
+     *
+     * @return producer-owned slot
+     */
+    @SuppressWarnings("unchecked")
+    public T WriteSlot() {
+        return (T) slots[writeIndex];
+    }
+
+    /**
+     * Hands the filled slot to the consumer. Only the producer thread may call
+     * this.
+     */
+    public void Publish() {
+        writeIndex = middle.getAndSet(writeIndex | freshBit) & indexMask;
+    }
+
+    /**
+     * Takes the newest published slot if there is one. Only the consumer thread
+     * may call this.
+     *
+     * @return {@code true} when {@link #ReadSlot()} now holds a newer frame
+     */
+    public boolean Acquire() {
+        if ((middle.get() & freshBit) == 0) {
+            return false;
+        }
+        readIndex = middle.getAndSet(readIndex) & indexMask;
+        return true;
+    }
+
+    /**
+     * Returns the slot the consumer took last. It stays the same until the next
+     * {@link #Acquire()} that returns {@code true}.
+     *
+     * @return consumer-owned slot
+     */
+    @SuppressWarnings("unchecked")
+    public T ReadSlot() {
+        return (T) slots[readIndex];
+    }
+
+    /**
+     * Returns whether a published slot is waiting for the consumer.
+     *
+     * @return {@code true} when {@link #Acquire()} would take a newer frame
+     */
+    public boolean HasFreshSlot() {
+        return (middle.get() & freshBit) != 0;
+    }
+}
@@ -41,6 +41,7 @@ public final class Config {
     private static final String controllerPreferredIdKey = "controller.preferred_id";
     private static final String controllerDeadzoneKey = "controller.deadzone_percent";
     private static final String soundEnabledKey = "sound.enabled";
+    private static final String soundClockPacingKey = "sound.clock_pacing";
     private static final String soundVolumeKey = "sound.volume";
     private static final String soundChannelMutedPrefix = "sound.channel.muted.";
     private static final String soundChannelVolumePrefix = "sound.channel.volume.";
@@ -499,6 +500,7 @@ public final class Config {
     private static void ApplySoundSettings() {
         Settings.ResetSound();
         Settings.soundEnabled = Boolean.parseBoolean(properties.getProperty(soundEnabledKey, "true"));
+        Settings.audioClockPacing = Boolean.parseBoolean(properties.getProperty(soundClockPacingKey, "false"));
         try {
             int configuredVolume = Integer.parseInt(properties.getProperty(soundVolumeKey, "100"));
             Settings.masterVolume = Math.max(0, Math.min(100, configuredVolume));
@@ -628,6 +630,7 @@ public final class Config {
 
     private static void SyncSoundSettings() {
         properties.setProperty(soundEnabledKey, String.valueOf(Settings.soundEnabled));
+        properties.setProperty(soundClockPacingKey, String.valueOf(Settings.audioClockPacing));
         properties.setProperty(soundVolumeKey, String.valueOf(Settings.masterVolume));
         for (int channelIndex = 0; channelIndex < 4; channelIndex++) {
             properties.setProperty(soundChannelMutedPrefix + channelIndex,
@@ -105,6 +105,9 @@ public final class Settings {
     /** Whether host audio output is enabled. */
     public static boolean soundEnabled = true;
 
+    /** Whether emulation speed follows the host audio device clock. */
+    public static boolean audioClockPacing = false;
+
     /** Master output volume as a percentage from 0 to 100. */
     public static int masterVolume = 100;
 
@@ -281,6 +284,7 @@ public final class Settings {
      */
     public static void ResetSound() {
         soundEnabled = true;
+        audioClockPacing = false;
         masterVolume = 100;
         channelMuted = new boolean[] { false, false, false, false };
         channelVolume = new int[] { 100, 100, 100, 100 };
@@ -844,12 +844,13 @@ public final class UiText {
         // Sound tab: playback and channel mixer.
         // -----------------------------------------------------------------
         public static final String PLAYBACK_TITLE = "Playback";
-        public static final String PLAYBACK_HELPER = "Enable or Disable audio from the APU";
+        public static final String PLAYBACK_HELPER = "Enable or Disable audio from the APU, or let the sound card set the pace";
         public static final String MASTER_VOLUME_TITLE = "Master Volume";
         public static final String MASTER_VOLUME_HELPER = "Applies to all four Game Boy audio channels";
         public static final String CHANNEL_MIXER_TITLE = "Channel Mixer";
         public static final String CHANNEL_MIXER_HELPER = "Mute and trim each Game Boy voice";
         public static final String SOUND_ENABLED_CHECKBOX = "Enable Sound";
+        public static final String AUDIO_CLOCK_PACING_CHECKBOX = "Pace To Audio";
         public static final String MUTE_CHECKBOX = "Mute";
         public static final String QUIET_LABEL = "Quiet";
         public static final String LOUD_LABEL = "Loud";
@@ -0,0 +1,142 @@
+package com.blackaby.Backend.Emulation.CPU;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blackaby.Backend.Emulation.TestSupport.EmulatorTestUtils;
+import com.blackaby.Backend.Emulation.TestSupport.EmulatorTestUtils.CpuHarness;
+
+/**
+ * Measures raw fetch, decode and execute throughput of the CPU core.
+ * <p>
+ * The program is a fixed pseudo-random mix of loads, ALU operations, 16-bit
+ * increments, immediates and CB-prefixed operations that loops forever and
+ * never touches IO, so the numbers reflect instruction dispatch rather than
+ * PPU or APU work. {@code codeRegion} runs the same program from ROM, where
+ * the block cache serves decoded instructions, and from work RAM, where every
+ * opcode and operand is read from the bus.
+ * <p>
+ * Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=DuckCpuBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DuckCpuBenchmark {
+
+    private static final int instructionsPerInvocation = 10_000;
+    private static final int programSize = 0x700;
+    private static final int romCodeBase = 0x0150;
+    private static final int workRamCodeBase = 0xD000;
+
+    @Param({ "rom", "wram" })
+    public String codeRegion;
+
+    private CpuHarness harness;
+
+    @Setup
+    public void Setup() {
+        boolean fromWorkRam = "wram".equals(codeRegion);
+        int codeBase = fromWorkRam ? workRamCodeBase : romCodeBase;
+        byte[] code = BuildInstructionMix(codeBase);
+
+        byte[] program = new byte[romCodeBase - 0x0100 + code.length];
+        if (!fromWorkRam) {
+            System.arraycopy(code, 0, program, romCodeBase - 0x0100, code.length);
+        }
+        harness = EmulatorTestUtils.CreateCpuHarness(program);
+        if (fromWorkRam) {
+            for (int index = 0; index < code.length; index++) {
+                harness.memory.Write(codeBase + index, code[index] & 0xFF);
+            }
+        }
+        harness.cpu.SetPC(codeBase);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(instructionsPerInvocation)
+    public int executeInstructionMix() {
+        int cycles = 0;
+        for (int instruction = 0; instruction < instructionsPerInvocation; instruction++) {
+            cycles += harness.StepInstruction();
+        }
+        return cycles;
+    }
+
+    /**
+     * Builds the looping instruction mix at a code address.
+     * <p>
+     * HL and SP are pointed at scratch work RAM below the code, and nothing in
+     * the mix writes H, so memory operands through HL stay inside that page.
+     * Jumps, calls, stack operations, HALT and STOP are left out so the loop
+     * runs the same instruction sequence every time round.
+     */
+    private static byte[] BuildInstructionMix(int codeBase) {
+        Random random = new Random(7);
+        byte[] code = new byte[programSize + 16];
+        int index = 0;
+        code[index++] = 0x21;
+        code[index++] = 0x00;
+        code[index++] = (byte) 0xC0;
+        code[index++] = 0x31;
+        code[index++] = (byte) 0xF0;
+        code[index++] = (byte) 0xCF;
+        int loopAddress = codeBase + index;
+
+        while (index < programSize) {
+            int opcode = random.nextInt(256);
+            if (!IsBenchmarkOpcode(opcode)) {
+                continue;
+            }
+            code[index++] = (byte) opcode;
+            if (opcode == 0xCB) {
+                int cbOpcode = random.nextInt(256);
+                if ((cbOpcode & 7) == 4) {
+                    cbOpcode |= 1;
+                }
+                code[index++] = (byte) cbOpcode;
+            } else if ((opcode & 0xC7) == 0x06 || (opcode & 0xC7) == 0xC6) {
+                code[index++] = (byte) random.nextInt(256);
+            }
+        }
+
+        code[index++] = (byte) 0xC3;
+        code[index++] = (byte) loopAddress;
+        code[index++] = (byte) (loopAddress >> 8);
+        return code;
+    }
+
+    private static boolean IsBenchmarkOpcode(int opcode) {
+        int x = opcode >> 6;
+        int y = (opcode >> 3) & 7;
+        int z = opcode & 7;
+        boolean supported = (x == 1 && opcode != 0x76)
+                || x == 2
+                || (x == 0 && z >= 3)
+                || (x == 3 && z == 6)
+                || opcode == 0xCB;
+        return supported && !WritesH(x, y, z);
+    }
+
+    private static boolean WritesH(int x, int y, int z) {
+        return (x == 1 && y == 4)
+                || (x == 0 && (z == 4 || z == 5 || z == 6) && y == 4)
+                || (x == 0 && z == 3 && (y >> 1) >= 2);
+    }
+}
@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
 import com.blackaby.Backend.Emulation.Memory.DuckAddresses;
+import com.blackaby.Backend.Emulation.Misc.ROM;
 import com.blackaby.Backend.Emulation.TestSupport.EmulatorTestUtils;
 import com.blackaby.Backend.Emulation.TestSupport.EmulatorTestUtils.CpuHarness;
 
@@ -95,4 +96,111 @@ class DuckCpuIntegrationTest {
         assertEquals(0x0102, harness.cpu.GetPC());
         assertFalse(harness.cpu.IsHalted());
     }
+
+    @Test
+    void independentCoresDoNotShareInstructionState() {
+        CpuHarness first = EmulatorTestUtils.CreateCpuHarness(new byte[] {
+                (byte) 0x3E, 0x11,
+                (byte) 0xEA, 0x00, (byte) 0xC0,
+                0x76
+        });
+        CpuHarness second = EmulatorTestUtils.CreateCpuHarness(new byte[] {
+                (byte) 0x3E, 0x22,
+                (byte) 0xEA, 0x00, (byte) 0xC0,
+                0x76
+        });
+
+        for (int step = 0; step < 3; step++) {
+            first.StepInstruction();
+            second.StepInstruction();
+        }
+
+        assertEquals(0x11, first.memory.Read(0xC000));
+        assertEquals(0x22, second.memory.Read(0xC000));
+        assertTrue(first.cpu.IsHalted());
+        assertTrue(second.cpu.IsHalted());
+    }
+
+    @Test
+    void cachedRomCodeFollowsBankSwitches() {
+        byte[] romBytes = EmulatorTestUtils.CreateBlankRom(0x01, 4, 0x00, 0x00, "banked.gb", "banked").ToByteArray();
+        byte[] program = {
+                (byte) 0x3E, 0x01,
+                (byte) 0xEA, 0x00, 0x20,
+                (byte) 0xCD, 0x00, 0x40,
+                0x47,
+                (byte) 0x3E, 0x02,
+                (byte) 0xEA, 0x00, 0x20,
+                (byte) 0xCD, 0x00, 0x40,
+                0x76
+        };
+        System.arraycopy(program, 0, romBytes, 0x0100, program.length);
+        System.arraycopy(new byte[] { 0x3E, 0x11, (byte) 0xC9 }, 0, romBytes, 0x4000, 3);
+        System.arraycopy(new byte[] { 0x3E, 0x22, (byte) 0xC9 }, 0, romBytes, 0x8000, 3);
+        CpuHarness harness = EmulatorTestUtils.CreateCpuHarness(ROM.FromBytes("banked.gb", romBytes, "banked"));
+
+        RunUntilHalted(harness);
+
+        assertEquals(0x11, harness.cpu.GetRegister(DuckCPU.Register.B));
+        assertEquals(0x22, harness.cpu.GetAccumulator());
+    }
+
+    @Test
+    void codeRewrittenInWorkRamRunsItsNewBytes() {
+        CpuHarness harness = EmulatorTestUtils.CreateCpuHarness(new byte[] {
+                (byte) 0x3E, 0x3E,
+                (byte) 0xEA, 0x00, (byte) 0xC0,
+                (byte) 0x3E, 0x11,
+                (byte) 0xEA, 0x01, (byte) 0xC0,
+                (byte) 0x3E, (byte) 0xC9,
+                (byte) 0xEA, 0x02, (byte) 0xC0,
+                (byte) 0xCD, 0x00, (byte) 0xC0,
+                0x47,
+                (byte) 0x3E, 0x22,
+                (byte) 0xEA, 0x01, (byte) 0xC0,
+                (byte) 0xCD, 0x00, (byte) 0xC0,
+                0x76
+        });
+
+        RunUntilHalted(harness);
+
+        assertEquals(0x11, harness.cpu.GetRegister(DuckCPU.Register.B));
+        assertEquals(0x22, harness.cpu.GetAccumulator());
+    }
+
+    @Test
+    void registerFieldSixAddressesMemoryAtHl() {
+        CpuHarness harness = EmulatorTestUtils.CreateCpuHarness(new byte[] {
+                0x21, 0x00, (byte) 0xC0,
+                0x36, 0x0F,
+                0x34,
+                (byte) 0xCB, (byte) 0xFE,
+                0x7E,
+                (byte) 0xBE,
+                0x76
+        });
+
+        int[] cycles = new int[6];
+        for (int step = 0; step < cycles.length; step++) {
+            cycles[step] = harness.StepInstruction();
+        }
+
+        assertEquals(0x90, harness.memory.Read(0xC000));
+        assertEquals(0x90, harness.cpu.GetAccumulator());
+        assertEquals(12, cycles[1]);
+        assertEquals(12, cycles[2]);
+        assertEquals(16, cycles[3]);
+        assertEquals(8, cycles[4]);
+        assertEquals(8, cycles[5]);
+        assertTrue(harness.cpu.GetFlag(DuckCPU.Flag.Z));
+        assertTrue(harness.cpu.GetFlag(DuckCPU.Flag.N));
+        assertFalse(harness.cpu.GetFlag(DuckCPU.Flag.C));
+    }
+
+    private static void RunUntilHalted(CpuHarness harness) {
+        for (int step = 0; step < 64 && !harness.cpu.IsHalted(); step++) {
+            harness.StepInstruction();
+        }
+        assertTrue(harness.cpu.IsHalted());
+    }
 }
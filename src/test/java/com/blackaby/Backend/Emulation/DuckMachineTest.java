@@ -0,0 +1,55 @@
+package com.blackaby.Backend.Emulation;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.blackaby.Backend.Emulation.Memory.DuckAddresses;
+import com.blackaby.Backend.Emulation.Misc.ROM;
+import com.blackaby.Backend.Emulation.TestSupport.EmulatorTestUtils;
+import com.blackaby.Backend.Platform.AudioCaptureSink;
+import com.blackaby.Backend.Platform.FrameBufferSink;
+
+class DuckMachineTest {
+
+    @Test
+    void haltedCpuSkipsAheadAndStillWakesOnTimerOverflow() {
+        DuckMachine machine = CreateMachine(new byte[] {
+                0x3E, 0x05,
+                (byte) 0xE0, 0x07,
+                (byte) 0xAF,
+                (byte) 0xE0, 0x05,
+                0x3E, 0x04,
+                (byte) 0xE0, (byte) 0xFF,
+                0x76,
+                0x18, (byte) 0xFE
+        });
+
+        while (!machine.GetCpu().IsHalted()) {
+            machine.RunInstruction();
+        }
+
+        int haltedSteps = 0;
+        int haltedCycles = 0;
+        while (machine.GetCpu().IsHalted()) {
+            haltedCycles += machine.RunInstruction();
+            haltedSteps++;
+        }
+
+        assertFalse(machine.GetCpu().IsHalted());
+        assertTrue((machine.GetMemory().Read(DuckAddresses.INTERRUPT_FLAG) & 0x04) != 0);
+        assertTrue(haltedCycles >= 256 * 16 - 64 && haltedCycles <= 256 * 16 + 16);
+        assertTrue(haltedSteps < haltedCycles / 16);
+    }
+
+    private static DuckMachine CreateMachine(byte[] program) {
+        ROM rom = EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "machine_test.gb", "machine-test");
+        byte[] romBytes = rom.ToByteArray();
+        System.arraycopy(program, 0, romBytes, 0x0100, program.length);
+        DuckMachine machine = new DuckMachine(ROM.FromBytes("machine_test.gb", romBytes, "machine-test"), false,
+                new FrameBufferSink(160, 144), new AudioCaptureSink(), null);
+        machine.InitialisePostBootState();
+        return machine;
+    }
+}
@@ -0,0 +1,95 @@
+package com.blackaby.Backend.Emulation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.blackaby.Backend.Emulation.Misc.ROM;
+import com.blackaby.Backend.Emulation.TestSupport.EmulatorTestUtils;
+import com.blackaby.Backend.Platform.EmulatorSession;
+import com.blackaby.Backend.Platform.HeadlessSessionHost;
+
+class DuckSessionTest {
+
+    @Test
+    void stepRunsWholeFramesAndCapturesAudio() {
+        try (EmulatorSession session = DuckBackend.instance.CreateSession(CreateProgramRom(new byte[] {
+                0x18, (byte) 0xFE
+        }))) {
+            EmulatorSession.StepResult result = session.Step(3, Set.of());
+
+            assertEquals(3, result.framesCompleted());
+            assertEquals(160 * 144, result.frame().length);
+            assertEquals(48_000, result.sampleRate());
+            assertTrue(result.audioSamples().length > 0);
+            assertEquals(0, result.audioSamples().length % 2);
+            assertTrue(result.cyclesExecuted() > 2 * 70_224);
+        }
+    }
+
+    @Test
+    void serialOutputIsCapturedPerSession() {
+        try (DuckSession session = (DuckSession) DuckBackend.instance.CreateSession(CreateProgramRom(new byte[] {
+                0x3E, 0x41,
+                (byte) 0xE0, 0x01,
+                0x3E, (byte) 0x81,
+                (byte) 0xE0, 0x02,
+                0x18, (byte) 0xFE
+        }))) {
+            session.Step(1, Set.of());
+
+            assertEquals("A", session.GetSerialOutput());
+        }
+    }
+
+    @Test
+    void parallelSessionsProduceIdenticalOutput() {
+        ROM rom = CreateProgramRom(new byte[] {
+                0x3E, (byte) 0x80,
+                (byte) 0xE0, 0x26,
+                0x3E, (byte) 0xF0,
+                (byte) 0xE0, 0x12,
+                0x3E, (byte) 0x87,
+                (byte) 0xE0, 0x14,
+                0x18, (byte) 0xFE
+        });
+
+        try (HeadlessSessionHost host = new HeadlessSessionHost(4)) {
+            for (int index = 0; index < 4; index++) {
+                host.Open(DuckBackend.instance, rom);
+            }
+
+            List<EmulatorSession.StepResult> results = host.StepAll(host.GetSessions(), 2, session -> Set.of("a"));
+
+            assertEquals(4, results.size());
+            for (EmulatorSession.StepResult result : results) {
+                assertArrayEquals(results.get(0).frame(), result.frame());
+                assertArrayEquals(results.get(0).audioSamples(), result.audioSamples());
+                assertEquals(results.get(0).cyclesExecuted(), result.cyclesExecuted());
+            }
+        }
+    }
+
+    @Test
+    void closedSessionRejectsFurtherSteps() {
+        EmulatorSession session = DuckBackend.instance.CreateSession(CreateProgramRom(new byte[] {
+                0x18, (byte) 0xFE
+        }));
+        session.close();
+
+        assertThrows(IllegalStateException.class, () -> session.Step(1, Set.of()));
+    }
+
+    private static ROM CreateProgramRom(byte[] program) {
+        ROM rom = EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "session_test.gb", "session-test");
+        byte[] romBytes = rom.ToByteArray();
+        System.arraycopy(program, 0, romBytes, 0x0100, program.length);
+        return ROM.FromBytes("session_test.gb", romBytes, "session-test");
+    }
+}
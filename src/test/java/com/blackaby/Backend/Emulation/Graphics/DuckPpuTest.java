@@ -1,14 +1,21 @@
 package com.blackaby.Backend.Emulation.Graphics;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.blackaby.Backend.Emulation.DuckScheduler;
 import com.blackaby.Backend.Emulation.CPU.DuckCPU;
 import com.blackaby.Backend.Emulation.Memory.DuckAddresses;
 import com.blackaby.Backend.Emulation.Memory.DuckMemory;
 import com.blackaby.Backend.Emulation.TestSupport.EmulatorTestUtils;
+import com.blackaby.Backend.Platform.FrameBufferSink;
+import com.blackaby.Backend.Platform.FrameSink;
 import com.blackaby.Frontend.DuckDisplay;
 import com.blackaby.Misc.Settings;
 
@@ -23,7 +30,7 @@ class DuckPpuTest {
     void rendersBackgroundPixelsFromTileData() {
         DuckMemory memory = new DuckMemory();
         memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"), false);
-        DuckCPU cpu = new DuckCPU(memory, null, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"));
+        DuckCPU cpu = new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"));
         memory.SetCpu(cpu);
         memory.InitialiseDmgBootState();
         memory.Write(DuckAddresses.BGP, 0xE4);
@@ -47,7 +54,7 @@ class DuckPpuTest {
     void requestsVblankInterruptAtEndOfVisibleFrame() {
         DuckMemory memory = new DuckMemory();
         memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"), false);
-        DuckCPU cpu = new DuckCPU(memory, null, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"));
+        DuckCPU cpu = new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"));
         memory.SetCpu(cpu);
         memory.InitialiseDmgBootState();
         DuckPPU ppu = new DuckPPU(cpu, memory, new DuckDisplay());
@@ -61,11 +68,113 @@ class DuckPpuTest {
         assertEquals(1, ppu.ConsumeCompletedFrames());
     }
 
+    @Test
+    void drawsIntoPlainFrameBufferSinkAndReportsEachScanline() {
+        DuckMemory memory = new DuckMemory();
+        memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"), false);
+        DuckCPU cpu = new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"));
+        memory.SetCpu(cpu);
+        memory.InitialiseDmgBootState();
+        memory.Write(DuckAddresses.BGP, 0xE4);
+        memory.Write(0x9800, 0x00);
+        memory.Write(0x8000, 0x80);
+        memory.Write(0x8001, 0x00);
+
+        List<Integer> completedScanlines = new ArrayList<>();
+        FrameBufferSink sink = new FrameBufferSink(160, 144);
+        DuckPPU ppu = new DuckPPU(cpu, memory, new FrameSink() {
+            @Override
+            public int[] GetFrameBuffer() {
+                return sink.GetFrameBuffer();
+            }
+
+            @Override
+            public void ScanlineCompleted(int y) {
+                completedScanlines.add(y);
+            }
+
+            @Override
+            public void PresentFrame(int previousFrameWeight, int currentFrameWeight) {
+                sink.PresentFrame(previousFrameWeight, currentFrameWeight);
+            }
+        });
+
+        for (int index = 0; index < 456 * 144; index++) {
+            ppu.Step();
+        }
+
+        assertEquals(144, completedScanlines.size());
+        assertEquals(143, completedScanlines.get(143).intValue());
+        assertEquals(1, sink.GetPresentedFrames());
+        assertEquals(Settings.gbColour1Object.ToRgb(), sink.CopyFrame()[0]);
+        assertEquals(Settings.gbColour0Object.ToRgb(), sink.CopyFrame()[1]);
+    }
+
+    @Test
+    void paletteSettingChangesApplyFromTheNextScanline() {
+        DuckMemory memory = new DuckMemory();
+        memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"), false);
+        DuckCPU cpu = new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"));
+        memory.SetCpu(cpu);
+        memory.InitialiseDmgBootState();
+        memory.Write(DuckAddresses.BGP, 0xE4);
+        memory.Write(0x9800, 0x00);
+        memory.Write(0x8000, 0x80);
+        memory.Write(0x8002, 0x80);
+        FrameBufferSink sink = new FrameBufferSink(160, 144);
+        DuckPPU ppu = new DuckPPU(cpu, memory, sink);
+        int originalColour = Settings.gbColour1Object.ToRgb();
+
+        for (int index = 0; index < 456; index++) {
+            ppu.Step();
+        }
+        Settings.SetPaletteColour(1, "#FF0000");
+        for (int index = 0; index < 456; index++) {
+            ppu.Step();
+        }
+
+        assertEquals(originalColour, sink.GetFrameBuffer()[0]);
+        assertEquals(0xFFFF0000, sink.GetFrameBuffer()[160]);
+        assertEquals(Settings.gbColour0Object.ToRgb(), sink.GetFrameBuffer()[161]);
+    }
+
+    @Test
+    void oamWritesMoveSpritesFromTheNextScanline() {
+        DuckMemory memory = new DuckMemory();
+        memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"), false);
+        DuckCPU cpu = new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"));
+        memory.SetCpu(cpu);
+        memory.InitialiseDmgBootState();
+        memory.Write(DuckAddresses.LCDC, 0x93);
+        memory.Write(DuckAddresses.BGP, 0xE4);
+        memory.Write(DuckAddresses.OBP0, 0xE4);
+        memory.Write(0x8010, 0x80);
+        memory.Write(0x8012, 0x80);
+        memory.Write(0xFE00, 0x10);
+        memory.Write(0xFE01, 0x08);
+        memory.Write(0xFE02, 0x01);
+        memory.Write(0xFE03, 0x00);
+        FrameBufferSink sink = new FrameBufferSink(160, 144);
+        DuckPPU ppu = new DuckPPU(cpu, memory, sink);
+
+        for (int index = 0; index < 456; index++) {
+            ppu.Step();
+        }
+        memory.Write(0xFE01, 0x10);
+        for (int index = 0; index < 456; index++) {
+            ppu.Step();
+        }
+
+        assertEquals(Settings.gbColour1Object.ToRgb(), sink.GetFrameBuffer()[0]);
+        assertEquals(Settings.gbColour0Object.ToRgb(), sink.GetFrameBuffer()[160]);
+        assertEquals(Settings.gbColour1Object.ToRgb(), sink.GetFrameBuffer()[168]);
+    }
+
     @Test
     void midScanlineScrollChangesAffectLaterPixels() {
         DuckMemory memory = new DuckMemory();
         memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"), false);
-        DuckCPU cpu = new DuckCPU(memory, null, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"));
+        DuckCPU cpu = new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"));
         memory.SetCpu(cpu);
         memory.InitialiseDmgBootState();
         memory.Write(DuckAddresses.BGP, 0xE4);
@@ -98,7 +207,7 @@ class DuckPpuTest {
     void rewritingLycToCurrentLineTriggersStatWithoutWaitingForNextScanline() {
         DuckMemory memory = new DuckMemory();
         memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"), false);
-        DuckCPU cpu = new DuckCPU(memory, null, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"));
+        DuckCPU cpu = new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"));
         memory.SetCpu(cpu);
         memory.InitialiseDmgBootState();
         memory.Write(DuckAddresses.INTERRUPT_FLAG, 0x00);
@@ -128,7 +237,7 @@ class DuckPpuTest {
     void rendersPureWhiteCgbSpritePixelsInsteadOfTreatingThemAsTransparent() {
         DuckMemory memory = new DuckMemory();
         memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x80, "ppu.gbc", "ppu"), true);
-        DuckCPU cpu = new DuckCPU(memory, null, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x80, "ppu.gbc", "ppu"));
+        DuckCPU cpu = new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x80, "ppu.gbc", "ppu"));
         memory.SetCpu(cpu);
         memory.InitialiseCgbBootState();
 
@@ -153,4 +262,64 @@ class DuckPpuTest {
         DuckDisplay.FrameState frame = display.SnapshotFrameState();
         assertEquals(0xFFFFFFFF, frame.backBuffer()[0]);
     }
+
+    @Test
+    void scheduledCatchUpMatchesPerCycleStepping() {
+        DuckMemory steppedMemory = CreateScrollingScene();
+        DuckMemory scheduledMemory = CreateScrollingScene();
+        DuckDisplay steppedDisplay = new DuckDisplay();
+        DuckDisplay scheduledDisplay = new DuckDisplay();
+        DuckPPU steppedPpu = new DuckPPU(CpuFor(steppedMemory), steppedMemory, steppedDisplay);
+        DuckPPU scheduledPpu = new DuckPPU(CpuFor(scheduledMemory), scheduledMemory, scheduledDisplay);
+        DuckScheduler scheduler = new DuckScheduler();
+        scheduledMemory.SetPpu(scheduledPpu);
+        scheduledPpu.SetScheduler(scheduler);
+
+        for (int instruction = 0; instruction < 20_000; instruction++) {
+            int cycles = 4 + ((instruction % 3) * 4);
+            if (instruction % 97 == 0) {
+                int scroll = (instruction / 97) & 0xFF;
+                steppedMemory.Write(DuckAddresses.SCX, scroll);
+                scheduledMemory.Write(DuckAddresses.SCX, scroll);
+            }
+
+            for (int index = 0; index < cycles; index++) {
+                steppedPpu.Step();
+            }
+            long target = scheduler.Now() + cycles;
+            if (scheduler.IsDue(DuckScheduler.Event.PPU, target)) {
+                scheduledPpu.Synchronise(target);
+            }
+            scheduler.Advance(cycles);
+
+            assertEquals(steppedMemory.Read(DuckAddresses.INTERRUPT_FLAG),
+                    scheduledMemory.Read(DuckAddresses.INTERRUPT_FLAG));
+        }
+
+        assertEquals(steppedMemory.Read(DuckAddresses.STAT), scheduledMemory.Read(DuckAddresses.STAT));
+        assertEquals(steppedPpu.CaptureState(), scheduledPpu.CaptureState());
+        assertArrayEquals(steppedDisplay.SnapshotFrameState().backBuffer(),
+                scheduledDisplay.SnapshotFrameState().backBuffer());
+    }
+
+    private DuckMemory CreateScrollingScene() {
+        DuckMemory memory = new DuckMemory();
+        memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"), false);
+        memory.SetCpu(CpuFor(memory));
+        memory.InitialiseDmgBootState();
+        memory.Write(DuckAddresses.BGP, 0xE4);
+        memory.Write(DuckAddresses.STAT, 0x48);
+        memory.Write(DuckAddresses.LYC, 0x40);
+        for (int index = 0; index < 0x400; index++) {
+            memory.Write(0x9800 + index, index & 0x03);
+        }
+        for (int index = 0; index < 0x40; index++) {
+            memory.Write(0x8000 + index, (index * 37) & 0xFF);
+        }
+        return memory;
+    }
+
+    private DuckCPU CpuFor(DuckMemory memory) {
+        return new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "ppu.gb", "ppu"));
+    }
 }
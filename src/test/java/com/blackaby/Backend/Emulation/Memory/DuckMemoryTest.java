@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import org.junit.jupiter.api.Test;
 
 import com.blackaby.Backend.Emulation.Misc.ROM;
+import com.blackaby.Backend.Emulation.TestSupport.EmulatorTestUtils;
 
 class DuckMemoryTest {
 
@@ -91,6 +92,75 @@ class DuckMemoryTest {
         assertEquals(true, memory.HasSaveData());
     }
 
+    @Test
+    void bankedReadsFollowMapperAndBankRegisterWrites() {
+        DuckMemory memory = new DuckMemory();
+        memory.LoadRom(EmulatorTestUtils.CreatePatternedRom(0x1B, 512, 0x03, 0x00, "mbc5.gb", "mbc5"), false);
+
+        assertEquals(0x01, memory.Read(0x4000));
+        memory.Write(0x2000, 0x05);
+        assertEquals(0x05, memory.Read(0x4000));
+        memory.Write(0x3000, 0x01);
+        assertEquals(0x05, memory.Read(0x4000));
+        assertEquals(0x01, memory.Read(0x4001));
+
+        assertEquals(0xFF, memory.Read(DuckAddresses.EXTERNAL_RAM_START));
+        memory.Write(DuckAddresses.EXTERNAL_RAM_START, 0x12);
+        memory.Write(0x0000, 0x0A);
+        memory.Write(DuckAddresses.EXTERNAL_RAM_START, 0x33);
+        memory.Write(0x4000, 0x01);
+        memory.Write(DuckAddresses.EXTERNAL_RAM_START, 0x44);
+        memory.Write(0x4000, 0x00);
+        assertEquals(0x33, memory.Read(DuckAddresses.EXTERNAL_RAM_START));
+        memory.Write(0x0000, 0x00);
+        assertEquals(0xFF, memory.Read(DuckAddresses.EXTERNAL_RAM_START));
+    }
+
+    @Test
+    void cgbBankRegistersRemapVideoAndWorkRamWindows() {
+        DuckMemory memory = CreateCgbMemory();
+
+        memory.Write(0x8000, 0x11);
+        memory.Write(DuckAddresses.VBK, 0x01);
+        memory.Write(0x8000, 0x22);
+        assertEquals(0x22, memory.Read(0x8000));
+        memory.Write(DuckAddresses.VBK, 0x00);
+        assertEquals(0x11, memory.Read(0x8000));
+
+        memory.Write(0xD000, 0x33);
+        memory.Write(DuckAddresses.SVBK, 0x03);
+        assertEquals(0x00, memory.Read(0xD000));
+        memory.Write(0xF000, 0x44);
+        assertEquals(0x44, memory.Read(0xD000));
+        memory.Write(DuckAddresses.SVBK, 0x00);
+        assertEquals(0x33, memory.Read(0xF000));
+
+        memory.Write(0xC123, 0x55);
+        assertEquals(0x55, memory.Read(0xE123));
+        assertEquals(0xFF, memory.Read(0xFEA0));
+    }
+
+    @Test
+    void videoRamWritesKeepDecodedTileRowsCurrent() {
+        DuckMemory memory = CreateCgbMemory();
+
+        memory.Write(DuckAddresses.VBK, 0x01);
+        memory.Write(0x8FF2, 0b1100_0001);
+        memory.Write(0x8FF3, 0b1010_0001);
+
+        int row = memory.ReadDecodedTileRow(1, 0xFF, 1);
+        assertEquals(0b11_00_00_00_00_10_01_11, row & 0xFFFF);
+        assertEquals(0b11_01_10_00_00_00_00_11, row >>> 16);
+        assertEquals(0, memory.ReadDecodedTileRow(0, 0xFF, 1));
+
+        DuckMemory.MemoryState state = memory.CaptureState();
+        memory.Write(0x8FF2, 0x00);
+        assertEquals(0b10_00_00_00_00_10_00_10, memory.ReadDecodedTileRow(1, 0xFF, 1) & 0xFFFF);
+
+        memory.RestoreState(state);
+        assertEquals(row, memory.ReadDecodedTileRow(1, 0xFF, 1));
+    }
+
     private static DuckMemory CreateCgbMemory() {
         byte[] romBytes = new byte[0x8000];
         romBytes[0x0143] = (byte) 0x80;
@@ -1,9 +1,15 @@
 package com.blackaby.Backend.Emulation.Misc;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import com.blackaby.Backend.Emulation.Memory.CartridgeMapperType;
 import com.blackaby.Backend.Emulation.TestSupport.EmulatorTestUtils;
@@ -33,4 +39,30 @@ class ROMTest {
         assertEquals("Mario DX", rom.GetName());
         assertEquals("C:\\roms\\Super Mario Bros Deluxe.gbc", rom.GetSourcePath());
     }
+
+    @Test
+    void romsWithIdenticalContentShareOneImage() {
+        byte[] romBytes = EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "shared.gb", "shared").ToByteArray();
+
+        ROM first = ROM.FromBytes("first.gb", romBytes, "first");
+        ROM second = ROM.FromBytes("second.gb", romBytes, "second");
+        romBytes[0x0150] = 0x42;
+        ROM changed = ROM.FromBytes("changed.gb", romBytes, "changed");
+
+        assertSame(first.GetData(), second.GetData());
+        assertNotSame(first.GetData(), changed.GetData());
+        assertEquals(0x00, first.GetData()[0x0150]);
+    }
+
+    @Test
+    void reloadingAnUnchangedFileReusesTheSharedImage(@TempDir Path tempDir) throws Exception {
+        Path romPath = tempDir.resolve("cached.gb");
+        Files.write(romPath, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "cached.gb", "cached").ToByteArray());
+
+        ROM first = new ROM(romPath.toString());
+        ROM second = new ROM(romPath.toString());
+
+        assertSame(first.GetData(), second.GetData());
+        assertTrue(RomImageCache.IsShared(first.GetData()));
+    }
 }
@@ -0,0 +1,93 @@
+package com.blackaby.Backend.Emulation.Peripherals;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+class AudioRingBufferTest {
+
+    @Test
+    void fullRingTakesOnlyWhatFits() {
+        AudioRingBuffer ring = new AudioRingBuffer(4);
+        float[] block = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+
+        assertEquals(4, ring.Write(block, 5));
+        assertEquals(0, ring.Write(block, 1));
+
+        float[] read = new float[10];
+        assertEquals(4, ring.Read(read, 5));
+        assertEquals(8.0f, read[7]);
+        assertEquals(0, ring.GetBufferedFrames());
+    }
+
+    @Test
+    void framesWrapAroundTheEndInOrder() {
+        AudioRingBuffer ring = new AudioRingBuffer(4);
+        float[] read = new float[6];
+
+        ring.Write(new float[] { 1, 1, 2, 2, 3, 3 }, 3);
+        ring.Read(read, 2);
+        ring.Write(new float[] { 4, 4, 5, 5, 6, 6 }, 3);
+
+        assertEquals(4, ring.GetBufferedFrames());
+        assertEquals(3, ring.Read(read, 3));
+        assertEquals(3.0f, read[0]);
+        assertEquals(4.0f, read[2]);
+        assertEquals(5.0f, read[5]);
+    }
+
+    @Test
+    void consumerThreadSeesEveryFrameInOrder() throws InterruptedException {
+        AudioRingBuffer ring = new AudioRingBuffer(64);
+        int totalFrames = 20_000;
+        int[] mismatches = new int[1];
+
+        Thread consumer = new Thread(() -> {
+            float[] read = new float[2 * 37];
+            int expected = 0;
+            while (expected < totalFrames) {
+                int frames = ring.Read(read, 37);
+                if (frames == 0) {
+                    Thread.onSpinWait();
+                    Thread.yield();
+                    continue;
+                }
+                for (int frame = 0; frame < frames; frame++) {
+                    if (read[frame * 2] != expected || read[frame * 2 + 1] != -expected) {
+                        mismatches[0]++;
+                    }
+                    expected++;
+                }
+            }
+        });
+        consumer.start();
+
+        float[] block = new float[2 * 29];
+        float[] remaining = new float[2 * 29];
+        int next = 0;
+        while (next < totalFrames) {
+            int frames = Math.min(29, totalFrames - next);
+            for (int frame = 0; frame < frames; frame++) {
+                block[frame * 2] = next + frame;
+                block[frame * 2 + 1] = -(next + frame);
+            }
+            int written = 0;
+            while (written < frames) {
+                System.arraycopy(block, written * 2, remaining, 0, (frames - written) * 2);
+                int taken = ring.Write(remaining, frames - written);
+                if (taken == 0) {
+                    Thread.onSpinWait();
+                    Thread.yield();
+                }
+                written += taken;
+            }
+            next += frames;
+        }
+
+        consumer.join(10_000);
+        assertFalse(consumer.isAlive());
+        assertEquals(0, mismatches[0]);
+        assertEquals(0, ring.GetBufferedFrames());
+    }
+}
@@ -0,0 +1,34 @@
+package com.blackaby.Backend.Emulation.Peripherals;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class BandLimitedBufferTest {
+
+    @Test
+    void stepSettlesOnTheNewLevel() {
+        BandLimitedBuffer buffer = new BandLimitedBuffer(375, 8192);
+        float[] samples = new float[buffer.GetMaxFrameSamples()];
+
+        buffer.AddDelta(100, 0.5);
+        int sampleCount = buffer.EndFrame(8192, samples, 0, 1);
+
+        assertEquals(0.0, samples[0], 1e-6);
+        assertEquals(0.5, samples[sampleCount - 1], 1e-6);
+    }
+
+    @Test
+    void framesCarryTheFractionalSamplePosition() {
+        BandLimitedBuffer buffer = new BandLimitedBuffer(375, 8192);
+        float[] samples = new float[buffer.GetMaxFrameSamples()];
+
+        int total = 0;
+        for (int frame = 0; frame < 512; frame++) {
+            total += buffer.EndFrame(8192, samples, 0, 1);
+        }
+
+        assertEquals(512 * 8192 * 375 / 32768, total);
+        assertEquals(0, buffer.GetPhase(0));
+    }
+}
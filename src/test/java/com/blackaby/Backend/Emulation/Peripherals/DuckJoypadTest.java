@@ -28,7 +28,7 @@ class DuckJoypadTest {
     void requestsInterruptOnNewFallingEdgeOnly() {
         DuckMemory memory = new DuckMemory();
         memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "joypad.gb", "joypad"), false);
-        DuckCPU cpu = new DuckCPU(memory, null, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "joypad.gb", "joypad"));
+        DuckCPU cpu = new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "joypad.gb", "joypad"));
         memory.SetCpu(cpu);
         DuckJoypad joypad = new DuckJoypad(cpu);
 
@@ -15,7 +15,7 @@ class DuckTimerTest {
     void overflowReloadsAfterFourTicksAndRequestsInterrupt() {
         DuckMemory memory = new DuckMemory();
         memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "timer.gb", "timer"), false);
-        DuckCPU cpu = new DuckCPU(memory, null, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "timer.gb", "timer"));
+        DuckCPU cpu = new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "timer.gb", "timer"));
         memory.SetCpu(cpu);
         DuckTimer timer = new DuckTimer(cpu, memory);
 
@@ -40,7 +40,7 @@ class DuckTimerTest {
     void resetDivAppliesFallingEdgeIncrementGlitch() {
         DuckMemory memory = new DuckMemory();
         memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "timer.gb", "timer"), false);
-        DuckCPU cpu = new DuckCPU(memory, null, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "timer.gb", "timer"));
+        DuckCPU cpu = new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "timer.gb", "timer"));
         memory.SetCpu(cpu);
         DuckTimer timer = new DuckTimer(cpu, memory);
 
@@ -58,7 +58,7 @@ class DuckTimerTest {
     void writingTacCanCauseFallingEdgeIncrement() {
         DuckMemory memory = new DuckMemory();
         memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "timer.gb", "timer"), false);
-        DuckCPU cpu = new DuckCPU(memory, null, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "timer.gb", "timer"));
+        DuckCPU cpu = new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "timer.gb", "timer"));
         memory.SetCpu(cpu);
         DuckTimer timer = new DuckTimer(cpu, memory);
 
@@ -70,4 +70,75 @@ class DuckTimerTest {
 
         assertEquals(0x21, memory.Read(DuckAddresses.TIMA));
     }
+
+    @Test
+    void advanceMatchesPerCycleTicksAcrossOverflow() {
+        DuckMemory tickedMemory = new DuckMemory();
+        DuckMemory advancedMemory = new DuckMemory();
+        DuckTimer tickedTimer = CreateTimer(tickedMemory);
+        DuckTimer advancedTimer = CreateTimer(advancedMemory);
+
+        for (DuckMemory memory : new DuckMemory[] { tickedMemory, advancedMemory }) {
+            memory.Write(DuckAddresses.TAC, 0x05);
+            memory.Write(DuckAddresses.TMA, 0xF0);
+            memory.Write(DuckAddresses.TIMA, 0xFC);
+        }
+        tickedTimer.RestoreState(new DuckTimer.TimerState(0x0003, false, 0, false));
+        advancedTimer.RestoreState(new DuckTimer.TimerState(0x0003, false, 0, false));
+
+        for (int step = 0; step < 40; step++) {
+            int cycles = 4 + ((step % 5) * 4);
+            for (int index = 0; index < cycles; index++) {
+                tickedTimer.Tick();
+            }
+            advancedTimer.Advance(cycles);
+
+            assertEquals(tickedTimer.CaptureState(), advancedTimer.CaptureState());
+            assertEquals(tickedMemory.Read(DuckAddresses.TIMA), advancedMemory.Read(DuckAddresses.TIMA));
+            assertEquals(tickedMemory.Read(DuckAddresses.DIV), advancedMemory.Read(DuckAddresses.DIV));
+            assertEquals(tickedMemory.Read(DuckAddresses.INTERRUPT_FLAG),
+                    advancedMemory.Read(DuckAddresses.INTERRUPT_FLAG));
+        }
+    }
+
+    @Test
+    void lazyAdvanceRaisesOverflowInterruptOnTheSameStep() {
+        DuckMemory tickedMemory = new DuckMemory();
+        DuckMemory lazyMemory = new DuckMemory();
+        DuckTimer tickedTimer = CreateTimer(tickedMemory);
+        DuckTimer lazyTimer = CreateTimer(lazyMemory);
+        lazyMemory.SetTimer(lazyTimer);
+
+        for (DuckMemory memory : new DuckMemory[] { tickedMemory, lazyMemory }) {
+            memory.Write(DuckAddresses.TAC, 0x05);
+            memory.Write(DuckAddresses.TMA, 0xFE);
+            memory.Write(DuckAddresses.TIMA, 0xF8);
+        }
+
+        for (int step = 0; step < 200; step++) {
+            int cycles = 4 + ((step % 3) * 4);
+            for (int index = 0; index < cycles; index++) {
+                tickedTimer.Tick();
+            }
+            lazyTimer.Advance(cycles);
+
+            assertEquals(tickedMemory.ReadRegisterDirect(DuckAddresses.INTERRUPT_FLAG),
+                    lazyMemory.ReadRegisterDirect(DuckAddresses.INTERRUPT_FLAG));
+            if ((tickedMemory.ReadRegisterDirect(DuckAddresses.INTERRUPT_FLAG) & 0x04) != 0) {
+                tickedMemory.WriteDirect(DuckAddresses.INTERRUPT_FLAG, 0xE0);
+                lazyMemory.WriteDirect(DuckAddresses.INTERRUPT_FLAG, 0xE0);
+            }
+        }
+
+        assertEquals(tickedMemory.Read(DuckAddresses.DIV), lazyMemory.Read(DuckAddresses.DIV));
+        assertEquals(tickedMemory.Read(DuckAddresses.TIMA), lazyMemory.Read(DuckAddresses.TIMA));
+        assertEquals(tickedTimer.CaptureState(), lazyTimer.CaptureState());
+    }
+
+        private DuckTimer CreateTimer(DuckMemory memory) {
+        memory.LoadRom(EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "timer.gb", "timer"), false);
+        DuckCPU cpu = new DuckCPU(memory, EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "timer.gb", "timer"));
+        memory.SetCpu(cpu);
+        return new DuckTimer(cpu, memory);
+    }
 }
@@ -3,7 +3,6 @@ package com.blackaby.Backend.Emulation.TestSupport;
 import java.util.Arrays;
 
 import com.blackaby.Backend.Emulation.CPU.DuckCPU;
-import com.blackaby.Backend.Emulation.CPU.InstructionLogic;
 import com.blackaby.Backend.Emulation.Memory.DuckMemory;
 import com.blackaby.Backend.Emulation.Misc.ROM;
 
@@ -35,13 +34,14 @@ public final class EmulatorTestUtils {
         ROM rom = CreateBlankRom(0x00, 2, 0x00, 0x00, "cpu_test.gb", "cpu-test");
         byte[] romBytes = rom.ToByteArray();
         System.arraycopy(program, 0, romBytes, 0x0100, Math.min(program.length, romBytes.length - 0x0100));
-        rom = ROM.FromBytes("cpu_test.gb", romBytes, "cpu-test");
+        return CreateCpuHarness(ROM.FromBytes("cpu_test.gb", romBytes, "cpu-test"));
+    }
 
+    public static CpuHarness CreateCpuHarness(ROM rom) {
         DuckMemory memory = new DuckMemory();
         memory.LoadRom(rom, false);
-        DuckCPU cpu = new DuckCPU(memory, null, rom);
+        DuckCPU cpu = new DuckCPU(memory, rom);
         memory.SetCpu(cpu);
-        InstructionLogic.Initialise(cpu, memory);
         cpu.SetPC(0x0100);
         cpu.SetSP(0xFFFE);
         return new CpuHarness(rom, memory, cpu);
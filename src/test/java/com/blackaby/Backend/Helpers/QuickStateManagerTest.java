@@ -31,8 +31,8 @@ class QuickStateManagerTest {
             var rom = EmulatorTestUtils.CreateBlankRom(0x00, 2, 0x00, 0x00, "quick.gb", "quick");
             QuickStateManager.QuickStateData state = new QuickStateManager.QuickStateData(
                     null,
-                    new DuckMemory.MemoryState(new int[0x10000], null, false, false, false, 0, 1, false, false,
-                            false, 0, 0, 0, false, 0, 0x8000, 0, false, new int[2][0x2000], new int[8][0x1000],
+                    new DuckMemory.MemoryState(new byte[0x10000], null, false, false, false, 0, 1, false, false,
+                            false, 0, 0, 0, false, 0, 0x8000, 0, false, new byte[2][0x2000], new byte[8][0x1000],
                             new int[0x40], new int[0x40], null),
                     new DuckTimer.TimerState(0x1234, true, 2, true),
                     new DuckPPU.PpuState(1, 42, 123, true, 17, 6, true),
@@ -1,6 +1,7 @@
 package com.blackaby.Frontend;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -11,7 +12,9 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.concurrent.CountDownLatch;
@@ -66,6 +69,38 @@ class DuckDisplayTest {
         assertEquals(Color.WHITE.getRGB(), snapshot.backBuffer()[0]);
     }
 
+    @Test
+    void weightedBlendRoundsEachChannelDownForAnyWeights() {
+        int[][] weights = { { 1, 7 }, { 3, 5 }, { 2, 3 } };
+        for (int[] weight : weights) {
+            DuckDisplay display = new DuckDisplay();
+            int[] previous = new int[160];
+            int[] current = new int[160];
+            for (int x = 0; x < 160; x++) {
+                previous[x] = (x * 0x0B1F37) & 0xFFFFFF;
+                current[x] = 0xFFFFFF - ((x * 0x07E3A5) & 0xFFFFFF);
+                display.setPixel(x, 0, previous[x], false);
+            }
+            display.presentFrame();
+            for (int x = 0; x < 160; x++) {
+                display.setPixel(x, 0, current[x], false);
+            }
+
+            display.presentFrame(weight[0], weight[1]);
+
+            int[] frontBuffer = display.SnapshotFrameState().frontBuffer();
+            for (int x = 0; x < 160; x++) {
+                int expected = 0;
+                for (int shift = 0; shift <= 16; shift += 8) {
+                    int channel = (((previous[x] >> shift) & 0xFF) * weight[0]
+                            + ((current[x] >> shift) & 0xFF) * weight[1]) / (weight[0] + weight[1]);
+                    expected |= channel << shift;
+                }
+                assertEquals(expected, frontBuffer[x] & 0xFFFFFF);
+            }
+        }
+    }
+
     @Test
     void paintUsesConfiguredShaderWhenRenderingImageBuffer() {
         String originalShaderId = Settings.displayShaderId;
@@ -144,6 +179,73 @@ class DuckDisplayTest {
         assertEquals(Color.YELLOW.getRGB(), paintBuffer(display)[0]);
     }
 
+    @Test
+    void unchangedFramesSkipShadingAndChangedRowsAreShadedAlone() throws Exception {
+        CountingShader shader = new CountingShader();
+        DuckDisplay display = new DuckDisplay(null, false);
+        installShader(display, new LoadedDisplayShader(shader, "test", null, 1));
+
+        display.setPixel(0, 0, Color.RED.getRGB(), false);
+        display.presentFrame();
+        assertEquals(1, shader.fullRenders);
+
+        display.presentFrame();
+        assertEquals(1, shader.fullRenders);
+        assertEquals(0, shader.partialRenders);
+
+        display.setPixel(5, 10, Color.BLUE.getRGB(), false);
+        display.presentFrame();
+        assertEquals(1, shader.fullRenders);
+        assertEquals(1, shader.partialRenders);
+        assertEquals(10, shader.lastStartRow);
+        assertEquals(11, shader.lastEndRow);
+        assertEquals(Color.BLUE.getRGB(), paintBuffer(display)[(10 * 160) + 5]);
+    }
+
+    @Test
+    void skippedIdenticalFramesStillCountTowardsPresentationStats() throws Exception {
+        DuckDisplay display = new DuckDisplay(null, false);
+        display.setPixel(0, 0, Color.RED.getRGB(), false);
+        display.presentFrame();
+
+        for (int frame = 0; frame < 5; frame++) {
+            display.presentFrame();
+        }
+        display.SnapshotPresentationStats();
+        Thread.sleep(260L);
+        for (int frame = 0; frame < 5; frame++) {
+            display.presentFrame();
+        }
+
+        assertTrue(display.SnapshotPresentationStats().paintedFps() > 0.0);
+    }
+
+    @Test
+    void shaderRefreshNeverWaitsForTheFrameBeingRendered() throws Exception {
+        String originalShaderId = Settings.displayShaderId;
+        try {
+            BlockingShader shader = new BlockingShader();
+            DuckDisplay display = new DuckDisplay(null, false);
+            installShader(display, new LoadedDisplayShader(shader, "test", null, 1));
+            int rawRgb = new Color(92, 140, 212).getRGB();
+            display.setPixel(0, 0, rawRgb, false);
+            Thread producer = new Thread(display::presentFrame);
+            producer.start();
+            waitForLatch(shader.applyStarted);
+
+            Settings.displayShaderId = "amber_monitor";
+            display.RefreshShader();
+            assertTrue(producer.isAlive());
+
+            shader.releaseApply.countDown();
+            producer.join(2_000L);
+            assertFalse(producer.isAlive());
+            assertNotEquals(rawRgb, paintBuffer(display)[0]);
+        } finally {
+            Settings.displayShaderId = originalShaderId;
+        }
+    }
+
     private static void installShader(DuckDisplay display, LoadedDisplayShader shader) throws Exception {
         Field activeShaderField = DuckDisplay.class.getDeclaredField("activeShader");
         activeShaderField.setAccessible(true);
@@ -151,9 +253,10 @@ class DuckDisplayTest {
     }
 
     private static int[] paintBuffer(DuckDisplay display) throws Exception {
-        Field paintBufferField = DuckDisplay.class.getDeclaredField("paintBuffer");
-        paintBufferField.setAccessible(true);
-        return (int[]) paintBufferField.get(display);
+        Method latestPaintImage = DuckDisplay.class.getDeclaredMethod("LatestPaintImage");
+        latestPaintImage.setAccessible(true);
+        BufferedImage image = (BufferedImage) latestPaintImage.invoke(display);
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
     }
 
     private static void waitForLatch(CountDownLatch latch) throws InterruptedException {
@@ -171,6 +274,80 @@ class DuckDisplayTest {
         assertEquals(expectedRgb, paintBuffer(display)[0]);
     }
 
+    private static final class CountingShader implements DisplayShader {
+        private int fullRenders;
+        private int partialRenders;
+        private int lastStartRow = -1;
+        private int lastEndRow = -1;
+
+        @Override
+        public String Id() {
+            return "counting";
+        }
+
+        @Override
+        public String DisplayName() {
+            return "Counting";
+        }
+
+        @Override
+        public String Description() {
+            return "Test shader";
+        }
+
+        @Override
+        public boolean PreferAsyncRendering() {
+            return false;
+        }
+
+        @Override
+        public void Apply(int[] source, int[] target, int[] scratch, int width, int height) {
+            fullRenders++;
+            System.arraycopy(source, 0, target, 0, source.length);
+        }
+
+        @Override
+        public void ApplyRows(int[] source, int[] target, int[] scratch, int width, int height, int startRow,
+                int endRow) {
+            partialRenders++;
+            lastStartRow = startRow;
+            lastEndRow = endRow;
+            System.arraycopy(source, startRow * width, target, startRow * width, (endRow - startRow) * width);
+        }
+    }
+
+    private static final class BlockingShader implements DisplayShader {
+        private final CountDownLatch applyStarted = new CountDownLatch(1);
+        private final CountDownLatch releaseApply = new CountDownLatch(1);
+
+        @Override
+        public String Id() {
+            return "blocking";
+        }
+
+        @Override
+        public String DisplayName() {
+            return "Blocking";
+        }
+
+        @Override
+        public String Description() {
+            return "Test shader";
+        }
+
+        @Override
+        public boolean PreferAsyncRendering() {
+            return false;
+        }
+
+        @Override
+        public void Apply(int[] source, int[] target, int[] scratch, int width, int height) {
+            applyStarted.countDown();
+            ControlledAsyncShader.await(releaseApply);
+            System.arraycopy(source, 0, target, 0, source.length);
+        }
+    }
+
     private static final class ControlledAsyncShader implements DisplayShader {
         private final AtomicInteger applyCount = new AtomicInteger();
         private final CountDownLatch firstApplyStarted = new CountDownLatch(1);
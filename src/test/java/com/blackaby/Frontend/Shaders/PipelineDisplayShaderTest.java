@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -42,6 +43,29 @@ class PipelineDisplayShaderTest {
         assertNotEquals(source[1], target[1]);
     }
 
+    @Test
+    void scanlinesPassRoundsEveryChannelLevelOnItsOwn() {
+        int[] source = new int[256];
+        for (int level = 0; level < 256; level++) {
+            source[level] = (level << 16) | ((255 - level) << 8) | ((level * 7) & 0xFF);
+        }
+
+        for (double intensity : new double[] { 0.0, 0.25, 0.5, 0.99, 1.0 }) {
+            PipelineDisplayShader.ScanlinesPass scanlinesPass = new PipelineDisplayShader.ScanlinesPass(intensity, 1, 0);
+            int[] target = new int[source.length];
+            scanlinesPass.apply(source, target, 256, 1);
+
+            int factor256 = (int) Math.round((1.0 - intensity) * 256.0);
+            for (int index = 0; index < source.length; index++) {
+                int expected = 0;
+                for (int shift = 0; shift <= 16; shift += 8) {
+                    expected |= ((((source[index] >> shift) & 0xFF) * factor256 + 128) >> 8) << shift;
+                }
+                assertEquals(expected, target[index]);
+            }
+        }
+    }
+
     @Test
     void spriteInterpolationPassSmoothsEligibleCornersWithoutBlurringWholeCell() {
         PipelineDisplayShader.SpriteInterpolationPass interpolationPass = new PipelineDisplayShader.SpriteInterpolationPass(
@@ -157,6 +181,151 @@ class PipelineDisplayShaderTest {
         assertTrue(xbrzShader.PreferAsyncRendering());
     }
 
+    @Test
+    void rowBandsRenderTheSameFrameAsOneWholeFramePass() {
+        List<PipelineDisplayShader.ShaderPass> passes = List.of(
+                new PipelineDisplayShader.XbrzPass(),
+                new PipelineDisplayShader.BloomPass(2, 0.2, 0.4),
+                new PipelineDisplayShader.SpriteInterpolationPass(1.0, 3, 3, 2.0),
+                new PipelineDisplayShader.DotMatrixPass(0.3, 4, 4, 1.2),
+                new PipelineDisplayShader.RgbShiftPass(1, 0, -1, 1, 0.5),
+                new PipelineDisplayShader.ColorGradePass(0.02, 1.05, 0.9, 0.08));
+        int[] palette = new int[] { 0xF0F0F0, 0xCC2211, 0x1144CC, 0x202020 };
+        Random random = new Random(7);
+        int[] logical = new int[160 * 144];
+        for (int index = 0; index < logical.length; index++) {
+            logical[index] = palette[random.nextInt(palette.length)];
+        }
+        int width = 640;
+        int height = 576;
+        int[] source = expandLogical(logical, 160, 144, 4);
+
+        int[] expected = source.clone();
+        for (PipelineDisplayShader.ShaderPass pass : passes) {
+            int[] whole = new int[source.length];
+            int[] banded = new int[source.length];
+            pass.apply(expected, whole, width, height);
+
+            PipelineDisplayShader.RowBandShaderPass bandPass = (PipelineDisplayShader.RowBandShaderPass) pass;
+            int bandRows = bandPass.rowBandAlignment() * 7;
+            bandPass.prepareRows(expected, width, height);
+            for (int startRow = 0; startRow < height; startRow += bandRows) {
+                bandPass.applyRows(expected, banded, width, height, startRow, Math.min(height, startRow + bandRows));
+            }
+
+            assertArrayEquals(whole, banded);
+            expected = whole;
+        }
+
+        PipelineDisplayShader shader = new PipelineDisplayShader("banded", "Banded", "Banded pass chain", passes);
+        int[] target = new int[source.length];
+        shader.Apply(source, target, new int[source.length], width, height);
+
+        assertArrayEquals(expected, target);
+    }
+
+    @Test
+    void fusedPointwisePassesMatchRunningEachPassInTurn() {
+        List<PipelineDisplayShader.ShaderPass> passes = List.of(
+                new PipelineDisplayShader.ScanlinesPass(0.35, 2, 0),
+                new PipelineDisplayShader.VignettePass(0.4, 1.5),
+                new PipelineDisplayShader.RgbShiftPass(1, 0, -1, 1, 0.5),
+                new PipelineDisplayShader.ColorGradePass(0.02, 1.1, 0.8, 0.1),
+                new PipelineDisplayShader.PixelGridPass(0.2, 3, 3),
+                new PipelineDisplayShader.PixelOutlinePass(0.3, 4, 4, 1),
+                new PipelineDisplayShader.DotMatrixPass(0.3, 4, 4, 1.2));
+        int width = 48;
+        int height = 40;
+        Random random = new Random(11);
+        int[] source = new int[width * height];
+        for (int index = 0; index < source.length; index++) {
+            source[index] = random.nextInt(0x1000000);
+        }
+
+        int[] expected = source.clone();
+        for (PipelineDisplayShader.ShaderPass pass : passes) {
+            int[] next = new int[source.length];
+            pass.apply(expected, next, width, height);
+            expected = next;
+        }
+
+        PipelineDisplayShader shader = new PipelineDisplayShader("fused", "Fused", "Fused pass chain", passes);
+        int[] target = new int[source.length];
+        shader.Apply(source, target, new int[source.length], width, height);
+
+        assertArrayEquals(expected, target);
+    }
+
+    @Test
+    void applyRowsMatchesAFullRenderAfterSomeRowsChange() {
+        List<List<PipelineDisplayShader.ShaderPass>> chains = List.of(
+                List.of(new PipelineDisplayShader.ColorGradePass(0.02, 1.1, 0.8, 0.1),
+                        new PipelineDisplayShader.XbrzPass()),
+                List.of(new PipelineDisplayShader.ColorGradePass(0.02, 1.1, 0.8, 0.1),
+                        new PipelineDisplayShader.BloomPass(2, 0.2, 0.4)),
+                List.of(new PipelineDisplayShader.ColorGradePass(0.02, 1.1, 0.8, 0.1),
+                        new PipelineDisplayShader.RgbShiftPass(1, 2, -1, -1, 0.5)),
+                List.of(new PipelineDisplayShader.ColorGradePass(0.02, 1.1, 0.8, 0.1),
+                        new PipelineDisplayShader.SpriteInterpolationPass(1.0, 4, 4, 2.0)),
+                List.of(new PipelineDisplayShader.XbrzPass(),
+                        new PipelineDisplayShader.BloomPass(2, 0.2, 0.4),
+                        new PipelineDisplayShader.RgbShiftPass(1, 2, -1, -1, 0.5),
+                        new PipelineDisplayShader.SpriteInterpolationPass(1.0, 4, 4, 2.0),
+                        new PipelineDisplayShader.ScanlinesPass(0.3, 2, 0),
+                        new PipelineDisplayShader.VignettePass(0.4, 1.5)));
+        int[] palette = new int[] { 0xF0F0F0, 0xCC2211, 0x1144CC, 0x202020 };
+        int width = 640;
+        int height = 576;
+        int[][] changedRows = { { 60, 63 }, { 0, 1 }, { 143, 144 }, { 10, 10 } };
+        for (List<PipelineDisplayShader.ShaderPass> chain : chains) {
+            PipelineDisplayShader shader = new PipelineDisplayShader("partial", "Partial", "Partial pass chain", chain);
+            Random random = new Random(3);
+            int[] logical = new int[160 * 144];
+            for (int index = 0; index < logical.length; index++) {
+                logical[index] = palette[random.nextInt(palette.length)];
+            }
+            int[] target = new int[width * height];
+            int[] scratch = new int[width * height];
+            shader.Apply(expandLogical(logical, 160, 144, 4), target, scratch, width, height);
+
+            for (int[] rows : changedRows) {
+                for (int y = rows[0]; y < rows[1]; y++) {
+                    for (int x = 0; x < 160; x += 3) {
+                        logical[(y * 160) + x] = palette[random.nextInt(palette.length)];
+                    }
+                }
+                int[] source = expandLogical(logical, 160, 144, 4);
+                shader.ApplyRows(source, target, scratch, width, height, rows[0] * 4, rows[1] * 4);
+
+                int[] expected = new int[width * height];
+                shader.Apply(source, expected, new int[width * height], width, height);
+                assertArrayEquals(expected, target);
+            }
+        }
+    }
+
+    @Test
+    void applyRowsRendersTheWholeFrameThroughPassesWithoutRowBands() {
+        PipelineDisplayShader.ShaderPass invert = (source, target, width, height) -> {
+            for (int index = 0; index < source.length; index++) {
+                target[index] = ~source[index] & 0xFFFFFF;
+            }
+        };
+        PipelineDisplayShader shader = new PipelineDisplayShader("whole", "Whole", "Whole-frame pass",
+                List.of(invert, new PipelineDisplayShader.ScanlinesPass(0.3, 2, 0)));
+        int[] source = new int[8 * 8];
+        for (int index = 0; index < source.length; index++) {
+            source[index] = index * 0x030201;
+        }
+        int[] target = new int[source.length];
+
+        shader.ApplyRows(source, target, new int[source.length], 8, 8, 2, 3);
+
+        int[] expected = new int[source.length];
+        shader.Apply(source, expected, new int[source.length], 8, 8);
+        assertArrayEquals(expected, target);
+    }
+
     private static int[] expandLogical(int[] logical, int logicalWidth, int logicalHeight, int scale) {
         int renderWidth = logicalWidth * scale;
         int renderHeight = logicalHeight * scale;
@@ -0,0 +1,117 @@
+package com.blackaby.Frontend.Shaders;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the scalar and Vector API pixel kernels over one frame at 4x
+ * render scale, one row at a time as the shader passes and frame blending
+ * call them.
+ * <p>
+ * Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=PixelKernelsBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class PixelKernelsBenchmark {
+
+    private static final int frameWidth = 160 * 4;
+    private static final int frameHeight = 144 * 4;
+
+    @Param({ "scalar", "vector" })
+    public String kernels;
+
+    private boolean vector;
+    private int[] source;
+    private int[] target;
+    private int[] previous;
+    private int[] factors256;
+    private PixelKernels.ColorGrade grade;
+
+    @Setup
+    public void Setup() {
+        vector = "vector".equals(kernels);
+        if (vector && !PixelKernels.isVectorized()) {
+            throw new IllegalStateException("The jdk.incubator.vector module is not available");
+        }
+
+        Random random = new Random(11);
+        int pixelCount = frameWidth * frameHeight;
+        source = new int[pixelCount];
+        target = new int[pixelCount];
+        previous = new int[pixelCount];
+        factors256 = new int[pixelCount];
+        for (int index = 0; index < pixelCount; index++) {
+            source[index] = random.nextInt() & 0xFFFFFF;
+            previous[index] = random.nextInt() & 0xFFFFFF;
+            factors256[index] = random.nextInt(257);
+        }
+        grade = new PixelKernels.ColorGrade(0.02, 1.05, 0.9, 0.08);
+    }
+
+    @Benchmark
+    public int[] scaleRows() {
+        for (int offset = 0; offset < source.length; offset += frameWidth) {
+            if (vector) {
+                VectorPixelKernels.scaleRow(source, target, offset, frameWidth, 179);
+            } else {
+                ScalarPixelKernels.scaleRow(source, target, offset, frameWidth, 179);
+            }
+        }
+        return target;
+    }
+
+    @Benchmark
+    public int[] scaleRowsPerPixel() {
+        for (int offset = 0; offset < source.length; offset += frameWidth) {
+            if (vector) {
+                VectorPixelKernels.scaleRow(source, target, offset, frameWidth, factors256, offset);
+            } else {
+                ScalarPixelKernels.scaleRow(source, target, offset, frameWidth, factors256, offset);
+            }
+        }
+        return target;
+    }
+
+    @Benchmark
+    public int[] gradeRows() {
+        for (int offset = 0; offset < source.length; offset += frameWidth) {
+            if (vector) {
+                VectorPixelKernels.gradeRow(source, target, offset, frameWidth, grade);
+            } else {
+                ScalarPixelKernels.gradeRow(source, target, offset, frameWidth, grade);
+            }
+        }
+        return target;
+    }
+
+    // Blends with the DMG persistence weights.
+    @Benchmark
+    public boolean blendRows() {
+        boolean changed = false;
+        for (int offset = 0; offset < source.length; offset += frameWidth) {
+            if (vector) {
+                changed |= VectorPixelKernels.blendRow(previous, source, offset, frameWidth, 3, 5);
+            } else {
+                changed |= ScalarPixelKernels.blendRow(previous, source, offset, frameWidth, 3, 5);
+            }
+        }
+        return changed;
+    }
+}
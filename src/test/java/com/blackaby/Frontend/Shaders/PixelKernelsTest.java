@@ -0,0 +1,122 @@
+package com.blackaby.Frontend.Shaders;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PixelKernelsTest {
+
+    // Long enough to cover several full vectors plus a scalar tail at every
+    // vector width, starting at an offset that is not lane aligned.
+    private static final int rowOffset = 3;
+    private static final int rowLength = 157;
+
+    @Test
+    void kernelsUseVectorApiExactlyWhenModuleIsPresent() {
+        boolean modulePresent = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+        assertEquals(modulePresent, PixelKernels.isVectorized());
+    }
+
+    @Test
+    void vectorScaleMatchesScalarForEveryFactor() {
+        assumeTrue(PixelKernels.isVectorized());
+        int[] source = randomPixels(1);
+
+        for (int factor256 = 0; factor256 <= 256; factor256++) {
+            int[] expected = new int[source.length];
+            int[] actual = new int[source.length];
+            ScalarPixelKernels.scaleRow(source, expected, rowOffset, rowLength, factor256);
+            VectorPixelKernels.scaleRow(source, actual, rowOffset, rowLength, factor256);
+
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void vectorPerPixelScaleMatchesScalar() {
+        assumeTrue(PixelKernels.isVectorized());
+        int[] source = randomPixels(2);
+        int[] factors256 = new int[source.length];
+        Random random = new Random(3);
+        for (int index = 0; index < factors256.length; index++) {
+            factors256[index] = random.nextInt(257);
+        }
+
+        int[] expected = new int[source.length];
+        int[] actual = new int[source.length];
+        ScalarPixelKernels.scaleRow(source, expected, rowOffset, rowLength, factors256, 1);
+        VectorPixelKernels.scaleRow(source, actual, rowOffset, rowLength, factors256, 1);
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void vectorGradeMatchesScalarAcrossSettings() {
+        assumeTrue(PixelKernels.isVectorized());
+        int[] source = randomPixels(4);
+        double[][] settings = {
+                { 0.0, 1.0, 1.0, 0.0 },
+                { 0.1, 1.1, 1.2, 0.3 },
+                { -1.0, 0.2, 0.0, -1.0 },
+                { 1.0, 2.5, 2.5, 1.0 },
+                { -0.35, 1.7, 0.4, 0.65 }
+        };
+
+        for (double[] setting : settings) {
+            PixelKernels.ColorGrade grade = new PixelKernels.ColorGrade(setting[0], setting[1], setting[2],
+                    setting[3]);
+            int[] expected = new int[source.length];
+            int[] actual = new int[source.length];
+            ScalarPixelKernels.gradeRow(source, expected, rowOffset, rowLength, grade);
+            VectorPixelKernels.gradeRow(source, actual, rowOffset, rowLength, grade);
+
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void vectorBlendMatchesScalarForShiftAndDivideWeights() {
+        assumeTrue(PixelKernels.isVectorized());
+        int[] current = randomPixels(5);
+        int[][] weights = { { 1, 1 }, { 1, 3 }, { 3, 5 }, { 1, 7 }, { 100, 156 }, { 2, 3 }, { 200, 100 } };
+
+        for (int[] weight : weights) {
+            int[] expected = randomPixels(6);
+            int[] actual = expected.clone();
+            boolean expectedChanged = ScalarPixelKernels.blendRow(expected, current, rowOffset, rowLength,
+                    weight[0], weight[1]);
+            boolean actualChanged = VectorPixelKernels.blendRow(actual, current, rowOffset, rowLength,
+                    weight[0], weight[1]);
+
+            assertArrayEquals(expected, actual);
+            assertEquals(expectedChanged, actualChanged);
+        }
+    }
+
+    @Test
+    void blendReportsNoChangeWhenFramesAlreadyMatch() {
+        int[] current = new int[rowOffset + rowLength];
+        for (int index = 0; index < current.length; index++) {
+            current[index] = (index * 0x010203) & 0xFFFFFF;
+        }
+        int[] previous = current.clone();
+
+        assertFalse(PixelKernels.blendRow(previous, current, rowOffset, rowLength, 1, 1));
+        assertArrayEquals(current, previous);
+    }
+
+    private static int[] randomPixels(long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[rowOffset + rowLength + 5];
+        for (int index = 0; index < pixels.length; index++) {
+            pixels[index] = random.nextInt();
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,69 @@
+package com.blackaby.Frontend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TripleBufferTest {
+
+    @Test
+    void consumerTakesOnlyTheNewestPublishedFrame() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+
+        assertFalse(buffer.Acquire());
+        for (int frame = 1; frame <= 3; frame++) {
+            buffer.WriteSlot()[0] = frame;
+            buffer.Publish();
+        }
+
+        assertTrue(buffer.Acquire());
+        assertEquals(3, buffer.ReadSlot()[0]);
+        assertFalse(buffer.Acquire());
+        assertEquals(3, buffer.ReadSlot()[0]);
+        assertNotSame(buffer.ReadSlot(), buffer.WriteSlot());
+    }
+
+    @Test
+    void consumerThreadNeverSeesAnOlderOrTornFrame() throws InterruptedException {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[64]);
+        int totalFrames = 200_000;
+        int[] failures = new int[1];
+
+        Thread consumer = new Thread(() -> {
+            int lastFrame = 0;
+            while (lastFrame < totalFrames) {
+                if (!buffer.Acquire()) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                int[] frame = buffer.ReadSlot();
+                for (int value : frame) {
+                    if (value != frame[0]) {
+                        failures[0]++;
+                        break;
+                    }
+                }
+                if (frame[0] <= lastFrame) {
+                    failures[0]++;
+                }
+                lastFrame = frame[0];
+            }
+        });
+        consumer.start();
+
+        for (int frame = 1; frame <= totalFrames; frame++) {
+            int[] slot = buffer.WriteSlot();
+            for (int index = 0; index < slot.length; index++) {
+                slot[index] = frame;
+            }
+            buffer.Publish();
+        }
+
+        consumer.join(10_000);
+        assertFalse(consumer.isAlive());
+        assertEquals(0, failures[0]);
+    }
+}
@@ -230,7 +230,9 @@ try {
         "--main-jar", $jar.Name,
         "--main-class", $MainClass,
         "--app-version", $Version,
-        "--dest", $appImageDest
+        "--dest", $appImageDest,
+        "--add-modules", "ALL-MODULE-PATH",
+        "--java-options", "--add-modules=jdk.incubator.vector"
     )
 
     if ($iconSourcePath) {